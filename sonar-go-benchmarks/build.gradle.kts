@@ -0,0 +1,76 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+plugins {
+    id("org.sonarsource.cloud-native.java-conventions")
+    id("org.sonarsource.cloud-native.code-style-conventions")
+    alias(libs.plugins.jmh)
+}
+
+dependencies {
+    compileOnly(libs.jsr305)
+
+    implementation(libs.minimal.json)
+
+    testImplementation(libs.assertj.core)
+    testImplementation(libs.junit.jupiter.api)
+
+    testRuntimeOnly(libs.junit.jupiter.engine)
+    testRuntimeOnly(libs.junit.platform.launcher)
+
+    jmhImplementation(project(":sonar-go-plugin"))
+    jmhImplementation(project(":sonar-go-checks"))
+    jmhImplementation(project(":sonar-go-commons"))
+    jmhImplementation(project(":sonar-go-frontend"))
+    jmhImplementation(project(":sonar-go-to-slang", configuration = "goBinaries"))
+    jmhImplementation(libs.sonar.plugin.api)
+    jmhImplementation(libs.sonar.plugin.api.scanner.impl)
+    jmhImplementation(libs.sonar.sensor.test.fixtures)
+    jmhImplementation(libs.sonar.analyzer.commons)
+    jmhImplementation(libs.slf4j.api)
+}
+
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+val jmhBaseline = layout.projectDirectory.file("baseline/results.json")
+
+jmh {
+    jmhVersion = libs.versions.jmh
+    resultFormat = "JSON"
+    resultsFile = jmhResults
+}
+
+tasks.register<JavaExec>("jmhCompareBaseline") {
+    description = "Compares the results of the last JMH run with the stored baseline, and fails on regressions."
+    group = "verification"
+    mustRunAfter(tasks.named("jmh"))
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass = "org.sonar.go.benchmarks.BaselineComparison"
+    // Maximum accepted degradation of a score, 0.10 is 10%
+    val threshold = providers.gradleProperty("jmhThreshold").orElse("0.10")
+    argumentProviders.add(
+        CommandLineArgumentProvider {
+            listOf(jmhResults.get().asFile.absolutePath, jmhBaseline.asFile.absolutePath, threshold.get())
+        }
+    )
+}
+
+tasks.register<Copy>("jmhUpdateBaseline") {
+    description = "Stores the results of the last JMH run as the baseline."
+    group = "verification"
+    mustRunAfter(tasks.named("jmh"))
+    from(jmhResults)
+    into(jmhBaseline.asFile.parentFile)
+}
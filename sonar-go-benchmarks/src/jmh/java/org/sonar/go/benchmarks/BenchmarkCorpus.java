@@ -0,0 +1,99 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.sonar.go.converter.GoConverter;
+import org.sonar.plugins.go.api.Tree;
+import org.sonar.plugins.go.api.TreeOrError;
+
+/**
+ * Synthetic project shared by the benchmarks, generated with the default seed of {@link GoCorpusGenerator}.
+ */
+final class BenchmarkCorpus {
+
+  static final int PACKAGES = 10;
+  static final int FILES_PER_PACKAGE = 5;
+  static final int FUNCTIONS_PER_FILE = 10;
+
+  private BenchmarkCorpus() {
+    // Utility class
+  }
+
+  /**
+   * All the files of the project, including "go.mod", by path relative to the root of the module.
+   */
+  static SortedMap<String, String> files() {
+    return new GoCorpusGenerator().generate(PACKAGES, FILES_PER_PACKAGE, FUNCTIONS_PER_FILE);
+  }
+
+  /**
+   * The Go files of each package, as sent to the Go converter, which parses a directory at once.
+   */
+  static SortedMap<String, Map<String, String>> goFilesByPackage() {
+    SortedMap<String, Map<String, String>> packages = new TreeMap<>();
+    for (Map.Entry<String, String> file : files().entrySet()) {
+      var path = file.getKey();
+      int separatorIndex = path.lastIndexOf('/');
+      if (separatorIndex >= 0) {
+        packages.computeIfAbsent(path.substring(0, separatorIndex), k -> new TreeMap<>()).put(path, file.getValue());
+      }
+    }
+    return packages;
+  }
+
+  static long sizeInBytes(Map<String, String> files) {
+    return files.values().stream().mapToLong(content -> content.getBytes(StandardCharsets.UTF_8).length).sum();
+  }
+
+  /**
+   * Parses the Go files of the project with the Go converter, which is extracted in the working directory.
+   * The trees are returned by path of their file.
+   */
+  static SortedMap<String, Tree> parse(Path workDir) {
+    var converter = new GoConverter(workDir.toFile());
+    try {
+      SortedMap<String, Tree> trees = new TreeMap<>();
+      for (Map<String, String> goFiles : goFilesByPackage().values()) {
+        for (Map.Entry<String, TreeOrError> file : converter.parse(goFiles, GoCorpusGenerator.MODULE_NAME).entrySet()) {
+          if (file.getValue().isError()) {
+            throw new IllegalStateException("Unable to parse " + file.getKey() + ": " + file.getValue().error());
+          }
+          trees.put(file.getKey(), file.getValue().tree());
+        }
+      }
+      return trees;
+    } finally {
+      converter.terminate();
+    }
+  }
+
+  static Path createWorkDir() {
+    try {
+      return Files.createTempDirectory("sonar-go-benchmarks");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
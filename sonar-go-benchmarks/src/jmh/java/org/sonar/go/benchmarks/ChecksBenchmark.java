@@ -0,0 +1,158 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.benchmarks;
+
+import com.sonarsource.scanner.engine.sensor.test.fixtures.SensorContextTester;
+import com.sonarsource.scanner.engine.sensor.test.fixtures.TestInputFileBuilder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.check.Rule;
+import org.sonar.go.checks.GoCheckList;
+import org.sonar.go.plugin.ChecksVisitor;
+import org.sonar.go.plugin.DurationStatistics;
+import org.sonar.go.plugin.GoChecks;
+import org.sonar.go.plugin.GoLanguage;
+import org.sonar.go.plugin.GoModFileDataStore;
+import org.sonar.go.plugin.GoRulesDefinition;
+import org.sonar.go.plugin.InputFileContext;
+import org.sonar.go.visitors.SymbolVisitor;
+import org.sonar.plugins.go.api.Tree;
+import org.sonar.scanner.plugin.api.impl.rule.ActiveRulesBuilder;
+import org.sonar.scanner.plugin.api.impl.rule.NewActiveRule;
+
+/**
+ * Cost of each rule of {@link GoCheckList}, measured alone with a {@link ChecksVisitor} on the trees of the corpus.
+ * The trees are parsed and the symbols are computed once, so only the visit and the checks are measured.
+ * The main-only rules are not applied to the test files, as in the analysis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ChecksBenchmark {
+
+  // Must contain the keys of all the rules of GoCheckList, which is verified by the setup
+  @Param({"S100", "S103", "S104", "S107", "S108", "S1067", "S1110", "S1125", "S1134", "S1135", "S1145", "S1151", "S117", "S1186", "S1192",
+    "S122", "S126", "S131", "S1314", "S134", "S138", "S1451", "S1479", "S1656", "S1763", "S1764", "S1821", "S1862", "S1871", "S1940", "S2260",
+    "S2757", "S3776", "S3923", "S4144", "S4663"})
+  public String ruleKey;
+
+  private final Path baseDir = BenchmarkCorpus.createWorkDir();
+  private final List<AnalyzedFile> files = new ArrayList<>();
+  private ChecksVisitor checksVisitor;
+  private SensorContextTester context;
+  private List<InputFileContext> inputFileContexts;
+
+  private record AnalyzedFile(InputFile inputFile, Tree tree) {
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    verifyAllRulesAreMeasured();
+    var checkClass = GoCheckList.allChecks().stream()
+      .filter(check -> ruleKey(check).equals(ruleKey))
+      .findFirst()
+      .orElseThrow(() -> new IllegalStateException("Unknown rule: " + ruleKey));
+    var sources = BenchmarkCorpus.files();
+    context = SensorContextTester.create(baseDir);
+    for (Map.Entry<String, Tree> file : BenchmarkCorpus.parse(baseDir.resolve(".sonar")).entrySet()) {
+      var inputFile = inputFile(file.getKey(), sources.get(file.getKey()));
+      new SymbolVisitor<>().scan(new InputFileContext(context, inputFile), file.getValue());
+      files.add(new AnalyzedFile(inputFile, file.getValue()));
+    }
+
+    var activeRules = new ActiveRulesBuilder()
+      .addRule(new NewActiveRule.Builder().setRuleKey(RuleKey.of(GoRulesDefinition.REPOSITORY_KEY, ruleKey)).setName(ruleKey).build())
+      .build();
+    var goChecks = new GoChecks(new CheckFactory(activeRules)).addChecks(GoRulesDefinition.REPOSITORY_KEY, List.of(checkClass));
+    var applicableToTestFiles = GoCheckList.mainAndTestChecks().contains(checkClass);
+    checksVisitor = new ChecksVisitor(goChecks, new DurationStatistics(context.config()), new GoModFileDataStore(), applicableToTestFiles);
+  }
+
+  /**
+   * The issues are stored by the sensor context, so a new one is used for each invocation.
+   */
+  @Setup(Level.Invocation)
+  public void setUpContext() {
+    context = SensorContextTester.create(baseDir);
+    inputFileContexts = files.stream()
+      .map(file -> new InputFileContext(context, file.inputFile(), file.inputFile().type() == InputFile.Type.TEST))
+      .toList();
+  }
+
+  @Benchmark
+  public SensorContextTester checks() {
+    for (int i = 0; i < files.size(); i++) {
+      var inputFileContext = inputFileContexts.get(i);
+      if (checksVisitor.isApplicableTo(inputFileContext)) {
+        checksVisitor.scan(inputFileContext, files.get(i).tree());
+      }
+    }
+    return context;
+  }
+
+  private InputFile inputFile(String path, String content) {
+    return new TestInputFileBuilder("moduleKey", path)
+      .setModuleBaseDir(baseDir)
+      .setLanguage(GoLanguage.KEY)
+      .setCharset(StandardCharsets.UTF_8)
+      .setContents(content)
+      .setType(path.endsWith("_test.go") ? InputFile.Type.TEST : InputFile.Type.MAIN)
+      .build();
+  }
+
+  private static void verifyAllRulesAreMeasured() {
+    Set<String> expected = new TreeSet<>();
+    GoCheckList.allChecks().forEach(check -> expected.add(ruleKey(check)));
+    Set<String> measured = new TreeSet<>();
+    try {
+      measured.addAll(List.of(ChecksBenchmark.class.getField("ruleKey").getAnnotation(Param.class).value()));
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException(e);
+    }
+    if (!measured.equals(expected)) {
+      throw new IllegalStateException("The rule keys of the benchmark " + measured + " do not match the rules of GoCheckList " + expected);
+    }
+  }
+
+  private static String ruleKey(Class<?> check) {
+    return check.getAnnotation(Rule.class).key();
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.go.converter.GoParseCommand;
+import org.sonar.go.persistence.BinaryTree;
+import org.sonar.go.persistence.JsonTree;
+
+/**
+ * Conversion of the documents produced by the Go converter into trees, in the JSON and in the binary formats.
+ * The documents of all the packages of the corpus are produced once, so only the Java side is measured. Besides the
+ * number of conversions of the whole corpus per second, the "sourceKilobytes" counter gives the throughput in
+ * kilobytes of Go source per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DeserializationBenchmark {
+
+  private final List<String> jsonDocuments = new ArrayList<>();
+  private final List<byte[]> binaryDocuments = new ArrayList<>();
+  private long corpusKilobytes;
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class SourceSize {
+    public long sourceKilobytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      sourceKilobytes = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    var command = new GoParseCommand(BenchmarkCorpus.createWorkDir().toFile());
+    try {
+      long sourceBytes = 0;
+      for (Map<String, String> goFiles : BenchmarkCorpus.goFilesByPackage().values()) {
+        jsonDocuments.add(command.executeGoParseCommand(goFiles, GoCorpusGenerator.MODULE_NAME));
+        binaryDocuments.add(command.executeGoParseCommandBinary(goFiles, GoCorpusGenerator.MODULE_NAME));
+        sourceBytes += BenchmarkCorpus.sizeInBytes(goFiles);
+      }
+      corpusKilobytes = Math.max(1, sourceBytes / 1024);
+    } finally {
+      command.terminate();
+    }
+  }
+
+  @Benchmark
+  public void json(SourceSize size, Blackhole blackhole) {
+    for (String document : jsonDocuments) {
+      JsonTree.fromJson(document, (fileName, treeOrError) -> blackhole.consume(treeOrError));
+    }
+    size.sourceKilobytes += corpusKilobytes;
+  }
+
+  @Benchmark
+  public void binary(SourceSize size, Blackhole blackhole) {
+    for (byte[] document : binaryDocuments) {
+      BinaryTree.fromBinary(document, (fileName, treeOrError) -> blackhole.consume(treeOrError));
+    }
+    size.sourceKilobytes += corpusKilobytes;
+  }
+}
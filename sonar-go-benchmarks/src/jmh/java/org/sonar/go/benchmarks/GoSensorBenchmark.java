@@ -0,0 +1,132 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.benchmarks;
+
+import com.sonarsource.scanner.engine.sensor.test.fixtures.SensorContextTester;
+import com.sonarsource.scanner.engine.sensor.test.fixtures.TestInputFileBuilder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.measures.FileLinesContext;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.check.Rule;
+import org.sonar.go.checks.GoCheckList;
+import org.sonar.go.converter.GoConverter;
+import org.sonar.go.plugin.GoLanguage;
+import org.sonar.go.plugin.GoProjectSensor;
+import org.sonar.go.plugin.GoRulesDefinition;
+import org.sonar.go.plugin.GoSensor;
+import org.sonar.scanner.plugin.api.impl.config.MapSettings;
+import org.sonar.scanner.plugin.api.impl.rule.ActiveRulesBuilder;
+import org.sonar.scanner.plugin.api.impl.rule.NewActiveRule;
+import org.sonar.scanner.plugin.api.impl.sensor.issue.DefaultNoSonarFilter;
+
+/**
+ * Full analysis of the synthetic project by {@link GoSensor}, with all the rules of {@link GoCheckList} active: parsing by
+ * the Go converter, conversion of the trees, metrics, highlighting, CPD tokens and checks.
+ * A new sensor context is created for each analysis, so nothing is reused from one analysis to the next one,
+ * except the Go converter executable extracted in the working directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class GoSensorBenchmark {
+
+  private Path baseDir;
+  private GoConverter goConverter;
+  private SensorContextTester context;
+
+  @Setup(Level.Trial)
+  public void setUpConverter() {
+    baseDir = BenchmarkCorpus.createWorkDir();
+    goConverter = new GoConverter(baseDir.resolve(".sonar").toFile());
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpContext() {
+    context = SensorContextTester.create(baseDir);
+    var activeRules = new ActiveRulesBuilder();
+    for (Class<?> check : GoCheckList.allChecks()) {
+      var ruleKey = check.getAnnotation(Rule.class).key();
+      activeRules.addRule(new NewActiveRule.Builder()
+        .setRuleKey(RuleKey.of(GoRulesDefinition.REPOSITORY_KEY, ruleKey))
+        .setName(ruleKey)
+        .build());
+    }
+    context.setActiveRules(activeRules.build());
+    for (Map.Entry<String, String> file : BenchmarkCorpus.files().entrySet()) {
+      var path = file.getKey();
+      var builder = new TestInputFileBuilder("moduleKey", path)
+        .setModuleBaseDir(baseDir)
+        .setCharset(StandardCharsets.UTF_8)
+        .setContents(file.getValue())
+        .setType(path.endsWith("_test.go") ? InputFile.Type.TEST : InputFile.Type.MAIN);
+      if (path.endsWith(".go")) {
+        builder.setLanguage(GoLanguage.KEY);
+      }
+      context.fileSystem().add(builder.build());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    goConverter.terminate();
+  }
+
+  @Benchmark
+  public SensorContextTester analysis() {
+    var sensor = new GoSensor(new CheckFactory(context.activeRules()), inputFile -> new NoOpFileLinesContext(), new DefaultNoSonarFilter(),
+      new GoLanguage(new MapSettings().asConfig()), goConverter, new GoProjectSensor());
+    sensor.execute(context);
+    return context;
+  }
+
+  private static class NoOpFileLinesContext implements FileLinesContext {
+    @Override
+    public void setIntValue(String metricKey, int line, int value) {
+      // The metrics are not stored
+    }
+
+    @Override
+    public void setStringValue(String metricKey, int line, String value) {
+      // The metrics are not stored
+    }
+
+    @Override
+    public void save() {
+      // The metrics are not stored
+    }
+  }
+}
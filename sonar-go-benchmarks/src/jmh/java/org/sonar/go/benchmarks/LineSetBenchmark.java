@@ -0,0 +1,92 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.benchmarks;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.go.utils.LineSet;
+
+/**
+ * Collection of the lines of code of a generated file, as done for the metrics, with a {@link HashSet} of boxed lines
+ * and with a {@link LineSet}. The tokens are on consecutive lines, a few of them spanning several lines like raw
+ * strings. The point is the allocation, so run it with the GC profiler: {@code -prof gc} reports the bytes allocated
+ * per operation as "gc.alloc.rate.norm".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LineSetBenchmark {
+
+  private static final int TOKENS_PER_LINE = 5;
+
+  @Param({"50000"})
+  public int numberOfLines;
+
+  // Start and end line of each token
+  private int[] startLines;
+  private int[] endLines;
+
+  @Setup
+  public void setUp() {
+    startLines = new int[numberOfLines * TOKENS_PER_LINE];
+    endLines = new int[startLines.length];
+    for (int i = 0; i < startLines.length; i++) {
+      int line = 1 + i / TOKENS_PER_LINE;
+      startLines[i] = line;
+      // One token out of a hundred is a raw string of three lines
+      endLines[i] = i % 100 == 0 ? Math.min(line + 2, numberOfLines) : line;
+    }
+  }
+
+  @Benchmark
+  public void hashSet(Blackhole blackhole) {
+    Set<Integer> lines = new HashSet<>();
+    for (int i = 0; i < startLines.length; i++) {
+      for (int line = startLines[i]; line <= endLines[i]; line++) {
+        lines.add(line);
+      }
+    }
+    for (int line : lines) {
+      blackhole.consume(line);
+    }
+  }
+
+  @Benchmark
+  public void lineSet(Blackhole blackhole) {
+    var lines = new LineSet();
+    for (int i = 0; i < startLines.length; i++) {
+      lines.addRange(startLines[i], endLines[i]);
+    }
+    lines.forEachLine(blackhole::consume);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.go.converter.GoParseCommand;
+import org.sonar.go.persistence.BinaryTree;
+import org.sonar.go.visitors.SymbolVisitor;
+import org.sonar.go.visitors.TreeContext;
+import org.sonar.plugins.go.api.Tree;
+
+/**
+ * Building of the symbols and usages of all the files of the corpus by {@link SymbolVisitor}. A symbol can only be set
+ * once on an identifier, so the trees are converted again from the documents of the Go converter before each
+ * invocation, outside of the measurement. The point is mostly the allocation, so run it with the GC profiler:
+ * {@code -prof gc} reports the bytes allocated per operation as "gc.alloc.rate.norm".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SymbolVisitorBenchmark {
+
+  private final List<byte[]> binaryDocuments = new ArrayList<>();
+  private final List<Tree> trees = new ArrayList<>();
+  private final SymbolVisitor<TreeContext> visitor = new SymbolVisitor<>();
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    var command = new GoParseCommand(BenchmarkCorpus.createWorkDir().toFile());
+    try {
+      for (Map<String, String> goFiles : BenchmarkCorpus.goFilesByPackage().values()) {
+        binaryDocuments.add(command.executeGoParseCommandBinary(goFiles, GoCorpusGenerator.MODULE_NAME));
+      }
+    } finally {
+      command.terminate();
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void convertTrees() {
+    trees.clear();
+    for (byte[] document : binaryDocuments) {
+      BinaryTree.fromBinary(document, (fileName, treeOrError) -> trees.add(treeOrError.tree()));
+    }
+  }
+
+  @Benchmark
+  public void buildSymbols() {
+    for (Tree tree : trees) {
+      visitor.scan(new TreeContext(), tree);
+    }
+  }
+}
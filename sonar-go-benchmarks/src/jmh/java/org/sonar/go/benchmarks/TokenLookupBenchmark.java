@@ -0,0 +1,89 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.go.impl.TreeMetaDataProvider;
+import org.sonar.plugins.go.api.TextRange;
+import org.sonar.plugins.go.api.Tree;
+
+/**
+ * Lookups of {@link TreeMetaDataProvider}, done for the text range of every node of the corpus, as the checks and the
+ * converter do on the nodes they visit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TokenLookupBenchmark {
+
+  private final List<FileRanges> files = new ArrayList<>();
+
+  private record FileRanges(TreeMetaDataProvider provider, List<TextRange> ranges) {
+  }
+
+  @Setup
+  public void setUp() {
+    for (Tree tree : BenchmarkCorpus.parse(BenchmarkCorpus.createWorkDir()).values()) {
+      var metaData = tree.metaData();
+      var provider = new TreeMetaDataProvider(metaData.commentsInside(), metaData.tokens());
+      files.add(new FileRanges(provider, tree.descendants().map(Tree::textRange).toList()));
+    }
+  }
+
+  @Benchmark
+  public void firstToken(Blackhole blackhole) {
+    for (FileRanges file : files) {
+      for (TextRange range : file.ranges()) {
+        blackhole.consume(file.provider().firstToken(range));
+      }
+    }
+  }
+
+  @Benchmark
+  public void previousToken(Blackhole blackhole) {
+    for (FileRanges file : files) {
+      for (TextRange range : file.ranges()) {
+        blackhole.consume(file.provider().previousToken(range));
+      }
+    }
+  }
+
+  @Benchmark
+  public void metaDataTokens(Blackhole blackhole) {
+    for (FileRanges file : files) {
+      for (TextRange range : file.ranges()) {
+        blackhole.consume(file.provider().metaData(range).tokens());
+      }
+    }
+  }
+}
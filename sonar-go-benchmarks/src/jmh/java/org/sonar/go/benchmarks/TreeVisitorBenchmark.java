@@ -0,0 +1,99 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.go.visitors.TreeContext;
+import org.sonar.go.visitors.TreeVisitor;
+import org.sonar.plugins.go.api.AssignmentExpressionTree;
+import org.sonar.plugins.go.api.BinaryExpressionTree;
+import org.sonar.plugins.go.api.BlockTree;
+import org.sonar.plugins.go.api.FunctionDeclarationTree;
+import org.sonar.plugins.go.api.FunctionInvocationTree;
+import org.sonar.plugins.go.api.IdentifierTree;
+import org.sonar.plugins.go.api.IfTree;
+import org.sonar.plugins.go.api.LiteralTree;
+import org.sonar.plugins.go.api.LoopTree;
+import org.sonar.plugins.go.api.MatchTree;
+import org.sonar.plugins.go.api.StringLiteralTree;
+import org.sonar.plugins.go.api.TopLevelTree;
+import org.sonar.plugins.go.api.Tree;
+import org.sonar.plugins.go.api.VariableDeclarationTree;
+
+/**
+ * Dispatch of the nodes to the consumers registered in a {@link TreeVisitor}. The visitor has about as many consumers
+ * as all the rules together, registered on the interfaces subscribed by the checks, so most of the consumers do not
+ * apply to a given node. The "visits" counter gives the number of visited nodes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TreeVisitorBenchmark {
+
+  private static final List<Class<? extends Tree>> SUBSCRIBED_CLASSES = List.of(Tree.class, TopLevelTree.class, FunctionDeclarationTree.class,
+    BlockTree.class, IfTree.class, LoopTree.class, MatchTree.class, BinaryExpressionTree.class, AssignmentExpressionTree.class,
+    VariableDeclarationTree.class, FunctionInvocationTree.class, IdentifierTree.class, LiteralTree.class, StringLiteralTree.class);
+  private static final int CONSUMERS = 40;
+
+  private List<Tree> trees;
+  private final TreeVisitor<TreeContext> visitor = new TreeVisitor<>();
+  private long nodes;
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Visits {
+    public long visits;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      visits = 0;
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    trees = List.copyOf(BenchmarkCorpus.parse(BenchmarkCorpus.createWorkDir()).values());
+    nodes = trees.stream().mapToLong(tree -> 1 + tree.descendants().count()).sum();
+    for (int i = 0; i < CONSUMERS; i++) {
+      visitor.register(SUBSCRIBED_CLASSES.get(i % SUBSCRIBED_CLASSES.size()), (ctx, tree) -> ctx.ancestors().size());
+    }
+  }
+
+  @Benchmark
+  public void visit(Visits visits) {
+    for (Tree tree : trees) {
+      visitor.scan(new TreeContext(), tree);
+    }
+    visits.visits += nodes;
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.benchmarks;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+/**
+ * Compares the JSON results of a JMH run with the results stored as baseline, and fails if the score of a benchmark
+ * is worse than the baseline by more than the threshold. The benchmarks are matched by name and parameters, the ones
+ * which are not in the baseline are only reported.
+ * <p>
+ * No baseline is stored in the repository, as the scores depend on the machine: the comparison is skipped until one is
+ * stored with the "jmhUpdateBaseline" task.
+ */
+public final class BaselineComparison {
+
+  private static final String THROUGHPUT_MODE = "thrpt";
+
+  private BaselineComparison() {
+    // Utility class
+  }
+
+  /**
+   * Arguments: &lt;JMH results file&gt; &lt;baseline file&gt; &lt;threshold&gt;, the threshold being the maximum accepted
+   * degradation of a score, e.g. 0.10 for 10%.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 3) {
+      throw new IllegalArgumentException("Usage: BaselineComparison <JMH results file> <baseline file> <threshold>");
+    }
+    var results = Path.of(args[0]);
+    var baseline = Path.of(args[1]);
+    if (!Files.exists(results)) {
+      throw new IllegalStateException("No JMH results found at " + results + ", run the \"jmh\" task first");
+    }
+    if (!Files.exists(baseline)) {
+      System.out.println("No baseline found at " + baseline + ", the comparison is skipped. Run the \"jmhUpdateBaseline\" task to store one.");
+      return;
+    }
+    var comparisons = compare(Files.readString(results), Files.readString(baseline), Double.parseDouble(args[2]));
+    comparisons.forEach(comparison -> System.out.println(comparison.report()));
+    var regressions = comparisons.stream().filter(Comparison::isRegression).map(Comparison::report).toList();
+    if (!regressions.isEmpty()) {
+      throw new IllegalStateException("Performance regressions compared to the baseline:\n" + String.join("\n", regressions));
+    }
+  }
+
+  static List<Comparison> compare(String resultsJson, String baselineJson, double threshold) {
+    var baseline = scoresByKey(baselineJson);
+    List<Comparison> comparisons = new ArrayList<>();
+    for (Map.Entry<String, Score> result : scoresByKey(resultsJson).entrySet()) {
+      comparisons.add(new Comparison(result.getKey(), result.getValue(), baseline.get(result.getKey()), threshold));
+    }
+    return comparisons;
+  }
+
+  private static Map<String, Score> scoresByKey(String json) {
+    Map<String, Score> scores = new LinkedHashMap<>();
+    for (JsonValue value : Json.parse(json).asArray()) {
+      var benchmark = value.asObject();
+      var primaryMetric = benchmark.get("primaryMetric").asObject();
+      var score = new Score(benchmark.get("mode").asString(), primaryMetric.get("score").asDouble(), primaryMetric.get("scoreUnit").asString());
+      scores.put(key(benchmark), score);
+    }
+    return scores;
+  }
+
+  private static String key(JsonObject benchmark) {
+    var name = benchmark.get("benchmark").asString();
+    var params = benchmark.get("params");
+    if (params == null || !params.isObject()) {
+      return name;
+    }
+    Map<String, String> sortedParams = new TreeMap<>();
+    for (JsonObject.Member member : params.asObject()) {
+      sortedParams.put(member.getName(), member.getValue().asString());
+    }
+    return name + sortedParams;
+  }
+
+  record Score(String mode, double value, String unit) {
+    /**
+     * Only the throughput is better when it is higher, the other modes measure a time.
+     */
+    boolean isWorseThan(Score baseline, double threshold) {
+      if (THROUGHPUT_MODE.equals(mode)) {
+        return value < baseline.value * (1 - threshold);
+      }
+      return value > baseline.value * (1 + threshold);
+    }
+  }
+
+  record Comparison(String benchmark, Score score, @Nullable Score baseline, double threshold) {
+    boolean isRegression() {
+      return baseline != null && baseline.mode().equals(score.mode()) && score.isWorseThan(baseline, threshold);
+    }
+
+    String report() {
+      if (baseline == null) {
+        return String.format(Locale.ROOT, "%s: %.3f %s (not in the baseline)", benchmark, score.value(), score.unit());
+      }
+      var change = baseline.value() == 0 ? 0 : (score.value() - baseline.value()) / baseline.value() * 100;
+      return String.format(Locale.ROOT, "%s: %.3f %s, baseline %.3f %s (%+.1f%%)%s", benchmark, score.value(), score.unit(), baseline.value(), baseline.unit(), change,
+        isRegression() ? " REGRESSION" : "");
+    }
+  }
+}
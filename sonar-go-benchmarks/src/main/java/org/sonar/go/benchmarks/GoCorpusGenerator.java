@@ -0,0 +1,197 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Generates a synthetic Go project, made of several packages importing each other, for the benchmarks.
+ * The generation only depends on the seed, so the same corpus is measured from one run to another.
+ * The statements are chosen among templates covering the constructs visited by the checks: loops, conditions,
+ * switches, closures, maps, duplicated string literals, comments...
+ */
+public final class GoCorpusGenerator {
+
+  public static final long DEFAULT_SEED = 42L;
+  public static final String MODULE_NAME = "example.com/benchmark";
+
+  private static final int MIN_STATEMENTS = 3;
+  private static final int MAX_STATEMENTS = 8;
+  private static final String[] STATEMENT_TEMPLATES = {
+    """
+    	for i, value := range values {
+    		if value%%2 == 0 {
+    			total += value * i
+    		} else {
+    			total -= value
+    		}
+    	}
+    """,
+    """
+    	switch len(values) {
+    	case 0:
+    		total++
+    	case 1, 2:
+    		total += values[0]
+    	default:
+    		total += values[len(values)-1]
+    	}
+    """,
+    """
+    	add%1$d := func(x int) int {
+    		return x + total
+    	}
+    	total = add%1$d(len(name))
+    """,
+    """
+    	if strings.HasPrefix(name, "benchmark-value") || strings.HasSuffix(name, "benchmark-value") || name == "benchmark-value" {
+    		total += 3
+    	}
+    """,
+    """
+    	counts%1$d := map[string]int{}
+    	for _, value := range values {
+    		counts%1$d[fmt.Sprint(value)]++
+    	}
+    	total += len(counts%1$d)
+    """,
+    """
+    	if total > 10 {
+    		if total > 100 {
+    			if total > 1000 {
+    				total = 1000
+    			}
+    		}
+    	}
+    """,
+    """
+    	// TODO handle the negative totals
+    	if total < 0 {
+    		total = -total
+    	}
+    """,
+    """
+    	item%1$d := Item{Name: name, Value: total}
+    	total = item%1$d.Value
+    """
+  };
+
+  private final Random random;
+
+  public GoCorpusGenerator() {
+    this(DEFAULT_SEED);
+  }
+
+  public GoCorpusGenerator(long seed) {
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Returns the content of each file of the project, by path relative to the root of the module: the "go.mod" file, then
+   * "pkg&lt;N&gt;/file&lt;M&gt;.go" and one "pkg&lt;N&gt;/pkg&lt;N&gt;_test.go" file per package.
+   * Each package, except the first one, imports the previous package.
+   */
+  public SortedMap<String, String> generate(int packages, int filesPerPackage, int functionsPerFile) {
+    SortedMap<String, String> files = new TreeMap<>();
+    files.put("go.mod", "module " + MODULE_NAME + "\n\ngo 1.22\n");
+    for (int pkg = 0; pkg < packages; pkg++) {
+      for (int file = 0; file < filesPerPackage; file++) {
+        files.put(packageName(pkg) + "/file" + file + ".go", goFile(pkg, file, filesPerPackage, functionsPerFile));
+      }
+      files.put(packageName(pkg) + "/" + packageName(pkg) + "_test.go", testFile(pkg));
+    }
+    return files;
+  }
+
+  private String goFile(int pkg, int file, int filesPerPackage, int functionsPerFile) {
+    var sb = new StringBuilder();
+    sb.append("package ").append(packageName(pkg)).append("\n\n");
+    sb.append("import (\n\t\"errors\"\n\t\"fmt\"\n\t\"strings\"\n");
+    if (pkg > 0) {
+      sb.append("\n\t\"").append(MODULE_NAME).append('/').append(packageName(pkg - 1)).append("\"\n");
+    }
+    sb.append(")\n\n");
+    if (file == 0) {
+      sb.append("type Item struct {\n\tName  string\n\tValue int\n}\n\n");
+    }
+    for (int function = 0; function < functionsPerFile; function++) {
+      sb.append("func ").append(functionName(pkg, file, function)).append("(values []int, name string) (int, error) {\n");
+      sb.append("\tif name == \"\" {\n\t\treturn 0, errors.New(\"empty name\")\n\t}\n");
+      sb.append("\ttotal := len(strings.TrimSpace(name))\n");
+      sb.append("\ttotal += len(fmt.Sprintf(\"%s-%d\", name, len(values)))\n");
+      int statements = MIN_STATEMENTS + random.nextInt(MAX_STATEMENTS - MIN_STATEMENTS + 1);
+      for (int statement = 0; statement < statements; statement++) {
+        sb.append(STATEMENT_TEMPLATES[random.nextInt(STATEMENT_TEMPLATES.length)].formatted(statement));
+      }
+      if (pkg > 0) {
+        var callee = packageName(pkg - 1) + "." + functionName(pkg - 1, random.nextInt(filesPerPackage), random.nextInt(functionsPerFile));
+        sb.append("\tif other, err := ").append(callee).append("(values, name); err == nil {\n\t\ttotal += other\n\t}\n");
+      }
+      sb.append("\treturn total, nil\n}\n\n");
+    }
+    return sb.toString();
+  }
+
+  private static String testFile(int pkg) {
+    var function = functionName(pkg, 0, 0);
+    return "package " + packageName(pkg) + "\n\n" +
+      "import \"testing\"\n\n" +
+      "func Test" + function + "(t *testing.T) {\n" +
+      "\tif _, err := " + function + "([]int{1, 2, 3}, \"test\"); err != nil {\n" +
+      "\t\tt.Fatal(err)\n" +
+      "\t}\n" +
+      "}\n";
+  }
+
+  private static String packageName(int pkg) {
+    return "pkg" + pkg;
+  }
+
+  private static String functionName(int pkg, int file, int function) {
+    return "FunctionP" + pkg + "F" + file + "N" + function;
+  }
+
+  /**
+   * Writes the corpus in a directory, to measure an analysis of it outside the benchmarks.
+   * Arguments: &lt;output directory&gt; [packages] [files per package] [functions per file] [seed]
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      throw new IllegalArgumentException("Usage: GoCorpusGenerator <output directory> [packages] [files per package] [functions per file] [seed]");
+    }
+    var outputDirectory = Path.of(args[0]);
+    int packages = intArgument(args, 1, 10);
+    int filesPerPackage = intArgument(args, 2, 5);
+    int functionsPerFile = intArgument(args, 3, 10);
+    long seed = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_SEED;
+    for (Map.Entry<String, String> file : new GoCorpusGenerator(seed).generate(packages, filesPerPackage, functionsPerFile).entrySet()) {
+      var path = outputDirectory.resolve(file.getKey());
+      Files.createDirectories(path.getParent());
+      Files.writeString(path, file.getValue());
+    }
+  }
+
+  private static int intArgument(String[] args, int index, int defaultValue) {
+    return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BaselineComparisonTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldDetectALowerThroughput() {
+    var comparisons = BaselineComparison.compare(results("thrpt", 85.0), results("thrpt", 100.0), 0.10);
+
+    assertThat(comparisons).hasSize(1);
+    assertThat(comparisons.get(0).isRegression()).isTrue();
+    assertThat(comparisons.get(0).report()).isEqualTo("org.sonar.go.Bench.parse{size=large}: 85.000 ops/s, baseline 100.000 ops/s (-15.0%) REGRESSION");
+  }
+
+  @Test
+  void shouldAcceptAThroughputWithinTheThreshold() {
+    var comparisons = BaselineComparison.compare(results("thrpt", 95.0), results("thrpt", 100.0), 0.10);
+
+    assertThat(comparisons.get(0).isRegression()).isFalse();
+    assertThat(comparisons.get(0).report()).isEqualTo("org.sonar.go.Bench.parse{size=large}: 95.000 ops/s, baseline 100.000 ops/s (-5.0%)");
+  }
+
+  @Test
+  void shouldDetectAHigherTime() {
+    assertThat(BaselineComparison.compare(results("avgt", 115.0), results("avgt", 100.0), 0.10).get(0).isRegression()).isTrue();
+    assertThat(BaselineComparison.compare(results("ss", 85.0), results("ss", 100.0), 0.10).get(0).isRegression()).isFalse();
+  }
+
+  @Test
+  void shouldReportTheBenchmarksWhichAreNotInTheBaseline() {
+    var comparisons = BaselineComparison.compare(results("thrpt", 10.0), "[]", 0.10);
+
+    assertThat(comparisons.get(0).isRegression()).isFalse();
+    assertThat(comparisons.get(0).report()).isEqualTo("org.sonar.go.Bench.parse{size=large}: 10.000 ops/s (not in the baseline)");
+  }
+
+  @Test
+  void shouldMatchTheBenchmarksByParameters() {
+    var baseline = results("thrpt", 100.0).replace("large", "small");
+
+    assertThat(BaselineComparison.compare(results("thrpt", 10.0), baseline, 0.10).get(0).baseline()).isNull();
+  }
+
+  @Test
+  void shouldFailOnRegression() throws IOException {
+    var resultsFile = Files.writeString(tempDir.resolve("results.json"), results("thrpt", 50.0));
+    var baselineFile = Files.writeString(tempDir.resolve("baseline.json"), results("thrpt", 100.0));
+    var args = new String[] {resultsFile.toString(), baselineFile.toString(), "0.10"};
+
+    assertThatThrownBy(() -> BaselineComparison.main(args))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Performance regressions compared to the baseline:\norg.sonar.go.Bench.parse{size=large}: 50.000 ops/s, baseline 100.000 ops/s (-50.0%) REGRESSION");
+    assertThatNoException().isThrownBy(() -> BaselineComparison.main(new String[] {resultsFile.toString(), baselineFile.toString(), "0.60"}));
+  }
+
+  @Test
+  void shouldSkipTheComparisonWithoutBaseline() throws IOException {
+    var resultsFile = Files.writeString(tempDir.resolve("results.json"), results("thrpt", 50.0));
+    var args = new String[] {resultsFile.toString(), tempDir.resolve("missing.json").toString(), "0.10"};
+    var output = new ByteArrayOutputStream();
+    var standardOutput = System.out;
+    System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+    try {
+      assertThatNoException().isThrownBy(() -> BaselineComparison.main(args));
+    } finally {
+      System.setOut(standardOutput);
+    }
+
+    assertThat(output.toString(StandardCharsets.UTF_8)).contains("the comparison is skipped. Run the \"jmhUpdateBaseline\" task to store one.");
+  }
+
+  @Test
+  void shouldFailWithoutResults() {
+    var args = new String[] {tempDir.resolve("missing.json").toString(), tempDir.resolve("baseline.json").toString(), "0.10"};
+
+    assertThatThrownBy(() -> BaselineComparison.main(args))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageContaining("run the \"jmh\" task first");
+  }
+
+  private static String results(String mode, double score) {
+    return """
+      [{
+        "benchmark": "org.sonar.go.Bench.parse",
+        "mode": "%s",
+        "params": {"size": "large"},
+        "primaryMetric": {"score": %s, "scoreUnit": "ops/s"}
+      }]""".formatted(mode, score);
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GoCorpusGeneratorTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldGenerateTheSameCorpusForTheSameSeed() {
+    var corpus = new GoCorpusGenerator(7).generate(3, 2, 4);
+
+    assertThat(new GoCorpusGenerator(7).generate(3, 2, 4)).isEqualTo(corpus);
+    assertThat(new GoCorpusGenerator(8).generate(3, 2, 4)).isNotEqualTo(corpus);
+  }
+
+  @Test
+  void shouldGenerateTheFilesOfEachPackage() {
+    var corpus = new GoCorpusGenerator().generate(2, 2, 3);
+
+    assertThat(corpus).containsOnlyKeys("go.mod",
+      "pkg0/file0.go", "pkg0/file1.go", "pkg0/pkg0_test.go",
+      "pkg1/file0.go", "pkg1/file1.go", "pkg1/pkg1_test.go");
+    assertThat(corpus.get("go.mod")).startsWith("module example.com/benchmark\n");
+    assertThat(corpus.get("pkg0/file0.go"))
+      .startsWith("package pkg0\n")
+      .contains("type Item struct", "func FunctionP0F0N0(", "func FunctionP0F0N2(")
+      .doesNotContain("example.com/benchmark/");
+    assertThat(corpus.get("pkg1/file1.go"))
+      .contains("\"example.com/benchmark/pkg0\"", "pkg0.FunctionP0F", "func FunctionP1F1N2(")
+      .doesNotContain("type Item struct");
+    assertThat(corpus.get("pkg1/pkg1_test.go")).contains("func TestFunctionP1F0N0(t *testing.T)");
+  }
+
+  @Test
+  void shouldWriteTheCorpusInADirectory() throws IOException {
+    GoCorpusGenerator.main(new String[] {tempDir.toString(), "2", "1", "1", "3"});
+
+    assertThat(tempDir.resolve("go.mod")).exists();
+    assertThat(Files.readString(tempDir.resolve("pkg1/file0.go"))).isEqualTo(new GoCorpusGenerator(3).generate(2, 1, 1).get("pkg1/file0.go"));
+  }
+
+  @Test
+  void shouldFailWithoutOutputDirectory() {
+    assertThatThrownBy(() -> GoCorpusGenerator.main(new String[0]))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageStartingWith("Usage: GoCorpusGenerator");
+  }
+}
@@ -27,6 +27,7 @@ import org.sonar.plugins.go.api.checks.GoCheck;
 import org.sonar.plugins.go.api.checks.InitContext;
 
 import static org.sonar.go.utils.SyntacticEquivalence.areEquivalent;
+import static org.sonar.go.utils.SyntacticEquivalence.structuralHash;
 
 public abstract class AbstractBranchDuplicationCheck implements GoCheck {
 
@@ -84,10 +85,14 @@ public abstract class AbstractBranchDuplicationCheck implements GoCheck {
     }
 
     private boolean allBranchesAreIdentical() {
-      return branches.size() > 1 &&
-        branches.stream()
-          .skip(1)
-          .allMatch(branch -> areEquivalent(branches.get(0), branch));
+      if (branches.size() < 2) {
+        return false;
+      }
+      Tree firstBranch = branches.get(0);
+      int firstHash = structuralHash(firstBranch);
+      return branches.stream()
+        .skip(1)
+        .allMatch(branch -> structuralHash(branch) == firstHash && areEquivalent(firstBranch, branch));
     }
   }
 
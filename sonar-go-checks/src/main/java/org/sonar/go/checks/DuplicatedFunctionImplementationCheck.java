@@ -19,25 +19,26 @@ package org.sonar.go.checks;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.IntStream;
 import org.sonar.check.Rule;
 import org.sonar.go.utils.TreeUtils;
-import org.sonar.go.visitors.TreeContext;
-import org.sonar.go.visitors.TreeVisitor;
 import org.sonar.plugins.go.api.BlockTree;
 import org.sonar.plugins.go.api.FunctionDeclarationTree;
 import org.sonar.plugins.go.api.IdentifierTree;
 import org.sonar.plugins.go.api.TopLevelTree;
 import org.sonar.plugins.go.api.Tree;
+import org.sonar.plugins.go.api.TreeIndex;
 import org.sonar.plugins.go.api.checks.CheckContext;
 import org.sonar.plugins.go.api.checks.GoCheck;
 import org.sonar.plugins.go.api.checks.InitContext;
 import org.sonar.plugins.go.api.checks.SecondaryLocation;
 
 import static org.sonar.go.utils.SyntacticEquivalence.areEquivalent;
+import static org.sonar.go.utils.SyntacticEquivalence.structuralHash;
 
 @Rule(key = "S4144")
 public class DuplicatedFunctionImplementationCheck implements GoCheck {
@@ -50,13 +51,14 @@ public class DuplicatedFunctionImplementationCheck implements GoCheck {
   public void initialize(InitContext init) {
     init.register(TopLevelTree.class, (ctx, tree) -> {
       Map<Tree, List<FunctionDeclarationTree>> functionsByParents = new HashMap<>();
-      TreeVisitor<TreeContext> functionVisitor = new TreeVisitor<>();
-      functionVisitor.register(FunctionDeclarationTree.class, (functionCtx, functionDeclarationTree) -> {
-        functionsByParents
-          .computeIfAbsent(functionCtx.ancestors().peek(), key -> new ArrayList<>())
-          .add(functionDeclarationTree);
-      });
-      functionVisitor.scan(new TreeContext(), tree);
+      TreeIndex treeIndex = ctx.treeIndex();
+      for (Tree descendant : treeIndex.descendants(tree)) {
+        if (descendant instanceof FunctionDeclarationTree functionDeclarationTree) {
+          functionsByParents
+            .computeIfAbsent(treeIndex.parent(functionDeclarationTree), key -> new ArrayList<>())
+            .add(functionDeclarationTree);
+        }
+      }
 
       for (Map.Entry<Tree, List<FunctionDeclarationTree>> entry : functionsByParents.entrySet()) {
         check(ctx, entry.getValue());
@@ -65,20 +67,31 @@ public class DuplicatedFunctionImplementationCheck implements GoCheck {
   }
 
   private static void check(CheckContext ctx, List<FunctionDeclarationTree> functionDeclarations) {
+    // Only the functions with the same structural hash can be duplicated, so they are only compared inside each bucket
+    Map<Integer, List<FunctionDeclarationTree>> candidatesByHash = new LinkedHashMap<>();
+    for (FunctionDeclarationTree function : functionDeclarations) {
+      if (hasMinimumSize(function)) {
+        candidatesByHash.computeIfAbsent(implementationHash(function), key -> new ArrayList<>()).add(function);
+      }
+    }
+    for (List<FunctionDeclarationTree> candidates : candidatesByHash.values()) {
+      checkCandidates(ctx, candidates);
+    }
+  }
+
+  private static void checkCandidates(CheckContext ctx, List<FunctionDeclarationTree> candidates) {
     Set<FunctionDeclarationTree> reportedDuplicates = new HashSet<>();
-    IntStream.range(0, functionDeclarations.size()).forEach(i -> {
-      FunctionDeclarationTree original = functionDeclarations.get(i);
-      functionDeclarations.stream()
+    IntStream.range(0, candidates.size()).forEach(i -> {
+      FunctionDeclarationTree original = candidates.get(i);
+      candidates.stream()
         .skip(i + 1L)
         .filter(f -> !reportedDuplicates.contains(f))
-        .filter(DuplicatedFunctionImplementationCheck::hasMinimumSize)
         .filter(f -> areDuplicatedImplementation(original, f))
         .forEach(duplicate -> {
           reportDuplicate(ctx, original, duplicate);
           reportedDuplicates.add(duplicate);
         });
     });
-
   }
 
   private static boolean hasMinimumSize(FunctionDeclarationTree function) {
@@ -89,6 +102,13 @@ public class DuplicatedFunctionImplementationCheck implements GoCheck {
     return functionBody.statementOrExpressions().stream().filter(TreeUtils.IS_NOT_SEMICOLON).count() >= MINIMUM_STATEMENTS_COUNT;
   }
 
+  private static int implementationHash(FunctionDeclarationTree function) {
+    int hash = structuralHash(function.receiver());
+    hash = 31 * hash + structuralHash(function.formalParameters());
+    hash = 31 * hash + structuralHash(function.typeParameters());
+    return 31 * hash + structuralHash(function.body());
+  }
+
   private static boolean areDuplicatedImplementation(FunctionDeclarationTree original, FunctionDeclarationTree possibleDuplicate) {
     return areEquivalent(original.receiver(), possibleDuplicate.receiver())
       && areEquivalent(original.formalParameters(), possibleDuplicate.formalParameters())
@@ -25,6 +25,7 @@ import java.util.Set;
 import java.util.regex.Pattern;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
+import org.sonar.go.utils.CompiledMethodMatchers;
 import org.sonar.go.utils.MethodMatchers;
 import org.sonar.plugins.go.api.FunctionInvocationTree;
 import org.sonar.plugins.go.api.StringLiteralTree;
@@ -67,7 +68,7 @@ public class StringLiteralDuplicatedCheck implements GoCheck {
     defaultValue = "" + DEFAULT_THRESHOLD)
   public int threshold = DEFAULT_THRESHOLD;
 
-  private static final List<MethodMatchers> LOG_AND_ERROR_MATCHERS = buildLogAndErrorMatchers();
+  private static final CompiledMethodMatchers LOG_AND_ERROR_MATCHERS = MethodMatchers.compile(buildLogAndErrorMatchers());
 
   private final Set<StringLiteralTree> excludedLiterals = new HashSet<>();
 
@@ -172,7 +173,7 @@ public class StringLiteralDuplicatedCheck implements GoCheck {
   @Override
   public void initialize(InitContext init) {
     init.register(FunctionInvocationTree.class, (checkContext, functionInvocationTree) -> {
-      if (LOG_AND_ERROR_MATCHERS.stream().anyMatch(matcher -> matcher.matches(functionInvocationTree).isPresent())) {
+      if (LOG_AND_ERROR_MATCHERS.matchesAny(functionInvocationTree)) {
         functionInvocationTree.arguments().stream()
           .filter(StringLiteralTree.class::isInstance)
           .map(StringLiteralTree.class::cast)
@@ -19,6 +19,8 @@ package org.sonar.go.checks;
 import java.io.File;
 import java.util.Collections;
 import org.junit.jupiter.api.Test;
+import org.sonar.plugins.go.api.ConverterCapability;
+import org.sonar.plugins.go.api.checks.GoCheck;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -54,6 +56,19 @@ class GoCheckListTest {
     }
   }
 
+  /**
+   * The Go converter only builds the control flow graphs when a check requires them.
+   */
+  @Test
+  void shouldNotRequireTheControlFlowGraph() throws ReflectiveOperationException {
+    for (Class<?> cls : GoCheckList.allChecks()) {
+      var check = (GoCheck) cls.getDeclaredConstructor().newInstance();
+      assertThat(check.requiredCapabilities())
+        .overridingErrorMessage("Unexpected capabilities for " + cls.getSimpleName())
+        .doesNotContain(ConverterCapability.CONTROL_FLOW_GRAPH);
+    }
+  }
+
   @Test
   void checkListsShouldBeDisjoint() {
     assertThat(Collections.disjoint(GoCheckList.mainAndTestChecks(), GoCheckList.mainChecks())).isTrue();
@@ -66,7 +66,15 @@ public class DefaultCommand implements Command {
 
   @Override
   public String executeCommand(Map<String, String> filenameToContentMap) throws IOException, InterruptedException {
-    var byteBuffers = convertToBytesArray(filenameToContentMap);
+    return executeCommand(filenameToContentMap, Map.of());
+  }
+
+  /**
+   * Same as {@link #executeCommand(Map)}, but the context files are only type-checked with the other files of their
+   * package, they are not converted.
+   */
+  public String executeCommand(Map<String, String> filenameToContentMap, Map<String, String> contextFiles) throws IOException, InterruptedException {
+    var byteBuffers = convertToBytesArray(filenameToContentMap, contextFiles);
 
     var processBuilder = new ProcessBuilder(getCommand());
     var errorConsumer = new ExternalProcessStreamConsumer();
@@ -117,22 +125,28 @@ public class DefaultCommand implements Command {
    * M (4 bytes) file content length
    * file content (M bytes)
    * <pre/>
+   * The file name length of a context file is written as its bitwise complement, so it is negative.
    */
-  private static List<ByteBuffer> convertToBytesArray(Map<String, String> filenameToContentMap) {
+  static List<ByteBuffer> convertToBytesArray(Map<String, String> filenameToContentMap, Map<String, String> contextFiles) {
     List<ByteBuffer> buffers = new ArrayList<>();
+    addFiles(filenameToContentMap, false, buffers);
+    addFiles(contextFiles, true, buffers);
+    return buffers;
+  }
+
+  private static void addFiles(Map<String, String> filenameToContentMap, boolean isContext, List<ByteBuffer> buffers) {
     for (Map.Entry<String, String> filenameToContent : filenameToContentMap.entrySet()) {
       var filenameBytes = filenameToContent.getKey().getBytes(UTF_8);
       var contentBytes = filenameToContent.getValue().getBytes(UTF_8);
       int capacity = filenameBytes.length + contentBytes.length + FILENAME_AND_CONTENT_LENGTH;
       var byteBuffer = ByteBuffer.allocate(capacity)
         .order(ByteOrder.LITTLE_ENDIAN)
-        .putInt(filenameBytes.length)
+        .putInt(isContext ? ~filenameBytes.length : filenameBytes.length)
         .put(filenameBytes)
         .putInt(contentBytes.length)
         .put(contentBytes);
       buffers.add(byteBuffer);
     }
-    return buffers;
   }
 
   private static String readAsString(InputStream in) throws IOException {
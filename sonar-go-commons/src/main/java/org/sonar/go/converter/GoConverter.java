@@ -20,11 +20,16 @@ import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sonar.go.persistence.BinaryTree;
 import org.sonar.go.persistence.JsonTree;
+import org.sonar.go.persistence.conversion.StringPool;
 import org.sonar.plugins.go.api.ASTConverter;
+import org.sonar.plugins.go.api.ConverterCapability;
 import org.sonar.plugins.go.api.ParseException;
 import org.sonar.plugins.go.api.TreeOrError;
 
@@ -33,6 +38,8 @@ public class GoConverter implements ASTConverter {
   public static final long MAX_SUPPORTED_SOURCE_FILE_SIZE = 1_500_000L;
   private final GoParseCommand command;
   private final AtomicBoolean isInitialized = new AtomicBoolean(false);
+  private volatile boolean jsonFormat = false;
+  private volatile StringPool stringPool = StringPool.NONE;
 
   public GoConverter(File workDir) {
     this(workDir, new SystemPlatformInfo());
@@ -58,28 +65,69 @@ public class GoConverter implements ASTConverter {
 
   @Override
   public Map<String, TreeOrError> parse(Map<String, String> filenameToContentMap, String moduleName) {
+    return parse(filenameToContentMap, Map.of(), moduleName);
+  }
+
+  @Override
+  public Map<String, TreeOrError> parse(Map<String, String> filenameToContentMap, Map<String, String> contextFiles, String moduleName) {
     Map<String, TreeOrError> result = new HashMap<>(filenameToContentMap.size());
+    var filesToParse = filterOutTooBigFiles(filenameToContentMap, result::put);
+    var contextFilesToParse = filterOutTooBigFiles(contextFiles, GoConverter::ignoreContextFile);
+    try {
+      if (jsonFormat) {
+        JsonTree.fromJson(command.executeGoParseCommand(filesToParse, contextFilesToParse, moduleName), stringPool, result::put);
+      } else {
+        BinaryTree.fromBinary(command.executeGoParseCommandBinary(filesToParse, contextFilesToParse, moduleName), stringPool, result::put);
+      }
+    } catch (IOException e) {
+      throw new ParseException(e.getMessage(), null, e);
+    }
+    return result;
+  }
+
+  /**
+   * The Go process sends each file as soon as it is converted, and its tree is passed to the consumer before the next one
+   * is decoded. So the memory used by the parsing depends on the largest file, and not on the whole directory.
+   */
+  @Override
+  public void parse(Map<String, String> filenameToContentMap, String moduleName, BiConsumer<String, TreeOrError> consumer) {
+    parse(filenameToContentMap, Map.of(), moduleName, consumer);
+  }
+
+  @Override
+  public void parse(Map<String, String> filenameToContentMap, Map<String, String> contextFiles, String moduleName,
+    BiConsumer<String, TreeOrError> consumer) {
+    var filesToParse = filterOutTooBigFiles(filenameToContentMap, consumer);
+    var contextFilesToParse = filterOutTooBigFiles(contextFiles, GoConverter::ignoreContextFile);
+    try {
+      if (jsonFormat) {
+        // The JSON document of all the files is received at once, but each file is still converted and passed one by one
+        JsonTree.fromJson(command.executeGoParseCommand(filesToParse, contextFilesToParse, moduleName), stringPool, consumer);
+        return;
+      }
+      command.executeGoParseCommandStreaming(filesToParse, contextFilesToParse, moduleName, file -> BinaryTree.fromBinary(file, stringPool, consumer));
+    } catch (IOException e) {
+      throw new ParseException(e.getMessage(), null, e);
+    }
+  }
+
+  private static Map<String, String> filterOutTooBigFiles(Map<String, String> filenameToContentMap, BiConsumer<String, TreeOrError> errorConsumer) {
     Map<String, String> filesToParse = new HashMap<>();
     for (Map.Entry<String, String> entry : filenameToContentMap.entrySet()) {
       String filename = entry.getKey();
       String content = entry.getValue();
       if (content.length() > MAX_SUPPORTED_SOURCE_FILE_SIZE) {
-        result.put(filename, TreeOrError.of("The file size is too big and should be excluded," +
+        errorConsumer.accept(filename, TreeOrError.of("The file size is too big and should be excluded," +
           " its size is " + content.length() + " (maximum allowed is " + MAX_SUPPORTED_SOURCE_FILE_SIZE + " bytes)"));
       } else {
         filesToParse.put(filename, content);
       }
     }
-    try {
-      var json = command.executeGoParseCommand(filesToParse, moduleName);
-      result.putAll(JsonTree.fromJson(json));
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      throw new ParseException("Go executable interrupted: " + e.getMessage(), null, e);
-    } catch (IOException e) {
-      throw new ParseException(e.getMessage(), null, e);
-    }
-    return result;
+    return filesToParse;
+  }
+
+  private static void ignoreContextFile(String filename, TreeOrError error) {
+    // A context file which is too big is not reported, the type information of the package is only less precise
   }
 
   public void setGcExportDataDir(String gcExportDataDir) {
@@ -88,17 +136,50 @@ public class GoConverter implements ASTConverter {
     }
   }
 
+  @Override
+  public void setRequiredCapabilities(Set<ConverterCapability> capabilities) {
+    if (command != null) {
+      command.setRequiredCapabilities(capabilities);
+    }
+  }
+
+  @Override
+  public void setParallelism(int parallelism) {
+    if (command != null) {
+      command.setParallelism(parallelism);
+    }
+  }
+
   public void setModuleBaseDir(String moduleBaseDir) {
     if (command != null) {
       command.setModuleBaseDir(moduleBaseDir);
     }
   }
 
+  @Override
+  public void useJsonFormat() {
+    jsonFormat = true;
+  }
+
+  /**
+   * Share the repeated strings of the trees of all the parsed files through the given pool, until another pool is set.
+   */
+  public void useStringPool(StringPool stringPool) {
+    this.stringPool = stringPool;
+  }
+
   @Override
   public void debugTypeCheck() {
     command.debugTypeCheck();
   }
 
+  @Override
+  public void terminate() {
+    if (command != null) {
+      command.terminate();
+    }
+  }
+
   @Override
   public boolean isInitialized() {
     return isInitialized.get();
@@ -18,15 +18,35 @@ package org.sonar.go.converter;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sonar.plugins.go.api.ConverterCapability;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class GoParseCommand extends DefaultCommand {
   private static final Logger LOG = LoggerFactory.getLogger(GoParseCommand.class);
+  private static final String OUTPUT_FORMAT_JSON = "json";
+  private static final String OUTPUT_FORMAT_BINARY = "binary";
   private final int moduleNameIndex;
   private final int moduleBaseDirIndex;
   private final int gcExportDataDirIndex;
+  // Guarded by "workers": all the started workers, and the ones not currently executing a request. The mutations of
+  // "command" are guarded by the same lock, as it is copied when a worker is started.
+  private final List<GoParseWorker> workers = new ArrayList<>();
+  private final Deque<GoParseWorker> idleWorkers = new ArrayDeque<>();
+  private volatile int parallelism = 0;
+  private volatile Set<ConverterCapability> requiredCapabilities = ConverterCapability.all();
 
   public GoParseCommand(File workDir, String... extraArgs) {
     this(workDir, new SystemPlatformInfo(), extraArgs);
@@ -45,11 +65,31 @@ public class GoParseCommand extends DefaultCommand {
   }
 
   public void setGcExportDataDir(String gcExportDataDir) {
-    command.set(gcExportDataDirIndex, gcExportDataDir);
+    synchronized (workers) {
+      command.set(gcExportDataDirIndex, gcExportDataDir);
+    }
   }
 
   public void setModuleBaseDir(String moduleBaseDir) {
-    command.set(moduleBaseDirIndex, moduleBaseDir);
+    synchronized (workers) {
+      command.set(moduleBaseDirIndex, moduleBaseDir);
+    }
+  }
+
+  /**
+   * Sets the number of goroutines parsing, type checking and converting the files of each request in the worker process.
+   * A value lower than 1 lets the worker use one per CPU, e.g. when a single directory is parsed at a time.
+   */
+  public void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Sets the optional parts of the trees computed by the worker process, e.g. it does not build the control flow graphs
+   * when no check uses them.
+   */
+  public void setRequiredCapabilities(Set<ConverterCapability> capabilities) {
+    this.requiredCapabilities = Set.copyOf(capabilities);
   }
 
   private static String[] mergeArgs(String[] args, String... extraArgs) {
@@ -62,12 +102,152 @@ public class GoParseCommand extends DefaultCommand {
     return merged;
   }
 
-  public String executeGoParseCommand(Map<String, String> filenameToContentMap, String moduleName)
-    throws IOException, InterruptedException {
-    command.set(moduleNameIndex, moduleName);
+  /**
+   * Parses the files in a long-lived worker process, see {@link GoParseWorker}. The module name, module base
+   * directory and GC export data directory are sent with each request, so they can change between calls
+   * without restarting the process.
+   * <p>
+   * This method can be called concurrently: each caller borrows an idle worker from the pool, or a new one
+   * is created when they are all busy. So there are never more processes than concurrent callers.
+   */
+  public String executeGoParseCommand(Map<String, String> filenameToContentMap, String moduleName) throws IOException {
+    return new String(execute(filenameToContentMap, moduleName, OUTPUT_FORMAT_JSON), UTF_8);
+  }
+
+  /**
+   * Same as {@link #executeGoParseCommand(Map, String)}, but the trees are returned in the binary format
+   * decoded by {@link org.sonar.go.persistence.BinaryTree}.
+   */
+  public byte[] executeGoParseCommandBinary(Map<String, String> filenameToContentMap, String moduleName) throws IOException {
+    return execute(filenameToContentMap, moduleName, OUTPUT_FORMAT_BINARY);
+  }
+
+  /**
+   * Same as {@link #executeGoParseCommandBinary(Map, String)}, but each file is passed to the consumer in its own binary
+   * document, as soon as it is converted by the worker. So the tree of a file can be released before the next one is read.
+   */
+  public void executeGoParseCommandStreaming(Map<String, String> filenameToContentMap, String moduleName, Consumer<byte[]> fileConsumer)
+    throws IOException {
+    executeGoParseCommandStreaming(filenameToContentMap, Map.of(), moduleName, fileConsumer);
+  }
+
+  /**
+   * Same as {@link #executeGoParseCommandStreaming(Map, String, Consumer)}, but the context files are only type-checked with
+   * the files to convert, e.g. the unchanged files of the same package, so no tree is sent back for them.
+   */
+  public void executeGoParseCommandStreaming(Map<String, String> filenameToContentMap, Map<String, String> contextFiles, String moduleName,
+    Consumer<byte[]> fileConsumer) throws IOException {
+    execute(filenameToContentMap, contextFiles, moduleName, Map.of("output_format", OUTPUT_FORMAT_BINARY, "stream", "true"), fileConsumer);
+  }
+
+  /**
+   * Same as {@link #executeGoParseCommandBinary(Map, String)}, but the context files are only type-checked with the files
+   * to convert, so no tree is returned for them.
+   */
+  public byte[] executeGoParseCommandBinary(Map<String, String> filenameToContentMap, Map<String, String> contextFiles, String moduleName)
+    throws IOException {
+    return execute(filenameToContentMap, contextFiles, moduleName, Map.of("output_format", OUTPUT_FORMAT_BINARY), GoParseWorker::unexpectedFileRecord);
+  }
+
+  /**
+   * Same as {@link #executeGoParseCommand(Map, String)}, but the context files are only type-checked with the files to
+   * convert, so no tree is returned for them.
+   */
+  public String executeGoParseCommand(Map<String, String> filenameToContentMap, Map<String, String> contextFiles, String moduleName)
+    throws IOException {
+    return new String(execute(filenameToContentMap, contextFiles, moduleName, Map.of("output_format", OUTPUT_FORMAT_JSON),
+      GoParseWorker::unexpectedFileRecord), UTF_8);
+  }
+
+  private byte[] execute(Map<String, String> filenameToContentMap, String moduleName, String outputFormat) throws IOException {
+    return execute(filenameToContentMap, Map.of(), moduleName, Map.of("output_format", outputFormat), GoParseWorker::unexpectedFileRecord);
+  }
+
+  private byte[] execute(Map<String, String> filenameToContentMap, Map<String, String> contextFiles, String moduleName,
+    Map<String, String> formatParameters, Consumer<byte[]> fileConsumer) throws IOException {
     if (LOG.isDebugEnabled()) {
-      LOG.debug("Executing Go parse data command: {}", String.join(" ", command));
+      LOG.debug("Executing Go parse data command for module '{}' on {} file(s) and {} context file(s)", moduleName, filenameToContentMap.size(),
+        contextFiles.size());
+    }
+    var worker = acquireWorker(moduleName);
+    try {
+      return worker.execute(requestParameters(moduleName, formatParameters), filenameToContentMap, contextFiles, fileConsumer);
+    } finally {
+      releaseWorker(worker);
+    }
+  }
+
+  // Visible for testing
+  Map<String, String> requestParameters(String moduleName, Map<String, String> formatParameters) {
+    var parameters = new HashMap<>(formatParameters);
+    parameters.put("module_name", moduleName);
+    synchronized (workers) {
+      parameters.put("module_base_dir", command.get(moduleBaseDirIndex));
+      parameters.put("gc_export_data_dir", command.get(gcExportDataDirIndex));
+    }
+    if (parallelism > 0) {
+      parameters.put("parallelism", Integer.toString(parallelism));
+    }
+    var capabilities = requiredCapabilities;
+    if (!capabilities.containsAll(ConverterCapability.all())) {
+      // Without this parameter, the worker computes everything
+      parameters.put("capabilities", capabilities.stream()
+        .sorted()
+        .map(capability -> capability.name().toLowerCase(Locale.ROOT))
+        .collect(Collectors.joining(",")));
+    }
+    return parameters;
+  }
+
+  private GoParseWorker acquireWorker(String moduleName) {
+    synchronized (workers) {
+      var worker = idleWorkers.pollFirst();
+      if (worker == null) {
+        command.set(moduleNameIndex, moduleName);
+        worker = new GoParseWorker(List.copyOf(command));
+        workers.add(worker);
+      }
+      return worker;
+    }
+  }
+
+  private void releaseWorker(GoParseWorker worker) {
+    synchronized (workers) {
+      // A worker removed by "terminate" while it was executing a request is not reused
+      if (workers.contains(worker)) {
+        idleWorkers.addFirst(worker);
+      } else {
+        worker.close();
+      }
+    }
+  }
+
+  // Visible for testing
+  int workerCount() {
+    synchronized (workers) {
+      return workers.size();
+    }
+  }
+
+  @Override
+  public void debugTypeCheck() {
+    synchronized (workers) {
+      super.debugTypeCheck();
+    }
+    // The flag is only read at start-up, the next request starts a new worker with it
+    terminate();
+  }
+
+  /**
+   * Stops all the worker processes, new ones are started if other requests are executed afterward.
+   */
+  public void terminate() {
+    List<GoParseWorker> workersToClose;
+    synchronized (workers) {
+      workersToClose = new ArrayList<>(workers);
+      workers.clear();
+      idleWorkers.clear();
     }
-    return super.executeCommand(filenameToContentMap);
+    workersToClose.forEach(GoParseWorker::close);
   }
 }
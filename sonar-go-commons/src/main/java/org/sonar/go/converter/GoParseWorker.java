@@ -0,0 +1,260 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.converter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.plugins.go.api.ParseException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Long-lived "sonar-go-to-slang" process started with the "-worker" flag.
+ * The process is started lazily on the first request and kept alive until {@link #close()} is called,
+ * so the Go runtime start-up and the loading of the embedded export data are paid once per analysis
+ * instead of once per directory.
+ * <p>
+ * Each request is written to the standard input of the process in the following format (little-endian):
+ * <pre>
+ * P (4 bytes) number of parameters
+ * P times: key length (4 bytes), key, value length (4 bytes), value
+ * F (4 bytes) number of files
+ * F times: file name length (4 bytes), file name, file content length (4 bytes), file content
+ * </pre>
+ * The file name length of a context file is written as its bitwise complement, so it is negative. Context files are only
+ * type-checked with the other files of their package, they are not converted and have no response.
+ * And each response is read from the standard output:
+ * <pre>
+ * S (1 byte) status, 0 for success and 1 for error
+ * L (4 bytes) payload length
+ * payload (L bytes) the JSON or binary document on success, depending on the "output_format" parameter, the error message otherwise
+ * </pre>
+ * When the "stream" parameter is "true", each file is first sent in its own response with the status 2, as soon as it is
+ * converted, and the last response of the request has an empty payload.
+ */
+public class GoParseWorker implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(GoParseWorker.class);
+  private static final long PROCESS_TIMEOUT_MS = 5_000;
+  private static final int INT_SIZE = 4;
+  private static final byte STATUS_OK = 0;
+  private static final byte STATUS_FILE = 2;
+
+  private final List<String> command;
+  @Nullable
+  private Process process;
+  @Nullable
+  private OutputStream processInput;
+  @Nullable
+  private DataInputStream processOutput;
+  @Nullable
+  private ExternalProcessStreamConsumer errorConsumer;
+
+  public GoParseWorker(List<String> command) {
+    this.command = command;
+  }
+
+  /**
+   * Sends the files to the worker process and returns the payload of its response. If the process crashed, a new one
+   * is started and the request is sent once again.
+   */
+  public synchronized byte[] execute(Map<String, String> parameters, Map<String, String> filenameToContentMap) throws IOException {
+    return execute(parameters, filenameToContentMap, GoParseWorker::unexpectedFileRecord);
+  }
+
+  /**
+   * Same as {@link #execute(Map, Map)}, but each file record of a streamed response is passed to the consumer as soon as it
+   * is read. The request is not sent again after a crash if a file record was already consumed. If the consumer throws an
+   * exception, the worker is closed, because the rest of the response is not read.
+   */
+  public synchronized byte[] execute(Map<String, String> parameters, Map<String, String> filenameToContentMap, Consumer<byte[]> fileConsumer)
+    throws IOException {
+    return execute(parameters, filenameToContentMap, Map.of(), fileConsumer);
+  }
+
+  /**
+   * Same as {@link #execute(Map, Map, Consumer)}, but the context files are sent along with the files to convert, so the
+   * type information of the package is complete. They are type-checked by the worker, but not converted.
+   */
+  public synchronized byte[] execute(Map<String, String> parameters, Map<String, String> filenameToContentMap, Map<String, String> contextFiles,
+    Consumer<byte[]> fileConsumer) throws IOException {
+    var request = encodeRequest(parameters, filenameToContentMap, contextFiles);
+    var isNewProcess = ensureStarted();
+    var consumedFiles = new AtomicInteger();
+    Consumer<byte[]> countingConsumer = file -> {
+      consumedFiles.incrementAndGet();
+      try {
+        fileConsumer.accept(file);
+      } catch (RuntimeException e) {
+        // The rest of the response is not read, so the process cannot serve the next requests
+        process.destroyForcibly();
+        close();
+        throw e;
+      }
+    };
+    try {
+      return sendRequest(request, countingConsumer);
+    } catch (IOException e) {
+      close();
+      if (isNewProcess || consumedFiles.get() > 0) {
+        throw e;
+      }
+      LOG.debug("Go converter worker stopped unexpectedly, restarting it: {}", e.getMessage());
+      ensureStarted();
+      try {
+        return sendRequest(request, countingConsumer);
+      } catch (IOException retryException) {
+        close();
+        throw retryException;
+      }
+    }
+  }
+
+  public synchronized boolean isAlive() {
+    return process != null && process.isAlive();
+  }
+
+  /**
+   * Closes the standard input of the worker, which is the signal for it to exit, and waits for its termination.
+   */
+  @Override
+  public synchronized void close() {
+    if (process == null) {
+      return;
+    }
+    try {
+      processInput.close();
+    } catch (IOException e) {
+      LOG.debug("Unable to close the input stream of the Go converter worker: {}", e.getMessage());
+    }
+    try {
+      if (!process.waitFor(PROCESS_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        LOG.debug("Go converter worker did not stop in time, killing it");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      // On Windows, the process handle must be explicitly closed to release the file lock on the executable.
+      process.destroyForcibly();
+      errorConsumer.shutdown();
+      process = null;
+      processInput = null;
+      processOutput = null;
+      errorConsumer = null;
+    }
+  }
+
+  private boolean ensureStarted() throws IOException {
+    if (isAlive()) {
+      return false;
+    }
+    if (process != null) {
+      close();
+    }
+    var workerCommand = new ArrayList<>(command);
+    workerCommand.add("-worker");
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Starting Go converter worker: {}", String.join(" ", workerCommand));
+    }
+    process = new ProcessBuilder(workerCommand).start();
+    errorConsumer = new ExternalProcessStreamConsumer();
+    errorConsumer.consumeStream(process.getErrorStream(), LOG::debug);
+    processInput = new BufferedOutputStream(process.getOutputStream());
+    processOutput = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+    return true;
+  }
+
+  private byte[] sendRequest(List<ByteBuffer> request, Consumer<byte[]> fileConsumer) throws IOException {
+    for (ByteBuffer byteBuffer : request) {
+      processInput.write(byteBuffer.array());
+    }
+    processInput.flush();
+    return readResponse(processOutput, fileConsumer);
+  }
+
+  static List<ByteBuffer> encodeRequest(Map<String, String> parameters, Map<String, String> filenameToContentMap) {
+    return encodeRequest(parameters, filenameToContentMap, Map.of());
+  }
+
+  static List<ByteBuffer> encodeRequest(Map<String, String> parameters, Map<String, String> filenameToContentMap, Map<String, String> contextFiles) {
+    List<ByteBuffer> buffers = new ArrayList<>();
+    buffers.add(encodeCount(parameters.size()));
+    encodePairs(parameters, false, buffers);
+    buffers.add(encodeCount(filenameToContentMap.size() + contextFiles.size()));
+    encodePairs(filenameToContentMap, false, buffers);
+    encodePairs(contextFiles, true, buffers);
+    return buffers;
+  }
+
+  private static ByteBuffer encodeCount(int count) {
+    return ByteBuffer.allocate(INT_SIZE).order(ByteOrder.LITTLE_ENDIAN).putInt(count);
+  }
+
+  private static void encodePairs(Map<String, String> pairs, boolean isContext, List<ByteBuffer> buffers) {
+    for (Map.Entry<String, String> pair : pairs.entrySet()) {
+      var keyBytes = pair.getKey().getBytes(UTF_8);
+      var valueBytes = pair.getValue().getBytes(UTF_8);
+      buffers.add(ByteBuffer.allocate(keyBytes.length + valueBytes.length + 2 * INT_SIZE)
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .putInt(isContext ? ~keyBytes.length : keyBytes.length)
+        .put(keyBytes)
+        .putInt(valueBytes.length)
+        .put(valueBytes));
+    }
+  }
+
+  static byte[] readResponse(DataInputStream in) throws IOException {
+    return readResponse(in, GoParseWorker::unexpectedFileRecord);
+  }
+
+  static byte[] readResponse(DataInputStream in, Consumer<byte[]> fileConsumer) throws IOException {
+    while (true) {
+      int status = in.read();
+      if (status < 0) {
+        throw new EOFException("Go converter worker closed its output stream");
+      }
+      int length = Integer.reverseBytes(in.readInt());
+      var payload = new byte[length];
+      in.readFully(payload);
+      if (status == STATUS_FILE) {
+        fileConsumer.accept(payload);
+      } else if (status != STATUS_OK) {
+        throw new ParseException("Go converter worker failed: " + new String(payload, UTF_8));
+      } else {
+        return payload;
+      }
+    }
+  }
+
+  static void unexpectedFileRecord(byte[] file) {
+    throw new IllegalStateException("Unexpected file record in the response of the Go converter worker");
+  }
+}
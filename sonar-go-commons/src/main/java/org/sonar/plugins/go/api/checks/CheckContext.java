@@ -25,6 +25,7 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.plugins.go.api.HasTextRange;
 import org.sonar.plugins.go.api.TextRange;
 import org.sonar.plugins.go.api.Tree;
+import org.sonar.plugins.go.api.TreeIndex;
 
 public interface CheckContext {
 
@@ -46,6 +47,12 @@ public interface CheckContext {
       .findFirst();
   }
 
+  /**
+   * Provide the index of the trees of the file being analyzed, built once per file and shared by the checks.
+   * @return the {@link TreeIndex} of the file being analyzed
+   */
+  TreeIndex treeIndex();
+
   String filename();
 
   /**
@@ -16,8 +16,20 @@
  */
 package org.sonar.plugins.go.api.checks;
 
+import java.util.Set;
+import org.sonar.plugins.go.api.ConverterCapability;
+
 public interface GoCheck {
 
   void initialize(InitContext init);
 
+  /**
+   * Returns the optional parts of the trees used by this check, the Go converter only computes the ones required by at
+   * least one active check or visitor. By default, a check only uses the syntax tree, e.g. a check reading
+   * {@link org.sonar.plugins.go.api.FunctionDeclarationTree#cfg()} requires {@link ConverterCapability#CONTROL_FLOW_GRAPH}.
+   */
+  default Set<ConverterCapability> requiredCapabilities() {
+    return ConverterCapability.none();
+  }
+
 }
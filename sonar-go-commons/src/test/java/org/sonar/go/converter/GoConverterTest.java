@@ -17,6 +17,7 @@
 package org.sonar.go.converter;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -56,6 +57,7 @@ import org.sonar.plugins.go.api.cfg.Block;
 import org.sonar.plugins.go.api.cfg.ControlFlowGraph;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.from;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -415,6 +417,36 @@ class GoConverterTest {
     assertThat(e).hasMessageContaining("Cannot run program \"invalid-command\"");
   }
 
+  @Test
+  void shouldFailOnInvalidCommandWhenStreaming() {
+    var command = new GoParseCommand(tempDir);
+    command.getCommand().set(0, "invalid-command");
+    GoConverter converter = new GoConverter(command);
+    var filenameToContentMap = Map.of("foo.go", "package main\nfunc foo() {}");
+    ParseException e = assertThrows(ParseException.class,
+      () -> converter.parse(filenameToContentMap, "moduleName", (filename, treeOrError) -> {
+      }));
+    assertThat(e).hasMessageContaining("Cannot run program \"invalid-command\"");
+  }
+
+  @Test
+  void shouldPassEachFileToTheConsumer() {
+    var converter = new GoConverter(new GoParseCommand(tempDir));
+    var filenameToContentMap = Map.of(
+      "foo.go", "package main\nfunc foo() {}",
+      "bar.go", "package main\nfunc bar() {",
+      "big.go", "package main\n" + "\n".repeat(1_500_000));
+    var trees = new HashMap<String, TreeOrError>();
+
+    converter.parse(filenameToContentMap, "moduleName", trees::put);
+    converter.terminate();
+
+    assertThat(trees).containsOnlyKeys("foo.go", "bar.go", "big.go");
+    assertThat(trees.get("foo.go").tree()).isInstanceOf(TopLevelTree.class);
+    assertThat(trees.get("bar.go").error()).startsWith("bar.go:2:");
+    assertThat(trees.get("big.go").error()).startsWith("The file size is too big and should be excluded");
+  }
+
   @Test
   void shouldParseAcceptedBigFile() {
     var code = """
@@ -773,6 +805,25 @@ class GoConverterTest {
       .returns(false, from(GoConverter::isInitialized));
   }
 
+  @Test
+  void shouldTerminateUninitializedConverter() {
+    var converter = new GoConverter(tempDir, new TestPlatformInfo("unsupported-os", "unsupported-arch"));
+
+    assertThatCode(converter::terminate).doesNotThrowAnyException();
+  }
+
+  @Test
+  void shouldParseAgainAfterTerminate() {
+    var converter = new GoConverter(new GoParseCommand(tempDir));
+    var first = converter.parse(Map.of("foo.go", "package main\nfunc foo() {}"), "moduleName");
+    converter.terminate();
+    var second = converter.parse(Map.of("bar.go", "package main\nfunc bar() {}"), "moduleName");
+    converter.terminate();
+
+    assertThat(first.get("foo.go").isTree()).isTrue();
+    assertThat(second.get("bar.go").isTree()).isTrue();
+  }
+
   @Test
   void testNewCallWithExpression() {
     var code = """
@@ -0,0 +1,296 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.plugins.go.api.ConverterCapability;
+import org.sonar.plugins.go.api.ParseException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GoParseWorkerTest {
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  void shouldEncodeParametersAndFiles() throws IOException {
+    var parameters = Map.of("module_name", "foo");
+    var files = new LinkedHashMap<String, String>();
+    files.put("a.go", "package a");
+    files.put("b.go", "package b");
+
+    var out = new ByteArrayOutputStream();
+    for (ByteBuffer buffer : GoParseWorker.encodeRequest(parameters, files)) {
+      out.write(buffer.array());
+    }
+
+    var bytes = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+    assertThat(bytes.getInt()).isEqualTo(1);
+    assertThat(readString(bytes)).isEqualTo("module_name");
+    assertThat(readString(bytes)).isEqualTo("foo");
+    assertThat(bytes.getInt()).isEqualTo(2);
+    assertThat(readString(bytes)).isEqualTo("a.go");
+    assertThat(readString(bytes)).isEqualTo("package a");
+    assertThat(readString(bytes)).isEqualTo("b.go");
+    assertThat(readString(bytes)).isEqualTo("package b");
+    assertThat(bytes.hasRemaining()).isFalse();
+  }
+
+  @Test
+  void shouldEncodeTheNameLengthOfContextFilesAsItsComplement() throws IOException {
+    var out = new ByteArrayOutputStream();
+    for (ByteBuffer buffer : GoParseWorker.encodeRequest(Map.of(), Map.of("a.go", "package a"), Map.of("b.go", "package a"))) {
+      out.write(buffer.array());
+    }
+
+    var bytes = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+    assertThat(bytes.getInt()).isZero();
+    assertThat(bytes.getInt()).isEqualTo(2);
+    assertThat(readString(bytes)).isEqualTo("a.go");
+    assertThat(readString(bytes)).isEqualTo("package a");
+    assertThat(bytes.getInt()).isEqualTo(~4);
+    var name = new byte[4];
+    bytes.get(name);
+    assertThat(new String(name, UTF_8)).isEqualTo("b.go");
+    assertThat(readString(bytes)).isEqualTo("package a");
+    assertThat(bytes.hasRemaining()).isFalse();
+  }
+
+  @Test
+  void shouldReadSuccessfulResponse() throws IOException {
+    var in = response(0, "{\"foo.go\": {}}");
+    assertThat(new String(GoParseWorker.readResponse(in), UTF_8)).isEqualTo("{\"foo.go\": {}}");
+  }
+
+  @Test
+  void shouldThrowParseExceptionOnErrorResponse() {
+    var in = response(1, "panic while converting files: boom");
+    assertThatThrownBy(() -> GoParseWorker.readResponse(in))
+      .isInstanceOf(ParseException.class)
+      .hasMessage("Go converter worker failed: panic while converting files: boom");
+  }
+
+  @Test
+  void shouldPassFileRecordsOfStreamedResponseToTheConsumer() throws IOException {
+    var in = responses(frame(2, "a.go"), frame(2, "b.go"), frame(0, ""));
+    var files = new ArrayList<String>();
+
+    var payload = GoParseWorker.readResponse(in, file -> files.add(new String(file, UTF_8)));
+
+    assertThat(files).containsExactly("a.go", "b.go");
+    assertThat(payload).isEmpty();
+  }
+
+  @Test
+  void shouldThrowParseExceptionOnErrorAfterFileRecords() {
+    var in = responses(frame(2, "a.go"), frame(1, "panic while converting files: boom"));
+    var files = new ArrayList<String>();
+
+    assertThatThrownBy(() -> GoParseWorker.readResponse(in, file -> files.add(new String(file, UTF_8))))
+      .isInstanceOf(ParseException.class)
+      .hasMessage("Go converter worker failed: panic while converting files: boom");
+    assertThat(files).containsExactly("a.go");
+  }
+
+  @Test
+  void shouldRejectFileRecordInResponseWhichIsNotStreamed() {
+    var in = responses(frame(2, "a.go"), frame(0, ""));
+    assertThatThrownBy(() -> GoParseWorker.readResponse(in))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Unexpected file record in the response of the Go converter worker");
+  }
+
+  @Test
+  void shouldThrowEofExceptionWhenProcessStopped() {
+    var in = new DataInputStream(new ByteArrayInputStream(new byte[0]));
+    assertThatThrownBy(() -> GoParseWorker.readResponse(in))
+      .isInstanceOf(EOFException.class)
+      .hasMessage("Go converter worker closed its output stream");
+  }
+
+  @Test
+  void shouldThrowEofExceptionOnTruncatedResponse() {
+    var bytes = ByteBuffer.allocate(7).order(ByteOrder.LITTLE_ENDIAN).put((byte) 0).putInt(10).put((byte) 'a').put((byte) 'b');
+    var in = new DataInputStream(new ByteArrayInputStream(bytes.array()));
+    assertThatThrownBy(() -> GoParseWorker.readResponse(in))
+      .isInstanceOf(EOFException.class);
+  }
+
+  @Test
+  void shouldFailToStartInvalidCommand() {
+    var worker = new GoParseWorker(List.of("invalid-command"));
+    var files = Map.of("foo.go", "package main");
+    var parameters = Map.<String, String>of();
+    assertThatThrownBy(() -> worker.execute(parameters, files))
+      .isInstanceOf(IOException.class)
+      .hasMessageContaining("Cannot run program \"invalid-command\"");
+    assertThat(worker.isAlive()).isFalse();
+  }
+
+  @Test
+  void shouldReuseIdleWorkerOfTheCommandPool() {
+    var command = new GoParseCommand(tempDir);
+    command.getCommand().set(0, "invalid-command");
+    var files = Map.of("foo.go", "package main");
+
+    assertThatThrownBy(() -> command.executeGoParseCommand(files, "foo")).isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> command.executeGoParseCommand(files, "foo")).isInstanceOf(IOException.class);
+    assertThat(command.workerCount()).isEqualTo(1);
+
+    command.terminate();
+    assertThat(command.workerCount()).isZero();
+  }
+
+  @Test
+  void shouldSendTheParallelismOnlyWhenItIsSet() {
+    var command = new GoParseCommand(tempDir);
+    assertThat(command.requestParameters("foo", Map.of())).containsEntry("module_name", "foo").doesNotContainKey("parallelism");
+
+    command.setParallelism(2);
+    assertThat(command.requestParameters("foo", Map.of("format", "binary")))
+      .containsEntry("format", "binary")
+      .containsEntry("parallelism", "2");
+
+    command.setParallelism(0);
+    assertThat(command.requestParameters("foo", Map.of())).doesNotContainKey("parallelism");
+  }
+
+  @Test
+  void shouldSendTheCapabilitiesOnlyWhenSomeAreNotRequired() {
+    var command = new GoParseCommand(tempDir);
+    assertThat(command.requestParameters("foo", Map.of())).doesNotContainKey("capabilities");
+
+    command.setRequiredCapabilities(Set.of());
+    assertThat(command.requestParameters("foo", Map.of())).containsEntry("capabilities", "");
+
+    command.setRequiredCapabilities(Set.of(ConverterCapability.CONTROL_FLOW_GRAPH));
+    assertThat(command.requestParameters("foo", Map.of())).doesNotContainKey("capabilities");
+  }
+
+  @Test
+  void shouldParseConcurrentlyWithSeveralWorkers() throws Exception {
+    var command = new GoParseCommand(tempDir);
+    var executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        var filename = "file" + i + ".go";
+        results.add(executor.submit(() -> command.executeGoParseCommand(Map.of(filename, "package foo\nfunc foo() {}"), "foo")));
+      }
+      for (int i = 0; i < 8; i++) {
+        assertThat(results.get(i).get()).contains("\"file" + i + ".go\": {");
+      }
+      assertThat(command.workerCount()).isBetween(1, 4);
+    } finally {
+      executor.shutdownNow();
+      command.terminate();
+    }
+    assertThat(command.workerCount()).isZero();
+  }
+
+  @Test
+  void shouldReuseTheSameProcessForSeveralRequests() throws IOException {
+    var command = new GoParseCommand(tempDir);
+    var worker = new GoParseWorker(command.getCommand());
+    try {
+      var parameters = Map.of("module_name", "foo");
+      var first = new String(worker.execute(parameters, Map.of("foo.go", "package foo\nfunc foo() {}")), UTF_8);
+      assertThat(worker.isAlive()).isTrue();
+      var second = new String(worker.execute(parameters, Map.of("bar.go", "package bar\nfunc bar() {}")), UTF_8);
+
+      assertThat(first).contains("\"foo.go\": {").doesNotContain("bar.go");
+      assertThat(second).contains("\"bar.go\": {").doesNotContain("foo.go");
+    } finally {
+      worker.close();
+    }
+    assertThat(worker.isAlive()).isFalse();
+  }
+
+  @Test
+  void shouldRestartTheProcessAfterACrash() throws IOException {
+    var command = new GoParseCommand(tempDir);
+    var worker = new GoParseWorker(command.getCommand());
+    try {
+      var parameters = Map.of("module_name", "foo");
+      worker.execute(parameters, Map.of("foo.go", "package foo"));
+      killProcess(worker, tempDir);
+
+      var result = new String(worker.execute(parameters, Map.of("bar.go", "package bar")), UTF_8);
+
+      assertThat(result).contains("\"bar.go\": {");
+      assertThat(worker.isAlive()).isTrue();
+    } finally {
+      worker.close();
+    }
+  }
+
+  private static void killProcess(GoParseWorker worker, File workDir) {
+    ProcessHandle.current().children()
+      .filter(child -> child.info().commandLine().orElse("").contains(workDir.getAbsolutePath()))
+      .forEach(child -> {
+        child.destroyForcibly();
+        child.onExit().join();
+      });
+    assertThat(worker.isAlive()).isFalse();
+  }
+
+  private static DataInputStream response(int status, String payload) {
+    return responses(frame(status, payload));
+  }
+
+  private static DataInputStream responses(byte[]... frames) {
+    var out = new ByteArrayOutputStream();
+    for (byte[] frame : frames) {
+      out.writeBytes(frame);
+    }
+    return new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  private static byte[] frame(int status, String payload) {
+    var payloadBytes = payload.getBytes(UTF_8);
+    return ByteBuffer.allocate(5 + payloadBytes.length).order(ByteOrder.LITTLE_ENDIAN)
+      .put((byte) status)
+      .putInt(payloadBytes.length)
+      .put(payloadBytes)
+      .array();
+  }
+
+  private static String readString(ByteBuffer bytes) {
+    var value = new byte[bytes.getInt()];
+    bytes.get(value);
+    return new String(value, UTF_8);
+  }
+}
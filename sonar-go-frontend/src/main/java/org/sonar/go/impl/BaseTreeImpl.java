@@ -16,12 +16,15 @@
  */
 package org.sonar.go.impl;
 
+import java.util.function.ToIntFunction;
 import org.sonar.plugins.go.api.Tree;
 import org.sonar.plugins.go.api.TreeMetaData;
 
 public abstract class BaseTreeImpl implements Tree {
 
   private final TreeMetaData metaData;
+  // Only computed and read by StructuralHash, 0 until it is computed
+  private int structuralHash;
 
   protected BaseTreeImpl(TreeMetaData metaData) {
     this.metaData = metaData;
@@ -31,4 +34,15 @@ public abstract class BaseTreeImpl implements Tree {
   public TreeMetaData metaData() {
     return metaData;
   }
+
+  int structuralHash(ToIntFunction<Tree> computation) {
+    if (structuralHash == 0) {
+      structuralHash = computation.applyAsInt(this);
+    }
+    return structuralHash;
+  }
+
+  int cachedStructuralHash() {
+    return structuralHash;
+  }
 }
@@ -19,6 +19,7 @@ package org.sonar.go.impl;
 import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.sonar.plugins.go.api.FunctionDeclarationTree;
 import org.sonar.plugins.go.api.FunctionInvocationTree;
 import org.sonar.plugins.go.api.IdentifierTree;
@@ -33,6 +34,9 @@ public class FunctionInvocationTreeImpl extends BaseTreeImpl implements Function
   private final Tree memberSelect;
   private final List<Tree> arguments;
   private final List<Type> returnTypes;
+  // Created on the first match by a MethodMatchers, see InvocationShape
+  @Nullable
+  private InvocationShape invocationShape;
 
   public FunctionInvocationTreeImpl(TreeMetaData metaData, Tree memberSelect, List<Tree> arguments, List<Type> returnTypes) {
     super(metaData);
@@ -75,6 +79,13 @@ public class FunctionInvocationTreeImpl extends BaseTreeImpl implements Function
     return returnTypes;
   }
 
+  InvocationShape invocationShape() {
+    if (invocationShape == null) {
+      invocationShape = new InvocationShape(this);
+    }
+    return invocationShape;
+  }
+
   @CheckForNull
   private static String retrieveSignaturePrefix(MemberSelectTree memberSelectTree) {
     String result = null;
@@ -0,0 +1,170 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.impl;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.plugins.go.api.FunctionInvocationTree;
+import org.sonar.plugins.go.api.IdentifierTree;
+import org.sonar.plugins.go.api.MemberSelectTree;
+import org.sonar.plugins.go.api.Tree;
+import org.sonar.plugins.go.api.Type;
+
+import static org.sonar.go.utils.TreeUtils.retrieveFirstIdentifier;
+
+/**
+ * Parts of a function invocation tested by the {@link org.sonar.go.utils.MethodMatchers}, extracted once per invocation:
+ * the identifiers and names of its member select chain, the type of its receiver and the types of its arguments. The two
+ * last ones are only computed when a matcher needs them.
+ * <p>
+ * The shape is kept by the invocation tree, so it is shared by all the matchers and checks visiting the invocation, and
+ * released with the trees of the file.
+ */
+public final class InvocationShape {
+
+  private final FunctionInvocationTree invocation;
+  @Nullable
+  private final MemberSelectTree memberSelect;
+  @Nullable
+  private final IdentifierTree firstIdentifier;
+  @Nullable
+  private final String subMethodName;
+  @Nullable
+  private final IdentifierTree identifier;
+  private boolean receiverTypeComputed;
+  @Nullable
+  private String receiverType;
+  @Nullable
+  private List<String> argTypes;
+
+  InvocationShape(FunctionInvocationTree invocation) {
+    this.invocation = invocation;
+    Tree functionNameTree = invocation.memberSelect();
+    if (functionNameTree instanceof MemberSelectTree memberSelectTree) {
+      memberSelect = memberSelectTree;
+      firstIdentifier = retrieveFirstIdentifier(memberSelectTree).orElse(null);
+      subMethodName = firstIdentifier == null ? null : subMethodName(memberSelectTree);
+      identifier = null;
+    } else {
+      memberSelect = null;
+      firstIdentifier = null;
+      subMethodName = null;
+      identifier = functionNameTree instanceof IdentifierTree identifierTree ? identifierTree : null;
+    }
+  }
+
+  public static InvocationShape of(FunctionInvocationTree invocation) {
+    if (invocation instanceof FunctionInvocationTreeImpl invocationImpl) {
+      return invocationImpl.invocationShape();
+    }
+    return new InvocationShape(invocation);
+  }
+
+  public FunctionInvocationTree invocation() {
+    return invocation;
+  }
+
+  /**
+   * The member select of an invocation like {@code a.b.foo()}, or null.
+   */
+  @CheckForNull
+  public MemberSelectTree memberSelect() {
+    return memberSelect;
+  }
+
+  /**
+   * The first identifier of the member select chain, {@code a} in {@code a.b.foo()}, or null.
+   */
+  @CheckForNull
+  public IdentifierTree firstIdentifier() {
+    return firstIdentifier;
+  }
+
+  /**
+   * The names of the member select chain without the first identifier, {@code b.foo} in {@code a.b.foo()}, or null
+   * when there is no first identifier.
+   */
+  @CheckForNull
+  public String subMethodName() {
+    return subMethodName;
+  }
+
+  /**
+   * The function name of an invocation like {@code foo()}, or null.
+   */
+  @CheckForNull
+  public IdentifierTree identifier() {
+    return identifier;
+  }
+
+  /**
+   * The type of the receiver of the member select, {@code a.b} in {@code a.b.foo()}, or null if it is unknown or a
+   * function type.
+   */
+  @CheckForNull
+  public String receiverType() {
+    if (!receiverTypeComputed && memberSelect != null) {
+      // First, check if function call uses package name as receiver or a variable.
+      boolean isTopLevel = memberSelect.expression() instanceof IdentifierTree expression && expression.symbol() == null;
+      Optional<Type> type = getType(isTopLevel ? memberSelect.identifier() : memberSelect.expression());
+      if (type.isPresent() && !type.get().type().startsWith("func(")) {
+        receiverType = type.get().type();
+      }
+      receiverTypeComputed = true;
+    }
+    return receiverType;
+  }
+
+  /**
+   * The types of the arguments, {@code UNKNOWN} for each of them: the parameter predicates of the matchers only rely on
+   * the number of arguments.
+   */
+  public List<String> argTypes() {
+    if (argTypes == null) {
+      argTypes = invocation.arguments().stream().map(arg -> "UNKNOWN").toList();
+    }
+    return argTypes;
+  }
+
+  private static Optional<Type> getType(Tree tree) {
+    if (tree instanceof IdentifierTree identifierTree) {
+      return Optional.of(TypeImpl.createFromType(identifierTree.type()));
+    } else if (tree instanceof FunctionInvocationTree functionInvocation) {
+      // it handles method chain calls like func1().func2().func3()
+      var returnedTypes = functionInvocation.returnTypes();
+      if (returnedTypes.size() == 1) {
+        return Optional.of(returnedTypes.get(0));
+      }
+    } else if (tree instanceof MemberSelectTree memberSelectTree) {
+      return getType(memberSelectTree.identifier());
+    }
+    return Optional.empty();
+  }
+
+  private static String subMethodName(MemberSelectTree memberSelectTree) {
+    var listNames = new LinkedList<String>();
+    Tree currentTree = memberSelectTree;
+    while (currentTree instanceof MemberSelectTree memberSelect) {
+      listNames.addFirst(memberSelect.identifier().name());
+      currentTree = memberSelect.expression();
+    }
+    return String.join(".", listNames);
+  }
+}
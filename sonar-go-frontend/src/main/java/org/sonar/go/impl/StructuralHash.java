@@ -0,0 +1,124 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.impl;
+
+import java.util.List;
+import javax.annotation.Nullable;
+import org.sonar.go.utils.SyntacticEquivalence;
+import org.sonar.plugins.go.api.AssignmentExpressionTree;
+import org.sonar.plugins.go.api.BinaryExpressionTree;
+import org.sonar.plugins.go.api.FunctionInvocationTree;
+import org.sonar.plugins.go.api.IdentifierTree;
+import org.sonar.plugins.go.api.JumpTree;
+import org.sonar.plugins.go.api.LiteralTree;
+import org.sonar.plugins.go.api.LoopTree;
+import org.sonar.plugins.go.api.ModifierTree;
+import org.sonar.plugins.go.api.NativeTree;
+import org.sonar.plugins.go.api.Tree;
+import org.sonar.plugins.go.api.UnaryExpressionTree;
+import org.sonar.plugins.go.api.VariableDeclarationTree;
+
+/**
+ * Hash of the structure compared by {@link SyntacticEquivalence#areEquivalent(Tree, Tree)}, cached in each tree. The
+ * cache is only written here, so a cached hash is always the one computed from the tree.
+ */
+public final class StructuralHash {
+
+  private StructuralHash() {
+  }
+
+  public static int of(@Nullable Tree tree) {
+    if (tree == null) {
+      return 0;
+    }
+    if (tree instanceof BaseTreeImpl impl) {
+      return impl.structuralHash(StructuralHash::compute);
+    }
+    return compute(tree);
+  }
+
+  public static int of(@Nullable List<? extends Tree> trees) {
+    if (trees == null) {
+      return 0;
+    }
+    int hash = 1;
+    for (Tree tree : trees) {
+      hash = 31 * hash + of(tree);
+    }
+    return hash;
+  }
+
+  /**
+   * Whether the hashes of both trees are already cached and differ, in which case the trees are not equivalent.
+   */
+  public static boolean cachedHashesDiffer(Tree first, Tree second) {
+    return first instanceof BaseTreeImpl firstImpl && second instanceof BaseTreeImpl secondImpl
+      && firstImpl.cachedStructuralHash() != 0 && secondImpl.cachedStructuralHash() != 0
+      && firstImpl.cachedStructuralHash() != secondImpl.cachedStructuralHash();
+  }
+
+  private static int compute(Tree tree) {
+    int hash = tree.getClass().getName().hashCode();
+    if (tree instanceof IdentifierTree identifier) {
+      hash = 31 * hash + SyntacticEquivalence.getUniqueIdentifier(identifier).hashCode();
+    } else if (tree instanceof LiteralTree literal) {
+      hash = 31 * hash + literal.value().hashCode();
+    } else if (tree instanceof NativeTree) {
+      hash = 31 * hash + fieldsHash(tree);
+    } else {
+      hash = 31 * hash + fieldsHash(tree);
+      hash = 31 * hash + of(tree.children());
+    }
+    // 0 is kept for the trees whose hash is not computed yet
+    return hash == 0 ? 1 : hash;
+  }
+
+  /**
+   * Hash of the fields compared by {@link SyntacticEquivalence#areEquivalent(Tree, Tree)} besides the children.
+   */
+  private static int fieldsHash(Tree tree) {
+    int hash = 0;
+    if (tree instanceof NativeTree nativeTree) {
+      hash = 31 * hash + nativeTree.nativeKind().hashCode();
+    }
+    if (tree instanceof UnaryExpressionTree unaryExpression) {
+      hash = 31 * hash + unaryExpression.operator().ordinal();
+    }
+    if (tree instanceof BinaryExpressionTree binaryExpression) {
+      hash = 31 * hash + binaryExpression.operator().ordinal();
+    }
+    if (tree instanceof AssignmentExpressionTree assignmentExpression) {
+      hash = 31 * hash + assignmentExpression.operator().ordinal();
+    }
+    if (tree instanceof VariableDeclarationTree variableDeclaration) {
+      hash = 31 * hash + Boolean.hashCode(variableDeclaration.isVal());
+    }
+    if (tree instanceof LoopTree loop) {
+      hash = 31 * (31 * hash + loop.kind().ordinal()) + loop.keyword().text().hashCode();
+    }
+    if (tree instanceof ModifierTree modifier) {
+      hash = 31 * hash + modifier.kind().ordinal();
+    }
+    if (tree instanceof JumpTree jump) {
+      hash = 31 * hash + jump.kind().ordinal();
+    }
+    if (tree instanceof FunctionInvocationTree functionInvocation) {
+      hash = 31 * hash + Boolean.hashCode(functionInvocation.hasVariadicSpread());
+    }
+    return hash;
+  }
+}
@@ -16,36 +16,63 @@
  */
 package org.sonar.go.impl;
 
-import java.util.Objects;
 import org.sonar.plugins.go.api.TextPointer;
 
+/**
+ * Text pointer stored as a single {@code long}, see {@link #pack(int, int)}.
+ */
 public class TextPointerImpl implements TextPointer {
 
-  private final int line;
-  private final int lineOffset;
+  private final long position;
 
   public TextPointerImpl(int line, int lineOffset) {
-    this.line = line;
-    this.lineOffset = lineOffset;
+    this(pack(line, lineOffset));
+  }
+
+  TextPointerImpl(long position) {
+    this.position = position;
+  }
+
+  /**
+   * Packs the line in the upper 32 bits and the line offset in the lower 32 bits of a {@code long}. The line offset is
+   * shifted by {@link Integer#MIN_VALUE}, so the natural order of the packed values is the order of the pointers.
+   */
+  public static long pack(int line, int lineOffset) {
+    return ((long) line << 32) | ((lineOffset - Integer.MIN_VALUE) & 0xFFFFFFFFL);
+  }
+
+  public static long pack(TextPointer pointer) {
+    if (pointer instanceof TextPointerImpl pointerImpl) {
+      return pointerImpl.position;
+    }
+    return pack(pointer.line(), pointer.lineOffset());
+  }
+
+  public static int line(long position) {
+    return (int) (position >> 32);
+  }
+
+  public static int lineOffset(long position) {
+    return (int) position + Integer.MIN_VALUE;
+  }
+
+  long position() {
+    return position;
   }
 
   @Override
   public int line() {
-    return line;
+    return line(position);
   }
 
   @Override
   public int lineOffset() {
-    return lineOffset;
+    return lineOffset(position);
   }
 
   @Override
   public int compareTo(TextPointer other) {
-    int lineCompare = Integer.compare(this.line(), other.line());
-    if (lineCompare != 0) {
-      return lineCompare;
-    }
-    return Integer.compare(this.lineOffset(), other.lineOffset());
+    return Long.compare(position, pack(other));
   }
 
   @Override
@@ -57,12 +84,12 @@ public class TextPointerImpl implements TextPointer {
       return false;
     }
     TextPointerImpl that = (TextPointerImpl) o;
-    return line == that.line && lineOffset == that.lineOffset;
+    return position == that.position;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(line, lineOffset);
+    return Long.hashCode(position);
   }
 
 }
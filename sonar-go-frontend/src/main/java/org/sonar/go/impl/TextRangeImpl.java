@@ -16,32 +16,58 @@
  */
 package org.sonar.go.impl;
 
-import java.util.Objects;
 import org.sonar.plugins.go.api.TextPointer;
 import org.sonar.plugins.go.api.TextRange;
 
+/**
+ * Text range stored as the packed start and end positions of {@link TextPointerImpl#pack(int, int)}. The pointers are
+ * only created when they are requested, the comparisons are done on the packed positions.
+ */
 public class TextRangeImpl implements TextRange {
 
-  private final TextPointer start;
-  private final TextPointer end;
+  private final long start;
+  private final long end;
 
   public TextRangeImpl(int startLine, int startLineOffset, int endLine, int endLineOffset) {
-    this(new TextPointerImpl(startLine, startLineOffset), new TextPointerImpl(endLine, endLineOffset));
+    this(TextPointerImpl.pack(startLine, startLineOffset), TextPointerImpl.pack(endLine, endLineOffset));
   }
 
   public TextRangeImpl(TextPointer start, TextPointer end) {
+    this(TextPointerImpl.pack(start), TextPointerImpl.pack(end));
+  }
+
+  TextRangeImpl(long start, long end) {
     this.start = start;
     this.end = end;
   }
 
+  public static long packedStart(TextRange range) {
+    if (range instanceof TextRangeImpl rangeImpl) {
+      return rangeImpl.start;
+    }
+    return TextPointerImpl.pack(range.start());
+  }
+
+  public static long packedEnd(TextRange range) {
+    if (range instanceof TextRangeImpl rangeImpl) {
+      return rangeImpl.end;
+    }
+    return TextPointerImpl.pack(range.end());
+  }
+
   @Override
   public TextPointer start() {
-    return start;
+    return new TextPointerImpl(start);
   }
 
   @Override
   public TextPointer end() {
-    return end;
+    return new TextPointerImpl(end);
+  }
+
+  @Override
+  public boolean isInside(TextRange other) {
+    return start >= packedStart(other) && end <= packedEnd(other);
   }
 
   @Override
@@ -53,16 +79,17 @@ public class TextRangeImpl implements TextRange {
       return false;
     }
     TextRangeImpl textRange = (TextRangeImpl) o;
-    return Objects.equals(start, textRange.start) && Objects.equals(end, textRange.end);
+    return start == textRange.start && end == textRange.end;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(start, end);
+    return 31 * Long.hashCode(start) + Long.hashCode(end);
   }
 
   @Override
   public String toString() {
-    return "TextRange[" + start.line() + ", " + start.lineOffset() + ", " + end.line() + ", " + end.lineOffset() + ']';
+    return "TextRange[" + TextPointerImpl.line(start) + ", " + TextPointerImpl.lineOffset(start) + ", "
+      + TextPointerImpl.line(end) + ", " + TextPointerImpl.lineOffset(end) + ']';
   }
 }
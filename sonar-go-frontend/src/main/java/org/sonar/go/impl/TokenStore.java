@@ -0,0 +1,237 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.impl;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import org.sonar.plugins.go.api.TextRange;
+import org.sonar.plugins.go.api.Token;
+
+/**
+ * Columnar storage of the tokens of a file, sorted by start position. The positions are kept in primitive arrays, the
+ * type as a byte, and the text as offsets into a single string holding the text of all the tokens one after the other.
+ * <p>
+ * The start and end positions are packed in a {@code long} by {@link TextPointerImpl#pack(int, int)}. The {@link Token}
+ * objects are only created when they are read, through a {@link Slice}: a view over a range of consecutive tokens,
+ * which is returned without copying anything. Since the tokens do not overlap, both their start and end positions are
+ * sorted, so the tokens inside a text range are found with two binary searches over the packed positions.
+ */
+public final class TokenStore {
+
+  private static final Token.Type[] TYPES = Token.Type.values();
+
+  private final long[] starts;
+  private final long[] ends;
+  private final byte[] types;
+  // The text of the token "i" is texts[textOffsets[i], textOffsets[i + 1])
+  private final int[] textOffsets;
+  private final String texts;
+
+  TokenStore(List<Token> tokens) {
+    var sortedTokens = tokens;
+    if (!isSorted(tokens)) {
+      sortedTokens = new ArrayList<>(tokens);
+      sortedTokens.sort(TreeMetaDataProvider.COMPARATOR);
+    }
+    int size = sortedTokens.size();
+    starts = new long[size];
+    ends = new long[size];
+    types = new byte[size];
+    textOffsets = new int[size + 1];
+    var text = new StringBuilder();
+    for (int i = 0; i < size; i++) {
+      var token = sortedTokens.get(i);
+      var range = token.textRange();
+      starts[i] = TextRangeImpl.packedStart(range);
+      ends[i] = TextRangeImpl.packedEnd(range);
+      types[i] = (byte) token.type().ordinal();
+      textOffsets[i] = text.length();
+      text.append(token.text());
+    }
+    textOffsets[size] = text.length();
+    texts = text.toString();
+  }
+
+  private static boolean isSorted(List<Token> tokens) {
+    for (int i = 1; i < tokens.size(); i++) {
+      if (TreeMetaDataProvider.COMPARATOR.compare(tokens.get(i - 1), tokens.get(i)) > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int size() {
+    return types.length;
+  }
+
+  public Token token(int index) {
+    return new TokenImpl(new TextRangeImpl(starts[index], ends[index]), text(index), type(index));
+  }
+
+  public String text(int index) {
+    return texts.substring(textOffsets[index], textOffsets[index + 1]);
+  }
+
+  public Token.Type type(int index) {
+    return TYPES[types[index]];
+  }
+
+  long start(int index) {
+    return starts[index];
+  }
+
+  int startLine(int index) {
+    return TextPointerImpl.line(starts[index]);
+  }
+
+  int endLine(int index) {
+    return TextPointerImpl.line(ends[index]);
+  }
+
+  void setType(int index, Token.Type type) {
+    types[index] = (byte) type.ordinal();
+  }
+
+  /**
+   * Returns the index of the first token inside the text range, or -1 if there is none.
+   */
+  public int indexOfFirstToken(TextRange textRange) {
+    return indexOfFirstToken(TextRangeImpl.packedStart(textRange), TextRangeImpl.packedEnd(textRange));
+  }
+
+  int indexOfFirstToken(long start, long end) {
+    int index = firstStartingAtOrAfter(start);
+    if (index < size() && ends[index] <= end) {
+      return index;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the view of the tokens inside the text range.
+   */
+  public Slice tokensInside(TextRange textRange) {
+    return tokensInside(TextRangeImpl.packedStart(textRange), TextRangeImpl.packedEnd(textRange));
+  }
+
+  Slice tokensInside(long start, long end) {
+    int first = indexOfFirstToken(start, end);
+    if (first == -1) {
+      return new Slice(0, 0);
+    }
+    return new Slice(first, firstEndingAfter(first, end));
+  }
+
+  public Slice allTokens() {
+    return new Slice(0, size());
+  }
+
+  private int firstStartingAtOrAfter(long position) {
+    int low = 0;
+    int high = size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (starts[middle] < position) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int firstEndingAfter(int from, long position) {
+    int low = from;
+    int high = size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (ends[middle] <= position) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Read-only view of the tokens between two indexes of the store. Each call to {@link #get(int)} creates the token
+   * from the columns of the store, so the types updated in the store are visible through the existing views.
+   */
+  public final class Slice extends AbstractList<Token> implements RandomAccess {
+
+    private final int from;
+    private final int to;
+
+    private Slice(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public Token get(int index) {
+      return token(from + Objects.checkIndex(index, size()));
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public List<Token> subList(int fromIndex, int toIndex) {
+      Objects.checkFromToIndex(fromIndex, toIndex, size());
+      return new Slice(from + fromIndex, from + toIndex);
+    }
+
+    /**
+     * Compares the text of the tokens of both views, without creating the tokens.
+     */
+    public boolean hasSameTextsAs(Slice other) {
+      if (size() != other.size()) {
+        return false;
+      }
+      var otherStore = other.store();
+      for (int i = 0; i < size(); i++) {
+        int offset = textOffsets[from + i];
+        int length = textOffsets[from + i + 1] - offset;
+        int otherOffset = otherStore.textOffsets[other.from + i];
+        int otherLength = otherStore.textOffsets[other.from + i + 1] - otherOffset;
+        if (length != otherLength || !texts.regionMatches(offset, otherStore.texts, otherOffset, length)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    int from() {
+      return from;
+    }
+
+    int to() {
+      return to;
+    }
+
+    private TokenStore store() {
+      return TokenStore.this;
+    }
+  }
+}
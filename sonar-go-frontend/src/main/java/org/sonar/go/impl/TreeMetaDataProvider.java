@@ -19,38 +19,44 @@ package org.sonar.go.impl;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import org.sonar.go.utils.LineSet;
 import org.sonar.plugins.go.api.Annotation;
 import org.sonar.plugins.go.api.Comment;
 import org.sonar.plugins.go.api.HasTextRange;
-import org.sonar.plugins.go.api.TextPointer;
 import org.sonar.plugins.go.api.TextRange;
 import org.sonar.plugins.go.api.Token;
 import org.sonar.plugins.go.api.TreeMetaData;
 
+/**
+ * Comments, tokens and annotations of a file, looked up by text range. The tokens are kept in a columnar {@link TokenStore},
+ * and the lists returned for a text range are views over the sorted elements, they are not copied.
+ */
 public class TreeMetaDataProvider {
 
   public static final Comparator<HasTextRange> COMPARATOR = Comparator.comparing(e -> e.textRange().start());
 
   private final List<Comment> sortedComments;
   private final List<Annotation> sortedAnnotations;
-  private final List<Token> sortedTokens;
+  private final TokenStore tokens;
 
   public TreeMetaDataProvider(List<Comment> comments, List<Token> tokens) {
     this(comments, tokens, Collections.emptyList());
   }
 
   public TreeMetaDataProvider(List<Comment> comments, List<Token> tokens, List<Annotation> annotations) {
-    this.sortedComments = new ArrayList<>(comments);
-    this.sortedComments.sort(COMPARATOR);
-    this.sortedTokens = new ArrayList<>(tokens);
-    this.sortedTokens.sort(COMPARATOR);
-    this.sortedAnnotations = new ArrayList<>(annotations);
-    this.sortedAnnotations.sort(COMPARATOR);
+    this.sortedComments = sorted(comments);
+    this.tokens = new TokenStore(tokens);
+    this.sortedAnnotations = sorted(annotations);
+  }
+
+  private static <T extends HasTextRange> List<T> sorted(List<T> elements) {
+    List<T> sortedElements = new ArrayList<>(elements);
+    sortedElements.sort(COMPARATOR);
+    return sortedElements;
   }
 
   public List<Comment> allComments() {
@@ -58,28 +64,28 @@ public class TreeMetaDataProvider {
   }
 
   public List<Token> allTokens() {
-    return sortedTokens;
+    return tokens.allTokens();
   }
 
   public int indexOfFirstToken(TextRange textRange) {
-    return indexOfFirstElement(sortedTokens, textRange);
+    return tokens.indexOfFirstToken(textRange);
   }
 
   public Optional<Token> firstToken(TextRange textRange) {
-    int textRangeIndex = indexOfFirstElement(sortedTokens, textRange);
+    int textRangeIndex = tokens.indexOfFirstToken(textRange);
     if (textRangeIndex == -1) {
       return Optional.empty();
     } else {
-      return Optional.of(sortedTokens.get(textRangeIndex));
+      return Optional.of(tokens.token(textRangeIndex));
     }
   }
 
   public Optional<Token> previousToken(TextRange textRange) {
-    int textRangeIndex = indexOfFirstElement(sortedTokens, textRange);
+    int textRangeIndex = tokens.indexOfFirstToken(textRange);
     if (textRangeIndex <= 0) {
       return Optional.empty();
     } else {
-      return Optional.of(sortedTokens.get(textRangeIndex - 1));
+      return Optional.of(tokens.token(textRangeIndex - 1));
     }
   }
 
@@ -96,74 +102,86 @@ public class TreeMetaDataProvider {
     if (!isExistingToken(token, tokenIndex)) {
       throw new IllegalArgumentException("token '" + token.text() + "' not found in metadata, " + token.textRange());
     }
-    this.sortedTokens.set(tokenIndex, new TokenImpl(token.textRange(), token.text(), newType));
+    tokens.setType(tokenIndex, newType);
   }
 
   private boolean isExistingToken(Token token, int tokenIndex) {
-    return tokenIndex != -1 && this.sortedTokens.get(tokenIndex) == token;
+    return tokenIndex != -1 && tokens.token(tokenIndex).equals(token);
   }
 
   public Token keyword(TextRange textRange) {
-    List<Token> keywordsInRange = getElementsInRange(sortedTokens, textRange).stream()
-      .filter(t -> t.type() == Token.Type.KEYWORD)
-      .toList();
-    if (keywordsInRange.size() != 1) {
+    var tokensInRange = tokens.tokensInside(textRange);
+    int keywordCount = 0;
+    int keywordIndex = -1;
+    for (int i = tokensInRange.from(); i < tokensInRange.to(); i++) {
+      if (tokens.type(i) == Token.Type.KEYWORD) {
+        keywordCount++;
+        keywordIndex = i;
+      }
+    }
+    if (keywordCount != 1) {
       throw new IllegalArgumentException("Cannot find single keyword in " + textRange);
     }
-    return keywordsInRange.get(0);
+    return tokens.token(keywordIndex);
   }
 
-  private static <T extends HasTextRange> int indexOfFirstElement(List<T> sortedList, TextRange textRange) {
-    HasTextRange key = () -> textRange;
-    int index = Collections.binarySearch(sortedList, key, COMPARATOR);
-    if (index < 0) {
-      index = -index - 1;
+  private static <T extends HasTextRange> int indexOfFirstElement(List<T> sortedList, long start, long end) {
+    int low = 0;
+    int high = sortedList.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (TextRangeImpl.packedStart(sortedList.get(middle).textRange()) < start) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
     }
-    if (index < sortedList.size() && sortedList.get(index).textRange().isInside(textRange)) {
-      return index;
+    if (low < sortedList.size() && isInside(sortedList.get(low), start, end)) {
+      return low;
     }
     return -1;
   }
 
-  private static <T extends HasTextRange> List<T> getElementsInRange(List<T> sortedList, TextRange textRange) {
-    int first = indexOfFirstElement(sortedList, textRange);
+  private static boolean isInside(HasTextRange element, long start, long end) {
+    var textRange = element.textRange();
+    return TextRangeImpl.packedStart(textRange) >= start && TextRangeImpl.packedEnd(textRange) <= end;
+  }
+
+  private static <T extends HasTextRange> List<T> getElementsInRange(List<T> sortedList, long start, long end) {
+    int first = indexOfFirstElement(sortedList, start, end);
     if (first == -1) {
       return Collections.emptyList();
     }
-    List<T> elementsInsideRange = new ArrayList<>();
-    for (int i = first; i < sortedList.size(); i++) {
-      T element = sortedList.get(i);
-      if (!element.textRange().isInside(textRange)) {
-        break;
-      }
-      elementsInsideRange.add(element);
+    int last = first + 1;
+    while (last < sortedList.size() && isInside(sortedList.get(last), start, end)) {
+      last++;
     }
-    return elementsInsideRange;
+    return sortedList.subList(first, last);
   }
 
-  private static List<Annotation> getAnnotationStartingAtRange(List<Annotation> sortedList, List<Token> sortedToken, TextRange textRange) {
-    int first = indexOfFirstElement(sortedList, textRange);
+  private List<Annotation> getAnnotationStartingAtRange(long start, long end) {
+    int first = indexOfFirstElement(sortedAnnotations, start, end);
     if (first == -1) {
       return Collections.emptyList();
     }
 
     List<Annotation> elementsInsideRange = new ArrayList<>();
-    TextPointer currentPointer = textRange.start();
+    long currentPosition = start;
 
-    for (int i = first; i < sortedList.size(); i++) {
-      Annotation currentAnnotation = sortedList.get(i);
-      if (!currentAnnotation.textRange().start().equals(currentPointer)) {
+    for (int i = first; i < sortedAnnotations.size(); i++) {
+      Annotation currentAnnotation = sortedAnnotations.get(i);
+      if (TextRangeImpl.packedStart(currentAnnotation.textRange()) != currentPosition) {
         break;
       }
       // We found a first annotation starting at the beginning of the text range.
       elementsInsideRange.add(currentAnnotation);
       // In addition, we also want all annotations that are just after the current one.
       // A potential candidate is one starting at the position of the token following the current annotation.
-      int nextAnnotation = indexOfFirstElement(sortedToken, new TextRangeImpl(currentAnnotation.textRange().end(), textRange.end()));
+      int nextAnnotation = tokens.indexOfFirstToken(TextRangeImpl.packedEnd(currentAnnotation.textRange()), end);
       if (nextAnnotation < 0) {
         break;
       } else {
-        currentPointer = sortedToken.get(nextAnnotation).textRange().start();
+        currentPosition = tokens.start(nextAnnotation);
       }
     }
 
@@ -171,40 +189,45 @@ public class TreeMetaDataProvider {
   }
 
   public TreeMetaData metaData(TextRange textRange) {
-    return new TreeMetaDataImpl(textRange);
+    return new TreeMetaDataImpl(TextRangeImpl.packedStart(textRange), TextRangeImpl.packedEnd(textRange));
   }
 
+  /**
+   * Meta-data of a tree, which holds the packed positions of its text range instead of a {@link TextRange} object.
+   */
   private class TreeMetaDataImpl implements TreeMetaData {
 
-    private final TextRange textRange;
+    private final long start;
+    private final long end;
     private Set<Integer> linesOfCode;
     private List<Annotation> annotations;
 
-    private TreeMetaDataImpl(TextRange textRange) {
-      this.textRange = textRange;
+    private TreeMetaDataImpl(long start, long end) {
+      this.start = start;
+      this.end = end;
     }
 
     @Override
     public TextRange textRange() {
-      return textRange;
+      return new TextRangeImpl(start, end);
     }
 
     @Override
     public List<Comment> commentsInside() {
-      return getElementsInRange(sortedComments, textRange);
+      return getElementsInRange(sortedComments, start, end);
     }
 
     @Override
     public List<Annotation> annotations() {
       if (annotations == null) {
-        annotations = getAnnotationStartingAtRange(sortedAnnotations, sortedTokens, textRange);
+        annotations = getAnnotationStartingAtRange(start, end);
       }
       return annotations;
     }
 
     @Override
     public List<Token> tokens() {
-      return getElementsInRange(sortedTokens, textRange);
+      return tokens.tokensInside(start, end);
     }
 
     @Override
@@ -216,12 +239,10 @@ public class TreeMetaDataProvider {
     }
 
     private Set<Integer> computeLinesOfCode() {
-      Set<Integer> loc = new HashSet<>();
-      for (Token token : tokens()) {
-        TextRange range = token.textRange();
-        for (int i = range.start().line(); i <= range.end().line(); i++) {
-          loc.add(i);
-        }
+      var loc = new LineSet();
+      var tokensInside = tokens.tokensInside(start, end);
+      for (int token = tokensInside.from(); token < tokensInside.to(); token++) {
+        loc.addRange(tokens.startLine(token), tokens.endLine(token));
       }
       return loc;
     }
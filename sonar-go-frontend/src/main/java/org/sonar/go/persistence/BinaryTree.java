@@ -0,0 +1,226 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.persistence;
+
+import com.eclipsesource.json.JsonHandler;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import org.sonar.go.persistence.conversion.StreamingDeserializer;
+import org.sonar.go.persistence.conversion.StringPool;
+import org.sonar.plugins.go.api.TreeOrError;
+
+/**
+ * Reader of the binary document written by "sonar-go-to-slang" (see binarySlang.go), which has the same structure
+ * as the JSON document read by {@link JsonTree#fromJson(String)}, but without the cost of producing and parsing
+ * the JSON text: strings are written once and then referenced by their index, text ranges and numbers are varints.
+ * <p>
+ * The document is read as a sequence of the same events as the ones of the JSON parser, which are handled by
+ * {@link StreamingDeserializer}: the trees are built while the document is read, without JSON objects for the whole files.
+ */
+public final class BinaryTree {
+
+  static final byte[] MAGIC = "SLB1".getBytes(StandardCharsets.US_ASCII);
+
+  static final int TAG_NULL = 0;
+  static final int TAG_FALSE = 1;
+  static final int TAG_TRUE = 2;
+  static final int TAG_INT = 3;
+  static final int TAG_STRING = 4;
+  static final int TAG_RANGE = 5;
+  static final int TAG_ARRAY = 6;
+  static final int TAG_OBJECT = 7;
+
+  private final byte[] data;
+  private int position;
+  // The same string is often used many times (keys, "@type" values, identifiers...), so a single instance is shared
+  private final List<String> strings = new ArrayList<>();
+
+  private BinaryTree(byte[] data) {
+    this.data = data;
+  }
+
+  public static Map<String, TreeOrError> fromBinary(byte[] data) {
+    Map<String, TreeOrError> trees = new HashMap<>();
+    fromBinary(data, trees::put);
+    return trees;
+  }
+
+  /**
+   * Passes each file to the consumer as soon as it is converted, so the objects of the next file are not yet created.
+   */
+  public static void fromBinary(byte[] data, BiConsumer<String, TreeOrError> consumer) {
+    fromBinary(data, StringPool.NONE, consumer);
+  }
+
+  /**
+   * Same as {@link #fromBinary(byte[], BiConsumer)}, the repeated strings of the trees are taken from the string pool.
+   */
+  public static void fromBinary(byte[] data, StringPool stringPool, BiConsumer<String, TreeOrError> consumer) {
+    new BinaryTree(data).readFiles(stringPool, consumer);
+  }
+
+  private void readFiles(StringPool stringPool, BiConsumer<String, TreeOrError> consumer) {
+    readMagic();
+    expectTag(TAG_OBJECT);
+    readObject(StreamingDeserializer.filesHandler(stringPool, consumer));
+    if (position != data.length) {
+      throw new IllegalStateException("Unexpected trailing bytes at position " + position);
+    }
+  }
+
+  private void readMagic() {
+    if (data.length < MAGIC.length) {
+      throw new IllegalStateException("Invalid binary tree: missing header");
+    }
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (data[i] != MAGIC[i]) {
+        throw new IllegalStateException("Invalid binary tree: unexpected header");
+      }
+    }
+    position = MAGIC.length;
+  }
+
+  private <A, O> void readValue(JsonHandler<A, O> handler) {
+    int tag = readByte();
+    switch (tag) {
+      case TAG_NULL -> {
+        handler.startNull();
+        handler.endNull();
+      }
+      case TAG_FALSE, TAG_TRUE -> {
+        handler.startBoolean();
+        handler.endBoolean(tag == TAG_TRUE);
+      }
+      case TAG_INT -> {
+        handler.startNumber();
+        handler.endNumber(Long.toString(zigZagDecode(readUnsignedVarLong())));
+      }
+      case TAG_STRING -> {
+        handler.startString();
+        handler.endString(strings.get(readStringIndex()));
+      }
+      case TAG_RANGE -> {
+        handler.startString();
+        handler.endString(readRange());
+      }
+      case TAG_ARRAY -> readArray(handler);
+      case TAG_OBJECT -> readObject(handler);
+      default -> throw new IllegalStateException("Unexpected tag " + tag + " at position " + (position - 1));
+    }
+  }
+
+  /**
+   * Same sequence of events as {@link com.eclipsesource.json.JsonParser}.
+   */
+  private <A, O> void readArray(JsonHandler<A, O> handler) {
+    var array = handler.startArray();
+    int count = readCount();
+    for (int i = 0; i < count; i++) {
+      handler.startArrayValue(array);
+      readValue(handler);
+      handler.endArrayValue(array);
+    }
+    handler.endArray(array);
+  }
+
+  private <A, O> void readObject(JsonHandler<A, O> handler) {
+    var object = handler.startObject();
+    int count = readCount();
+    for (int i = 0; i < count; i++) {
+      handler.startObjectName(object);
+      String key = strings.get(readStringIndex());
+      handler.endObjectName(object, key);
+      handler.startObjectValue(object, key);
+      readValue(handler);
+      handler.endObjectValue(object, key);
+    }
+    handler.endObject(object);
+  }
+
+  /**
+   * Same format as {@link org.sonar.go.persistence.conversion.RangeConverter#format}, as expected by the converters.
+   */
+  private String readRange() {
+    int startLine = readCount();
+    int startColumn = readCount();
+    int lineDelta = readCount();
+    int endColumn = readCount();
+    String endLine = lineDelta == 0 ? "" : Integer.toString(startLine + lineDelta);
+    return startLine + ":" + startColumn + ":" + endLine + ":" + endColumn;
+  }
+
+  private int readStringIndex() {
+    int reference = readCount();
+    if (reference > 0) {
+      if (reference > strings.size()) {
+        throw new IllegalStateException("Invalid string reference " + reference + " at position " + position);
+      }
+      return reference - 1;
+    }
+    int length = readCount();
+    if (length > data.length - position) {
+      throw new IllegalStateException("Invalid string length " + length + " at position " + position);
+    }
+    var value = new String(data, position, length, StandardCharsets.UTF_8);
+    position += length;
+    strings.add(value);
+    return strings.size() - 1;
+  }
+
+  private void expectTag(int expected) {
+    int tag = readByte();
+    if (tag != expected) {
+      throw new IllegalStateException("Expected tag " + expected + " but got " + tag + " at position " + (position - 1));
+    }
+  }
+
+  private int readCount() {
+    long value = readUnsignedVarLong();
+    if (value > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Invalid count " + value + " at position " + position);
+    }
+    return (int) value;
+  }
+
+  private long readUnsignedVarLong() {
+    long result = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = readByte();
+      result |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new IllegalStateException("Invalid varint at position " + position);
+  }
+
+  private int readByte() {
+    if (position >= data.length) {
+      throw new IllegalStateException("Unexpected end of binary tree");
+    }
+    return data[position++] & 0xFF;
+  }
+
+  private static long zigZagDecode(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+}
@@ -20,10 +20,13 @@ import com.eclipsesource.json.Json;
 import com.eclipsesource.json.JsonObject;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import org.sonar.go.impl.TreeMetaDataProvider;
 import org.sonar.go.persistence.conversion.DeserializationContext;
 import org.sonar.go.persistence.conversion.JsonTreeConverter;
 import org.sonar.go.persistence.conversion.SerializationContext;
+import org.sonar.go.persistence.conversion.StreamingDeserializer;
+import org.sonar.go.persistence.conversion.StringPool;
 import org.sonar.plugins.go.api.Tree;
 import org.sonar.plugins.go.api.TreeMetaData;
 import org.sonar.plugins.go.api.TreeOrError;
@@ -58,24 +61,20 @@ public final class JsonTree {
 
   public static Map<String, TreeOrError> fromJson(String json) {
     Map<String, TreeOrError> trees = new HashMap<>();
-    JsonObject root = Json.parse(json).asObject();
-    for (String name : root.names()) {
-      var treeRoot = root.get(name).asObject();
-      var errorJson = treeRoot.get("error");
-      if (errorJson != null && errorJson.isString()) {
-        var errorMessage = errorJson.asString();
-        trees.put(name, TreeOrError.of(errorMessage));
-      } else {
-        try {
-          var tree = fromJsonSingleTree(treeRoot);
-          trees.put(name, TreeOrError.of(tree));
-        } catch (RuntimeException e) {
-          // If there is an error during parsing, we store it as an error message
-          trees.put(name, TreeOrError.of("Error converting json tree: " + e.getMessage()));
-        }
-      }
-    }
+    fromJson(json, trees::put);
     return trees;
   }
 
+  /**
+   * Passes each file to the consumer as soon as it is converted. The trees are built while the document is parsed,
+   * see {@link StreamingDeserializer}.
+   */
+  public static void fromJson(String json, BiConsumer<String, TreeOrError> consumer) {
+    StreamingDeserializer.fromJson(json, consumer);
+  }
+
+  public static void fromJson(String json, StringPool stringPool, BiConsumer<String, TreeOrError> consumer) {
+    StreamingDeserializer.fromJson(json, stringPool, consumer);
+  }
+
 }
@@ -0,0 +1,57 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.persistence.conversion;
+
+import com.eclipsesource.json.JsonObject;
+import org.sonar.plugins.go.api.Tree;
+
+/**
+ * Placeholder of a child tree already converted by the {@link StreamingDeserializer}, in the JSON object of its parent.
+ * It is resolved by {@link DeserializationContext} instead of converting the JSON object of the child once again.
+ * Only the "@type" member is kept, for the error messages.
+ */
+final class ConvertedTree extends JsonObject {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient Tree tree;
+  private final String jsonType;
+
+  ConvertedTree(Tree tree, String jsonType) {
+    this.tree = tree;
+    this.jsonType = jsonType;
+    add(SerializationContext.TYPE_ATTRIBUTE, jsonType);
+  }
+
+  Tree tree() {
+    return tree;
+  }
+
+  String jsonType() {
+    return jsonType;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    return this == object;
+  }
+
+  @Override
+  public int hashCode() {
+    return System.identityHashCode(this);
+  }
+}
@@ -66,6 +66,7 @@ public class DeserializationContext {
   private final Map<Integer, Tree> cfgIndexToTree = new HashMap<>();
 
   private TreeMetaDataProvider metaDataProvider = null;
+  private StringPool stringPool = StringPool.NONE;
 
   public DeserializationContext(PolymorphicConverter polymorphicConverter) {
     this.polymorphicConverter = polymorphicConverter;
@@ -76,6 +77,18 @@ public class DeserializationContext {
     return this;
   }
 
+  public DeserializationContext withStringPool(StringPool stringPool) {
+    this.stringPool = stringPool;
+    return this;
+  }
+
+  /**
+   * Returns the instance of the string shared by all the trees of the analysis, see {@link StringPool}.
+   */
+  public String intern(String value) {
+    return stringPool.intern(value);
+  }
+
   public void pushPath(String fieldName) {
     jsonPath.addLast(fieldName);
   }
@@ -191,6 +204,10 @@ public class DeserializationContext {
     return value.asString();
   }
 
+  public String fieldToInternedString(JsonObject json, String fieldName) {
+    return intern(fieldToString(json, fieldName));
+  }
+
   public String fieldToString(JsonObject json, String fieldName, String defaultValue) {
     return json.getString(fieldName, defaultValue);
   }
@@ -220,7 +237,17 @@ public class DeserializationContext {
     return RangeConverter.resolveToken(metaDataProvider, fieldToNullableString(json, fieldName));
   }
 
+  /**
+   * Converts the JSON object of a tree whose children may already be converted, see {@link StreamingDeserializer}.
+   */
+  Tree convertTree(JsonObject json, String memberName) {
+    return object(json, memberName, Tree.class);
+  }
+
   private <T extends Tree> T object(JsonValue json, String memberName, Class<T> expectedClass) {
+    if (json instanceof ConvertedTree convertedTree) {
+      return convertedObject(convertedTree, memberName, expectedClass);
+    }
     pushPath(memberName);
     if (!json.isObject()) {
       throw newIllegalMemberException("Unexpected value for Tree", json);
@@ -236,6 +263,18 @@ public class DeserializationContext {
     return object;
   }
 
+  private <T extends Tree> T convertedObject(ConvertedTree convertedTree, String memberName, Class<T> expectedClass) {
+    var object = convertedTree.tree();
+    if (!expectedClass.isInstance(object)) {
+      // Same message and path as PolymorphicConverter.fromJson
+      pushPath(memberName);
+      pushPath(convertedTree.jsonType());
+      throw newIllegalMemberException("Unexpected '" + object.getClass().getName() + "' type for member '" + memberName + "'" +
+        " instead of '" + expectedClass.getName() + "'", convertedTree);
+    }
+    return expectedClass.cast(object);
+  }
+
   public FunctionDeclarationTreeImpl functionDeclarationTree(JsonObject json) {
     var returnType = fieldToNullableObject(json, RETURN_TYPE, Tree.class);
     var receiver = fieldToNullableObject(json, RECEIVER, Tree.class);
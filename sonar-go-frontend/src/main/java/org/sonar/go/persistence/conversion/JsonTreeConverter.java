@@ -204,7 +204,8 @@ public final class JsonTreeConverter {
 
   public static final Serialize<Type> TYPE_TO_JSON = (ctx, type) -> Json.value(type.type());
 
-  public static final BiFunction<DeserializationContext, String, Type> TYPE_FROM_JSON = (deserializationContext, text) -> TypeImpl.createFromType(text);
+  public static final BiFunction<DeserializationContext, String, Type> TYPE_FROM_JSON = (deserializationContext,
+    text) -> TypeImpl.createFromType(deserializationContext.intern(text));
 
   static {
 
@@ -368,9 +369,9 @@ public final class JsonTreeConverter {
 
       (ctx, json) -> new IdentifierTreeImpl(
         ctx.metaData(json),
-        ctx.fieldToString(json, NAME),
-        ctx.fieldToString(json, TYPE),
-        ctx.fieldToString(json, PACKAGE),
+        ctx.fieldToInternedString(json, NAME),
+        ctx.fieldToInternedString(json, TYPE),
+        ctx.fieldToInternedString(json, PACKAGE),
         ctx.fieldToInt(json, ID)));
 
     register(IfTreeImpl.class,
@@ -49,14 +49,17 @@ public final class RangeConverter {
     if (value == null) {
       return null;
     }
-    String[] values = value.split(":", 4);
-    if (values.length != 4) {
+    // Same as splitting on ':' and parsing the 4 values, without creating the strings of the values
+    int firstColon = value.indexOf(':');
+    int secondColon = firstColon < 0 ? -1 : value.indexOf(':', firstColon + 1);
+    int thirdColon = secondColon < 0 ? -1 : value.indexOf(':', secondColon + 1);
+    if (thirdColon < 0) {
       throw new IllegalArgumentException("Invalid TextRange '" + value + "'");
     }
-    int startLine = Integer.parseInt(values[0]);
-    int startLineOffset = Integer.parseInt(values[1]);
-    int endLine = values[2].isEmpty() ? startLine : Integer.parseInt(values[2]);
-    int endLineOffset = Integer.parseInt(values[3]);
+    int startLine = Integer.parseInt(value, 0, firstColon, 10);
+    int startLineOffset = Integer.parseInt(value, firstColon + 1, secondColon, 10);
+    int endLine = secondColon + 1 == thirdColon ? startLine : Integer.parseInt(value, secondColon + 1, thirdColon, 10);
+    int endLineOffset = Integer.parseInt(value, thirdColon + 1, value.length(), 10);
     return new TextRangeImpl(startLine, startLineOffset, endLine, endLineOffset);
   }
 
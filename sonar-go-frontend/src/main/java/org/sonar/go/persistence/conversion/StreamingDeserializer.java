@@ -0,0 +1,459 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.persistence.conversion;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonHandler;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonParser;
+import com.eclipsesource.json.JsonValue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.go.impl.TreeMetaDataProvider;
+import org.sonar.plugins.go.api.Comment;
+import org.sonar.plugins.go.api.Token;
+import org.sonar.plugins.go.api.Tree;
+import org.sonar.plugins.go.api.TreeOrError;
+
+import static org.sonar.go.persistence.conversion.JsonTreeConverter.COMMENTS;
+import static org.sonar.go.persistence.conversion.JsonTreeConverter.COMMENT_FROM_JSON;
+import static org.sonar.go.persistence.conversion.JsonTreeConverter.TOKENS;
+import static org.sonar.go.persistence.conversion.JsonTreeConverter.TOKEN_FROM_JSON;
+
+/**
+ * Converts the document written by "sonar-go-to-slang" to trees while it is read, without building the minimal-json
+ * DOM of the whole document first. The events of the parser are handled by a {@link JsonHandler}:
+ * <ul>
+ *   <li>the JSON object of a tree node only gets the members of the node itself, and is converted by the usual
+ *   {@link JsonTreeConverter} converters as soon as its end is read. It is then replaced in its parent by a
+ *   {@link ConvertedTree}, so there is at most one JSON object per level of the tree at a time;</li>
+ *   <li>tokens and comments are converted as soon as they are read.</li>
+ * </ul>
+ * The trees and the error messages are the same as the ones of {@link org.sonar.go.persistence.JsonTree#fromJsonSingleTree(String)},
+ * only the text of the member in the error messages may be shorter. The "treeMetaData" member is expected before the "tree"
+ * one, as written by "sonar-go-to-slang", otherwise the tree is converted only at the end of its file.
+ */
+public final class StreamingDeserializer {
+
+  private static final String TREE_META_DATA = "treeMetaData";
+  private static final String TREE = "tree";
+  private static final String ERROR = "error";
+
+  private StreamingDeserializer() {
+  }
+
+  /**
+   * Reads a document with one member per file, and passes each file to the consumer as soon as its end is read.
+   */
+  public static void fromJson(String json, BiConsumer<String, TreeOrError> consumer) {
+    fromJson(json, StringPool.NONE, consumer);
+  }
+
+  /**
+   * Same as {@link #fromJson(String, BiConsumer)}, the repeated strings of the trees are taken from the string pool.
+   */
+  public static void fromJson(String json, StringPool stringPool, BiConsumer<String, TreeOrError> consumer) {
+    var handler = new Handler(stringPool, consumer);
+    new JsonParser(handler).parse(json);
+    handler.checkRootIsObject();
+  }
+
+  /**
+   * Reads a document with the "treeMetaData" and "tree" members of a single file. Conversion errors are thrown.
+   */
+  @CheckForNull
+  public static Tree fromJsonSingleTree(String json) {
+    var handler = new Handler(StringPool.NONE, null);
+    new JsonParser(handler).parse(json);
+    handler.checkRootIsObject();
+    return handler.singleTree;
+  }
+
+  /**
+   * Handler of the events of a document with one member per file, to be driven by another reader of the same structure.
+   */
+  public static JsonHandler<?, ?> filesHandler(StringPool stringPool, BiConsumer<String, TreeOrError> consumer) {
+    return new Handler(stringPool, consumer);
+  }
+
+  private enum Kind {
+    /** The document with one member per file */
+    ROOT,
+    FILE,
+    META_DATA,
+    COMMENTS,
+    TOKENS,
+    /** A tree node, or any value inside a tree node */
+    NODE,
+    /** Any other value, read as with the DOM */
+    VALUE,
+    /** A value of a file which has already failed to be converted */
+    SKIPPED
+  }
+
+  private abstract static class Frame {
+    final Kind kind;
+    final String memberName;
+
+    Frame(Kind kind, String memberName) {
+      this.kind = kind;
+      this.memberName = memberName;
+    }
+
+    abstract String childMemberName();
+  }
+
+  private static final class ObjectFrame extends Frame {
+    @Nullable
+    final JsonObject json;
+    @Nullable
+    String currentName;
+    @Nullable
+    String jsonType;
+
+    ObjectFrame(Kind kind, String memberName) {
+      super(kind, memberName);
+      json = kind == Kind.FILE || kind == Kind.NODE || kind == Kind.VALUE ? new JsonObject() : null;
+    }
+
+    @Override
+    String childMemberName() {
+      return currentName;
+    }
+  }
+
+  private static final class ArrayFrame extends Frame {
+    @Nullable
+    final JsonArray json;
+
+    ArrayFrame(Kind kind, String memberName) {
+      super(kind, memberName);
+      json = kind == Kind.NODE || kind == Kind.VALUE ? new JsonArray() : null;
+    }
+
+    @Override
+    String childMemberName() {
+      // Same member name as DeserializationContext.fieldToObjectList
+      return memberName;
+    }
+  }
+
+  private static final class FileState {
+    final DeserializationContext ctx;
+    final List<Comment> comments = new ArrayList<>();
+    final List<Token> tokens = new ArrayList<>();
+    boolean hasMetaData = false;
+    @Nullable
+    RuntimeException conversionError;
+
+    FileState(StringPool stringPool) {
+      ctx = new DeserializationContext(JsonTreeConverter.POLYMORPHIC_CONVERTER).withStringPool(stringPool);
+    }
+  }
+
+  private static final class Handler extends JsonHandler<ArrayFrame, ObjectFrame> {
+
+    private final StringPool stringPool;
+    /** Null when reading a single tree */
+    @Nullable
+    private final BiConsumer<String, TreeOrError> consumer;
+    /** Container of the value being read */
+    @Nullable
+    private Frame parent;
+    /** Last value read, null when it is not kept as JSON */
+    @Nullable
+    private JsonValue value;
+    @Nullable
+    private FileState file;
+    private boolean hasRootObject = false;
+    @Nullable
+    private Tree singleTree;
+
+    private Handler(StringPool stringPool, @Nullable BiConsumer<String, TreeOrError> consumer) {
+      this.stringPool = stringPool;
+      this.consumer = consumer;
+    }
+
+    @Override
+    public ObjectFrame startObject() {
+      if (parent == null) {
+        hasRootObject = true;
+        if (consumer != null) {
+          return new ObjectFrame(Kind.ROOT, "");
+        }
+        file = new FileState(stringPool);
+        return new ObjectFrame(Kind.FILE, "");
+      }
+      var memberName = parent.childMemberName();
+      var kind = childKind(parent, memberName, true);
+      if (kind == Kind.FILE) {
+        file = new FileState(stringPool);
+      }
+      return new ObjectFrame(kind, memberName);
+    }
+
+    @Override
+    public ArrayFrame startArray() {
+      if (parent == null) {
+        return new ArrayFrame(Kind.VALUE, "");
+      }
+      var memberName = parent.childMemberName();
+      return new ArrayFrame(childKind(parent, memberName, false), memberName + "[]");
+    }
+
+    private Kind childKind(Frame container, String memberName, boolean isObject) {
+      if (container.kind == Kind.ROOT) {
+        return isObject ? Kind.FILE : Kind.VALUE;
+      }
+      if (hasFailed()) {
+        return Kind.SKIPPED;
+      }
+      return switch (container.kind) {
+        case FILE -> fileMemberKind(memberName, isObject);
+        case META_DATA -> metaDataMemberKind(memberName, isObject);
+        case NODE, SKIPPED -> container.kind;
+        default -> Kind.VALUE;
+      };
+    }
+
+    private Kind fileMemberKind(String memberName, boolean isObject) {
+      if (TREE_META_DATA.equals(memberName) && isObject) {
+        return Kind.META_DATA;
+      }
+      // Without the tokens, the tree is converted at the end of the file
+      return TREE.equals(memberName) && file.hasMetaData ? Kind.NODE : Kind.VALUE;
+    }
+
+    private static Kind metaDataMemberKind(String memberName, boolean isObject) {
+      if (isObject) {
+        return Kind.VALUE;
+      }
+      if (COMMENTS.equals(memberName)) {
+        return Kind.COMMENTS;
+      }
+      return TOKENS.equals(memberName) ? Kind.TOKENS : Kind.VALUE;
+    }
+
+    @Override
+    public void startObjectValue(ObjectFrame object, String name) {
+      object.currentName = name;
+      parent = object;
+    }
+
+    @Override
+    public void startArrayValue(ArrayFrame array) {
+      parent = array;
+    }
+
+    @Override
+    public void endNull() {
+      value = Json.NULL;
+    }
+
+    @Override
+    public void endBoolean(boolean bool) {
+      value = bool ? Json.TRUE : Json.FALSE;
+    }
+
+    @Override
+    public void endString(String string) {
+      value = Json.value(string);
+    }
+
+    @Override
+    public void endNumber(String string) {
+      value = number(string);
+    }
+
+    @Override
+    public void endArray(ArrayFrame array) {
+      value = array.json;
+    }
+
+    @Override
+    public void endArrayValue(ArrayFrame array) {
+      var element = value;
+      value = null;
+      switch (array.kind) {
+        case NODE, VALUE -> {
+          if (element != null) {
+            array.json.add(element);
+          }
+        }
+        case COMMENTS -> convert(() -> file.comments.add(COMMENT_FROM_JSON.apply(file.ctx, element.asObject())));
+        case TOKENS -> convert(() -> file.tokens.add(TOKEN_FROM_JSON.apply(file.ctx, element.asObject())));
+        default -> {
+          // Skipped
+        }
+      }
+    }
+
+    @Override
+    public void endObjectValue(ObjectFrame object, String name) {
+      var member = value;
+      value = null;
+      switch (object.kind) {
+        case ROOT -> {
+          if (member != null) {
+            // Same failure as the DOM, files are passed to the consumer at their end
+            member.asObject();
+          }
+        }
+        case META_DATA -> metaDataMember(name, member);
+        case FILE, NODE, VALUE -> {
+          if (member != null) {
+            object.json.add(name, member);
+            if (object.kind == Kind.NODE && SerializationContext.TYPE_ATTRIBUTE.equals(name) && member.isString() && !hasFailed()) {
+              // Same path as when the node is converted by DeserializationContext, for the errors of its children
+              object.jsonType = member.asString();
+              file.ctx.pushPath(object.memberName);
+              file.ctx.pushPath(object.jsonType);
+            }
+          }
+        }
+        default -> {
+          // Skipped
+        }
+      }
+    }
+
+    private void metaDataMember(String name, @Nullable JsonValue member) {
+      // Arrays are converted element by element, other values fail as with the DOM
+      if (member == null || hasFailed()) {
+        return;
+      }
+      if (COMMENTS.equals(name)) {
+        convert(() -> file.comments.addAll(file.ctx.objectList(member, COMMENT_FROM_JSON)));
+      } else if (TOKENS.equals(name)) {
+        convert(() -> file.tokens.addAll(file.ctx.objectList(member, TOKEN_FROM_JSON)));
+      }
+    }
+
+    @Override
+    public void endObject(ObjectFrame object) {
+      value = switch (object.kind) {
+        case NODE -> endNode(object);
+        case VALUE -> object.json;
+        case META_DATA -> {
+          endMetaData();
+          yield null;
+        }
+        case FILE -> {
+          endFile(object);
+          yield null;
+        }
+        default -> null;
+      };
+    }
+
+    @CheckForNull
+    private JsonValue endNode(ObjectFrame node) {
+      if (hasFailed()) {
+        return null;
+      }
+      if (node.jsonType == null) {
+        // Not a tree, or an invalid one which fails when its parent is converted
+        return node.json;
+      }
+      var ctx = file.ctx;
+      ctx.popPath();
+      ctx.popPath();
+      try {
+        return new ConvertedTree(ctx.convertTree(node.json, node.memberName), node.jsonType);
+      } catch (RuntimeException e) {
+        file.conversionError = e;
+        return null;
+      }
+    }
+
+    private void endMetaData() {
+      convert(() -> {
+        file.ctx.withMetaDataProvider(new TreeMetaDataProvider(file.comments, file.tokens));
+        file.hasMetaData = true;
+      });
+    }
+
+    private void endFile(ObjectFrame fileObject) {
+      if (consumer == null) {
+        singleTree = fileTree(fileObject.json);
+        file = null;
+        return;
+      }
+      TreeOrError treeOrError;
+      var errorJson = fileObject.json.get(ERROR);
+      if (errorJson != null && errorJson.isString()) {
+        treeOrError = TreeOrError.of(errorJson.asString());
+      } else {
+        try {
+          treeOrError = TreeOrError.of(fileTree(fileObject.json));
+        } catch (RuntimeException e) {
+          // If there is an error during the conversion, it is stored as an error message
+          treeOrError = TreeOrError.of("Error converting json tree: " + e.getMessage());
+        }
+      }
+      file = null;
+      consumer.accept(fileObject.memberName, treeOrError);
+    }
+
+    @CheckForNull
+    private Tree fileTree(JsonObject fileJson) {
+      if (file.conversionError != null) {
+        throw file.conversionError;
+      }
+      if (!file.hasMetaData) {
+        // Same failure as the DOM when "treeMetaData" is missing or is not an object
+        fileJson.get(TREE_META_DATA).asObject();
+      }
+      return file.ctx.fieldToNullableObject(fileJson, TREE, Tree.class);
+    }
+
+    private void convert(Runnable conversion) {
+      if (hasFailed()) {
+        return;
+      }
+      try {
+        conversion.run();
+      } catch (RuntimeException e) {
+        file.conversionError = e;
+      }
+    }
+
+    private boolean hasFailed() {
+      return file != null && file.conversionError != null;
+    }
+
+    private void checkRootIsObject() {
+      if (!hasRootObject && value != null) {
+        // Same failure as the DOM
+        value.asObject();
+      }
+    }
+
+    private static JsonValue number(String text) {
+      try {
+        return Json.value(Long.parseLong(text));
+      } catch (NumberFormatException e) {
+        // Not used by the trees, but kept as written
+        return Json.parse(text);
+      }
+    }
+  }
+}
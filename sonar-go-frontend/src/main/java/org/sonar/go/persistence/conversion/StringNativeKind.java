@@ -16,15 +16,40 @@
  */
 package org.sonar.go.persistence.conversion;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import org.sonar.plugins.go.api.NativeKind;
 
+/**
+ * Native kind of the trees which are not mapped to a specific tree class, e.g. "Results(FieldList)" or "[0](Field)".
+ * <p>
+ * The kinds returned by {@link #of(String)} are registered once per process with a sequential {@link #id()}, so the
+ * decoding of a native tree does not allocate its kind, and two registered kinds are only equal if they are the same
+ * instance. The kinds contain the indexes of the elements of the lists, which grow with the analyzed code, so only the
+ * kinds whose indexes are lower than {@link #MAX_REGISTERED_INDEX} are registered: the registry is then bounded by the
+ * kinds produced by the converter, whatever the number of analyses in the process. The other kinds, and the ones created
+ * with the constructor, are {@link #UNREGISTERED} and compared by their text.
+ */
 public class StringNativeKind implements NativeKind {
 
+  public static final int UNREGISTERED = -1;
+  static final int MAX_REGISTERED_INDEX = 16;
+
+  private static final Map<String, StringNativeKind> REGISTRY = new ConcurrentHashMap<>();
+  private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
   private final String kind;
+  private final int id;
 
   public StringNativeKind(String kind) {
+    this(kind, UNREGISTERED);
+  }
+
+  private StringNativeKind(String kind, int id) {
     this.kind = kind;
+    this.id = id;
   }
 
   @Nullable
@@ -32,7 +57,35 @@ public class StringNativeKind implements NativeKind {
     if (value == null) {
       return null;
     }
-    return new StringNativeKind(value);
+    var registered = REGISTRY.get(value);
+    if (registered != null) {
+      return registered;
+    }
+    if (hasLargeIndex(value)) {
+      return new StringNativeKind(value);
+    }
+    return REGISTRY.computeIfAbsent(value, kind -> new StringNativeKind(kind, NEXT_ID.getAndIncrement()));
+  }
+
+  /**
+   * Whether the kind contains the index of a list element, e.g. "[16](Field)" or "Names[16](Ident)", greater than or
+   * equal to {@link #MAX_REGISTERED_INDEX}.
+   */
+  static boolean hasLargeIndex(String kind) {
+    int start = kind.indexOf('[');
+    while (start >= 0) {
+      int index = 0;
+      int end = start + 1;
+      while (end < kind.length() && Character.isDigit(kind.charAt(end)) && index < MAX_REGISTERED_INDEX) {
+        index = index * 10 + (kind.charAt(end) - '0');
+        end++;
+      }
+      if (index >= MAX_REGISTERED_INDEX) {
+        return true;
+      }
+      start = kind.indexOf('[', end);
+    }
+    return false;
   }
 
   @Nullable
@@ -47,6 +100,13 @@ public class StringNativeKind implements NativeKind {
     return kind;
   }
 
+  /**
+   * Returns the sequential id of the registered kinds, starting from 0, or {@link #UNREGISTERED}.
+   */
+  public int id() {
+    return id;
+  }
+
   @Override
   public boolean equals(Object other) {
     if (this == other) {
@@ -55,7 +115,12 @@ public class StringNativeKind implements NativeKind {
     if (other == null || getClass() != other.getClass()) {
       return false;
     }
-    return kind.equals(((StringNativeKind) other).kind);
+    var otherKind = (StringNativeKind) other;
+    // There is a single registered kind per text, so it is the same as comparing the texts
+    if (id != UNREGISTERED && otherKind.id != UNREGISTERED) {
+      return false;
+    }
+    return kind.equals(otherKind.kind);
   }
 
   @Override
@@ -0,0 +1,84 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.persistence.conversion;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of the strings which are repeated in the trees of many files, such as the names, types and packages of the
+ * identifiers. It is shared by the deserialization of all the directories of an analysis, so the trees of all the files
+ * reference a single instance of each string. The pool is thread-safe, and bounded: once it is full, the strings which
+ * are not yet in the pool are returned as they are.
+ */
+public final class StringPool {
+
+  public static final int DEFAULT_MAX_SIZE = 100_000;
+
+  /**
+   * Pool which returns the given strings, used when the deserialization is not part of an analysis.
+   */
+  public static final StringPool NONE = new StringPool(0);
+
+  private final int maxSize;
+  private final Map<String, String> strings = new ConcurrentHashMap<>();
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+
+  public StringPool() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public StringPool(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public String intern(String value) {
+    if (maxSize == 0) {
+      return value;
+    }
+    lookups.increment();
+    var pooled = strings.get(value);
+    if (pooled == null) {
+      if (strings.size() >= maxSize) {
+        return value;
+      }
+      pooled = strings.putIfAbsent(value, value);
+      if (pooled == null) {
+        return value;
+      }
+    }
+    hits.increment();
+    return pooled;
+  }
+
+  public long lookups() {
+    return lookups.sum();
+  }
+
+  /**
+   * Number of lookups which returned a string already in the pool.
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  public int size() {
+    return strings.size();
+  }
+}
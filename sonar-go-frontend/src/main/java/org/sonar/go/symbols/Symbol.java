@@ -16,19 +16,44 @@
  */
 package org.sonar.go.symbols;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.go.impl.TextPointerImpl;
 import org.sonar.plugins.go.api.HasTextRange;
+import org.sonar.plugins.go.api.IdentifierTree;
 import org.sonar.plugins.go.api.Tree;
 
+/**
+ * Symbol of a file, created by {@link org.sonar.go.visitors.SymbolVisitor}. The usages are sorted by position when they
+ * are added with {@link #addUsage}, so the usages before a line are found with a binary search. They are stored as
+ * columns by {@link UsageList}, which only creates the {@link Usage} records when they are read.
+ * <p>
+ * The symbols only live during the analysis of their file, so the values computed from the usages are memoized here:
+ * the safe value, and the string constant resolved by {@link org.sonar.go.utils.ConstantResolution}. They are computed
+ * again when the usages change.
+ */
 public class Symbol {
+  private static final int NOT_COMPUTED = -1;
+  private static final int NO_USAGE = -1;
+
   private final String type;
-  private final List<Usage> usages;
+  private final UsageList usages = new UsageList();
+  // Version of the usages when their order was checked, and whether they were sorted by position
+  private int checkedUsagesVersion = NOT_COMPUTED;
+  private boolean sortedUsages;
+  // Version of the usages when the safe value was computed
+  private int safeValueUsagesVersion = NOT_COMPUTED;
+  @Nullable
+  private Tree safeValue;
+  // Version of the usages when the string constant was resolved
+  private int resolvedConstantUsagesVersion = NOT_COMPUTED;
+  @Nullable
+  private ResolvedConstant resolvedConstant;
 
   public Symbol(String type) {
     this.type = type;
-    this.usages = new ArrayList<>();
   }
 
   public String getType() {
@@ -40,12 +65,70 @@ public class Symbol {
   }
 
   /**
-   * Return the list of usages that are before the given line.
+   * Adds the usage after the usages starting before or at the same position, to keep the usages sorted.
+   */
+  public void addUsage(Usage usage) {
+    usages.add(insertionIndex(UsageList.start(usage.identifier())), usage);
+  }
+
+  /**
+   * Same as {@link #addUsage(Usage)}, without creating the {@link Usage} record until it is read.
+   */
+  public void addUsage(IdentifierTree identifier, @Nullable Tree value, Usage.UsageType usageType) {
+    usages.add(insertionIndex(UsageList.start(identifier)), identifier, value, usageType);
+  }
+
+  private int insertionIndex(long start) {
+    int index = usages.size();
+    if (start != UsageList.NO_POSITION) {
+      while (index > 0 && usages.start(index - 1) > start) {
+        index--;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Return the list of usages that are before the given line, as a read-only view of the usages.
    */
   public List<Usage> getUsagesBeforeLine(int line) {
-    return usages.stream()
-      .takeWhile(usage -> usage.identifier().textRange().start().line() < line)
-      .toList();
+    if (!areUsagesSorted()) {
+      return usages.stream()
+        .takeWhile(usage -> usage.identifier().textRange().start().line() < line)
+        .toList();
+    }
+    int low = 0;
+    int high = usages.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (TextPointerImpl.line(usages.start(middle)) < line) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return Collections.unmodifiableList(usages.subList(0, low));
+  }
+
+  /**
+   * The usages added directly to {@link #getUsages()} may be in any order, so the order is checked again each time
+   * the usages change.
+   */
+  private boolean areUsagesSorted() {
+    if (checkedUsagesVersion != usages.version()) {
+      sortedUsages = true;
+      long previous = UsageList.NO_POSITION;
+      for (int i = 0; i < usages.size(); i++) {
+        long start = usages.start(i);
+        if (start == UsageList.NO_POSITION || start < previous) {
+          sortedUsages = false;
+          break;
+        }
+        previous = start;
+      }
+      checkedUsagesVersion = usages.version();
+    }
+    return sortedUsages;
   }
 
   public List<Usage> getUsagesBefore(HasTextRange hasTextRange) {
@@ -62,27 +145,59 @@ public class Symbol {
    */
   @CheckForNull
   public Tree getSafeValue() {
-    Usage effectivelyFinalUsage = null;
-    for (Usage usage : usages) {
-      if (usage.type() == Usage.UsageType.PARAMETER) {
+    if (safeValueUsagesVersion != usages.version()) {
+      safeValue = computeSafeValue();
+      safeValueUsagesVersion = usages.version();
+    }
+    return safeValue;
+  }
+
+  @CheckForNull
+  private Tree computeSafeValue() {
+    // Index of the usage holding the safe value
+    int effectivelyFinalUsage = NO_USAGE;
+    for (int i = 0; i < usages.size(); i++) {
+      var usageType = usages.type(i);
+      if (usageType == Usage.UsageType.PARAMETER) {
         // An identifier coming from method parameters cannot be resolved.
         return null;
-      } else if (usage.type() == Usage.UsageType.DECLARATION) {
-        if (effectivelyFinalUsage != null) {
+      } else if (usageType == Usage.UsageType.DECLARATION) {
+        if (effectivelyFinalUsage != NO_USAGE) {
           // An identifier with multiple declarations should never happen, but if it ever does, we don't consider it as effectively final.
           return null;
-        } else if (usage.value() != null) {
+        } else if (usages.value(i) != null) {
           // Declaration with an assignment
-          effectivelyFinalUsage = usage;
+          effectivelyFinalUsage = i;
         }
-      } else if (usage.type() == Usage.UsageType.ASSIGNMENT && effectivelyFinalUsage == null) {
+      } else if (usageType == Usage.UsageType.ASSIGNMENT && effectivelyFinalUsage == NO_USAGE) {
         // Variable has declared without assignment, so we can consider the first assignment as effectively final
-        effectivelyFinalUsage = usage;
-      } else if (usage.type() == Usage.UsageType.ASSIGNMENT) {
+        effectivelyFinalUsage = i;
+      } else if (usageType == Usage.UsageType.ASSIGNMENT) {
         // Variable is reassigned, so it is not effectively final
         return null;
       }
     }
-    return effectivelyFinalUsage != null ? effectivelyFinalUsage.value() : null;
+    return effectivelyFinalUsage != NO_USAGE ? usages.value(effectivelyFinalUsage) : null;
+  }
+
+  /**
+   * Returns the string constant resolved from the safe value, as stored by
+   * {@link #setResolvedConstant(ResolvedConstant)}, or null when it is not resolved or the usages changed since.
+   */
+  @CheckForNull
+  public ResolvedConstant getResolvedConstant() {
+    return resolvedConstantUsagesVersion == usages.version() ? resolvedConstant : null;
+  }
+
+  public void setResolvedConstant(ResolvedConstant resolvedConstant) {
+    this.resolvedConstant = resolvedConstant;
+    this.resolvedConstantUsagesVersion = usages.version();
+  }
+
+  /**
+   * String constant resolved from the safe value of a symbol, which is the same for any resolution allowed to follow
+   * more than {@code identifierResolutions} identifiers, this one included.
+   */
+  public record ResolvedConstant(String value, int identifierResolutions) {
   }
 }
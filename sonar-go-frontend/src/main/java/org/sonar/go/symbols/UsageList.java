@@ -0,0 +1,170 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.symbols;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+import javax.annotation.Nullable;
+import org.sonar.go.impl.TextRangeImpl;
+import org.sonar.plugins.go.api.IdentifierTree;
+import org.sonar.plugins.go.api.Tree;
+
+/**
+ * Usages of a {@link Symbol} stored as columns: the identifier, the value and the type of each usage in one array each.
+ * The {@link Usage} records are only created when they are read, and kept so the same instance is returned afterward,
+ * so building the symbols of a file does not allocate one record per identifier.
+ * <p>
+ * The list is mutable, and {@link #version()} changes on each modification, so the values computed from the usages can
+ * be memoized.
+ */
+final class UsageList extends AbstractList<Usage> implements RandomAccess {
+
+  static final long NO_POSITION = Long.MIN_VALUE;
+
+  private static final Usage.UsageType[] TYPES = Usage.UsageType.values();
+  private static final int INITIAL_CAPACITY = 4;
+
+  private IdentifierTree[] identifiers = new IdentifierTree[INITIAL_CAPACITY];
+  private Tree[] values = new Tree[INITIAL_CAPACITY];
+  private byte[] types = new byte[INITIAL_CAPACITY];
+  // Records returned by get(int) or added as such, only allocated when a usage is read
+  @Nullable
+  private Usage[] views;
+  private int size;
+  private int version;
+
+  int version() {
+    return version;
+  }
+
+  IdentifierTree identifier(int index) {
+    return identifiers[Objects.checkIndex(index, size)];
+  }
+
+  @Nullable
+  Tree value(int index) {
+    return values[Objects.checkIndex(index, size)];
+  }
+
+  Usage.UsageType type(int index) {
+    return TYPES[types[Objects.checkIndex(index, size)]];
+  }
+
+  /**
+   * Returns the start of the identifier of the usage packed by {@link TextRangeImpl#packedStart}, or
+   * {@link #NO_POSITION} when it has no text range.
+   */
+  long start(int index) {
+    return start(identifier(index));
+  }
+
+  static long start(@Nullable IdentifierTree identifier) {
+    var textRange = identifier == null ? null : identifier.textRange();
+    return textRange == null ? NO_POSITION : TextRangeImpl.packedStart(textRange);
+  }
+
+  void add(int index, IdentifierTree identifier, @Nullable Tree value, Usage.UsageType type) {
+    insert(index, identifier, value, type, null);
+  }
+
+  @Override
+  public Usage get(int index) {
+    Objects.checkIndex(index, size);
+    if (views == null) {
+      views = new Usage[identifiers.length];
+    }
+    var usage = views[index];
+    if (usage == null) {
+      usage = new Usage(identifiers[index], values[index], TYPES[types[index]]);
+      views[index] = usage;
+    }
+    return usage;
+  }
+
+  @Override
+  public Usage set(int index, Usage usage) {
+    var previous = get(index);
+    store(index, usage.identifier(), usage.value(), usage.type(), usage);
+    version++;
+    return previous;
+  }
+
+  @Override
+  public void add(int index, Usage usage) {
+    insert(index, usage.identifier(), usage.value(), usage.type(), usage);
+  }
+
+  @Override
+  public Usage remove(int index) {
+    var previous = get(index);
+    int moved = size - index - 1;
+    System.arraycopy(identifiers, index + 1, identifiers, index, moved);
+    System.arraycopy(values, index + 1, values, index, moved);
+    System.arraycopy(types, index + 1, types, index, moved);
+    System.arraycopy(views, index + 1, views, index, moved);
+    size--;
+    store(size, null, null, Usage.UsageType.DECLARATION, null);
+    modCount++;
+    version++;
+    return previous;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private void insert(int index, IdentifierTree identifier, @Nullable Tree value, Usage.UsageType type, @Nullable Usage view) {
+    Objects.checkIndex(index, size + 1);
+    if (size == identifiers.length) {
+      int capacity = identifiers.length * 2;
+      identifiers = Arrays.copyOf(identifiers, capacity);
+      values = Arrays.copyOf(values, capacity);
+      types = Arrays.copyOf(types, capacity);
+      if (views != null) {
+        views = Arrays.copyOf(views, capacity);
+      }
+    }
+    int moved = size - index;
+    if (moved > 0) {
+      System.arraycopy(identifiers, index, identifiers, index + 1, moved);
+      System.arraycopy(values, index, values, index + 1, moved);
+      System.arraycopy(types, index, types, index + 1, moved);
+      if (views != null) {
+        System.arraycopy(views, index, views, index + 1, moved);
+      }
+    }
+    if (view != null && views == null) {
+      views = new Usage[identifiers.length];
+    }
+    store(index, identifier, value, type, view);
+    size++;
+    modCount++;
+    version++;
+  }
+
+  private void store(int index, @Nullable IdentifierTree identifier, @Nullable Tree value, Usage.UsageType type, @Nullable Usage view) {
+    identifiers[index] = identifier;
+    values[index] = value;
+    types[index] = (byte) type.ordinal();
+    if (views != null) {
+      views[index] = view;
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import org.sonar.go.impl.InvocationShape;
+import org.sonar.plugins.go.api.FunctionInvocationTree;
+import org.sonar.plugins.go.api.IdentifierTree;
+import org.sonar.plugins.go.api.Tree;
+
+import static org.sonar.go.utils.TreeUtils.retrieveLastIdentifier;
+
+/**
+ * A list of {@link MethodMatchers} compiled into an index, created by {@link MethodMatchers#compile(List)}. The
+ * matchers are indexed by package path and by variable type, then by method name, so an invocation is only tested
+ * against the few matchers which can match it, with the same result as testing each matcher:
+ * <ul>
+ *   <li>a call like {@code foo()} against the matchers of the package of {@code foo} and of its name,</li>
+ *   <li>a call like {@code a.b.foo()} against the matchers of the type of {@code a} and of the name {@code b.foo}, of
+ *   the type of {@code a.b} and of the name {@code foo}, and of the package of {@code a} and of the names {@code b.foo}
+ *   or {@code a.b.foo},</li>
+ *   <li>and always against the matchers using {@link MethodMatchers.NameBuilder#withReceiver()}.</li>
+ * </ul>
+ * The matchers using {@link MethodMatchers.NameBuilder#withNamesMatching(java.util.function.Predicate)} are tested
+ * for all the names. The invocation is decoded once for all the matchers, see {@link InvocationShape}.
+ */
+public final class CompiledMethodMatchers {
+
+  private final List<MethodMatchers> matchers;
+  private final List<Integer> receiverMatchers = new ArrayList<>();
+  private final Map<String, NameIndex> byPackage = new HashMap<>();
+  private final Map<String, NameIndex> byVariableType = new HashMap<>();
+
+  CompiledMethodMatchers(List<MethodMatchers> matchers) {
+    this.matchers = List.copyOf(matchers);
+    for (int i = 0; i < this.matchers.size(); i++) {
+      var matcher = this.matchers.get(i);
+      if (matcher.withReceiver()) {
+        receiverMatchers.add(i);
+        continue;
+      }
+      for (String type : matcher.types()) {
+        byPackage.computeIfAbsent(type, key -> new NameIndex()).add(i, matcher.names());
+      }
+      for (String variableType : matcher.variableTypes()) {
+        byVariableType.computeIfAbsent(variableType, key -> new NameIndex()).add(i, matcher.names());
+      }
+    }
+  }
+
+  public List<MethodMatchers> matchers() {
+    return matchers;
+  }
+
+  /**
+   * Returns the last identifier of the invocation, as {@link MethodMatchers#matches(Tree)}, if at least one of the
+   * matchers matches it.
+   */
+  public Optional<IdentifierTree> matches(@Nullable Tree tree) {
+    if (tree instanceof FunctionInvocationTree functionInvocation && matchesAny(functionInvocation)) {
+      return retrieveLastIdentifier(functionInvocation.memberSelect());
+    }
+    return Optional.empty();
+  }
+
+  public boolean matchesAny(@Nullable Tree tree) {
+    if (!(tree instanceof FunctionInvocationTree functionInvocation)) {
+      return false;
+    }
+    var shape = InvocationShape.of(functionInvocation);
+    var candidates = candidates(shape);
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      if (matchers.get(i).matchesShape(shape)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the matchers matching the invocation, in the order of the compiled list.
+   */
+  public List<MethodMatchers> matchingMatchers(@Nullable Tree tree) {
+    if (!(tree instanceof FunctionInvocationTree functionInvocation)) {
+      return List.of();
+    }
+    var shape = InvocationShape.of(functionInvocation);
+    var candidates = candidates(shape);
+    List<MethodMatchers> matching = new ArrayList<>();
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      if (matchers.get(i).matchesShape(shape)) {
+        matching.add(matchers.get(i));
+      }
+    }
+    return matching;
+  }
+
+  private BitSet candidates(InvocationShape shape) {
+    var candidates = new BitSet(matchers.size());
+    var memberSelect = shape.memberSelect();
+    if (memberSelect != null) {
+      var firstIdentifier = shape.firstIdentifier();
+      if (firstIdentifier != null) {
+        var subMethodName = shape.subMethodName();
+        receiverMatchers.forEach(candidates::set);
+        if (firstIdentifier.symbol() != null) {
+          addCandidates(candidates, byVariableType.get(firstIdentifier.type()), subMethodName);
+        }
+        var receiverType = shape.receiverType();
+        if (receiverType != null) {
+          addCandidates(candidates, byVariableType.get(receiverType), memberSelect.identifier().name());
+        } else {
+          var packageIndex = byPackage.get(firstIdentifier.packageName());
+          addCandidates(candidates, packageIndex, subMethodName);
+          addCandidates(candidates, packageIndex, firstIdentifier.name() + "." + subMethodName);
+        }
+      }
+    } else {
+      var identifier = shape.identifier();
+      if (identifier != null) {
+        addCandidates(candidates, byPackage.get(identifier.packageName()), identifier.name());
+      }
+    }
+    return candidates;
+  }
+
+  private static void addCandidates(BitSet candidates, @Nullable NameIndex index, String name) {
+    if (index != null) {
+      index.addCandidates(candidates, name);
+    }
+  }
+
+  /**
+   * Indexes of the matchers by method name, and of the matchers testing the names with a predicate.
+   */
+  private static final class NameIndex {
+    private final Map<String, List<Integer>> byName = new HashMap<>();
+    private final List<Integer> anyName = new ArrayList<>();
+
+    void add(int matcherIndex, @Nullable Iterable<String> names) {
+      if (names == null) {
+        anyName.add(matcherIndex);
+        return;
+      }
+      for (String name : names) {
+        byName.computeIfAbsent(name, key -> new ArrayList<>()).add(matcherIndex);
+      }
+    }
+
+    void addCandidates(BitSet candidates, String name) {
+      anyName.forEach(candidates::set);
+      var matching = byName.get(name);
+      if (matching != null) {
+        matching.forEach(candidates::set);
+      }
+    }
+  }
+}
@@ -17,7 +17,6 @@
 package org.sonar.go.utils;
 
 import java.math.BigInteger;
-import java.util.Optional;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -64,42 +63,75 @@ public class ConstantResolution {
    * If there are nodes that cannot be resolved, they are replaced by {@link #PLACEHOLDER}.
    * This way, the result can still be used to detect certain patterns involving string concatenation, e.g.
    * {@code "/tmp/" + fileName} will be resolved to {@code "/tmp/_?_"}, and will contain information that the string describes a temporary file.
-   * To avoid infinite recursion, we call the method {@link #resolveAsPartialStringConstant(Tree, int)} where the
+   * To avoid infinite recursion, we call the method {@link #resolveAsPartialStringConstant(Tree, int, Resolution)} where the
    * second parameter is a counter set initially to {@link #MAX_IDENTIFIER_RESOLUTION}. Everytime it resolve an identifier through
-   * {@link #resolveIdentifierAsStringConstant(IdentifierTree, int)}, the counter is decremented. If it reaches 0, it stop the resolution and
+   * {@link #resolveIdentifierAsStringConstant(IdentifierTree, int, Resolution)}, the counter is decremented. If it reaches 0, it stop the resolution and
    * return {@link #PLACEHOLDER}.
+   * <p>
+   * The constant resolved from the safe value of a symbol is memoized in the {@link Symbol}, which only lives during the
+   * analysis of its file, so the identifiers are not resolved again at each call site. It is only memoized when the
+   * resolution was not stopped by the counter, and reused when the counter allows at least as many resolutions.
    */
   @Nonnull
   public static String resolveAsPartialStringConstant(@Nullable Tree tree) {
-    return resolveAsPartialStringConstant(tree, MAX_IDENTIFIER_RESOLUTION);
+    return resolveAsPartialStringConstant(tree, MAX_IDENTIFIER_RESOLUTION, new Resolution());
   }
 
   @Nonnull
-  private static String resolveAsPartialStringConstant(@Nullable Tree tree, int remainingIdentifierResolution) {
-    if (tree == null || remainingIdentifierResolution == 0) {
+  private static String resolveAsPartialStringConstant(@Nullable Tree tree, int remainingIdentifierResolution, Resolution resolution) {
+    if (tree == null) {
+      return PLACEHOLDER;
+    }
+    resolution.reached(remainingIdentifierResolution);
+    if (remainingIdentifierResolution == 0) {
       return PLACEHOLDER;
     }
     if (tree instanceof StringLiteralTree stringLiteral) {
       return stringLiteral.content();
     } else if (tree instanceof BinaryExpressionTree binaryExpressionTree && binaryExpressionTree.operator() == BinaryExpressionTree.Operator.PLUS) {
-      return resolveAsPartialStringConstant(binaryExpressionTree.leftOperand(), remainingIdentifierResolution)
-        + resolveAsPartialStringConstant(binaryExpressionTree.rightOperand(), remainingIdentifierResolution);
+      return resolveAsPartialStringConstant(binaryExpressionTree.leftOperand(), remainingIdentifierResolution, resolution)
+        + resolveAsPartialStringConstant(binaryExpressionTree.rightOperand(), remainingIdentifierResolution, resolution);
     } else if (tree instanceof ParenthesizedExpressionTree parenthesizedExpression) {
-      return resolveAsPartialStringConstant(parenthesizedExpression.expression(), remainingIdentifierResolution);
+      return resolveAsPartialStringConstant(parenthesizedExpression.expression(), remainingIdentifierResolution, resolution);
     } else if (tree instanceof IdentifierTree identifier) {
-      return resolveIdentifierAsStringConstant(identifier, remainingIdentifierResolution);
+      return resolveIdentifierAsStringConstant(identifier, remainingIdentifierResolution, resolution);
     }
     return PLACEHOLDER;
   }
 
-  private static String resolveIdentifierAsStringConstant(IdentifierTree identifier, int remainingIdentifierResolution) {
+  private static String resolveIdentifierAsStringConstant(IdentifierTree identifier, int remainingIdentifierResolution, Resolution resolution) {
     Symbol symbol = identifier.symbol();
     if (symbol == null) {
       return PLACEHOLDER;
     }
-    return Optional.ofNullable(symbol.getSafeValue())
-      .map(value -> resolveAsPartialStringConstant(value, remainingIdentifierResolution - 1))
-      .orElse(PLACEHOLDER);
+    var resolvedConstant = symbol.getResolvedConstant();
+    if (resolvedConstant != null && remainingIdentifierResolution > resolvedConstant.identifierResolutions()) {
+      resolution.reached(remainingIdentifierResolution - resolvedConstant.identifierResolutions());
+      return resolvedConstant.value();
+    }
+    var safeValue = symbol.getSafeValue();
+    if (safeValue == null) {
+      return PLACEHOLDER;
+    }
+    var valueResolution = new Resolution();
+    var value = resolveAsPartialStringConstant(safeValue, remainingIdentifierResolution - 1, valueResolution);
+    if (valueResolution.minRemainingIdentifierResolution > 0) {
+      symbol.setResolvedConstant(new Symbol.ResolvedConstant(value, remainingIdentifierResolution - valueResolution.minRemainingIdentifierResolution));
+    }
+    resolution.reached(valueResolution.minRemainingIdentifierResolution);
+    return value;
+  }
+
+  /**
+   * Smallest counter of remaining identifier resolutions reached during a resolution: when it is 0, the resolution was
+   * stopped by the counter, otherwise the same value is resolved with any counter that allows as many resolutions.
+   */
+  private static final class Resolution {
+    private int minRemainingIdentifierResolution = Integer.MAX_VALUE;
+
+    private void reached(int remainingIdentifierResolution) {
+      minRemainingIdentifierResolution = Math.min(minRemainingIdentifierResolution, remainingIdentifierResolution);
+    }
   }
 
   @CheckForNull
@@ -0,0 +1,166 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.utils;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of line numbers stored as the bits of a growable {@link BitSet}, so a file of 50k lines takes about 6 KB instead
+ * of one boxed {@link Integer} and one hash table entry per line. The lines are iterated in ascending order.
+ * <p>
+ * The methods taking an {@code int} do not box the lines, the {@link java.util.Set} ones are kept for the callers of
+ * {@link org.sonar.plugins.go.api.TreeMetaData#linesOfCode()}.
+ */
+public final class LineSet extends AbstractSet<Integer> {
+
+  private final BitSet lines = new BitSet();
+
+  public boolean add(int line) {
+    if (lines.get(line)) {
+      return false;
+    }
+    lines.set(line);
+    return true;
+  }
+
+  /**
+   * Adds all the lines from the first to the last one, both included.
+   */
+  public void addRange(int firstLine, int lastLine) {
+    if (firstLine <= lastLine) {
+      lines.set(firstLine, lastLine + 1);
+    }
+  }
+
+  public void addAll(LineSet other) {
+    lines.or(other.lines);
+  }
+
+  public boolean contains(int line) {
+    return line >= 0 && lines.get(line);
+  }
+
+  /**
+   * Removes the lines after the given one, e.g. the lines of the tokens beyond the end of the file.
+   */
+  public void removeAfter(int lastLine) {
+    int from = Math.max(lastLine + 1, 0);
+    if (from < lines.length()) {
+      lines.clear(from, lines.length());
+    }
+  }
+
+  public void forEachLine(IntConsumer consumer) {
+    for (int line = lines.nextSetBit(0); line >= 0; line = lines.nextSetBit(line + 1)) {
+      consumer.accept(line);
+    }
+  }
+
+  @Override
+  public boolean add(Integer line) {
+    return add(line.intValue());
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends Integer> collection) {
+    if (collection instanceof LineSet other) {
+      int size = size();
+      addAll(other);
+      return size() != size;
+    }
+    return super.addAll(collection);
+  }
+
+  @Override
+  public boolean contains(Object object) {
+    return object instanceof Integer line && contains(line.intValue());
+  }
+
+  @Override
+  public boolean remove(Object object) {
+    if (contains(object)) {
+      lines.clear((Integer) object);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void clear() {
+    lines.clear();
+  }
+
+  @Override
+  public int size() {
+    return lines.cardinality();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return lines.isEmpty();
+  }
+
+  @Override
+  public PrimitiveIterator.OfInt iterator() {
+    return new PrimitiveIterator.OfInt() {
+      private int next = lines.nextSetBit(0);
+      private int last = -1;
+
+      @Override
+      public boolean hasNext() {
+        return next >= 0;
+      }
+
+      @Override
+      public int nextInt() {
+        if (next < 0) {
+          throw new NoSuchElementException();
+        }
+        last = next;
+        next = lines.nextSetBit(next + 1);
+        return last;
+      }
+
+      @Override
+      public void remove() {
+        if (last < 0) {
+          throw new IllegalStateException();
+        }
+        lines.clear(last);
+        last = -1;
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (object instanceof LineSet other) {
+      return lines.equals(other.lines);
+    }
+    return super.equals(object);
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode();
+  }
+}
@@ -18,23 +18,22 @@ package org.sonar.go.utils;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
-import org.sonar.go.impl.TypeImpl;
+import org.sonar.go.impl.InvocationShape;
 import org.sonar.plugins.go.api.FunctionInvocationTree;
 import org.sonar.plugins.go.api.IdentifierTree;
-import org.sonar.plugins.go.api.MemberSelectTree;
 import org.sonar.plugins.go.api.Tree;
-import org.sonar.plugins.go.api.Type;
 
-import static org.sonar.go.utils.TreeUtils.retrieveFirstIdentifier;
 import static org.sonar.go.utils.TreeUtils.retrieveLastIdentifier;
 
 /**
@@ -139,28 +138,40 @@ import static org.sonar.go.utils.TreeUtils.retrieveLastIdentifier;
 public class MethodMatchers {
   private final Collection<String> types;
   private final boolean withReceiver;
+  @Nullable
+  private final Set<String> names;
   private final Predicate<String> namePredicate;
+  private final boolean anyParameters;
   private final Predicate<List<String>> parametersTypePredicate;
   private final Map<Integer, Predicate<Tree>> parametersTreePredicate;
-  private final Predicate<String> variableTypePredicate;
+  private final Set<String> variableTypes;
 
   @Nullable
   private String methodReceiverName;
 
-  private MethodMatchers(Collection<String> types, boolean withReceiver, Predicate<String> namePredicate, Predicate<List<String>> parametersTypePredicate,
-    Map<Integer, Predicate<Tree>> parametersTreePredicate, Predicate<String> variableTypePredicate) {
-    this.types = types;
-    this.withReceiver = withReceiver;
-    this.namePredicate = namePredicate;
-    this.parametersTypePredicate = parametersTypePredicate;
-    this.parametersTreePredicate = parametersTreePredicate;
-    this.variableTypePredicate = variableTypePredicate;
+  private MethodMatchers(MethodMatchersBuilder builder) {
+    this.types = builder.types;
+    this.withReceiver = builder.methodReceiver;
+    this.names = builder.names;
+    this.namePredicate = builder.namePredicate;
+    this.anyParameters = builder.anyParameters;
+    this.parametersTypePredicate = builder.parametersTypesPredicate;
+    this.parametersTreePredicate = builder.parametersTreePredicate;
+    this.variableTypes = builder.variableTypes;
   }
 
   public static TypeBuilder create() {
     return new MethodMatchersBuilder();
   }
 
+  /**
+   * Compiles the matchers into a single index, which finds all the matchers matching an invocation in one lookup,
+   * see {@link CompiledMethodMatchers}.
+   */
+  public static CompiledMethodMatchers compile(List<MethodMatchers> matchers) {
+    return new CompiledMethodMatchers(matchers);
+  }
+
   /**
    * Set the name of receiver. It needs to be called when {@code MethodMatchers} was created using
    * {@link NameBuilder#withReceiver()} method. Otherwise, the method will be not resolved.
@@ -179,16 +190,18 @@ public class MethodMatchers {
   }
 
   public Optional<IdentifierTree> matches(@Nullable Tree tree) {
-    if (tree instanceof FunctionInvocationTree functionInvocation
-      && matchesFunctionInvocation(functionInvocation)
-      && parametersTypePredicate.test(extractArgTypes(functionInvocation))
-      && matchParametersTreePredicate(functionInvocation)) {
-
+    if (tree instanceof FunctionInvocationTree functionInvocation && matchesShape(InvocationShape.of(functionInvocation))) {
       return retrieveLastIdentifier(functionInvocation.memberSelect());
     }
     return Optional.empty();
   }
 
+  boolean matchesShape(InvocationShape shape) {
+    return matchesFunctionInvocation(shape)
+      && (anyParameters || parametersTypePredicate.test(shape.argTypes()))
+      && matchParametersTreePredicate(shape.invocation());
+  }
+
   private boolean matchParametersTreePredicate(FunctionInvocationTree functionInvocation) {
     for (var entry : parametersTreePredicate.entrySet()) {
       var arg = getArg(functionInvocation, entry.getKey());
@@ -208,29 +221,20 @@ public class MethodMatchers {
     return null;
   }
 
-  private boolean matchesFunctionInvocation(FunctionInvocationTree functionInvocation) {
-    Tree functionNameTree = functionInvocation.memberSelect();
-
-    if (functionNameTree instanceof MemberSelectTree memberSelectTree) {
-      var optFirstIdentifier = retrieveFirstIdentifier(memberSelectTree);
-      if (optFirstIdentifier.isPresent()) {
-        var firstIdentifier = optFirstIdentifier.get();
-        return matchesFunctionMemberSelectTree(memberSelectTree, firstIdentifier);
-      }
-    } else if (functionNameTree instanceof IdentifierTree identifierTree
+  private boolean matchesFunctionInvocation(InvocationShape shape) {
+    if (shape.memberSelect() != null) {
+      var firstIdentifier = shape.firstIdentifier();
+      return firstIdentifier != null && matchesFunctionMemberSelectTree(shape, firstIdentifier);
+    }
+    var identifierTree = shape.identifier();
+    return identifierTree != null
       && types.contains(identifierTree.packageName())
-      && !withReceiver) {
-        // spotless:off
-      // spotless indent this line by 2 spaces what cause java:S1120
-      return namePredicate.test(identifierTree.name());
-      // spotless:on
-      }
-
-    return false;
+      && !withReceiver
+      && namePredicate.test(identifierTree.name());
   }
 
-  private boolean matchesFunctionMemberSelectTree(MemberSelectTree memberSelectTree, IdentifierTree firstIdentifier) {
-    var subMethodName = subMethodName(memberSelectTree);
+  private boolean matchesFunctionMemberSelectTree(InvocationShape shape, IdentifierTree firstIdentifier) {
+    var subMethodName = shape.subMethodName();
     if (withReceiver) {
       return firstIdentifier.name().equals(methodReceiverName) && namePredicate.test(subMethodName);
     } else if (matchVariable(firstIdentifier)) {
@@ -238,11 +242,9 @@ public class MethodMatchers {
     }
 
     // At this point, memberSelectTree is a.b.c.foo(); we start retrieving type from a.b.c.
-    // First, check if function call uses package name as receiver or a variable.
-    boolean isTopLevel = memberSelectTree.expression() instanceof IdentifierTree identifier && identifier.symbol() == null;
-    Optional<Type> type = getType(isTopLevel ? memberSelectTree.identifier() : memberSelectTree.expression());
-    if (type.isPresent() && !type.get().type().startsWith("func(")) {
-      return variableTypePredicate.test(type.get().type()) && namePredicate.test(memberSelectTree.identifier().name());
+    var receiverType = shape.receiverType();
+    if (receiverType != null) {
+      return variableTypes.contains(receiverType) && namePredicate.test(shape.memberSelect().identifier().name());
     }
 
     if (types.contains(firstIdentifier.packageName())) {
@@ -253,39 +255,29 @@ public class MethodMatchers {
     return false;
   }
 
-  private static Optional<Type> getType(Tree tree) {
-    if (tree instanceof IdentifierTree identifierTree) {
-      return Optional.of(TypeImpl.createFromType(identifierTree.type()));
-    } else if (tree instanceof FunctionInvocationTree functionInvocation) {
-      // it handles method chain calls like func1().func2().func3()
-      var returnedTypes = functionInvocation.returnTypes();
-      if (returnedTypes.size() == 1) {
-        return Optional.of(returnedTypes.get(0));
-      }
-    } else if (tree instanceof MemberSelectTree memberSelectTree) {
-      return getType(memberSelectTree.identifier());
-    }
-    return Optional.empty();
+  private boolean matchVariable(IdentifierTree identifier) {
+    var symbol = identifier.symbol();
+    return symbol != null && variableTypes.contains(identifier.type());
   }
 
-  private static String subMethodName(MemberSelectTree memberSelectTree) {
-    var listNames = new LinkedList<String>();
-    Tree currentTree = memberSelectTree;
-    while (currentTree instanceof MemberSelectTree memberSelect) {
-      listNames.addFirst(memberSelect.identifier().name());
-      currentTree = memberSelect.expression();
-    }
-    return String.join(".", listNames);
+  Collection<String> types() {
+    return types;
   }
 
-  private boolean matchVariable(IdentifierTree identifier) {
-    var symbol = identifier.symbol();
-    return symbol != null && variableTypePredicate.test(identifier.type());
+  boolean withReceiver() {
+    return withReceiver;
+  }
+
+  /**
+   * The names given to {@link NameBuilder#withNames(Collection)}, or null when the names are matched by a predicate.
+   */
+  @Nullable
+  Set<String> names() {
+    return names;
   }
 
-  private static List<String> extractArgTypes(FunctionInvocationTree functionInvocation) {
-    // TODO We don't have any type information at this point.
-    return functionInvocation.arguments().stream().map(arg -> "UNKNOWN").toList();
+  Set<String> variableTypes() {
+    return variableTypes;
   }
 
   public interface TypeBuilder {
@@ -339,11 +331,14 @@ public class MethodMatchers {
 
   public static class MethodMatchersBuilder implements TypeBuilder, NameBuilder, ParametersBuilder {
     private List<String> types;
+    @Nullable
+    private Set<String> names;
     private Predicate<String> namePredicate;
     private boolean methodReceiver = false;
+    private boolean anyParameters = false;
     private Predicate<List<String>> parametersTypesPredicate;
     private Map<Integer, Predicate<Tree>> parametersTreePredicate = new HashMap<>();
-    private Predicate<String> variableTypePredicate = v -> false;
+    private Set<String> variableTypes = Collections.emptySet();
 
     @Override
     public NameBuilder ofType(String type) {
@@ -359,7 +354,8 @@ public class MethodMatchers {
 
     @Override
     public ParametersBuilder withNames(Collection<String> names) {
-      this.namePredicate = names::contains;
+      this.names = Collections.unmodifiableSet(new HashSet<>(names));
+      this.namePredicate = this.names::contains;
       return this;
     }
 
@@ -370,6 +366,7 @@ public class MethodMatchers {
 
     @Override
     public ParametersBuilder withNamesMatching(Predicate<String> namePredicate) {
+      this.names = null;
       this.namePredicate = namePredicate;
       return this;
     }
@@ -382,6 +379,8 @@ public class MethodMatchers {
 
     @Override
     public ParametersBuilder withAnyParameters() {
+      // The types of the arguments are not extracted, as any "or" with this predicate is true
+      anyParameters = true;
       return withParameters(s -> true);
     }
 
@@ -418,7 +417,8 @@ public class MethodMatchers {
     @Override
     public NameBuilder withVariableTypeIn(String... types) {
       var typesWithStar = Arrays.stream(types).map(t -> "*" + t);
-      variableTypePredicate = Stream.concat(Arrays.stream(types), typesWithStar).collect(Collectors.toSet())::contains;
+      // Not an unmodifiable set from the collectors, which rejects null types
+      variableTypes = Collections.unmodifiableSet(Stream.concat(Arrays.stream(types), typesWithStar).collect(Collectors.toSet()));
       return this;
     }
 
@@ -428,8 +428,7 @@ public class MethodMatchers {
         // This can happen if only parametersTreePredicate is set
         parametersTypesPredicate = p -> true;
       }
-      return new MethodMatchers(types, methodReceiver, namePredicate, parametersTypesPredicate, parametersTreePredicate,
-        variableTypePredicate);
+      return new MethodMatchers(this);
     }
   }
 }
@@ -16,6 +16,7 @@
  */
 package org.sonar.go.utils;
 
+import java.util.Arrays;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import javax.annotation.Nullable;
@@ -46,6 +47,14 @@ public final class NativeKinds {
       && predicate.test(stringNativeKind.kind());
   }
 
+  /**
+   * Same as {@link #isStringNativeKind(Tree, Predicate)}, but the predicate is only tested once per registered kind,
+   * see {@link StringNativeKind#id()}. To be used for the predicates tested on most of the trees of each file.
+   */
+  public static Predicate<Tree> memoizedStringNativeKindPredicate(Predicate<String> predicate) {
+    return new MemoizedStringNativeKindPredicate(predicate);
+  }
+
   public static boolean isStringNativeKindOfType(Tree tree, String type) {
     return isStringNativeKind(tree, type::equals);
   }
@@ -80,4 +89,46 @@ public final class NativeKinds {
       && nativeTree.nativeKind() instanceof StringNativeKind stringNativeKind
       && stringNativeKind.kind().endsWith(METHOD_RECEIVER_SUFFIX);
   }
+
+  private static final class MemoizedStringNativeKindPredicate implements Predicate<Tree> {
+    private static final byte UNKNOWN = 0;
+    private static final byte MATCHING = 1;
+    private static final byte NOT_MATCHING = 2;
+
+    private final Predicate<String> predicate;
+    // Result of the predicate indexed by the id of the kind. A result written concurrently with the growth of the array
+    // can be lost, the predicate is then tested again for this kind.
+    private volatile byte[] results = new byte[128];
+
+    private MemoizedStringNativeKindPredicate(Predicate<String> predicate) {
+      this.predicate = predicate;
+    }
+
+    @Override
+    public boolean test(@Nullable Tree tree) {
+      if (!(tree instanceof NativeTree nativeTree) || !(nativeTree.nativeKind() instanceof StringNativeKind stringNativeKind)) {
+        return false;
+      }
+      int id = stringNativeKind.id();
+      if (id == StringNativeKind.UNREGISTERED) {
+        return predicate.test(stringNativeKind.kind());
+      }
+      byte[] current = results;
+      if (id < current.length && current[id] != UNKNOWN) {
+        return current[id] == MATCHING;
+      }
+      boolean matching = predicate.test(stringNativeKind.kind());
+      store(id, matching);
+      return matching;
+    }
+
+    private synchronized void store(int id, boolean matching) {
+      byte[] current = results;
+      if (id >= current.length) {
+        current = Arrays.copyOf(current, Math.max(id + 1, current.length * 2));
+      }
+      current[id] = matching ? MATCHING : NOT_MATCHING;
+      results = current;
+    }
+  }
 }
@@ -20,7 +20,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
-import org.sonar.go.visitors.TreePrinter;
+import org.sonar.go.impl.StructuralHash;
+import org.sonar.go.impl.TokenStore;
 import org.sonar.plugins.go.api.AssignmentExpressionTree;
 import org.sonar.plugins.go.api.BinaryExpressionTree;
 import org.sonar.plugins.go.api.FunctionInvocationTree;
@@ -63,7 +64,7 @@ public class SyntacticEquivalence {
       return true;
     }
 
-    if (first == null || second == null || !first.getClass().equals(second.getClass())) {
+    if (first == null || second == null || !first.getClass().equals(second.getClass()) || haveDifferentCachedHashes(first, second)) {
       return false;
     }
 
@@ -84,6 +85,9 @@ public class SyntacticEquivalence {
   }
 
   private static boolean areEquivalentTokenText(List<Token> firstList, List<Token> secondList) {
+    if (firstList instanceof TokenStore.Slice firstSlice && secondList instanceof TokenStore.Slice secondSlice) {
+      return firstSlice.hasSameTextsAs(secondSlice);
+    }
     if (firstList.size() != secondList.size()) {
       return false;
     }
@@ -111,6 +115,26 @@ public class SyntacticEquivalence {
       || modifierTreeCheck || jumpTreeCheck || functionInvocationTreeCheck;
   }
 
+  private static boolean haveDifferentCachedHashes(Tree first, Tree second) {
+    return StructuralHash.cachedHashesDiffer(first, second);
+  }
+
+  /**
+   * Hash of the structure compared by {@link #areEquivalent(Tree, Tree)}: equivalent trees have the same hash. It is
+   * computed bottom-up and cached in each tree, so the candidates of a comparison are bucketed by hash and only the trees
+   * with the same hash are compared.
+   * <p>
+   * A native tree is only hashed by its kind: the comparison compares the text of the tokens when the first tree has no
+   * children, and the children otherwise, so a native tree without children can be equivalent to one with children.
+   */
+  public static int structuralHash(@Nullable Tree tree) {
+    return StructuralHash.of(tree);
+  }
+
+  public static int structuralHash(@Nullable List<? extends Tree> trees) {
+    return StructuralHash.of(trees);
+  }
+
   public static List<List<Tree>> findDuplicatedGroups(List<Tree> list) {
     return list.stream()
       .collect(Collectors.groupingBy(ComparableTree::new, LinkedHashMap::new, Collectors.toList()))
@@ -126,14 +150,7 @@ public class SyntacticEquivalence {
 
     ComparableTree(Tree tree) {
       this.tree = tree;
-      hash = computeHash(tree);
-    }
-
-    private static int computeHash(@Nullable Tree tree) {
-      if (tree == null) {
-        return 0;
-      }
-      return TreePrinter.tree2string(tree).hashCode();
+      hash = structuralHash(tree);
     }
 
     @Override
@@ -0,0 +1,138 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.visitors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.ObjLongConsumer;
+import javax.annotation.Nullable;
+import org.sonar.plugins.go.api.Tree;
+
+/**
+ * Visits a tree once on behalf of several visitors, instead of one visit per visitor. Each node is entered and left
+ * once, and the consumers of the visitors are called in the order of the visitors for each node.
+ * So a visitor must not depend on results computed by the previous visitors for other nodes than the current one and
+ * its ancestors. The {@code before} methods of all the visitors are called before the visit, and the {@code after}
+ * methods after it, in the order of the visitors.
+ * <p>
+ * A visitor which throws an exception is not called anymore for the rest of the tree, as it would be with
+ * {@link TreeVisitor#scan}, and the exception is passed to the failure handler. The other visitors go on.
+ */
+public class CompositeTreeVisitor<C extends TreeContext> {
+
+  private final List<? extends TreeVisitor<C>> visitors;
+  private final BiConsumer<TreeVisitor<C>, RuntimeException> failureHandler;
+  @Nullable
+  private final ObjLongConsumer<TreeVisitor<C>> durationListener;
+
+  /**
+   * @param durationListener when not null, receives the time spent in each visitor during a scan, in nanoseconds
+   */
+  public CompositeTreeVisitor(List<? extends TreeVisitor<C>> visitors, BiConsumer<TreeVisitor<C>, RuntimeException> failureHandler,
+    @Nullable ObjLongConsumer<TreeVisitor<C>> durationListener) {
+    this.visitors = visitors;
+    this.failureHandler = failureHandler;
+    this.durationListener = durationListener;
+  }
+
+  public void scan(C ctx, @Nullable Tree root) {
+    if (root == null) {
+      return;
+    }
+    var participants = new Participants(visitors.stream().filter(visitor -> visitor.isApplicableTo(ctx)).toList());
+    if (participants.isEmpty()) {
+      return;
+    }
+    ctx.before(root);
+    participants.call(ctx, root, TreeVisitor::before);
+    visit(ctx, root, participants);
+    participants.call(ctx, root, TreeVisitor::after);
+    if (durationListener != null) {
+      participants.reportDurations(durationListener);
+    }
+  }
+
+  private void visit(C ctx, @Nullable Tree node, Participants participants) {
+    if (node != null) {
+      ctx.enter(node);
+      participants.call(ctx, node, TreeVisitor::enterTree);
+      for (Tree child : node.children()) {
+        visit(ctx, child, participants);
+      }
+      participants.call(ctx, node, TreeVisitor::leaveTree);
+      ctx.leave(node);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Event<C extends TreeContext> {
+    void call(TreeVisitor<C> visitor, C ctx, Tree node);
+  }
+
+  /**
+   * State of the visitors during a scan: the visitors which failed are removed, and the time spent in each visitor
+   * is accumulated.
+   */
+  private final class Participants {
+    // The visitors which failed are replaced by null
+    private final List<TreeVisitor<C>> active;
+    private final long[] nanos;
+    private final boolean timed = durationListener != null;
+    private int activeCount;
+
+    private Participants(List<? extends TreeVisitor<C>> applicableVisitors) {
+      active = new ArrayList<>(applicableVisitors);
+      nanos = new long[active.size()];
+      activeCount = active.size();
+    }
+
+    private boolean isEmpty() {
+      return activeCount == 0;
+    }
+
+    private void call(C ctx, Tree node, Event<C> event) {
+      for (int i = 0; i < active.size(); i++) {
+        var visitor = active.get(i);
+        if (visitor == null) {
+          continue;
+        }
+        long start = timed ? System.nanoTime() : 0L;
+        try {
+          event.call(visitor, ctx, node);
+        } catch (RuntimeException e) {
+          active.set(i, null);
+          activeCount--;
+          failureHandler.accept(visitor, e);
+        } finally {
+          if (timed) {
+            nanos[i] += System.nanoTime() - start;
+          }
+        }
+      }
+    }
+
+    private void reportDurations(ObjLongConsumer<TreeVisitor<C>> listener) {
+      for (int i = 0; i < active.size(); i++) {
+        var visitor = active.get(i);
+        if (visitor != null) {
+          listener.accept(visitor, nanos[i]);
+        }
+      }
+    }
+  }
+}
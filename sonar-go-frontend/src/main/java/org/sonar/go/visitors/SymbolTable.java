@@ -0,0 +1,115 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.visitors;
+
+import java.util.Arrays;
+import javax.annotation.CheckForNull;
+import org.sonar.go.symbols.Symbol;
+
+/**
+ * Symbols of the visited file by the id of their identifiers. The ids are the positions of the declarations in the file
+ * set of the Go converter, so they are neither small nor dense: the symbols are kept in an open-addressing hash table
+ * keyed by the {@code int} ids, which does not box the ids nor allocate an entry per symbol.
+ * <p>
+ * The id 0 marks the identifiers without symbol, it is used for the empty slots.
+ */
+final class SymbolTable {
+
+  private static final int INITIAL_CAPACITY = 64;
+  private static final int EMPTY = 0;
+
+  private int[] ids = new int[INITIAL_CAPACITY];
+  private Symbol[] symbols = new Symbol[INITIAL_CAPACITY];
+  private int size;
+
+  @CheckForNull
+  Symbol get(int id) {
+    if (id == EMPTY) {
+      return null;
+    }
+    int mask = ids.length - 1;
+    for (int slot = slot(id, mask); ids[slot] != EMPTY; slot = (slot + 1) & mask) {
+      if (ids[slot] == id) {
+        return symbols[slot];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Associates the symbol to the id, replacing the symbol already associated to it if any.
+   */
+  void put(int id, Symbol symbol) {
+    if (id == EMPTY) {
+      throw new IllegalArgumentException("No symbol can be associated to the id 0");
+    }
+    // The load factor is kept under 1/2, so the probe sequences stay short
+    if (2 * (size + 1) > ids.length) {
+      resize(ids.length * 2);
+    }
+    if (insert(ids, symbols, id, symbol)) {
+      size++;
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  void clear() {
+    if (size > 0) {
+      Arrays.fill(ids, EMPTY);
+      Arrays.fill(symbols, null);
+      size = 0;
+    }
+  }
+
+  private void resize(int capacity) {
+    var newIds = new int[capacity];
+    var newSymbols = new Symbol[capacity];
+    for (int slot = 0; slot < ids.length; slot++) {
+      if (ids[slot] != EMPTY) {
+        insert(newIds, newSymbols, ids[slot], symbols[slot]);
+      }
+    }
+    ids = newIds;
+    symbols = newSymbols;
+  }
+
+  /**
+   * Returns true when the id was not in the table yet.
+   */
+  private static boolean insert(int[] ids, Symbol[] symbols, int id, Symbol symbol) {
+    int mask = ids.length - 1;
+    int slot = slot(id, mask);
+    while (ids[slot] != EMPTY && ids[slot] != id) {
+      slot = (slot + 1) & mask;
+    }
+    boolean added = ids[slot] == EMPTY;
+    ids[slot] = id;
+    symbols[slot] = symbol;
+    return added;
+  }
+
+  /**
+   * The ids of a file are close positions, so they are spread over the table by a multiplicative hash.
+   */
+  private static int slot(int id, int mask) {
+    int hash = id * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+}
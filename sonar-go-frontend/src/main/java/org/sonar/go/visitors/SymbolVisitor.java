@@ -17,9 +17,7 @@
 package org.sonar.go.visitors;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import javax.annotation.Nullable;
 import org.sonar.go.impl.IdentifierTreeImpl;
 import org.sonar.go.symbols.Symbol;
@@ -38,7 +36,7 @@ import org.sonar.plugins.go.api.VariableDeclarationTree;
  * Those Symbol/Usage can later be used in checks to report issues in the variable flow.
  */
 public class SymbolVisitor<C extends TreeContext> extends TreeVisitor<C> {
-  private final Map<Integer, Symbol> symbolTable = new HashMap<>();
+  private final SymbolTable symbolTable = new SymbolTable();
 
   public SymbolVisitor() {
     register(VariableDeclarationTree.class, (ctx, variableDeclarationTree) -> VariableHelper.getVariables(variableDeclarationTree)
@@ -51,7 +49,9 @@ public class SymbolVisitor<C extends TreeContext> extends TreeVisitor<C> {
 
   private void addVariable(IdentifierTree identifier, @Nullable Tree value, Usage.UsageType type) {
     if (identifier.id() != 0) {
-      symbolTable.computeIfAbsent(identifier.id(), id -> new Symbol(identifier.type()));
+      if (symbolTable.get(identifier.id()) == null) {
+        symbolTable.put(identifier.id(), new Symbol(identifier.type()));
+      }
       addVariableUsage(identifier, value, type);
     }
   }
@@ -96,7 +96,7 @@ public class SymbolVisitor<C extends TreeContext> extends TreeVisitor<C> {
     if (identifier.id() != 0) {
       var symbol = symbolTable.get(identifier.id());
       if (symbol != null) {
-        symbol.getUsages().add(new Usage(identifier, value, type));
+        symbol.addUsage(identifier, value, type);
         identifier.setSymbol(symbol);
       }
     }
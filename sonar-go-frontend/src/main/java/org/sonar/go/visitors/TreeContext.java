@@ -18,12 +18,19 @@ package org.sonar.go.visitors;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import javax.annotation.Nullable;
 import org.sonar.plugins.go.api.Tree;
+import org.sonar.plugins.go.api.TreeIndex;
 
 public class TreeContext {
 
   private final Deque<Tree> ancestors;
   private Tree current;
+  @Nullable
+  private Tree root;
+  // Built on first use, and kept while the visitors scan the same root
+  @Nullable
+  private TreeIndex treeIndex;
 
   public TreeContext() {
     ancestors = new ArrayDeque<>();
@@ -35,6 +42,23 @@ public class TreeContext {
 
   protected void before(Tree root) {
     ancestors.clear();
+    if (root != this.root) {
+      this.root = root;
+      treeIndex = null;
+    }
+  }
+
+  /**
+   * Returns the index of the trees of the scanned root.
+   */
+  public TreeIndex treeIndex() {
+    if (treeIndex == null) {
+      if (root == null) {
+        throw new IllegalStateException("No tree is scanned");
+      }
+      treeIndex = TreeIndex.of(root);
+    }
+    return treeIndex;
   }
 
   public void enter(Tree node) {
@@ -17,21 +17,36 @@
 package org.sonar.go.visitors;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import javax.annotation.Nullable;
+import org.sonar.plugins.go.api.ConverterCapability;
 import org.sonar.plugins.go.api.Tree;
 
 public class TreeVisitor<C extends TreeContext> {
 
   private List<ConsumerFilter<C, ?>> consumersOnEnterTree;
   private List<ConsumerFilter<C, ?>> consumersOnLeaveTree;
+  // Consumers applying to each concrete class of tree, computed on the first visit of a tree of this class
+  private final Map<Class<?>, List<ConsumerFilter<C, ?>>> consumersOnEnterTreeByClass = new HashMap<>();
+  private final Map<Class<?>, List<ConsumerFilter<C, ?>>> consumersOnLeaveTreeByClass = new HashMap<>();
 
   public TreeVisitor() {
     consumersOnEnterTree = new ArrayList<>();
     consumersOnLeaveTree = new ArrayList<>();
   }
 
+  /**
+   * Returns the optional parts of the trees used by this visitor, see {@link ConverterCapability}. By default, a visitor
+   * only uses the syntax tree, its comments and its tokens.
+   */
+  public Set<ConverterCapability> requiredCapabilities() {
+    return ConverterCapability.none();
+  }
+
   public void scan(C ctx, @Nullable Tree root) {
     if (root != null && isApplicableTo(ctx)) {
       ctx.before(root);
@@ -44,19 +59,53 @@ public class TreeVisitor<C extends TreeContext> {
   private void visit(C ctx, @Nullable Tree node) {
     if (node != null) {
       ctx.enter(node);
-      callConsumers(ctx, node, consumersOnEnterTree);
+      enterTree(ctx, node);
       node.children().forEach(child -> visit(ctx, child));
-      callConsumers(ctx, node, consumersOnLeaveTree);
+      leaveTree(ctx, node);
       ctx.leave(node);
     }
   }
 
-  private void callConsumers(C ctx, Tree node, List<ConsumerFilter<C, ?>> consumerList) {
-    for (ConsumerFilter<C, ?> consumer : consumerList) {
+  /**
+   * Calls the consumers registered for the entered node, also used by {@link CompositeTreeVisitor}.
+   */
+  void enterTree(C ctx, Tree node) {
+    callConsumers(ctx, node, consumersOnEnterTree, consumersOnEnterTreeByClass);
+  }
+
+  /**
+   * Calls the consumers registered for the left node, also used by {@link CompositeTreeVisitor}.
+   */
+  void leaveTree(C ctx, Tree node) {
+    callConsumers(ctx, node, consumersOnLeaveTree, consumersOnLeaveTreeByClass);
+  }
+
+  private void callConsumers(C ctx, Tree node, List<ConsumerFilter<C, ?>> consumerList,
+    Map<Class<?>, List<ConsumerFilter<C, ?>>> consumersByClass) {
+    var applicableConsumers = consumersByClass.get(node.getClass());
+    if (applicableConsumers == null) {
+      applicableConsumers = applicableConsumers(node.getClass(), consumerList);
+      consumersByClass.put(node.getClass(), applicableConsumers);
+    }
+    for (ConsumerFilter<C, ?> consumer : applicableConsumers) {
       consumer.accept(ctx, node);
     }
   }
 
+  /**
+   * The consumers registered for the class of the tree or for one of its super types, in the order of registration.
+   */
+  private static <C extends TreeContext> List<ConsumerFilter<C, ?>> applicableConsumers(Class<?> treeClass,
+    List<ConsumerFilter<C, ?>> consumerList) {
+    List<ConsumerFilter<C, ?>> applicableConsumers = new ArrayList<>();
+    for (ConsumerFilter<C, ?> consumer : consumerList) {
+      if (consumer.cls.isAssignableFrom(treeClass)) {
+        applicableConsumers.add(consumer);
+      }
+    }
+    return applicableConsumers.isEmpty() ? List.of() : applicableConsumers;
+  }
+
   protected void before(C ctx, Tree root) {
     // default behaviour is to do nothing
   }
@@ -67,11 +116,13 @@ public class TreeVisitor<C extends TreeContext> {
 
   public <T extends Tree> TreeVisitor<C> register(Class<T> cls, BiConsumer<C, T> visitor) {
     consumersOnEnterTree.add(new ConsumerFilter<>(cls, visitor));
+    consumersOnEnterTreeByClass.clear();
     return this;
   }
 
   public <T extends Tree> TreeVisitor<C> registerOnLeaveTree(Class<T> cls, BiConsumer<C, T> visitor) {
     consumersOnLeaveTree.add(new ConsumerFilter<>(cls, visitor));
+    consumersOnLeaveTreeByClass.clear();
     return this;
   }
 
@@ -93,10 +144,11 @@ public class TreeVisitor<C extends TreeContext> {
       this.delegate = delegate;
     }
 
+    /**
+     * Only called for the trees of the classes to which the consumer applies.
+     */
     private void accept(C ctx, Tree node) {
-      if (cls.isAssignableFrom(node.getClass())) {
-        delegate.accept(ctx, cls.cast(node));
-      }
+      delegate.accept(ctx, cls.cast(node));
     }
   }
 }
@@ -17,6 +17,8 @@
 package org.sonar.plugins.go.api;
 
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 public interface ASTConverter {
 
@@ -30,11 +32,80 @@ public interface ASTConverter {
    */
   Map<String, TreeOrError> parse(Map<String, String> filenameToContentMap, String moduleName);
 
+  /**
+   * Same as {@link #parse(Map, String)}, but each tree is passed to the consumer as soon as it is available, so it can be
+   * visited and released before the next file is converted. The default implementation parses all the files first.
+   *
+   * @param filenameToContentMap a map where keys are file names and values are their content
+   * @param moduleName the module name for the files in filenameToContentMap
+   * @param consumer called with the file name and its tree, once for each file
+   * @throws ParseException if an error occurs during parsing
+   */
+  default void parse(Map<String, String> filenameToContentMap, String moduleName, BiConsumer<String, TreeOrError> consumer) {
+    parse(filenameToContentMap, moduleName).forEach(consumer);
+  }
+
+  /**
+   * Same as {@link #parse(Map, String)}, but the context files are only used to complete the type information of the
+   * package of the parsed files, e.g. when the other files of the package are not analyzed again. No tree is returned for
+   * them. The default implementation ignores them.
+   *
+   * @param filenameToContentMap a map where keys are file names and values are their content
+   * @param contextFiles a map of the file names and content of the files which are type-checked but not converted
+   * @param moduleName the module name for the files in filenameToContentMap
+   * @return a map where keys are file names and values are their corresponding AST trees
+   * @throws ParseException if an error occurs during parsing
+   */
+  default Map<String, TreeOrError> parse(Map<String, String> filenameToContentMap, Map<String, String> contextFiles, String moduleName) {
+    return parse(filenameToContentMap, moduleName);
+  }
+
+  /**
+   * Same as {@link #parse(Map, String, BiConsumer)}, with context files as in {@link #parse(Map, Map, String)}. The default
+   * implementation ignores them.
+   *
+   * @param filenameToContentMap a map where keys are file names and values are their content
+   * @param contextFiles a map of the file names and content of the files which are type-checked but not converted
+   * @param moduleName the module name for the files in filenameToContentMap
+   * @param consumer called with the file name and its tree, once for each file of filenameToContentMap
+   * @throws ParseException if an error occurs during parsing
+   */
+  default void parse(Map<String, String> filenameToContentMap, Map<String, String> contextFiles, String moduleName,
+    BiConsumer<String, TreeOrError> consumer) {
+    parse(filenameToContentMap, moduleName, consumer);
+  }
+
   /**
    * Enable the debug logging mode for type checking.
    */
   void debugTypeCheck();
 
+  /**
+   * Exchange the trees with the parser in the JSON format instead of the default binary one, e.g. for debugging.
+   */
+  default void useJsonFormat() {
+    // Nothing to do by default
+  }
+
+  /**
+   * Sets the optional parts of the trees which are used by the analysis, the converter may skip the computation of the
+   * others. By default, everything is computed.
+   */
+  default void setRequiredCapabilities(Set<ConverterCapability> capabilities) {
+    // Nothing to do by default
+  }
+
+  /**
+   * Sets the number of threads used to parse each set of files, e.g. lowered when several sets of files are parsed
+   * concurrently. A value lower than 1 lets the converter use all the CPUs.
+   */
+  default void setParallelism(int parallelism) {
+    // Nothing to do by default
+  }
+
+  /**
+   * Release the resources held by the converter, e.g. the external parsing process. Called once at the end of the analysis.
+   */
   default void terminate() {
     // Nothing to do by default
   }
@@ -0,0 +1,43 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.plugins.go.api;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Optional parts of the trees produced by the {@link ASTConverter}. The analysis only asks the converter for the
+ * capabilities used by the active checks and visitors, so it does not spend time computing the others.
+ * <p>
+ * The packages are always type checked: the symbols of the identifiers, built for all the checks, rely on it.
+ */
+public enum ConverterCapability {
+
+  /**
+   * The control flow graph of the function bodies, see {@link FunctionDeclarationTree#cfg()}.
+   */
+  CONTROL_FLOW_GRAPH;
+
+  public static Set<ConverterCapability> all() {
+    return Collections.unmodifiableSet(EnumSet.allOf(ConverterCapability.class));
+  }
+
+  public static Set<ConverterCapability> none() {
+    return Collections.unmodifiableSet(EnumSet.noneOf(ConverterCapability.class));
+  }
+}
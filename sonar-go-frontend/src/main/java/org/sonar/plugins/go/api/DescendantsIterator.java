@@ -0,0 +1,59 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.plugins.go.api;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Pre-order iterator over the descendants of a tree, which keeps the iterators of the children of the visited trees
+ * in a stack instead of recursing, see {@link Tree#descendants()}.
+ */
+class DescendantsIterator implements Iterator<Tree> {
+
+  private final Deque<Iterator<Tree>> stack = new ArrayDeque<>();
+
+  DescendantsIterator(Tree tree) {
+    stack.push(tree.children().iterator());
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!stack.isEmpty()) {
+      if (stack.peek().hasNext()) {
+        return true;
+      }
+      stack.pop();
+    }
+    return false;
+  }
+
+  @Override
+  public Tree next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Tree tree = stack.peek().next();
+    var children = tree.children();
+    if (!children.isEmpty()) {
+      stack.push(children.iterator());
+    }
+    return tree;
+  }
+}
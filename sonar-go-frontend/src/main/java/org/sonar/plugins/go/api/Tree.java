@@ -17,7 +17,10 @@
 package org.sonar.plugins.go.api;
 
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface Tree extends HasTextRange {
 
@@ -30,8 +33,11 @@ public interface Tree extends HasTextRange {
     return metaData().textRange();
   }
 
+  /**
+   * Returns the descendants of the tree in pre-order. They are visited lazily without recursion, so the stream can be
+   * used on deeply nested trees.
+   */
   default Stream<Tree> descendants() {
-    return children().stream()
-      .flatMap(tree -> Stream.concat(Stream.of(tree), tree.descendants()));
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new DescendantsIterator(this), Spliterator.ORDERED | Spliterator.NONNULL), false);
   }
 }
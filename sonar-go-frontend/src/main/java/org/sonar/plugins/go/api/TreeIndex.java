@@ -0,0 +1,220 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.plugins.go.api;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Index of the trees of a file, built once from its root without recursion. The trees are stored in pre-order in an
+ * array, with the index of their parent, their depth and the end of their subtree, so the descendants of a tree are
+ * the slice of the array between its index and the end of its subtree, and its ancestors are found by following the
+ * parent indexes.
+ * <p>
+ * The trees are found in the index by identity. A tree reachable from several parents is stored at each of its
+ * positions, and found at the first one.
+ */
+public final class TreeIndex {
+
+  private static final int NO_PARENT = -1;
+
+  private final Tree[] trees;
+  private final List<Tree> treeList;
+  private final int[] parents;
+  private final int[] depths;
+  // The descendants of the tree "i" are the trees (i, subtreeEnds[i])
+  private final int[] subtreeEnds;
+  // Open addressing table from the identity of the trees to their index
+  private final Tree[] slots;
+  private final int[] slotIndexes;
+
+  private TreeIndex(Tree[] trees, int[] parents) {
+    int size = trees.length;
+    this.trees = trees;
+    this.parents = parents;
+    treeList = Collections.unmodifiableList(Arrays.asList(trees));
+    depths = new int[size];
+    subtreeEnds = new int[size];
+    for (int i = 0; i < size; i++) {
+      depths[i] = parents[i] == NO_PARENT ? 0 : (depths[parents[i]] + 1);
+      subtreeEnds[i] = i + 1;
+    }
+    // The children are after their parent in pre-order, so the end of a subtree is known before its parent is reached
+    for (int i = size - 1; i > 0; i--) {
+      subtreeEnds[parents[i]] = Math.max(subtreeEnds[parents[i]], subtreeEnds[i]);
+    }
+    slots = new Tree[Integer.highestOneBit(Math.max(size, 1)) << 2];
+    slotIndexes = new int[slots.length];
+    for (int i = 0; i < size; i++) {
+      int slot = slotOf(trees[i]);
+      if (slots[slot] == null) {
+        slots[slot] = trees[i];
+        slotIndexes[slot] = i;
+      }
+    }
+  }
+
+  public static TreeIndex of(Tree root) {
+    List<Tree> preOrder = new ArrayList<>();
+    int[] parents = new int[64];
+    // Trees to visit, with the index of their parent at the same depth of the parallel stack
+    var pending = new ArrayDeque<Tree>();
+    int[] pendingParents = new int[64];
+    pending.push(root);
+    pendingParents[0] = NO_PARENT;
+    while (!pending.isEmpty()) {
+      Tree tree = pending.pop();
+      int index = preOrder.size();
+      if (index == parents.length) {
+        parents = Arrays.copyOf(parents, index * 2);
+      }
+      preOrder.add(tree);
+      parents[index] = pendingParents[pending.size()];
+      List<Tree> children = tree.children();
+      for (int i = children.size() - 1; i >= 0; i--) {
+        Tree child = children.get(i);
+        if (child != null) {
+          if (pending.size() == pendingParents.length) {
+            pendingParents = Arrays.copyOf(pendingParents, pendingParents.length * 2);
+          }
+          pendingParents[pending.size()] = index;
+          pending.push(child);
+        }
+      }
+    }
+    return new TreeIndex(preOrder.toArray(new Tree[0]), Arrays.copyOf(parents, preOrder.size()));
+  }
+
+  public int size() {
+    return trees.length;
+  }
+
+  public Tree root() {
+    return trees[0];
+  }
+
+  /**
+   * Returns the trees in pre-order.
+   */
+  public List<Tree> trees() {
+    return treeList;
+  }
+
+  /**
+   * Returns the index of the tree in pre-order, or -1 if it is not part of the index.
+   */
+  public int indexOf(@Nullable Tree tree) {
+    if (tree == null) {
+      return -1;
+    }
+    int slot = slotOf(tree);
+    return slots[slot] == tree ? slotIndexes[slot] : -1;
+  }
+
+  public boolean contains(@Nullable Tree tree) {
+    return indexOf(tree) != -1;
+  }
+
+  @CheckForNull
+  public Tree parent(Tree tree) {
+    int parent = parents[requiredIndexOf(tree)];
+    return parent == NO_PARENT ? null : trees[parent];
+  }
+
+  /**
+   * Returns the number of ancestors of the tree, 0 for the root.
+   */
+  public int depth(Tree tree) {
+    return depths[requiredIndexOf(tree)];
+  }
+
+  /**
+   * Returns the ancestors of the tree, from its parent to the root.
+   */
+  public List<Tree> ancestors(Tree tree) {
+    int index = requiredIndexOf(tree);
+    List<Tree> ancestors = new ArrayList<>(depths[index]);
+    for (int parent = parents[index]; parent != NO_PARENT; parent = parents[parent]) {
+      ancestors.add(trees[parent]);
+    }
+    return ancestors;
+  }
+
+  public <T extends Tree> Optional<T> firstAncestorOfKind(Tree tree, Class<T> type) {
+    for (int parent = parents[requiredIndexOf(tree)]; parent != NO_PARENT; parent = parents[parent]) {
+      if (type.isInstance(trees[parent])) {
+        return Optional.of(type.cast(trees[parent]));
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the descendants of the tree in pre-order, as {@link Tree#descendants()}, without copying them.
+   */
+  public List<Tree> descendants(Tree tree) {
+    int index = requiredIndexOf(tree);
+    return treeList.subList(index + 1, subtreeEnds[index]);
+  }
+
+  public boolean isDescendant(Tree tree, Tree ancestor) {
+    int index = requiredIndexOf(tree);
+    int ancestorIndex = requiredIndexOf(ancestor);
+    return ancestorIndex < index && index < subtreeEnds[ancestorIndex];
+  }
+
+  /**
+   * Returns the first tree in pre-order of the given type with the given text range, or null if there is none. The
+   * trees which do not contain the text range are skipped with their descendants.
+   */
+  @CheckForNull
+  public <T extends Tree> T firstAt(TextRange textRange, Class<T> type) {
+    int index = 0;
+    while (index < trees.length) {
+      TextRange range = trees[index].textRange();
+      if (range.equals(textRange) && type.isInstance(trees[index])) {
+        return type.cast(trees[index]);
+      }
+      index = textRange.isInside(range) ? (index + 1) : subtreeEnds[index];
+    }
+    return null;
+  }
+
+  private int requiredIndexOf(Tree tree) {
+    int index = indexOf(tree);
+    if (index == -1) {
+      throw new IllegalArgumentException("The tree is not part of the index: " + tree);
+    }
+    return index;
+  }
+
+  private int slotOf(Tree tree) {
+    int mask = slots.length - 1;
+    int hash = System.identityHashCode(tree);
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    while (slots[slot] != null && slots[slot] != tree) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.impl;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.go.api.FunctionInvocationTree;
+import org.sonar.plugins.go.api.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InvocationShapeTest {
+
+  @Test
+  void shouldKeepTheShapeInTheInvocationTree() {
+    Tree foo = new IdentifierTreeImpl(null, "foo", "func()", "fmt", 1);
+    var invocation = new FunctionInvocationTreeImpl(null, foo, List.of(foo), List.of());
+
+    var shape = InvocationShape.of(invocation);
+
+    assertThat(InvocationShape.of(invocation)).isSameAs(shape);
+    assertThat(shape.invocation()).isSameAs(invocation);
+    assertThat(shape.identifier()).isSameAs(foo);
+    assertThat(shape.memberSelect()).isNull();
+    assertThat(shape.argTypes()).containsExactly("UNKNOWN");
+    assertThat(InvocationShape.of(new FunctionInvocationTreeImpl(null, foo, List.of(), List.of()))).isNotSameAs(shape);
+  }
+
+  @Test
+  void shouldCreateAShapeForOtherInvocationTrees() {
+    FunctionInvocationTree invocation = mock(FunctionInvocationTree.class);
+    when(invocation.arguments()).thenReturn(List.of());
+
+    var shape = InvocationShape.of(invocation);
+
+    assertThat(shape.invocation()).isSameAs(invocation);
+    assertThat(shape.identifier()).isNull();
+    assertThat(InvocationShape.of(invocation)).isNotSameAs(shape);
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.impl;
+
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.go.api.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.go.utils.SyntacticEquivalence.areEquivalent;
+import static org.sonar.go.utils.TreeCreationUtils.binary;
+import static org.sonar.go.utils.TreeCreationUtils.identifier;
+import static org.sonar.go.utils.TreeCreationUtils.integerLiteral;
+import static org.sonar.plugins.go.api.BinaryExpressionTree.Operator.PLUS;
+
+class StructuralHashTest {
+
+  @Test
+  void shouldCacheTheHashInTheTrees() {
+    BaseTreeImpl left = (BaseTreeImpl) identifier("y");
+    BaseTreeImpl tree = (BaseTreeImpl) binary(PLUS, left, integerLiteral("1"));
+
+    assertThat(left.cachedStructuralHash()).isZero();
+    int hash = StructuralHash.of(tree);
+
+    assertThat(tree.cachedStructuralHash()).isEqualTo(hash);
+    assertThat(left.cachedStructuralHash()).isEqualTo(StructuralHash.of(identifier("y"))).isNotZero();
+    assertThat(StructuralHash.of(tree)).isEqualTo(hash);
+  }
+
+  @Test
+  void shouldOnlyCompareTheHashesWhenBothAreCached() {
+    Tree first = binary(PLUS, identifier("y"), integerLiteral("1"));
+    Tree second = binary(PLUS, identifier("y"), integerLiteral("2"));
+
+    assertThat(StructuralHash.cachedHashesDiffer(first, second)).isFalse();
+    StructuralHash.of(first);
+    assertThat(StructuralHash.cachedHashesDiffer(first, second)).isFalse();
+    StructuralHash.of(second);
+    assertThat(StructuralHash.cachedHashesDiffer(first, second)).isTrue();
+  }
+
+  @Test
+  void shouldNotBeEquivalentWhenTheCachedHashesDiffer() {
+    Tree first = binary(PLUS, identifier("y"), integerLiteral("1"));
+    BaseTreeImpl second = (BaseTreeImpl) binary(PLUS, identifier("y"), integerLiteral("1"));
+    second.structuralHash(tree -> StructuralHash.of(first) + 1);
+
+    assertThat(areEquivalent(first, second)).isFalse();
+  }
+}
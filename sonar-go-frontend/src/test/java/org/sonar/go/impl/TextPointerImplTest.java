@@ -47,4 +47,16 @@ class TextPointerImplTest {
     assertThat(new TextPointerImpl(1, 2).compareTo(new TextPointerImpl(2, 1))).isEqualTo(-1);
     assertThat(new TextPointerImpl(1, 2).compareTo(new TextPointerImpl(1, 1))).isEqualTo(1);
   }
+
+  @Test
+  void should_pack_line_and_line_offset_in_the_order_of_the_pointers() {
+    long position = TextPointerImpl.pack(12, 34);
+    assertThat(TextPointerImpl.line(position)).isEqualTo(12);
+    assertThat(TextPointerImpl.lineOffset(position)).isEqualTo(34);
+    assertThat(TextPointerImpl.lineOffset(TextPointerImpl.pack(1, -1))).isEqualTo(-1);
+
+    assertThat(TextPointerImpl.pack(1, -1)).isLessThan(TextPointerImpl.pack(1, 0));
+    assertThat(TextPointerImpl.pack(1, Integer.MAX_VALUE)).isLessThan(TextPointerImpl.pack(2, 0));
+    assertThat(TextPointerImpl.pack(new TextPointerImpl(3, 4))).isEqualTo(TextPointerImpl.pack(3, 4));
+  }
 }
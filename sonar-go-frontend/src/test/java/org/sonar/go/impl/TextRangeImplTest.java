@@ -18,6 +18,7 @@ package org.sonar.go.impl;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.plugins.go.api.TextPointer;
+import org.sonar.plugins.go.api.TextRange;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -44,6 +45,28 @@ class TextRangeImplTest {
     assertThat(new TextRangeImpl(p1, p2).hashCode()).isNotEqualTo(new TextRangeImpl(p1, p1).hashCode());
   }
 
+  @Test
+  void test_isInside() {
+    TextRange range = new TextRangeImpl(p1, p2);
+    TextRange otherImplementation = new TextRange() {
+      @Override
+      public TextPointer start() {
+        return p1;
+      }
+
+      @Override
+      public TextPointer end() {
+        return p2;
+      }
+    };
+    assertThat(range.isInside(range)).isTrue();
+    assertThat(range.isInside(otherImplementation)).isTrue();
+    assertThat(range.isInside(new TextRangeImpl(1, 3, 3, 4))).isFalse();
+    assertThat(range.isInside(new TextRangeImpl(1, 0, 3, 3))).isFalse();
+    assertThat(TextRangeImpl.packedStart(otherImplementation)).isEqualTo(TextRangeImpl.packedStart(range));
+    assertThat(TextRangeImpl.packedEnd(otherImplementation)).isEqualTo(TextRangeImpl.packedEnd(range));
+  }
+
   @Test
   void test_toString() {
     assertThat(new TextRangeImpl(p1, p2)).hasToString("TextRange[1, 2, 3, 4]");
@@ -0,0 +1,93 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.impl;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.go.api.Token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.sonar.go.impl.TextRanges.range;
+
+class TokenStoreTest {
+
+  private static final Token FUNC = new TokenImpl(range(1, 0, 1, 4), "func", Token.Type.KEYWORD);
+  private static final Token FOO = new TokenImpl(range(1, 5, 1, 8), "foo", Token.Type.OTHER);
+  private static final Token TEXT = new TokenImpl(range(2, 0, 3, 1), "`a\nb`", Token.Type.STRING_LITERAL);
+  private static final Token BAR = new TokenImpl(range(3, 2, 3, 5), "bar", Token.Type.OTHER);
+
+  @Test
+  void shouldReadTheTokensFromTheColumns() {
+    var store = new TokenStore(List.of(FUNC, FOO, TEXT, BAR));
+
+    assertThat(store.size()).isEqualTo(4);
+    assertThat(store.allTokens()).containsExactly(FUNC, FOO, TEXT, BAR);
+    assertThat(store.text(2)).isEqualTo("`a\nb`");
+    assertThat(store.type(2)).isEqualTo(Token.Type.STRING_LITERAL);
+  }
+
+  @Test
+  void shouldSortTheTokens() {
+    var store = new TokenStore(List.of(BAR, FOO, TEXT, FUNC));
+
+    assertThat(store.allTokens()).containsExactly(FUNC, FOO, TEXT, BAR);
+  }
+
+  @Test
+  void shouldReturnTheTokensInsideARange() {
+    var store = new TokenStore(List.of(FUNC, FOO, TEXT, BAR));
+
+    assertThat(store.tokensInside(range(1, 0, 3, 1))).containsExactly(FUNC, FOO, TEXT);
+    assertThat(store.tokensInside(range(1, 1, 3, 5))).containsExactly(FOO, TEXT, BAR);
+    assertThat(store.tokensInside(range(1, 5, 1, 8))).containsExactly(FOO);
+    assertThat(store.tokensInside(range(1, 5, 1, 7))).isEmpty();
+    assertThat(store.tokensInside(range(4, 0, 5, 0))).isEmpty();
+    assertThat(store.indexOfFirstToken(range(1, 1, 3, 5))).isEqualTo(1);
+    assertThat(store.indexOfFirstToken(range(2, 1, 3, 5))).isEqualTo(3);
+    assertThat(store.indexOfFirstToken(range(3, 3, 3, 5))).isEqualTo(-1);
+  }
+
+  @Test
+  void shouldReturnViewsWithoutCopy() {
+    var store = new TokenStore(List.of(FUNC, FOO, TEXT, BAR));
+    var tokens = store.tokensInside(range(1, 0, 2, 0));
+
+    store.setType(1, Token.Type.KEYWORD);
+
+    assertThat(tokens.get(1).type()).isEqualTo(Token.Type.KEYWORD);
+    assertThat(tokens.subList(1, 2)).containsExactly(new TokenImpl(FOO.textRange(), "foo", Token.Type.KEYWORD));
+    assertThatThrownBy(() -> tokens.get(2)).isInstanceOf(IndexOutOfBoundsException.class);
+    assertThatThrownBy(() -> tokens.add(BAR)).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  void shouldCompareTheTextsOfTwoViews() {
+    var store = new TokenStore(List.of(FUNC, FOO, TEXT, BAR));
+    var otherStore = new TokenStore(List.of(
+      new TokenImpl(range(5, 0, 5, 4), "func", Token.Type.KEYWORD),
+      new TokenImpl(range(5, 5, 5, 8), "foo", Token.Type.OTHER),
+      new TokenImpl(range(6, 0, 6, 2), "fo", Token.Type.OTHER),
+      new TokenImpl(range(6, 2, 6, 5), "bar", Token.Type.OTHER)));
+
+    assertThat(store.tokensInside(range(1, 0, 1, 8)).hasSameTextsAs(otherStore.tokensInside(range(5, 0, 5, 8)))).isTrue();
+    assertThat(store.tokensInside(range(3, 2, 3, 5)).hasSameTextsAs(otherStore.tokensInside(range(6, 2, 6, 5)))).isTrue();
+    assertThat(store.tokensInside(range(1, 5, 1, 8)).hasSameTextsAs(otherStore.tokensInside(range(6, 2, 6, 5)))).isFalse();
+    assertThat(store.tokensInside(range(1, 5, 1, 8)).hasSameTextsAs(otherStore.tokensInside(range(6, 0, 6, 2)))).isFalse();
+    assertThat(store.tokensInside(range(1, 0, 1, 8)).hasSameTextsAs(otherStore.tokensInside(range(5, 0, 5, 4)))).isFalse();
+  }
+}
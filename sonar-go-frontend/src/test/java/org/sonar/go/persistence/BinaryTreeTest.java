@@ -0,0 +1,227 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.persistence;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonValue;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.sonar.plugins.go.api.TreeOrError;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.sonar.go.persistence.JsonTestHelper.indentedJsonFromFile;
+
+class BinaryTreeTest {
+
+  @ParameterizedTest
+  @ValueSource(strings = {"function_declaration.json", "match.json", "native_tree_with_kind.json", "top_level.json",
+    "integer_literal.json", "string_literal.json", "if_tree.json"})
+  void shouldReadTheSameTreesAsJsonTree(String fileName) throws IOException {
+    var json = "{\"file.go\": " + indentedJsonFromFile(fileName) + "}";
+
+    var fromJson = JsonTree.fromJson(json).get("file.go");
+    var fromBinary = BinaryTree.fromBinary(BinaryTreeEncoder.encode(json)).get("file.go");
+
+    assertThat(fromBinary.isTree()).isTrue();
+    assertThat(JsonTree.toJson(fromBinary.tree())).isEqualTo(JsonTree.toJson(fromJson.tree()));
+  }
+
+  @Test
+  void shouldReadParsingError() throws IOException {
+    var json = indentedJsonFromFile("parsing_error.json");
+
+    assertThat(BinaryTree.fromBinary(BinaryTreeEncoder.encode(json))).isEqualTo(JsonTree.fromJson(json));
+  }
+
+  @Test
+  void shouldReportConversionError() throws IOException {
+    var json = indentedJsonFromFile("erroneous_content.json");
+
+    var treeOrError = BinaryTree.fromBinary(BinaryTreeEncoder.encode(json)).get("resources/erroneous_content.go");
+
+    assertThat(treeOrError.isError()).isTrue();
+    assertThat(treeOrError.error()).startsWith("Error converting json tree: Expect String instead of 'JsonLiteral' for field 'value' at 'tree/Literal'");
+  }
+
+  @Test
+  void shouldReadSeveralFilesSharingStrings() {
+    var json = """
+      {
+        "a.go": {"error": "a.go:1:1: expected 'package'"},
+        "b.go": {"error": "a.go:1:1: expected 'package'"}
+      }""";
+    var binary = BinaryTreeEncoder.encode(json);
+
+    assertThat(BinaryTree.fromBinary(binary)).containsOnly(
+      Map.entry("a.go", TreeOrError.of("a.go:1:1: expected 'package'")),
+      Map.entry("b.go", TreeOrError.of("a.go:1:1: expected 'package'")));
+    // The "error" key and the message are written only once
+    assertThat(countOccurrences(binary, "expected")).isEqualTo(1);
+    assertThat(countOccurrences(binary, "error")).isEqualTo(1);
+  }
+
+  @Test
+  void shouldPassEachFileToTheConsumer() {
+    var binary = BinaryTreeEncoder.encode("{\"a.go\": {\"error\": \"boom\"}, \"b.go\": {\"error\": \"bang\"}}");
+    var files = new ArrayList<String>();
+
+    BinaryTree.fromBinary(binary, (filename, treeOrError) -> files.add(filename + ": " + treeOrError.error()));
+
+    assertThat(files).containsExactly("a.go: boom", "b.go: bang");
+  }
+
+  @Test
+  void shouldReadEmptyDocument() {
+    assertThat(BinaryTree.fromBinary(BinaryTreeEncoder.encode("{}"))).isEmpty();
+  }
+
+  @Test
+  void shouldFailOnInvalidHeader() {
+    var binary = "SLB0".getBytes(StandardCharsets.US_ASCII);
+    assertThatThrownBy(() -> BinaryTree.fromBinary(binary))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Invalid binary tree: unexpected header");
+    assertThatThrownBy(() -> BinaryTree.fromBinary(new byte[0]))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Invalid binary tree: missing header");
+  }
+
+  @Test
+  void shouldFailOnTruncatedDocument() {
+    var binary = BinaryTreeEncoder.encode("{\"a.go\": {\"error\": \"boom\"}}");
+    var truncated = Arrays.copyOf(binary, binary.length - 2);
+    assertThatThrownBy(() -> BinaryTree.fromBinary(truncated))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageStartingWith("Invalid string length");
+  }
+
+  @Test
+  void shouldFailOnTrailingBytes() {
+    var binary = BinaryTreeEncoder.encode("{}");
+    var withTrailingByte = Arrays.copyOf(binary, binary.length + 1);
+    assertThatThrownBy(() -> BinaryTree.fromBinary(withTrailingByte))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Unexpected trailing bytes at position 6");
+  }
+
+  @Test
+  void shouldFailOnUnknownTag() {
+    var out = new ByteArrayOutputStream();
+    out.writeBytes(BinaryTree.MAGIC);
+    out.writeBytes(new byte[] {BinaryTree.TAG_OBJECT, 1, 0, 4, 'a', '.', 'g', 'o', BinaryTree.TAG_OBJECT, 1, 0, 1, 'x', 42});
+    var binary = out.toByteArray();
+    assertThatThrownBy(() -> BinaryTree.fromBinary(binary))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Unexpected tag 42 at position 17");
+  }
+
+  private static int countOccurrences(byte[] binary, String value) {
+    var text = new String(binary, StandardCharsets.ISO_8859_1);
+    int count = 0;
+    for (int index = text.indexOf(value); index >= 0; index = text.indexOf(value, index + 1)) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Same encoding as binarySlang.go in sonar-go-to-slang, from a JSON document.
+   */
+  static class BinaryTreeEncoder {
+    private static final Pattern RANGE = Pattern.compile("(\\d+):(\\d+):(\\d*):(\\d+)");
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final List<String> strings = new ArrayList<>();
+
+    static byte[] encode(String json) {
+      var encoder = new BinaryTreeEncoder();
+      encoder.out.writeBytes(BinaryTree.MAGIC);
+      encoder.writeValue(Json.parse(json));
+      return encoder.out.toByteArray();
+    }
+
+    private void writeValue(JsonValue value) {
+      if (value.isNull()) {
+        out.write(BinaryTree.TAG_NULL);
+      } else if (value.isBoolean()) {
+        out.write(value.asBoolean() ? BinaryTree.TAG_TRUE : BinaryTree.TAG_FALSE);
+      } else if (value.isNumber()) {
+        out.write(BinaryTree.TAG_INT);
+        long number = value.asLong();
+        writeUnsigned((number << 1) ^ (number >> 63));
+      } else if (value.isString()) {
+        writeStringValue(value.asString());
+      } else if (value.isArray()) {
+        out.write(BinaryTree.TAG_ARRAY);
+        writeUnsigned(value.asArray().size());
+        value.asArray().forEach(this::writeValue);
+      } else {
+        out.write(BinaryTree.TAG_OBJECT);
+        writeUnsigned(value.asObject().size());
+        for (var member : value.asObject()) {
+          writeString(member.getName());
+          writeValue(member.getValue());
+        }
+      }
+    }
+
+    private void writeStringValue(String value) {
+      var range = RANGE.matcher(value);
+      if (range.matches()) {
+        out.write(BinaryTree.TAG_RANGE);
+        long startLine = Long.parseLong(range.group(1));
+        writeUnsigned(startLine);
+        writeUnsigned(Long.parseLong(range.group(2)));
+        writeUnsigned(range.group(3).isEmpty() ? 0 : (Long.parseLong(range.group(3)) - startLine));
+        writeUnsigned(Long.parseLong(range.group(4)));
+      } else {
+        out.write(BinaryTree.TAG_STRING);
+        writeString(value);
+      }
+    }
+
+    private void writeString(String value) {
+      int index = strings.indexOf(value);
+      if (index >= 0) {
+        writeUnsigned(index + 1L);
+        return;
+      }
+      strings.add(value);
+      var bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeUnsigned(0);
+      writeUnsigned(bytes.length);
+      out.writeBytes(bytes);
+    }
+
+    private void writeUnsigned(long value) {
+      while ((value & ~0x7FL) != 0) {
+        out.write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      out.write((int) value);
+    }
+  }
+}
@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.sonar.go.impl.CommentImpl;
@@ -35,6 +36,7 @@ import org.sonar.go.impl.TextRangeImpl;
 import org.sonar.go.impl.TextRanges;
 import org.sonar.go.impl.TokenImpl;
 import org.sonar.go.impl.TreeMetaDataProvider;
+import org.sonar.plugins.go.api.Annotation;
 import org.sonar.plugins.go.api.Comment;
 import org.sonar.plugins.go.api.HasTextRange;
 import org.sonar.plugins.go.api.TextPointer;
@@ -47,13 +49,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 public class JsonTestHelper {
 
+  private final List<Token> tokens = new ArrayList<>();
+  private final List<Comment> comments = new ArrayList<>();
+  // The provider is immutable, it is created again with each new token or comment
   protected TreeMetaDataProvider metaDataProvider = new TreeMetaDataProvider(Collections.emptyList(), Collections.emptyList());
 
   protected Token token(int line, int lineOffset, String text, Token.Type type) {
     TextRange tokenRange = new TextRangeImpl(line, lineOffset, line, lineOffset + text.length());
     Token token = new TokenImpl(tokenRange, text, type);
-    metaDataProvider.allTokens().add(token);
-    metaDataProvider.allTokens().sort(TreeMetaDataProvider.COMPARATOR);
+    tokens.add(token);
+    metaDataProvider = new TreeMetaDataProvider(comments, tokens);
     return token;
   }
 
@@ -67,8 +72,8 @@ public class JsonTestHelper {
     TextRange commentContentRange = new TextRangeImpl(line, lineOffset + prefixLength,
       line, lineOffset + commentText.length() - suffixLength);
     CommentImpl comment = new CommentImpl(commentText, commentContentText, commentRange, commentContentRange);
-    metaDataProvider.allComments().add(comment);
-    metaDataProvider.allComments().sort(TreeMetaDataProvider.COMPARATOR);
+    comments.add(comment);
+    metaDataProvider = new TreeMetaDataProvider(comments, tokens);
     return comment;
   }
 
@@ -80,8 +85,36 @@ public class JsonTestHelper {
     return token(line, lineOffset, text, Token.Type.KEYWORD);
   }
 
+  /**
+   * The returned metadata reads the latest provider, so it also contains the tokens and comments added afterward.
+   */
   protected TreeMetaData metaData(TextRange textRange) {
-    return metaDataProvider.metaData(textRange);
+    return new TreeMetaData() {
+      @Override
+      public TextRange textRange() {
+        return textRange;
+      }
+
+      @Override
+      public List<Comment> commentsInside() {
+        return metaDataProvider.metaData(textRange).commentsInside();
+      }
+
+      @Override
+      public List<Annotation> annotations() {
+        return metaDataProvider.metaData(textRange).annotations();
+      }
+
+      @Override
+      public List<Token> tokens() {
+        return metaDataProvider.metaData(textRange).tokens();
+      }
+
+      @Override
+      public Set<Integer> linesOfCode() {
+        return metaDataProvider.metaData(textRange).linesOfCode();
+      }
+    };
   }
 
   protected TreeMetaData metaData(Token token) {
@@ -27,23 +27,24 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class DeserializationContextTest extends JsonTestHelper {
 
-  private DeserializationContext context = new DeserializationContext(JsonTreeConverter.POLYMORPHIC_CONVERTER)
-    .withMetaDataProvider(metaDataProvider);
+  private final DeserializationContext context = new DeserializationContext(JsonTreeConverter.POLYMORPHIC_CONVERTER);
 
   @Test
   void shouldResolveToken() {
     var token = otherToken(1, 0, "foo");
+    context.withMetaDataProvider(metaDataProvider);
     var json = Json.object()
       .add("tokenReference", "1:0:1:3");
 
-    assertThat(context.fieldToToken(json, "tokenReference")).isSameAs(token);
-    assertThat(context.fieldToNullableToken(json, "tokenReference")).isSameAs(token);
+    assertThat(context.fieldToToken(json, "tokenReference")).isEqualTo(token);
+    assertThat(context.fieldToNullableToken(json, "tokenReference")).isEqualTo(token);
     assertThat(context.fieldToNullableToken(json, "unknown")).isNull();
   }
 
   @Test
   void shouldThrowExceptionWhenTokenNotFound() {
     otherToken(1, 0, "foo");
+    context.withMetaDataProvider(metaDataProvider);
     var json = Json.object()
       .add("tokenReference", "7:13:7:20");
 
@@ -55,6 +56,7 @@ class DeserializationContextTest extends JsonTestHelper {
   @Test
   void shouldResolveMetaData() {
     var token = otherToken(1, 0, "foo");
+    context.withMetaDataProvider(metaDataProvider);
     var json = Json.object()
       .add("metaData", "1:0:1:3");
 
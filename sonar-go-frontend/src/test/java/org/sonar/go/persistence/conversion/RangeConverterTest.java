@@ -49,6 +49,12 @@ class RangeConverterTest extends JsonTestHelper {
     assertThat(range.end().lineOffset()).isEqualTo(12);
   }
 
+  @Test
+  void parse_range_on_a_single_line() {
+    assertThat(RangeConverter.parse("3:7::12")).isEqualTo(new TextRangeImpl(3, 7, 3, 12));
+    assertThat(RangeConverter.parse(RangeConverter.format(new TextRangeImpl(10, 0, 12, 1)))).isEqualTo(new TextRangeImpl(10, 0, 12, 1));
+  }
+
   @Test
   void parse_null_string() {
     assertThat(RangeConverter.parse(null)).isNull();
@@ -59,6 +65,9 @@ class RangeConverterTest extends JsonTestHelper {
     IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
       () -> RangeConverter.parse("12345"));
     assertThat(e).hasMessage("Invalid TextRange '12345'");
+    e = assertThrows(IllegalArgumentException.class,
+      () -> RangeConverter.parse("1:2:3"));
+    assertThat(e).hasMessage("Invalid TextRange '1:2:3'");
   }
 
   @Test
@@ -72,7 +81,7 @@ class RangeConverterTest extends JsonTestHelper {
   void resolve_token() {
     Token token = otherToken(1, 0, "foo");
     Token actual = RangeConverter.resolveToken(metaDataProvider, "1:0:1:3");
-    assertThat(actual).isSameAs(token);
+    assertThat(actual).isEqualTo(token);
     assertThat(RangeConverter.resolveToken(metaDataProvider, null)).isNull();
   }
 
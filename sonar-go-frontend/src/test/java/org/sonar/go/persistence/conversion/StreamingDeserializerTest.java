@@ -0,0 +1,208 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.persistence.conversion;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonObject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.sonar.go.persistence.JsonTree;
+import org.sonar.plugins.go.api.Tree;
+import org.sonar.plugins.go.api.TreeOrError;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingDeserializerTest {
+
+  private static final Path PERSISTENCE_RESOURCES = Paths.get("src", "test", "resources", "org", "sonar", "go", "persistence");
+  // Expected outputs of the Go converter for real Go files
+  private static final Path GO_CONVERTER_RESOURCES = Paths.get("..", "sonar-go-to-slang", "resources", "ast");
+
+  static Stream<Path> singleTreeDocuments() throws IOException {
+    return Stream.concat(jsonFiles(PERSISTENCE_RESOURCES), jsonFiles(GO_CONVERTER_RESOURCES))
+      .filter(StreamingDeserializerTest::isSingleTreeDocument);
+  }
+
+  @ParameterizedTest
+  @MethodSource("singleTreeDocuments")
+  void shouldConvertTheSameTreeAsTheDom(Path file) throws IOException {
+    var json = Files.readString(file);
+
+    var expected = resultOf(() -> JsonTree.fromJsonSingleTree(json));
+    var actual = resultOf(() -> StreamingDeserializer.fromJsonSingleTree(json));
+
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @ParameterizedTest
+  @MethodSource("singleTreeDocuments")
+  void shouldConvertTheSameFilesAsTheDom(Path file) throws IOException {
+    var singleTree = Files.readString(file);
+    var json = "{\"a.go\": " + singleTree + ", \"b.go\": {\"error\": \"b.go:1:1: expected 'package'\"}, \"c.go\": " + singleTree + "}";
+
+    assertThat(streamedFiles(json)).isEqualTo(domFiles(json));
+  }
+
+  @ParameterizedTest
+  @MethodSource("multiFileDocuments")
+  void shouldConvertTheSameErrorsAsTheDom(String fileName) throws IOException {
+    var json = Files.readString(PERSISTENCE_RESOURCES.resolve(fileName));
+
+    assertThat(streamedFiles(json)).isEqualTo(domFiles(json));
+  }
+
+  static Stream<String> multiFileDocuments() {
+    return Stream.of("parsing_error.json", "erroneous_content.json");
+  }
+
+  @Test
+  void shouldPassEachFileToTheConsumerInTheOrderOfTheDocument() {
+    var json = """
+      {
+        "a.go": {"treeMetaData": {"comments": [], "tokens": [{"textRange": "1:0:1:3", "text": "foo"}]},
+          "tree": {"@type": "Identifier", "metaData": "1:0:1:3", "name": "foo", "type": "UNKNOWN", "package": "UNKNOWN", "id": 0}},
+        "b.go": {"treeMetaData": {"comments": [], "tokens": []}, "tree": {"@type": "Unknown"}},
+        "c.go": {"error": "c.go:1:1: expected 'package'"}
+      }""";
+    var files = new ArrayList<String>();
+
+    StreamingDeserializer.fromJson(json, (fileName, treeOrError) -> files.add(fileName + " " + treeOrError.isTree()));
+
+    assertThat(files).containsExactly("a.go true", "b.go false", "c.go false");
+  }
+
+  @Test
+  void shouldConvertTheTreeAtTheEndOfTheFileWhenTheMetaDataComesLast() {
+    var json = """
+      {
+        "tree": {"@type": "Identifier", "metaData": "1:0:1:3", "name": "foo", "type": "UNKNOWN", "package": "UNKNOWN", "id": 0},
+        "treeMetaData": {"comments": [], "tokens": [{"textRange": "1:0:1:3", "text": "foo"}]}
+      }""";
+
+    assertThat(JsonTree.toJson(StreamingDeserializer.fromJsonSingleTree(json))).isEqualTo(JsonTree.toJson(JsonTree.fromJsonSingleTree(json)));
+  }
+
+  @Test
+  void shouldKeepTheFirstConversionErrorOfAFile() {
+    var json = """
+      {
+        "a.go": {"treeMetaData": {"comments": [], "tokens": []}, "tree": {"@type": "Block", "metaData": "1:0:1:3", "statementOrExpressions": [
+          {"@type": "Unknown"}, {"@type": "AlsoUnknown"}]}, "error": null},
+        "b.go": {"error": "b.go:1:1: expected 'package'"}
+      }""";
+    var files = new LinkedHashMap<String, TreeOrError>();
+
+    StreamingDeserializer.fromJson(json, files::put);
+
+    assertThat(files).containsExactly(
+      Map.entry("a.go", TreeOrError.of("Error converting json tree: Invalid '@type' value at 'tree/Block/statementOrExpressions[]/Unknown' member: Unknown")),
+      Map.entry("b.go", TreeOrError.of("b.go:1:1: expected 'package'")));
+  }
+
+  @Test
+  void shouldFailOnDocumentWhichIsNotAnObject() {
+    assertThatThrownBy(() -> StreamingDeserializer.fromJson("[]", (fileName, treeOrError) -> {
+    }))
+      .isInstanceOf(UnsupportedOperationException.class)
+      .hasMessage("Not an object: []");
+    assertThatThrownBy(() -> StreamingDeserializer.fromJson("{\"a.go\": 42}", (fileName, treeOrError) -> {
+    }))
+      .isInstanceOf(UnsupportedOperationException.class)
+      .hasMessage("Not an object: 42");
+  }
+
+  private static Stream<Path> jsonFiles(Path directory) throws IOException {
+    try (var files = Files.list(directory)) {
+      return files.filter(path -> path.toString().endsWith(".json")).sorted().toList().stream();
+    }
+  }
+
+  private static boolean isSingleTreeDocument(Path file) {
+    try {
+      var root = Json.parse(Files.readString(file)).asObject();
+      return root.get("treeMetaData") != null;
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Map<String, String> streamedFiles(String json) {
+    var files = new LinkedHashMap<String, String>();
+    StreamingDeserializer.fromJson(json, (fileName, treeOrError) -> files.put(fileName, resultOf(treeOrError)));
+    return files;
+  }
+
+  /**
+   * Conversion of each file of the DOM, as done by JsonTree before the streaming deserializer.
+   */
+  private static Map<String, String> domFiles(String json) {
+    var files = new LinkedHashMap<String, String>();
+    JsonObject root = Json.parse(json).asObject();
+    for (String name : root.names()) {
+      JsonObject file = root.get(name).asObject();
+      var error = file.get("error");
+      TreeOrError treeOrError;
+      if (error != null && error.isString()) {
+        treeOrError = TreeOrError.of(error.asString());
+      } else {
+        try {
+          treeOrError = TreeOrError.of(JsonTree.fromJsonSingleTree(file.toString()));
+        } catch (RuntimeException e) {
+          treeOrError = TreeOrError.of("Error converting json tree: " + e.getMessage());
+        }
+      }
+      files.put(name, resultOf(treeOrError));
+    }
+    return files;
+  }
+
+  private static String resultOf(TreeOrError treeOrError) {
+    if (treeOrError.isError()) {
+      return "error: " + withoutMemberText(treeOrError.error());
+    }
+    return treeOrError.tree() == null ? "null" : JsonTree.toJson(treeOrError.tree());
+  }
+
+  private static String resultOf(Supplier<Tree> conversion) {
+    try {
+      var tree = conversion.get();
+      return tree == null ? "null" : JsonTree.toJson(tree);
+    } catch (RuntimeException e) {
+      return e.getClass().getSimpleName() + ": " + withoutMemberText(e.getMessage());
+    }
+  }
+
+  /**
+   * The text of the member in the error messages only contains the converted children as "@type" with the streaming
+   * deserializer.
+   */
+  private static String withoutMemberText(String message) {
+    int index = message.indexOf(" member: ");
+    return index < 0 ? message : message.substring(0, index);
+  }
+}
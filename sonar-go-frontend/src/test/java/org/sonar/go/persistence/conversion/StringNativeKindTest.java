@@ -47,4 +47,44 @@ class StringNativeKindTest {
     assertThat(new StringNativeKind("ast.Element")).hasSameHashCodeAs(new StringNativeKind("ast.Element"));
   }
 
+  @Test
+  void shouldReturnTheSameRegisteredKindForTheSameText() {
+    var kind = StringNativeKind.of("Results(FieldList)");
+
+    assertThat(StringNativeKind.of(new String("Results(FieldList)"))).isSameAs(kind);
+    assertThat(kind.id()).isNotEqualTo(StringNativeKind.UNREGISTERED);
+    assertThat(StringNativeKind.of("Params(FieldList)").id()).isNotEqualTo(kind.id());
+  }
+
+  @Test
+  void shouldCompareRegisteredAndUnregisteredKindsByText() {
+    var registered = StringNativeKind.of("[0](Field)");
+    var unregistered = new StringNativeKind("[0](Field)");
+
+    assertThat(unregistered.id()).isEqualTo(StringNativeKind.UNREGISTERED);
+    assertThat(unregistered).isEqualTo(registered).hasSameHashCodeAs(registered);
+    assertThat(registered).isEqualTo(unregistered).isNotEqualTo(StringNativeKind.of("[1](Field)"));
+  }
+
+  @Test
+  void shouldNotRegisterTheKindsWithALargeIndex() {
+    var small = StringNativeKind.of("Names[15](Ident)");
+    var large = StringNativeKind.of("Names[16](Ident)");
+
+    assertThat(small.id()).isNotEqualTo(StringNativeKind.UNREGISTERED);
+    assertThat(large.id()).isEqualTo(StringNativeKind.UNREGISTERED);
+    assertThat(StringNativeKind.of("[1234](Field)").id()).isEqualTo(StringNativeKind.UNREGISTERED);
+    assertThat(StringNativeKind.of("[0](Field)").id()).isNotEqualTo(StringNativeKind.UNREGISTERED);
+    assertThat(large).isEqualTo(StringNativeKind.of("Names[16](Ident)")).isNotEqualTo(small);
+  }
+
+  @Test
+  void shouldFindTheLargeIndexes() {
+    assertThat(StringNativeKind.hasLargeIndex("Results(FieldList)")).isFalse();
+    assertThat(StringNativeKind.hasLargeIndex("[0](Field)")).isFalse();
+    assertThat(StringNativeKind.hasLargeIndex("Names[9](Ident)")).isFalse();
+    assertThat(StringNativeKind.hasLargeIndex("[16](Field)")).isTrue();
+    assertThat(StringNativeKind.hasLargeIndex("[2]Names[100](Ident)")).isTrue();
+    assertThat(StringNativeKind.hasLargeIndex("[](Ident)")).isFalse();
+  }
 }
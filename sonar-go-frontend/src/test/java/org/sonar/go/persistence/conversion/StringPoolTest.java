@@ -0,0 +1,93 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.persistence.conversion;
+
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.go.api.IdentifierTree;
+import org.sonar.plugins.go.api.TreeOrError;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StringPoolTest {
+
+  @Test
+  void shouldReturnTheFirstInstanceOfAString() {
+    var pool = new StringPool();
+    var first = new String("foo");
+    var second = new String("foo");
+
+    assertThat(pool.intern(first)).isSameAs(first);
+    assertThat(pool.intern(second)).isSameAs(first);
+    assertThat(pool.intern("bar")).isEqualTo("bar");
+
+    assertThat(pool.lookups()).isEqualTo(3);
+    assertThat(pool.hits()).isEqualTo(1);
+    assertThat(pool.size()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldNotAddStringsWhenFull() {
+    var pool = new StringPool(1);
+    var foo = new String("foo");
+    var bar = new String("bar");
+
+    pool.intern(foo);
+    assertThat(pool.intern(bar)).isSameAs(bar);
+    assertThat(pool.intern(new String("bar"))).isNotSameAs(bar);
+    assertThat(pool.intern(new String("foo"))).isSameAs(foo);
+
+    assertThat(pool.size()).isEqualTo(1);
+    assertThat(pool.hits()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldNotPoolWithTheDisabledPool() {
+    var foo = new String("foo");
+    StringPool.NONE.intern(new String("foo"));
+
+    assertThat(StringPool.NONE.intern(foo)).isSameAs(foo);
+    assertThat(StringPool.NONE.lookups()).isZero();
+    assertThat(StringPool.NONE.size()).isZero();
+  }
+
+  @Test
+  void shouldShareTheIdentifierStringsOfSeveralDocuments() {
+    var json = """
+      {
+        "a.go": {"treeMetaData": {"comments": [], "tokens": [{"textRange": "1:0:1:3", "text": "foo"}]},
+          "tree": {"@type": "Identifier", "metaData": "1:0:1:3", "name": "foo", "type": "*github.com/org/repo/pkg.Client", "package": "pkg", "id": 0}}
+      }""";
+    var pool = new StringPool();
+    var identifiers = new ArrayList<IdentifierTree>();
+
+    StreamingDeserializer.fromJson(json, pool, (fileName, treeOrError) -> identifiers.add(identifier(treeOrError)));
+    StreamingDeserializer.fromJson(json, pool, (fileName, treeOrError) -> identifiers.add(identifier(treeOrError)));
+
+    var first = identifiers.get(0);
+    var second = identifiers.get(1);
+    assertThat(second).isNotSameAs(first);
+    assertThat(second.name()).isSameAs(first.name());
+    assertThat(second.type()).isSameAs(first.type());
+    assertThat(second.packageName()).isSameAs(first.packageName());
+    assertThat(pool.hits()).isEqualTo(3);
+  }
+
+  private static IdentifierTree identifier(TreeOrError treeOrError) {
+    return (IdentifierTree) treeOrError.tree();
+  }
+}
@@ -96,4 +96,90 @@ class SymbolTest {
     assertThat(symbol.getUsagesBeforeLine(3)).hasSize(2);
     assertThat(symbol.getUsagesBefore(TreeCreationUtils.identifier("other_id", TextRanges.range(3, 1, 3, 1)))).hasSize(2);
   }
+
+  @Test
+  void addUsageShouldKeepTheUsagesSortedByPosition() {
+    var symbol = new Symbol("my_type");
+    var first = new Usage(TreeCreationUtils.identifier("my_id", TextRanges.range(1, 4, 1, 9)), null, Usage.UsageType.DECLARATION);
+    var second = new Usage(TreeCreationUtils.identifier("my_id", TextRanges.range(2, 1, 2, 6)), null, Usage.UsageType.ASSIGNMENT);
+    var third = new Usage(TreeCreationUtils.identifier("my_id", TextRanges.range(2, 8, 2, 13)), null, Usage.UsageType.REFERENCE);
+    var fourth = new Usage(TreeCreationUtils.identifier("my_id", TextRanges.range(5, 1, 5, 6)), null, Usage.UsageType.REFERENCE);
+    symbol.addUsage(third);
+    symbol.addUsage(first);
+    symbol.addUsage(fourth);
+    symbol.addUsage(second);
+
+    assertThat(symbol.getUsages()).containsExactly(first, second, third, fourth);
+    assertThat(symbol.getUsagesBeforeLine(1)).isEmpty();
+    assertThat(symbol.getUsagesBeforeLine(2)).containsExactly(first);
+    assertThat(symbol.getUsagesBeforeLine(3)).containsExactly(first, second, third);
+    assertThat(symbol.getUsagesBeforeLine(6)).containsExactly(first, second, third, fourth);
+  }
+
+  @Test
+  void getUsagesBeforeLineShouldStopAtTheFirstUsageAfterTheLineWhenTheUsagesAreNotSorted() {
+    var symbol = new Symbol("my_type");
+    var declaration = new Usage(TreeCreationUtils.identifier("my_id", TextRanges.range(1, 1, 1, 1)), null, Usage.UsageType.DECLARATION);
+    var assignment = new Usage(TreeCreationUtils.identifier("my_id", TextRanges.range(4, 1, 4, 1)), null, Usage.UsageType.ASSIGNMENT);
+    var reference = new Usage(TreeCreationUtils.identifier("my_id", TextRanges.range(2, 1, 2, 1)), null, Usage.UsageType.REFERENCE);
+    symbol.getUsages().addAll(List.of(declaration, assignment));
+    assertThat(symbol.getUsagesBeforeLine(3)).containsExactly(declaration);
+
+    symbol.getUsages().add(reference);
+    assertThat(symbol.getUsagesBeforeLine(3)).containsExactly(declaration);
+    assertThat(symbol.getUsagesBeforeLine(5)).containsExactly(declaration, assignment, reference);
+  }
+
+  @Test
+  void getSafeValueShouldBeComputedAgainWhenUsagesAreAdded() {
+    var symbol = new Symbol("my_type");
+    var value = new IntegerLiteralTreeImpl(mock(), "42");
+    symbol.getUsages().add(new Usage(mock(), value, Usage.UsageType.DECLARATION));
+    assertThat(symbol.getSafeValue()).isEqualTo(value);
+    assertThat(symbol.getSafeValue()).isEqualTo(value);
+
+    symbol.addUsage(new Usage(mock(), null, Usage.UsageType.ASSIGNMENT));
+    assertThat(symbol.getSafeValue()).isNull();
+  }
+
+  @Test
+  void usagesAddedAsColumnsShouldBeReadAsTheSameRecords() {
+    var symbol = new Symbol("my_type");
+    var identifier = TreeCreationUtils.identifier("my_id", TextRanges.range(2, 1, 2, 6));
+    var value = new IntegerLiteralTreeImpl(mock(), "42");
+    var declaration = new Usage(TreeCreationUtils.identifier("my_id", TextRanges.range(1, 4, 1, 9)), null, Usage.UsageType.DECLARATION);
+    symbol.addUsage(identifier, value, Usage.UsageType.ASSIGNMENT);
+    symbol.addUsage(declaration);
+
+    assertThat(symbol.getUsages()).containsExactly(declaration, new Usage(identifier, value, Usage.UsageType.ASSIGNMENT));
+    assertThat(symbol.getUsages().get(1)).isSameAs(symbol.getUsages().get(1));
+    assertThat(symbol.getSafeValue()).isSameAs(value);
+  }
+
+  @Test
+  void usagesShouldBeModifiableAsAList() {
+    var symbol = new Symbol("my_type");
+    var value = new IntegerLiteralTreeImpl(mock(), "42");
+    var declaration = new Usage(mock(), null, Usage.UsageType.DECLARATION);
+    var assignment = new Usage(mock(), value, Usage.UsageType.ASSIGNMENT);
+    var reference = new Usage(mock(), null, Usage.UsageType.REFERENCE);
+    for (int i = 0; i < 10; i++) {
+      symbol.getUsages().add(reference);
+    }
+    symbol.getUsages().add(0, declaration);
+    assertThat(symbol.getSafeValue()).isNull();
+
+    assertThat(symbol.getUsages().set(1, assignment)).isSameAs(reference);
+    assertThat(symbol.getSafeValue()).isSameAs(value);
+
+    assertThat(symbol.getUsages().remove(0)).isSameAs(declaration);
+    assertThat(symbol.getUsages()).hasSize(10).startsWith(assignment, reference);
+    assertThat(symbol.getSafeValue()).isSameAs(value);
+
+    symbol.getUsages().removeIf(usage -> usage.type() == Usage.UsageType.REFERENCE);
+    assertThat(symbol.getUsages()).containsExactly(assignment);
+    symbol.getUsages().clear();
+    assertThat(symbol.getUsages()).isEmpty();
+    assertThat(symbol.getSafeValue()).isNull();
+  }
 }
@@ -0,0 +1,165 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.utils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.sonar.go.impl.FunctionInvocationTreeImpl;
+import org.sonar.go.impl.IdentifierTreeImpl;
+import org.sonar.go.impl.MemberSelectTreeImpl;
+import org.sonar.go.impl.StringLiteralTreeImpl;
+import org.sonar.go.symbols.Symbol;
+import org.sonar.plugins.go.api.IdentifierTree;
+import org.sonar.plugins.go.api.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledMethodMatchersTest {
+
+  private static final MethodMatchers RAND_INT = MethodMatchers.create()
+    .ofType("math/rand")
+    .withNames("Int", "Intn")
+    .withAnyParameters()
+    .build();
+  private static final MethodMatchers FMT_PRINTF = MethodMatchers.create()
+    .ofType("fmt")
+    .withNames("Printf")
+    .withNumberOfParameters(1)
+    .build();
+  private static final MethodMatchers FMT_ANY_PRINT = MethodMatchers.create()
+    .ofType("fmt")
+    .withNamesMatching(name -> name.startsWith("Print"))
+    .withAnyParameters()
+    .build();
+  private static final MethodMatchers ZAP_LOGGER = MethodMatchers.create()
+    .ofType("go.uber.org/zap")
+    .withVariableTypeIn("go.uber.org/zap.Logger")
+    .withNames("Info")
+    .withAnyParameters()
+    .build();
+  private static final MethodMatchers RAND_FIRST_ARGUMENT = MethodMatchers.create()
+    .ofTypes(List.of("math/rand", "crypto/rand"))
+    .withNames("Intn")
+    .withParameterAtIndexMatching(0, StringLiteralTreeImpl.class::isInstance)
+    .build();
+  private static final List<MethodMatchers> MATCHERS = List.of(RAND_INT, FMT_PRINTF, FMT_ANY_PRINT, ZAP_LOGGER, RAND_FIRST_ARGUMENT);
+
+  private final CompiledMethodMatchers compiled = MethodMatchers.compile(MATCHERS);
+
+  static Stream<Tree> invocations() {
+    return Stream.of(
+      // rand.Intn("10")
+      call(select(packageIdentifier("rand", "math/rand"), identifier("Intn", "func(n int) int", "math/rand")), stringLiteral()),
+      // rand.Int()
+      call(select(packageIdentifier("rand", "math/rand"), identifier("Int", "func() int", "math/rand"))),
+      // rand.Float64()
+      call(select(packageIdentifier("rand", "math/rand"), identifier("Float64", "func() float64", "math/rand"))),
+      // Printf("a") with a dot import
+      call(identifier("Printf", "func(string, ...any)", "fmt"), stringLiteral()),
+      // Println() with a dot import
+      call(identifier("Println", "func(...any)", "fmt")),
+      // fmt.Printf("a", "b")
+      call(select(packageIdentifier("fmt", "fmt"), identifier("Printf", "func(string, ...any)", "fmt")), stringLiteral(), stringLiteral()),
+      // logger.Info() on a variable of type *zap.Logger
+      call(select(variable("logger", "*go.uber.org/zap.Logger"), identifier("Info", "func(string)", "go.uber.org/zap"))),
+      // logger.Debug() on a variable of type *zap.Logger
+      call(select(variable("logger", "*go.uber.org/zap.Logger"), identifier("Debug", "func(string)", "go.uber.org/zap"))),
+      // a.logger.Info() where the type of a.logger is resolved
+      call(select(select(variable("a", "main.App"), identifier("logger", "*go.uber.org/zap.Logger", "main")), identifier("Info", "func(string)", "go.uber.org/zap"))),
+      // Intn() of an unknown package
+      call(identifier("Intn", "func(n int) int", "other")),
+      // invocation without first identifier
+      call(new MemberSelectTreeImpl(null, null, null)));
+  }
+
+  @ParameterizedTest
+  @MethodSource("invocations")
+  void shouldMatchAsEachMatcher(Tree invocation) {
+    var expected = MATCHERS.stream().filter(matcher -> matcher.matches(invocation).isPresent()).toList();
+
+    assertThat(compiled.matchingMatchers(invocation)).containsExactlyElementsOf(expected);
+    assertThat(compiled.matchesAny(invocation)).isEqualTo(!expected.isEmpty());
+    assertThat(compiled.matches(invocation)).isEqualTo(expected.isEmpty() ? Optional.empty() : expected.get(0).matches(invocation));
+  }
+
+  @Test
+  void shouldFindAllTheMatchingMatchers() {
+    var printf = call(identifier("Printf", "func(string, ...any)", "fmt"), stringLiteral());
+    var intn = call(select(packageIdentifier("rand", "math/rand"), identifier("Intn", "func(n int) int", "math/rand")), stringLiteral());
+    var info = call(select(variable("logger", "*go.uber.org/zap.Logger"), identifier("Info", "func(string)", "go.uber.org/zap")));
+
+    assertThat(compiled.matchingMatchers(printf)).containsExactly(FMT_PRINTF, FMT_ANY_PRINT);
+    assertThat(compiled.matchingMatchers(intn)).containsExactly(RAND_INT, RAND_FIRST_ARGUMENT);
+    assertThat(compiled.matchingMatchers(info)).containsExactly(ZAP_LOGGER);
+    assertThat(compiled.matches(info)).map(IdentifierTree::name).contains("Info");
+  }
+
+  @Test
+  void shouldMatchTheReceiverMatchersWithTheirCurrentReceiver() {
+    var receiverMatcher = MethodMatchers.create()
+      .ofType("github.com/beego/beego")
+      .withReceiver()
+      .withNames("Ctx.SetCookie")
+      .withAnyParameters()
+      .build();
+    var compiledWithReceiver = MethodMatchers.compile(List.of(receiverMatcher));
+    var setCookie = call(select(select(variable("ctrl", "*main.Controller"), identifier("Ctx", "UNKNOWN", "main")), identifier("SetCookie", "func()", "main")));
+
+    assertThat(compiledWithReceiver.matchesAny(setCookie)).isFalse();
+    receiverMatcher.setReceiverName("ctrl");
+    assertThat(compiledWithReceiver.matchesAny(setCookie)).isTrue();
+  }
+
+  @Test
+  void shouldNotMatchOtherTrees() {
+    assertThat(compiled.matchesAny(null)).isFalse();
+    assertThat(compiled.matchingMatchers(stringLiteral())).isEmpty();
+    assertThat(compiled.matches(stringLiteral())).isEmpty();
+    assertThat(compiled.matchers()).containsExactlyElementsOf(MATCHERS);
+  }
+
+  private static Tree call(Tree memberSelect, Tree... arguments) {
+    return new FunctionInvocationTreeImpl(null, memberSelect, List.of(arguments), List.of());
+  }
+
+  private static Tree select(@Nullable Tree expression, IdentifierTree identifier) {
+    return new MemberSelectTreeImpl(null, expression, identifier);
+  }
+
+  private static IdentifierTree packageIdentifier(String name, String packageName) {
+    return identifier(name, "UNKNOWN", packageName);
+  }
+
+  private static IdentifierTree identifier(String name, String type, String packageName) {
+    return new IdentifierTreeImpl(null, name, type, packageName, -1);
+  }
+
+  private static IdentifierTree variable(String name, String type) {
+    var identifier = new IdentifierTreeImpl(null, name, type, "main", 1);
+    identifier.setSymbol(new Symbol(type));
+    return identifier;
+  }
+
+  private static Tree stringLiteral() {
+    return new StringLiteralTreeImpl(null, "\"a\"");
+  }
+}
@@ -17,7 +17,9 @@
 package org.sonar.go.utils;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import javax.annotation.Nullable;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -194,6 +196,62 @@ class ConstantResolutionTest {
     assertThat(resolveAsStringConstant(id)).isEqualTo("HelloWorld");
   }
 
+  @Test
+  void shouldMemoizeTheConstantResolvedFromTheSafeValue() {
+    IdentifierTree id = TreeCreationUtils.identifier("ID");
+    Symbol symbol = new Symbol("type");
+    symbol.getUsages().add(new Usage(id, TreeCreationUtils.binary(PLUS, HELLO, WORLD), Usage.UsageType.DECLARATION));
+    id.setSymbol(symbol);
+
+    assertThat(resolveAsStringConstant(id)).isEqualTo("HelloWorld");
+    assertThat(symbol.getResolvedConstant()).isEqualTo(new Symbol.ResolvedConstant("HelloWorld", 1));
+    assertThat(resolveAsStringConstant(TreeCreationUtils.binary(PLUS, id, id))).isEqualTo("HelloWorldHelloWorld");
+
+    symbol.getUsages().add(new Usage(id, WORLD, Usage.UsageType.ASSIGNMENT));
+    assertThat(symbol.getResolvedConstant()).isNull();
+    assertThat(resolveAsStringConstant(id)).isNull();
+  }
+
+  @Test
+  void shouldResolveTheSameConstantsWhenTheyAreMemoizedOnShorterChains() {
+    var identifiers = consecutiveIdentifiers(25);
+
+    assertThat(resolveAsStringConstant(identifiers.get(10))).isEqualTo("Hello");
+    assertThat(resolveAsStringConstant(identifiers.get(18))).isEqualTo("Hello");
+    assertThat(resolveAsStringConstant(identifiers.get(19))).isNull();
+    assertThat(resolveAsStringConstant(identifiers.get(25))).isNull();
+    assertThat(identifiers.get(19).symbol().getResolvedConstant()).isNull();
+    assertThat(identifiers.get(18).symbol().getResolvedConstant()).isEqualTo(new Symbol.ResolvedConstant("Hello", 19));
+  }
+
+  @Test
+  void shouldNotMemoizeTheConstantsStoppedByTheLimitOfIdentifierResolution() {
+    var identifiers = consecutiveIdentifiers(25);
+
+    assertThat(resolveAsStringConstant(identifiers.get(25))).isNull();
+    assertThat(resolveAsStringConstant(identifiers.get(18))).isEqualTo("Hello");
+    assertThat(resolveAsStringConstant(identifiers.get(10))).isEqualTo("Hello");
+    assertThat(ConstantResolution.resolveAsPartialStringConstant(TreeCreationUtils.binary(PLUS, identifiers.get(5), identifiers.get(20))))
+      .isEqualTo("Hello_?_");
+  }
+
+  /**
+   * Returns the identifiers "x0" to "xN", where "x0" is declared with "Hello" and each other one with the previous one.
+   */
+  private static List<IdentifierTree> consecutiveIdentifiers(int amountOfIdentifier) {
+    var identifiers = new ArrayList<IdentifierTree>();
+    Tree value = HELLO;
+    for (int i = 0; i <= amountOfIdentifier; i++) {
+      IdentifierTree id = TreeCreationUtils.identifier("x" + i);
+      Symbol symbol = new Symbol("string");
+      symbol.getUsages().add(new Usage(id, value, Usage.UsageType.DECLARATION));
+      id.setSymbol(symbol);
+      identifiers.add(id);
+      value = id;
+    }
+    return identifiers;
+  }
+
   @Test
   void simpleStringIsConstantString() {
     assertThat(ConstantResolution.isConstantString(HELLO)).isTrue();
@@ -0,0 +1,124 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.utils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LineSetTest {
+
+  @Test
+  void shouldAddLinesAndRanges() {
+    var lines = new LineSet();
+
+    assertThat(lines.add(7)).isTrue();
+    assertThat(lines.add(7)).isFalse();
+    lines.addRange(2, 4);
+    lines.addRange(10, 9);
+
+    assertThat(lines).containsExactly(2, 3, 4, 7);
+    assertThat(lines).hasSize(4);
+    assertThat(lines.contains(3)).isTrue();
+    assertThat(lines.contains(5)).isFalse();
+    assertThat(lines.contains(-1)).isFalse();
+    assertThat(lines.contains((Object) "3")).isFalse();
+  }
+
+  @Test
+  void shouldGrowWithTheHighestLine() {
+    var lines = new LineSet();
+
+    lines.add(1);
+    lines.add(50_000);
+
+    assertThat(lines).containsExactly(1, 50_000);
+  }
+
+  @Test
+  void shouldMergeAnotherSet() {
+    var lines = new LineSet();
+    lines.addRange(1, 3);
+    var other = new LineSet();
+    other.addRange(3, 5);
+
+    assertThat(lines.addAll((Set<Integer>) other)).isTrue();
+    assertThat(lines.addAll((Set<Integer>) other)).isFalse();
+    assertThat(lines.addAll(List.of(8, 9))).isTrue();
+
+    assertThat(lines).containsExactly(1, 2, 3, 4, 5, 8, 9);
+  }
+
+  @Test
+  void shouldRemoveTheLinesAfterALine() {
+    var lines = new LineSet();
+    lines.addRange(1, 10);
+
+    lines.removeAfter(20);
+    assertThat(lines).hasSize(10);
+    lines.removeAfter(4);
+    assertThat(lines).containsExactly(1, 2, 3, 4);
+    lines.removeAfter(-1);
+    assertThat(lines).isEmpty();
+  }
+
+  @Test
+  void shouldIterateInAscendingOrder() {
+    var lines = new LineSet();
+    lines.add(9);
+    lines.add(1);
+    lines.add(4);
+    var iterated = new ArrayList<Integer>();
+
+    lines.forEachLine(iterated::add);
+
+    assertThat(iterated).containsExactly(1, 4, 9);
+    var iterator = lines.iterator();
+    assertThat(iterator.nextInt()).isEqualTo(1);
+    iterator.remove();
+    assertThatThrownBy(iterator::remove).isInstanceOf(IllegalStateException.class);
+    assertThat(iterator.nextInt()).isEqualTo(4);
+    assertThat(iterator.nextInt()).isEqualTo(9);
+    assertThat(iterator.hasNext()).isFalse();
+    assertThatThrownBy(iterator::nextInt).isInstanceOf(NoSuchElementException.class);
+    assertThat(lines).containsExactly(4, 9);
+  }
+
+  @Test
+  void shouldBeEqualToOtherSetsOfTheSameLines() {
+    var lines = new LineSet();
+    lines.addRange(1, 3);
+    var sameLines = new LineSet();
+    sameLines.addAll(Set.of(1, 2, 3));
+
+    assertThat(lines)
+      .isEqualTo(sameLines)
+      .isEqualTo(new HashSet<>(List.of(1, 2, 3)))
+      .hasSameHashCodeAs(new HashSet<>(List.of(1, 2, 3)))
+      .isNotEqualTo(Set.of(1, 2));
+    assertThat(lines.remove(2)).isTrue();
+    assertThat(lines.remove(2)).isFalse();
+    lines.clear();
+    assertThat(lines).isEmpty();
+  }
+}
@@ -16,6 +16,7 @@
  */
 package org.sonar.go.utils;
 
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -44,6 +45,28 @@ class NativeKindsTest {
     assertThat(result).isTrue();
   }
 
+  @Test
+  void shouldTestTheMemoizedPredicateOncePerRegisteredKind() {
+    var tested = new ArrayList<String>();
+    var predicate = NativeKinds.memoizedStringNativeKindPredicate(kind -> {
+      tested.add(kind);
+      return kind.contains("GenDecl");
+    });
+    var genDecl = new NativeTreeImpl(mock(TreeMetaData.class), StringNativeKind.of("[0](GenDecl)"), List.of());
+    var field = new NativeTreeImpl(mock(TreeMetaData.class), StringNativeKind.of("[0](Field)"), List.of());
+    var unregistered = new NativeTreeImpl(mock(TreeMetaData.class), new StringNativeKind("[1](GenDecl)"), List.of());
+
+    assertThat(predicate.test(genDecl)).isTrue();
+    assertThat(predicate.test(genDecl)).isTrue();
+    assertThat(predicate.test(field)).isFalse();
+    assertThat(predicate.test(field)).isFalse();
+    assertThat(predicate.test(unregistered)).isTrue();
+    assertThat(predicate.test(unregistered)).isTrue();
+    assertThat(predicate.test(new NativeTreeImpl(mock(TreeMetaData.class), mock(NativeKind.class), List.of()))).isFalse();
+    assertThat(predicate.test(null)).isFalse();
+    assertThat(tested).containsExactly("[0](GenDecl)", "[0](Field)", "[1](GenDecl)", "[1](GenDecl)");
+  }
+
   @Test
   void shouldNotBeStringNativeKindOfTypeWhenAnotherType() {
     var kind = new StringNativeKind("TypeA");
@@ -0,0 +1,100 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.utils;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.go.persistence.conversion.StringNativeKind;
+import org.sonar.plugins.go.api.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.go.utils.SyntacticEquivalence.areEquivalent;
+import static org.sonar.go.utils.SyntacticEquivalence.findDuplicatedGroups;
+import static org.sonar.go.utils.SyntacticEquivalence.structuralHash;
+import static org.sonar.go.utils.TreeCreationUtils.assignment;
+import static org.sonar.go.utils.TreeCreationUtils.binary;
+import static org.sonar.go.utils.TreeCreationUtils.block;
+import static org.sonar.go.utils.TreeCreationUtils.identifier;
+import static org.sonar.go.utils.TreeCreationUtils.integerLiteral;
+import static org.sonar.go.utils.TreeCreationUtils.simpleNative;
+import static org.sonar.plugins.go.api.BinaryExpressionTree.Operator.MINUS;
+import static org.sonar.plugins.go.api.BinaryExpressionTree.Operator.PLUS;
+
+class SyntacticEquivalenceTest {
+
+  @Test
+  void shouldHaveTheSameHashForEquivalentTrees() {
+    Tree first = block(List.of(assignment(identifier("x"), binary(PLUS, identifier("y"), integerLiteral("1")))));
+    Tree second = block(List.of(assignment(identifier("x"), binary(PLUS, identifier("y"), integerLiteral("1")))));
+
+    assertThat(areEquivalent(first, second)).isTrue();
+    assertThat(structuralHash(first)).isEqualTo(structuralHash(second));
+  }
+
+  @Test
+  void shouldHaveDifferentHashesForDifferentTrees() {
+    Tree plus = binary(PLUS, identifier("y"), integerLiteral("1"));
+
+    assertThat(structuralHash(plus))
+      .isNotEqualTo(structuralHash(binary(MINUS, identifier("y"), integerLiteral("1"))))
+      .isNotEqualTo(structuralHash(binary(PLUS, identifier("z"), integerLiteral("1"))))
+      .isNotEqualTo(structuralHash(binary(PLUS, identifier("y"), integerLiteral("2"))));
+    assertThat(structuralHash(identifier("y"))).isNotEqualTo(structuralHash(integerLiteral("y")));
+  }
+
+  @Test
+  void shouldHashNativeTreesByTheirKind() {
+    var kind = StringNativeKind.of("Type(Ident)");
+    Tree first = simpleNative(kind, List.of("int"), List.of());
+    Tree second = simpleNative(new StringNativeKind("Type(Ident)"), List.of("int"), List.of());
+
+    assertThat(areEquivalent(first, second)).isTrue();
+    assertThat(structuralHash(first)).isEqualTo(structuralHash(second))
+      .isNotEqualTo(structuralHash(simpleNative(StringNativeKind.of("X(Ident)"), List.of("int"), List.of())));
+  }
+
+  @Test
+  void shouldHaveTheSameHashForANativeTreeWithoutChildrenAndAnEquivalentOneWithChildren() {
+    var kind = StringNativeKind.of("Type(Ident)");
+    Tree withoutChildren = simpleNative(kind, List.of("x"), List.of());
+    Tree withChildren = simpleNative(kind, List.of("x"), List.of(identifier("x")));
+
+    assertThat(areEquivalent(withoutChildren, withChildren)).isTrue();
+    assertThat(structuralHash(withoutChildren)).isEqualTo(structuralHash(withChildren));
+    // Once cached, the hashes do not make them different
+    assertThat(areEquivalent(withoutChildren, withChildren)).isTrue();
+  }
+
+  @Test
+  void shouldGroupTheEquivalentTrees() {
+    Tree x1 = identifier("x");
+    Tree y1 = identifier("y");
+    Tree x2 = identifier("x");
+    Tree z = identifier("z");
+    Tree y2 = identifier("y");
+
+    assertThat(findDuplicatedGroups(List.of(x1, y1, x2, z, y2))).containsExactly(List.of(x1, x2), List.of(y1, y2));
+  }
+
+  @Test
+  void shouldHashListsOfTrees() {
+    assertThat(structuralHash((List<Tree>) null)).isZero();
+    assertThat(structuralHash(List.of(identifier("x"), identifier("y"))))
+      .isEqualTo(structuralHash(List.of(identifier("x"), identifier("y"))))
+      .isNotEqualTo(structuralHash(List.of(identifier("y"), identifier("x"))));
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.visitors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.sonar.go.utils.TreeCreationUtils;
+import org.sonar.plugins.go.api.BinaryExpressionTree;
+import org.sonar.plugins.go.api.IdentifierTree;
+import org.sonar.plugins.go.api.LiteralTree;
+import org.sonar.plugins.go.api.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompositeTreeVisitorTest {
+
+  private final IdentifierTree var1 = TreeCreationUtils.identifier("var1");
+  private final LiteralTree number1 = TreeCreationUtils.literal("1");
+  private final BinaryExpressionTree binary = TreeCreationUtils.binary(BinaryExpressionTree.Operator.PLUS, var1, number1);
+
+  private final List<String> events = new ArrayList<>();
+
+  @Test
+  void shouldCallTheVisitorsInTheirOrderForEachNode() {
+    var first = new RecordingVisitor("first");
+    first.register(IdentifierTree.class, (ctx, tree) -> events.add("first enter " + tree.name()));
+    first.registerOnLeaveTree(BinaryExpressionTree.class, (ctx, tree) -> events.add("first leave binary"));
+    var second = new RecordingVisitor("second");
+    second.register(Tree.class, (ctx, tree) -> events.add("second enter " + tree.getClass().getSimpleName()));
+    second.registerOnLeaveTree(IdentifierTree.class, (ctx, tree) -> events.add("second leave " + tree.name()));
+
+    new CompositeTreeVisitor<>(List.of(first, second), (visitor, e) -> {
+    }, null).scan(new TreeContext(), binary);
+
+    assertThat(events).containsExactly(
+      "first before",
+      "second before",
+      "second enter BinaryExpressionTreeImpl",
+      "first enter var1",
+      "second enter IdentifierTreeImpl",
+      "second leave var1",
+      "second enter LiteralTreeImpl",
+      "first leave binary",
+      "first after",
+      "second after");
+  }
+
+  @Test
+  void shouldGiveTheSameAncestorsAsTheVisitOfASingleVisitor() {
+    Map<Tree, List<Tree>> expected = new HashMap<>();
+    var single = new TreeVisitor<>();
+    single.register(Tree.class, (ctx, tree) -> expected.put(tree, new ArrayList<>(ctx.ancestors())));
+    single.scan(new TreeContext(), binary);
+
+    Map<Tree, List<Tree>> actual = new HashMap<>();
+    var visitor = new TreeVisitor<>();
+    visitor.register(Tree.class, (ctx, tree) -> actual.put(tree, new ArrayList<>(ctx.ancestors())));
+    new CompositeTreeVisitor<>(List.of(new TreeVisitor<>(), visitor), (v, e) -> {
+    }, null).scan(new TreeContext(), binary);
+
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  void shouldStopCallingAFailingVisitor() {
+    var failing = new RecordingVisitor("failing");
+    failing.register(IdentifierTree.class, (ctx, tree) -> {
+      throw new IllegalStateException("boom");
+    });
+    failing.register(LiteralTree.class, (ctx, tree) -> events.add("failing enter literal"));
+    var other = new RecordingVisitor("other");
+    other.register(LiteralTree.class, (ctx, tree) -> events.add("other enter literal"));
+    List<String> failures = new ArrayList<>();
+
+    new CompositeTreeVisitor<>(List.of(failing, other), (visitor, e) -> failures.add(((RecordingVisitor) visitor).name + ": " + e.getMessage()), null)
+      .scan(new TreeContext(), binary);
+
+    assertThat(failures).containsExactly("failing: boom");
+    assertThat(events).containsExactly("failing before", "other before", "other enter literal", "other after");
+  }
+
+  @Test
+  void shouldOnlyVisitWithTheApplicableVisitors() {
+    var applicable = new RecordingVisitor("applicable");
+    var notApplicable = new RecordingVisitor("not applicable") {
+      @Override
+      public boolean isApplicableTo(TreeContext ctx) {
+        return false;
+      }
+    };
+
+    new CompositeTreeVisitor<>(List.of(notApplicable, applicable), (visitor, e) -> {
+    }, null).scan(new TreeContext(), binary);
+    new CompositeTreeVisitor<>(List.of(notApplicable), (visitor, e) -> {
+    }, null).scan(new TreeContext(), binary);
+    new CompositeTreeVisitor<>(List.of(applicable), (visitor, e) -> {
+    }, null).scan(new TreeContext(), null);
+
+    assertThat(events).containsExactly("applicable before", "applicable after");
+  }
+
+  @Test
+  void shouldReportTheDurationOfEachVisitor() {
+    var first = new RecordingVisitor("first");
+    var second = new RecordingVisitor("second");
+    Map<String, Long> durations = new HashMap<>();
+
+    new CompositeTreeVisitor<>(List.of(first, second), (visitor, e) -> {
+    }, (visitor, nanos) -> durations.put(((RecordingVisitor) visitor).name, nanos)).scan(new TreeContext(), binary);
+
+    assertThat(durations).containsOnlyKeys("first", "second");
+    assertThat(durations.values()).allSatisfy(nanos -> assertThat(nanos).isNotNegative());
+  }
+
+  private class RecordingVisitor extends TreeVisitor<TreeContext> {
+    private final String name;
+
+    private RecordingVisitor(String name) {
+      this.name = name;
+    }
+
+    @Override
+    protected void before(TreeContext ctx, Tree root) {
+      events.add(name + " before");
+    }
+
+    @Override
+    protected void after(TreeContext ctx, Tree root) {
+      events.add(name + " after");
+    }
+  }
+}
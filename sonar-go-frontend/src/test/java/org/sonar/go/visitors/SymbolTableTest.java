@@ -0,0 +1,83 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.visitors;
+
+import org.junit.jupiter.api.Test;
+import org.sonar.go.symbols.Symbol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SymbolTableTest {
+
+  @Test
+  void shouldReturnTheSymbolsByIdAcrossResizes() {
+    var table = new SymbolTable();
+    var symbols = new Symbol[1000];
+    for (int i = 0; i < symbols.length; i++) {
+      symbols[i] = new Symbol("int");
+      // Positions of declarations, as sent by the Go converter
+      table.put(1_000_000 + 7 * i, symbols[i]);
+    }
+
+    assertThat(table.size()).isEqualTo(1000);
+    for (int i = 0; i < symbols.length; i++) {
+      assertThat(table.get(1_000_000 + 7 * i)).isSameAs(symbols[i]);
+    }
+    assertThat(table.get(1_000_001)).isNull();
+    assertThat(table.get(-5)).isNull();
+  }
+
+  @Test
+  void shouldReplaceTheSymbolOfAnId() {
+    var table = new SymbolTable();
+    var first = new Symbol("int");
+    var second = new Symbol("string");
+    table.put(42, first);
+    table.put(42, second);
+
+    assertThat(table.size()).isEqualTo(1);
+    assertThat(table.get(42)).isSameAs(second);
+  }
+
+  @Test
+  void shouldNotReturnTheSymbolsAfterClear() {
+    var table = new SymbolTable();
+    table.put(42, new Symbol("int"));
+    table.put(-42, new Symbol("int"));
+    table.clear();
+
+    assertThat(table.size()).isZero();
+    assertThat(table.get(42)).isNull();
+    assertThat(table.get(-42)).isNull();
+
+    var symbol = new Symbol("int");
+    table.put(42, symbol);
+    assertThat(table.get(42)).isSameAs(symbol);
+  }
+
+  @Test
+  void shouldNotAssociateASymbolToTheIdZero() {
+    var table = new SymbolTable();
+    var symbol = new Symbol("int");
+
+    assertThat(table.get(0)).isNull();
+    assertThatThrownBy(() -> table.put(0, symbol))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("No symbol can be associated to the id 0");
+  }
+}
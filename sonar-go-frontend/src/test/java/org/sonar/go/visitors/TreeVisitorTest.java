@@ -32,6 +32,7 @@ import org.sonar.plugins.go.api.NativeTree;
 import org.sonar.plugins.go.api.Tree;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.spy;
 
 class TreeVisitorTest {
@@ -90,4 +91,45 @@ class TreeVisitorTest {
     assertThat(ancestors.get(var1)).containsExactly(binary);
     assertThat(ancestors.get(number1)).containsExactly(binary);
   }
+
+  @Test
+  void shouldCallTheConsumersOfTheSuperTypesInTheOrderOfRegistration() {
+    List<String> visited = new ArrayList<>();
+    visitor.register(LiteralTree.class, (ctx, tree) -> visited.add("literal " + tree.value()));
+    visitor.register(Tree.class, (ctx, tree) -> visited.add("tree"));
+    visitor.register(IdentifierTree.class, (ctx, tree) -> visited.add("identifier " + tree.name()));
+    visitor.register(BinaryExpressionTree.class, (ctx, tree) -> visited.add("binary " + tree.operator()));
+    visitor.registerOnLeaveTree(IdentifierTree.class, (ctx, tree) -> visited.add("leave identifier " + tree.name()));
+    visitor.scan(new TreeContext(), binary);
+    assertThat(visited).containsExactly("tree", "binary PLUS", "tree", "identifier var1", "leave identifier var1", "literal 1", "tree");
+  }
+
+  @Test
+  void shouldCallTheConsumersRegisteredAfterAVisit() {
+    List<Tree> visited = new ArrayList<>();
+    visitor.register(IdentifierTree.class, (ctx, tree) -> visited.add(tree));
+    visitor.scan(new TreeContext(), binary);
+    assertThat(visited).containsExactly(var1);
+
+    visited.clear();
+    visitor.register(LiteralTree.class, (ctx, tree) -> visited.add(tree));
+    visitor.registerOnLeaveTree(BinaryExpressionTree.class, (ctx, tree) -> visited.add(tree));
+    visitor.scan(new TreeContext(), binary);
+    assertThat(visited).containsExactly(var1, number1, binary);
+  }
+
+  @Test
+  void shouldBuildTheTreeIndexOncePerRoot() {
+    var ctx = new TreeContext();
+    assertThatThrownBy(ctx::treeIndex).isInstanceOf(IllegalStateException.class).hasMessage("No tree is scanned");
+
+    visitor.scan(ctx, binary);
+    var index = ctx.treeIndex();
+    assertThat(index.trees()).containsExactly(binary, var1, number1);
+    visitor.scan(ctx, binary);
+    assertThat(ctx.treeIndex()).isSameAs(index);
+
+    visitor.scan(ctx, nativeNode);
+    assertThat(ctx.treeIndex().root()).isSameAs(nativeNode);
+  }
 }
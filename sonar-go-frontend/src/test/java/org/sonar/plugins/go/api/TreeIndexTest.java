@@ -0,0 +1,127 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.plugins.go.api;
+
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.go.impl.TextRangeImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.sonar.go.utils.TreeCreationUtils.assignment;
+import static org.sonar.go.utils.TreeCreationUtils.binary;
+import static org.sonar.go.utils.TreeCreationUtils.block;
+import static org.sonar.go.utils.TreeCreationUtils.identifier;
+import static org.sonar.go.utils.TreeCreationUtils.integerLiteral;
+import static org.sonar.go.utils.TreeCreationUtils.simpleFunction;
+import static org.sonar.go.utils.TreeCreationUtils.simpleNative;
+import static org.sonar.go.utils.TreeCreationUtils.topLevel;
+import static org.sonar.plugins.go.api.BinaryExpressionTree.Operator.EQUAL_TO;
+import static org.sonar.plugins.go.api.BinaryExpressionTree.Operator.PLUS;
+
+class TreeIndexTest {
+
+  private static final NativeKind SIMPLE_KIND = new NativeKind() {
+  };
+
+  private final Tree x = identifier("x");
+  private final Tree int1 = integerLiteral("1");
+  private final Tree xEqualTo1 = binary(EQUAL_TO, x, int1);
+  private final Tree y = identifier("y");
+  private final Tree z = identifier("z");
+  private final Tree yEqualsZ = assignment(y, z);
+  private final IdentifierTree functionName = identifier("f");
+  private final BlockTree functionBody = block(List.of(xEqualTo1, yEqualsZ));
+  private final FunctionDeclarationTree function = simpleFunction(functionName, functionBody);
+  private final Tree w = identifier("w");
+  private final Tree nativeTree = simpleNative(SIMPLE_KIND, List.of(w));
+  private final Tree topLevelTree = topLevel(List.of(function, nativeTree));
+  private final TreeIndex index = TreeIndex.of(topLevelTree);
+
+  @Test
+  void shouldStoreTheTreesInPreOrder() {
+    assertThat(index.size()).isEqualTo(12);
+    assertThat(index.root()).isSameAs(topLevelTree);
+    assertThat(index.trees()).containsExactly(topLevelTree, function, functionName, functionBody, xEqualTo1, x, int1, yEqualsZ, y, z, nativeTree, w);
+    assertThat(index.trees().subList(1, index.size())).containsExactlyElementsOf(topLevelTree.descendants().toList());
+    assertThat(index.indexOf(yEqualsZ)).isEqualTo(7);
+    assertThat(index.indexOf(identifier("x"))).isEqualTo(-1);
+    assertThat(index.indexOf(null)).isEqualTo(-1);
+    assertThat(index.contains(w)).isTrue();
+  }
+
+  @Test
+  void shouldReturnTheDescendantsAsInTheTree() {
+    for (Tree tree : index.trees()) {
+      assertThat(index.descendants(tree)).containsExactlyElementsOf(tree.descendants().toList());
+    }
+    assertThat(index.isDescendant(x, function)).isTrue();
+    assertThat(index.isDescendant(x, xEqualTo1)).isTrue();
+    assertThat(index.isDescendant(x, yEqualsZ)).isFalse();
+    assertThat(index.isDescendant(function, function)).isFalse();
+    assertThat(index.isDescendant(function, x)).isFalse();
+  }
+
+  @Test
+  void shouldReturnTheParentsAndAncestors() {
+    assertThat(index.parent(topLevelTree)).isNull();
+    assertThat(index.parent(z)).isSameAs(yEqualsZ);
+    assertThat(index.depth(topLevelTree)).isZero();
+    assertThat(index.depth(z)).isEqualTo(4);
+    assertThat(index.ancestors(z)).containsExactly(yEqualsZ, functionBody, function, topLevelTree);
+    assertThat(index.ancestors(topLevelTree)).isEmpty();
+    assertThat(index.firstAncestorOfKind(z, FunctionDeclarationTree.class)).containsSame(function);
+    assertThat(index.firstAncestorOfKind(w, FunctionDeclarationTree.class)).isEmpty();
+  }
+
+  @Test
+  void shouldFailOnTreesOutsideOfTheIndex() {
+    Tree other = identifier("x");
+    assertThatThrownBy(() -> index.parent(other))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageStartingWith("The tree is not part of the index: ");
+  }
+
+  @Test
+  void shouldFindTheFirstTreeAtATextRange() {
+    Tree a = identifier("a", new TextRangeImpl(1, 0, 1, 1));
+    Tree b = identifier("b", new TextRangeImpl(1, 4, 1, 5));
+    Tree sum = binary(PLUS, a, b, new TextRangeImpl(1, 0, 1, 5));
+    Tree wrapper = block(List.of(sum), new TextRangeImpl(1, 0, 1, 5));
+    var rangeIndex = TreeIndex.of(wrapper);
+
+    assertThat(rangeIndex.firstAt(new TextRangeImpl(1, 0, 1, 5), Tree.class)).isSameAs(wrapper);
+    assertThat(rangeIndex.firstAt(new TextRangeImpl(1, 0, 1, 5), BinaryExpressionTree.class)).isSameAs(sum);
+    assertThat(rangeIndex.firstAt(new TextRangeImpl(1, 4, 1, 5), IdentifierTree.class)).isSameAs(b);
+    assertThat(rangeIndex.firstAt(new TextRangeImpl(1, 2, 1, 3), Tree.class)).isNull();
+  }
+
+  @Test
+  void shouldIndexDeeplyNestedTrees() {
+    Tree leaf = identifier("x");
+    Tree tree = leaf;
+    for (int i = 0; i < 100_000; i++) {
+      tree = simpleNative(SIMPLE_KIND, Collections.singletonList(tree));
+    }
+    var deepIndex = TreeIndex.of(tree);
+
+    assertThat(deepIndex.size()).isEqualTo(100_001);
+    assertThat(deepIndex.depth(leaf)).isEqualTo(100_000);
+    assertThat(deepIndex.descendants(tree)).hasSize(100_000);
+  }
+}
@@ -58,4 +58,15 @@ class TreeTest {
       .containsExactly(y, xEqualTo1, x, int1);
   }
 
+  @Test
+  void shouldVisitTheDescendantsOfDeeplyNestedTrees() {
+    Tree tree = identifier("x");
+    for (int i = 0; i < 100_000; i++) {
+      tree = simpleNative(SIMPLE_KIND, Collections.singletonList(tree));
+    }
+
+    assertThat(tree.descendants().count()).isEqualTo(100_000);
+    assertThat(tree.descendants().filter(IdentifierTree.class::isInstance).findFirst()).isPresent();
+  }
+
 }
@@ -16,13 +16,11 @@
  */
 package org.sonar.go.coverage;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import javax.annotation.Nullable;
 
 class FileCoverage {
-  Map<Integer, LineCoverage> lineMap = new HashMap<>();
+  LineCoverageMap lineMap = new LineCoverageMap();
   List<String> lines;
 
   public FileCoverage(List<CoverageStat> coverageStats, @Nullable List<String> lines) {
@@ -35,8 +33,7 @@ class FileCoverage {
     int endLine = findEndIgnoringBrace(coverage, startLine);
     for (int line = startLine; line <= endLine; line++) {
       if (!isEmpty(line - 1)) {
-        lineMap.computeIfAbsent(line, key -> new LineCoverage())
-          .add(coverage);
+        lineMap.computeIfAbsent(line).add(coverage);
       }
     }
   }
@@ -22,7 +22,6 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import javax.annotation.CheckForNull;
 import org.slf4j.Logger;
@@ -64,9 +63,7 @@ class GoCoverageStorageImpl implements GoCoverageStorage {
       List<String> lines = Arrays.asList(inputFile.contents().split("\\r?\\n"));
       NewCoverage newCoverage = sensorContext.newCoverage().onFile(inputFile);
       FileCoverage fileCoverage = new FileCoverage(coverageStats, lines);
-      for (Map.Entry<Integer, LineCoverage> entry : fileCoverage.lineMap.entrySet()) {
-        newCoverage.lineHits(entry.getKey(), entry.getValue().hits);
-      }
+      fileCoverage.lineMap.forEach((lineCoverage, line) -> newCoverage.lineHits(line, lineCoverage.hits));
       newCoverage.save();
     } else {
       LOG.warn("File '{}' is not included in the project, ignoring coverage", filePath);
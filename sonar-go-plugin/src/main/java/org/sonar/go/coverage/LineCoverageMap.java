@@ -0,0 +1,60 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.coverage;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import javax.annotation.CheckForNull;
+import org.sonar.go.utils.LineSet;
+
+/**
+ * Coverage of the lines of a file, stored in an array indexed by line number which grows with the highest covered line.
+ * The covered lines are also kept in a {@link LineSet}, to iterate over them without scanning the whole array.
+ */
+class LineCoverageMap {
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final LineSet lines = new LineSet();
+  private LineCoverage[] coverageByLine = new LineCoverage[INITIAL_CAPACITY];
+
+  LineCoverage computeIfAbsent(int line) {
+    if (line >= coverageByLine.length) {
+      coverageByLine = Arrays.copyOf(coverageByLine, Math.max(line + 1, coverageByLine.length * 2));
+    }
+    var coverage = coverageByLine[line];
+    if (coverage == null) {
+      coverage = new LineCoverage();
+      coverageByLine[line] = coverage;
+      lines.add(line);
+    }
+    return coverage;
+  }
+
+  @CheckForNull
+  LineCoverage get(int line) {
+    return line >= 0 && line < coverageByLine.length ? coverageByLine[line] : null;
+  }
+
+  Set<Integer> keySet() {
+    return lines;
+  }
+
+  void forEach(ObjIntConsumer<LineCoverage> consumer) {
+    lines.forEachLine(line -> consumer.accept(coverageByLine[line], line));
+  }
+}
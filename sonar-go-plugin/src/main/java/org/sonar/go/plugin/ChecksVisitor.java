@@ -17,31 +17,50 @@
 package org.sonar.go.plugin;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.rule.RuleKey;
-import org.sonar.go.visitors.TreeVisitor;
+import org.sonar.go.plugin.caching.ResultsCache;
+import org.sonar.plugins.go.api.ConverterCapability;
 import org.sonar.plugins.go.api.HasTextRange;
 import org.sonar.plugins.go.api.TextRange;
 import org.sonar.plugins.go.api.TopLevelTree;
 import org.sonar.plugins.go.api.Tree;
+import org.sonar.plugins.go.api.TreeIndex;
 import org.sonar.plugins.go.api.checks.CheckContext;
 import org.sonar.plugins.go.api.checks.GoCheck;
 import org.sonar.plugins.go.api.checks.GoModFileData;
 import org.sonar.plugins.go.api.checks.InitContext;
 import org.sonar.plugins.go.api.checks.SecondaryLocation;
 
-public class ChecksVisitor extends TreeVisitor<InputFileContext> {
+public class ChecksVisitor extends PullRequestAwareVisitor {
 
   private final DurationStatistics statistics;
   private final GoModFileDataStore goModFileDataStore;
   private final boolean applicableToTestFiles;
+  // Closest Go mod file of the visited file, shared by all the checks
+  private GoModFileData currentGoModFileData = GoModFileData.UNKNOWN_DATA;
+  private final List<RuleKey> ruleKeys = new ArrayList<>();
+  private final Set<ConverterCapability> requiredCapabilities = EnumSet.noneOf(ConverterCapability.class);
+  @Nullable
+  private String activeRulesHash;
+  // Issues reported on the visited file, recorded for the cache of the next analysis
+  private final List<ReportedIssue> reportedIssues = new ArrayList<>();
+  private boolean recordIssues;
 
   public ChecksVisitor(GoChecks goChecks, DurationStatistics statistics, GoModFileDataStore goModFileDataStore, boolean applicableToTestFiles) {
     this.statistics = statistics;
@@ -51,20 +70,125 @@ public class ChecksVisitor extends TreeVisitor<InputFileContext> {
     for (GoCheck check : rulesActiveInSonarQube) {
       var ruleKey = goChecks.ruleKey(check);
       Objects.requireNonNull(ruleKey);
+      ruleKeys.add(ruleKey);
+      requiredCapabilities.addAll(check.requiredCapabilities());
       check.initialize(new ContextAdapter(ruleKey));
     }
   }
 
+  /**
+   * The capabilities required by at least one of the checks.
+   */
+  @Override
+  public Set<ConverterCapability> requiredCapabilities() {
+    return Collections.unmodifiableSet(requiredCapabilities);
+  }
+
   @Override
   public boolean isApplicableTo(InputFileContext ctx) {
     return applicableToTestFiles || !ctx.isTestFile();
   }
 
+  @Override
+  protected void before(InputFileContext ctx, Tree root) {
+    currentGoModFileData = goModFileDataStore.retrieveClosestGoModFileDataOfFile(ctx.inputFile().uri());
+    reportedIssues.clear();
+    recordIssues = ctx.sensorContext.isCacheEnabled() && ctx.packageHash() != null;
+  }
+
+  @Override
+  protected void after(InputFileContext ctx, Tree root) {
+    if (recordIssues) {
+      ResultsCache.write(ctx, computeCacheKey(ctx.inputFile()), validityKey(ctx, currentGoModFileData), out -> {
+        out.writeVarInt(reportedIssues.size());
+        for (ReportedIssue issue : reportedIssues) {
+          issue.write(out);
+        }
+      });
+    }
+  }
+
+  @Override
+  public boolean reusePreviousResults(InputFileContext ctx) {
+    if (!canReusePreviousResults(ctx) || ctx.packageHash() == null) {
+      return false;
+    }
+    var goModFileData = goModFileDataStore.retrieveClosestGoModFileDataOfFile(ctx.inputFile().uri());
+    return ResultsCache.replay(ctx, computeCacheKey(ctx.inputFile()), validityKey(ctx, goModFileData), in -> {
+      int count = in.readVarInt();
+      List<ReportedIssue> issues = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        issues.add(ReportedIssue.read(in));
+      }
+      return () -> issues.forEach(issue -> ctx.reportIssue(issue.ruleKey(), issue.textRange(), issue.message(), issue.secondaryLocations(), issue.gap()));
+    });
+  }
+
+  /**
+   * Computes a unique key for a file that can be used to store the issues of the checks of this visitor in a cache.
+   */
+  String computeCacheKey(InputFile inputFile) {
+    return "slang:issues:%s:%s".formatted(applicableToTestFiles ? "main-and-test" : "main", inputFile.key());
+  }
+
+  /**
+   * The issues of a file also depend on the declarations of the other files of its package, on the active rules and on its
+   * Go mod file.
+   */
+  private String validityKey(InputFileContext ctx, @Nullable GoModFileData goModFileData) {
+    return String.join(",", ctx.inputFile().md5Hash(), ctx.packageHash(), activeRulesHash(ctx.sensorContext), String.valueOf(goModFileData));
+  }
+
+  private String activeRulesHash(SensorContext sensorContext) {
+    if (activeRulesHash == null) {
+      var activeRules = sensorContext.activeRules();
+      activeRulesHash = DigestUtils.md5Hex(ruleKeys.stream()
+        .sorted(Comparator.comparing(RuleKey::toString))
+        .map(ruleKey -> {
+          var activeRule = activeRules.find(ruleKey);
+          return activeRule == null ? ruleKey.toString() : (ruleKey + "=" + new TreeMap<>(activeRule.params()));
+        })
+        .collect(Collectors.joining(";")));
+    }
+    return activeRulesHash;
+  }
+
+  private record ReportedIssue(RuleKey ruleKey, @Nullable TextRange textRange, String message, List<SecondaryLocation> secondaryLocations,
+    @Nullable Double gap) {
+
+    void write(ResultsCache.RecordWriter out) throws IOException {
+      out.writeString(ruleKey.toString());
+      out.writeNullableTextRange(textRange);
+      out.writeString(message);
+      out.writeVarInt(secondaryLocations.size());
+      for (SecondaryLocation secondaryLocation : secondaryLocations) {
+        out.writeTextRange(secondaryLocation.textRange);
+        out.writeNullableString(secondaryLocation.message);
+      }
+      out.writeBoolean(gap != null);
+      if (gap != null) {
+        out.writeDouble(gap);
+      }
+    }
+
+    static ReportedIssue read(ResultsCache.RecordReader in) throws IOException {
+      var ruleKey = RuleKey.parse(in.readString());
+      var textRange = in.readNullableTextRange();
+      var message = in.readString();
+      int count = in.readVarInt();
+      List<SecondaryLocation> secondaryLocations = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        secondaryLocations.add(new SecondaryLocation(in.readTextRange(), in.readNullableString()));
+      }
+      Double gap = in.readBoolean() ? in.readDouble() : null;
+      return new ReportedIssue(ruleKey, textRange, message, secondaryLocations, gap);
+    }
+  }
+
   public class ContextAdapter implements InitContext, CheckContext {
 
     public final RuleKey ruleKey;
     private InputFileContext currentCtx;
-    private GoModFileData currentGoModFileData;
 
     public ContextAdapter(RuleKey ruleKey) {
       this.ruleKey = ruleKey;
@@ -79,7 +203,6 @@ public class ChecksVisitor extends TreeVisitor<InputFileContext> {
     public <T extends Tree> void register(Class<T> cls, BiConsumer<CheckContext, T> visitor) {
       ChecksVisitor.this.register(cls, statistics.time(ruleKey.rule(), (ctx, tree) -> {
         currentCtx = ctx;
-        currentGoModFileData = goModFileDataStore.retrieveClosestGoModFileData(currentCtx.inputFile().uri());
         visitor.accept(this, tree);
       }));
     }
@@ -97,6 +220,11 @@ public class ChecksVisitor extends TreeVisitor<InputFileContext> {
       return currentCtx.ancestors();
     }
 
+    @Override
+    public TreeIndex treeIndex() {
+      return currentCtx.treeIndex();
+    }
+
     @Override
     public boolean isTestFile() {
       return currentCtx.isTestFile();
@@ -157,7 +285,9 @@ public class ChecksVisitor extends TreeVisitor<InputFileContext> {
     }
 
     private void reportIssue(@Nullable TextRange textRange, String message, List<SecondaryLocation> secondaryLocations, @Nullable Double gap) {
-      currentCtx.reportIssue(ruleKey, textRange, message, secondaryLocations, gap);
+      if (currentCtx.reportIssue(ruleKey, textRange, message, secondaryLocations, gap) && recordIssues) {
+        reportedIssues.add(new ReportedIssue(ruleKey, textRange, message, List.copyOf(secondaryLocations), gap));
+      }
     }
 
   }
@@ -16,10 +16,10 @@
  */
 package org.sonar.go.plugin;
 
-import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
 import java.util.regex.Pattern;
+import org.sonar.go.utils.LineSet;
 import org.sonar.plugins.go.api.Comment;
 import org.sonar.plugins.go.api.TextRange;
 
@@ -68,9 +68,13 @@ public class CommentAnalysisUtils {
     return false;
   }
 
-  static Set<Integer> findNonEmptyCommentLines(TextRange range, String content) {
-    Set<Integer> lineNumbers = new HashSet<>();
+  static LineSet findNonEmptyCommentLines(TextRange range, String content) {
+    var lineNumbers = new LineSet();
+    addNonEmptyCommentLines(range, content, lineNumbers);
+    return lineNumbers;
+  }
 
+  static void addNonEmptyCommentLines(TextRange range, String content, LineSet lineNumbers) {
     int startLine = range.start().line();
     if (startLine == range.end().line()) {
       if (isNotBlank(content)) {
@@ -84,8 +88,6 @@ public class CommentAnalysisUtils {
         }
       }
     }
-
-    return lineNumbers;
   }
 
   private static boolean isNotBlank(String line) {
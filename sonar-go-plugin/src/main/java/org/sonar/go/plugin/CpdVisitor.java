@@ -47,10 +47,12 @@ public class CpdVisitor extends PullRequestAwareVisitor {
       List<Token> tokens = tree.metaData().tokens();
       List<Token> tokensToCache = new ArrayList<>(tokens.size());
 
-      boolean foundFirstToken = (tree.firstCpdToken() == null);
+      Token firstCpdToken = tree.firstCpdToken();
+      boolean foundFirstToken = (firstCpdToken == null);
 
       for (Token token : tokens) {
-        foundFirstToken = foundFirstToken || (token == tree.firstCpdToken());
+        // The tokens are created when they are read, the first one is found by its text range
+        foundFirstToken = foundFirstToken || token.textRange().equals(firstCpdToken.textRange());
         if (foundFirstToken) {
           String text = substituteText(token);
           var textRange = token.textRange();
@@ -63,7 +65,7 @@ public class CpdVisitor extends PullRequestAwareVisitor {
           }
         }
       }
-      cpdTokens.save();
+      ctx.saveInContext(cpdTokens::save);
       cacheNewTokens(ctx, tokensToCache);
     });
   }
@@ -95,12 +97,12 @@ public class CpdVisitor extends PullRequestAwareVisitor {
         }
         loadCachedTokens(ctx, fileKey, tokens, reusedTokens);
         try {
-          ctx.sensorContext.nextCache().copyFromPrevious(key);
+          ctx.saveInContext(() -> ctx.sensorContext.nextCache().copyFromPrevious(key));
         } catch (IllegalArgumentException e) {
           LOG.warn("Failed to copy previous cached results for input file %s.".formatted(fileKey));
           return false;
         }
-        reusedTokens.save();
+        ctx.saveInContext(reusedTokens::save);
         return true;
       }
     }
@@ -121,9 +123,8 @@ public class CpdVisitor extends PullRequestAwareVisitor {
   private static void cacheNewTokens(InputFileContext ctx, List<Token> tokens) {
     if (ctx.sensorContext.isCacheEnabled()) {
       try {
-        ctx.sensorContext.nextCache().write(
-          computeCacheKey(ctx.inputFile()),
-          serialize(tokens));
+        var serializedTokens = serialize(tokens);
+        ctx.saveInContext(() -> ctx.sensorContext.nextCache().write(computeCacheKey(ctx.inputFile()), serializedTokens));
       } catch (IllegalArgumentException e) {
         LOG.warn("Failed to write CPD tokens to cache for input file {}: {}", ctx.inputFile().key(), e.getMessage());
       }
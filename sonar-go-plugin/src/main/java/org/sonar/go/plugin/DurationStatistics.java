@@ -37,12 +37,18 @@ public class DurationStatistics {
 
   private final Map<String, AtomicLong> stats = new ConcurrentHashMap<>();
 
+  private final Map<String, HitRate> hitRates = new ConcurrentHashMap<>();
+
   private final boolean recordStat;
 
   public DurationStatistics(Configuration config) {
     recordStat = config.getBoolean(DURATION_STATISTICS_PROPERTY_KEY).orElse(false);
   }
 
+  boolean isRecording() {
+    return recordStat;
+  }
+
   <C, T> BiConsumer<C, T> time(String id, BiConsumer<C, T> consumer) {
     if (recordStat) {
       return (t, u) -> time(id, () -> consumer.accept(t, u));
@@ -77,6 +83,15 @@ public class DurationStatistics {
     stats.computeIfAbsent(id, key -> new AtomicLong(0)).addAndGet(elapsedTime);
   }
 
+  /**
+   * Records the hit rate of a cache or a pool, logged after the durations.
+   */
+  void storeHitRate(String id, long hits, long lookups) {
+    if (lookups > 0) {
+      hitRates.put(id, new HitRate(hits, lookups));
+    }
+  }
+
   void log() {
     if (recordStat) {
       StringBuilder out = new StringBuilder();
@@ -91,8 +106,20 @@ public class DurationStatistics {
           .append(" ")
           .append(format.format(e.getValue().get() / 1_000_000L))
           .append(" ms"));
+      hitRates.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .forEach(e -> out.append(", ")
+          .append(e.getKey())
+          .append(" ")
+          .append(e.getValue().hits() * 100 / e.getValue().lookups())
+          .append("% of ")
+          .append(format.format(e.getValue().lookups()))
+          .append(" lookups"));
       LOG.info("{}", out);
     }
   }
 
+  private record HitRate(long hits, long lookups) {
+  }
+
 }
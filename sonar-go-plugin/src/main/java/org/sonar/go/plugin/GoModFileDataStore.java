@@ -20,6 +20,7 @@ import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
@@ -29,12 +30,15 @@ import org.sonar.plugins.go.api.checks.GoVersion;
 /**
  * This class provide a way to easily access Go mod files in the file system.
  * It aim to provide an efficient way to retrieve the closest Go mod file from a URI, through a tree structure.
+ * The result of each lookup is memoized by path, the files being looked up by their directory.
  */
 public class GoModFileDataStore {
   private Node root = new Node();
   private String rootPath = "";
   @Nullable
   private GoVersion externalGoVersion;
+  // Filled concurrently when the directories are analyzed in parallel
+  private final Map<String, GoModFileData> closestGoModFileDataByPath = new ConcurrentHashMap<>();
 
   String getRootPath() {
     return rootPath;
@@ -42,6 +46,7 @@ public class GoModFileDataStore {
 
   public void setExternalGoVersion(GoVersion version) {
     this.externalGoVersion = version;
+    closestGoModFileDataByPath.clear();
   }
 
   public void addGoModFile(URI uriGoMod, GoModFileData goModFileData) {
@@ -52,6 +57,7 @@ public class GoModFileDataStore {
       currentNode = currentNode.children.computeIfAbsent(folder, k -> new Node());
     }
     currentNode.goModFileData = goModFileData;
+    closestGoModFileDataByPath.clear();
   }
 
   /**
@@ -66,9 +72,14 @@ public class GoModFileDataStore {
       root = entry.getValue();
     }
     rootPath = sb.toString();
+    closestGoModFileDataByPath.clear();
   }
 
   public GoModFileData retrieveClosestGoModFileData(String path) {
+    return closestGoModFileDataByPath.computeIfAbsent(path, this::computeClosestGoModFileData);
+  }
+
+  private GoModFileData computeClosestGoModFileData(String path) {
     var data = retrieveClosestGoModFileDataInternal(path);
     if (externalGoVersion != null) {
       return new GoModFileData(data.moduleName(), externalGoVersion, data.replacedModules(), data.goModFilePath());
@@ -101,6 +112,14 @@ public class GoModFileDataStore {
     return retrieveClosestGoModFileData(uri.getPath());
   }
 
+  /**
+   * The lookup is done on the directory of the file, so that it is shared with the other files of the directory.
+   */
+  public GoModFileData retrieveClosestGoModFileDataOfFile(URI fileUri) {
+    // Resolving to '.' to get rid of the file name
+    return retrieveClosestGoModFileData(fileUri.resolve("."));
+  }
+
   public Set<GoVersion> collectGoVersions() {
     if (externalGoVersion != null) {
       return Set.of(externalGoVersion);
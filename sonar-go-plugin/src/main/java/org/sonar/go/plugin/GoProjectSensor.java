@@ -56,15 +56,15 @@ public class GoProjectSensor implements ProjectSensor {
     hasCoverageData = true;
   }
 
-  public void increaseParseFailuresCount() {
+  public synchronized void increaseParseFailuresCount() {
     parseFailuresCount++;
   }
 
-  public void increaseFilesProcessedCount(int increaseBy) {
+  public synchronized void increaseFilesProcessedCount(int increaseBy) {
     filesProcessedCount += increaseBy;
   }
 
-  public void increaseReadFromCacheFilesCount(int increaseBy) {
+  public synchronized void increaseReadFromCacheFilesCount(int increaseBy) {
     readFromCacheFilesCount += increaseBy;
   }
 
@@ -16,13 +16,28 @@
  */
 package org.sonar.go.plugin;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.SonarProduct;
@@ -36,15 +51,18 @@ import org.sonar.api.measures.FileLinesContextFactory;
 import org.sonar.api.resources.Language;
 import org.sonar.go.checks.GoCheckList;
 import org.sonar.go.converter.GoConverter;
+import org.sonar.go.persistence.conversion.StringPool;
 import org.sonar.go.plugin.caching.CacheHandler;
 import org.sonar.go.plugin.converter.ASTConverterValidation;
 import org.sonar.go.report.GoProgressReport;
 import org.sonar.go.utils.NativeKinds;
+import org.sonar.go.visitors.CompositeTreeVisitor;
 import org.sonar.go.visitors.SymbolVisitor;
 import org.sonar.go.visitors.TreeVisitor;
 import org.sonar.plugins.go.api.ASTConverter;
 import org.sonar.plugins.go.api.BlockTree;
 import org.sonar.plugins.go.api.ClassDeclarationTree;
+import org.sonar.plugins.go.api.ConverterCapability;
 import org.sonar.plugins.go.api.FunctionDeclarationTree;
 import org.sonar.plugins.go.api.ImportDeclarationTree;
 import org.sonar.plugins.go.api.PackageDeclarationTree;
@@ -62,11 +80,20 @@ public class GoSensor implements Sensor {
     && !(t instanceof ClassDeclarationTree)
     && !(t instanceof FunctionDeclarationTree)
     && !(t instanceof BlockTree);
+  private static final Predicate<Tree> IS_GENERIC_DECLARATION = NativeKinds.memoizedStringNativeKindPredicate(kind -> kind.contains("GenDecl"));
 
   private static final Logger LOG = LoggerFactory.getLogger(GoSensor.class);
   private static final int PROGRESS_REPORT_INTERVAL_SECOND = 10;
   private static final String FAIL_FAST_PROPERTY_NAME = "sonar.internal.analysis.failFast";
   private static final String DEBUG_TYPE_CHECK_PROPERTY_NAME = "sonar.go.internal.debugTypeCheck";
+  // Read the trees from the JSON format of sonar-go-to-slang instead of the binary one, for debugging
+  private static final String JSON_FORMAT_PROPERTY_NAME = "sonar.go.internal.converter.json";
+  // Number of directories analyzed in parallel, the default is a sequential analysis
+  private static final String ANALYSIS_THREADS_PROPERTY_NAME = "sonar.go.analysis.threads";
+  // Parse the next directory while the trees of the current one are visited, only used by the sequential analysis
+  private static final String ANALYSIS_PIPELINE_PROPERTY_NAME = "sonar.go.analysis.pipeline";
+  // Visit each tree with traversals shared by the visitors, instead of one traversal per visitor
+  private static final String FUSED_VISIT_PROPERTY_NAME = "sonar.go.analysis.fusedVisit";
 
   // This property is expected to be set only in A3S context
   private static final String MODULE_NAME_PROPERTY = "sonar.go.internal.moduleName";
@@ -74,11 +101,13 @@ public class GoSensor implements Sensor {
   private final NoSonarFilter noSonarFilter;
   private final FileLinesContextFactory fileLinesContextFactory;
   private final Language language;
-  private final ASTConverter goConverter;
+  private final GoConverter goConverter;
   private final InputFileDiscovery inputFileDiscovery;
   private final GoProjectSensor goProjectSensor;
 
   protected DurationStatistics durationStatistics;
+  private StringPool stringPool;
+  private boolean fusedVisit;
   protected MemoryMonitor memoryMonitor;
   protected final CheckFactory checkFactory;
 
@@ -130,8 +159,16 @@ public class GoSensor implements Sensor {
     var goModFileDataStore = new GoModFileAnalyzer(sensorContext).analyzeGoModFiles();
     goProjectSensor.addGoVersions(goModFileDataStore.collectGoVersions());
     try {
+      var threads = analysisThreads(sensorContext);
+      converter.setParallelism(converterParallelism(threads, Runtime.getRuntime().availableProcessors()));
       var visitors = visitors(sensorContext, durationStatistics, goModFileDataStore);
-      success = analyseFiles(converter, sensorContext, inputFileContexts, goProgressReport, visitors, durationStatistics, goModFileDataStore);
+      converter.setRequiredCapabilities(requiredCapabilities(visitors));
+      if (threads > 1) {
+        success = analyseFilesInParallel(converter, sensorContext, inputFileContexts, goProgressReport, visitors, durationStatistics, goModFileDataStore,
+          threads);
+      } else {
+        success = analyseFiles(converter, sensorContext, inputFileContexts, goProgressReport, visitors, durationStatistics, goModFileDataStore);
+      }
     } finally {
       if (success) {
         goProgressReport.stop();
@@ -148,9 +185,15 @@ public class GoSensor implements Sensor {
   protected void initialize(SensorContext sensorContext) {
     durationStatistics = new DurationStatistics(sensorContext.config());
     memoryMonitor = new MemoryMonitor(sensorContext.config());
+    stringPool = new StringPool();
+    goConverter.useStringPool(stringPool);
+    fusedVisit = sensorContext.config().getBoolean(FUSED_VISIT_PROPERTY_NAME).orElse(true);
     if (debugTypeCheck(sensorContext)) {
       goConverter.debugTypeCheck();
     }
+    if (sensorContext.config().getBoolean(JSON_FORMAT_PROPERTY_NAME).orElse(false)) {
+      goConverter.useJsonFormat();
+    }
   }
 
   private List<TreeVisitor<InputFileContext>> visitors(SensorContext sensorContext, DurationStatistics statistics, GoModFileDataStore goModFileDataStore) {
@@ -188,42 +231,291 @@ public class GoSensor implements Sensor {
     goProgressReport.start(filesByDirectory);
     beforeAnalyzeFiles(sensorContext, filesByDirectory, goModFileDataStore);
 
+    if (isPipelineEnabled(sensorContext)) {
+      return analyseFilesInPipeline(converter, sensorContext, filesByDirectory, goProgressReport, visitors, statistics, goModFileDataStore);
+    }
     for (var goFolder : filesByDirectory) {
       if (sensorContext.isCancelled()) {
         return false;
       }
+      analyseFolder(converter, sensorContext, goFolder, goProgressReport, visitors, statistics, goModFileDataStore);
+      goProgressReport.nextFolder();
+    }
+    return true;
+  }
 
-      var filesToAnalyse = goFolder.files();
+  /**
+   * Converts the directories in a background thread, one step ahead of the visit of the trees: the Go converter works on
+   * the next directory while the visitors run on the current one. Only the conversion runs in the background thread, the
+   * visitors are not thread-safe, so the files of the next directory are filtered with the cache, and the cached results
+   * are replayed, by the visiting thread before the conversion is submitted. At most one directory is parsed ahead.
+   */
+  private boolean analyseFilesInPipeline(ASTConverter converter,
+    SensorContext sensorContext,
+    List<GoFolder> filesByDirectory,
+    GoProgressReport goProgressReport,
+    List<TreeVisitor<InputFileContext>> visitors,
+    DurationStatistics statistics,
+    GoModFileDataStore goModFileDataStore) {
+    var parsingNanos = new AtomicLong();
+    var executor = Executors.newSingleThreadExecutor((Runnable run) -> {
+      var thread = new Thread(run, "Go parsing pipeline");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long waitingNanos = 0;
+    try {
+      var folders = filesByDirectory.iterator();
+      Future<ParsedFolder> nextFolder = null;
+      if (folders.hasNext()) {
+        nextFolder = submitFolder(converter, sensorContext, folders.next(), goProgressReport, visitors, statistics, goModFileDataStore, executor, parsingNanos);
+      }
+      while (nextFolder != null) {
+        // From the point of view of the progress report, waiting for the next directory is parsing it
+        goProgressReport.setStep(GoProgressReport.Step.PARSING);
+        long waitStart = System.nanoTime();
+        var parsedFolder = awaitParsedFolder(nextFolder);
+        waitingNanos += System.nanoTime() - waitStart;
+        if (sensorContext.isCancelled()) {
+          return false;
+        }
+        nextFolder = null;
+        if (folders.hasNext()) {
+          nextFolder = submitFolder(converter, sensorContext, folders.next(), goProgressReport, visitors, statistics, goModFileDataStore, executor, parsingNanos);
+        }
+        visitParsedFolder(parsedFolder, sensorContext, goProgressReport, visitors, statistics);
+        goProgressReport.nextFolder();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    long overlapNanos = Math.max(0, parsingNanos.get() - waitingNanos);
+    statistics.store("Parse overlapped with visit", overlapNanos);
+    LOG.debug("Parsing overlapped with the visit of the trees during {} ms out of {} ms", TimeUnit.NANOSECONDS.toMillis(overlapNanos),
+      TimeUnit.NANOSECONDS.toMillis(parsingNanos.get()));
+    return !sensorContext.isCancelled();
+  }
 
-      var moduleName = sensorContext.config().get(MODULE_NAME_PROPERTY).map(it -> {
-        LOG.info("Using pre-computed moduleName from property '{}': {}", MODULE_NAME_PROPERTY, it);
-        return it;
-      }).orElse(goModFileDataStore.retrieveClosestGoModFileData(goFolder.name()).moduleName());
-      LOG.debug("Parse directory '{}', number of files: {}, module name: '{}'", goFolder.name(), filesToAnalyse.size(), moduleName);
+  /**
+   * Prepares the folder on the visiting thread, and submits only its conversion to the parsing thread.
+   */
+  private Future<ParsedFolder> submitFolder(ASTConverter converter,
+    SensorContext sensorContext,
+    GoFolder goFolder,
+    GoProgressReport goProgressReport,
+    List<TreeVisitor<InputFileContext>> visitors,
+    DurationStatistics statistics,
+    GoModFileDataStore goModFileDataStore,
+    ExecutorService executor,
+    AtomicLong parsingNanos) {
+    var moduleName = moduleName(sensorContext, goFolder, goModFileDataStore);
+    beforeAnalyzeDirectory(sensorContext, goFolder, goModFileDataStore);
+    DirectoryToParse directoryToParse;
+    try {
+      directoryToParse = directoryToParse(goFolder.files(), visitors, goProgressReport::setStep);
+    } catch (RuntimeException e) {
+      return CompletableFuture.completedFuture(new ParsedFolder(goFolder, null, e));
+    }
+    if (directoryToParse == null) {
+      return CompletableFuture.completedFuture(new ParsedFolder(goFolder, null, null));
+    }
+    return executor.submit(() -> convertFolder(converter, goFolder, directoryToParse, statistics, moduleName, parsingNanos));
+  }
 
-      beforeAnalyzeDirectory(sensorContext, goFolder, goModFileDataStore);
-      try {
-        analyseDirectory(converter, filesToAnalyse, visitors, goProgressReport, statistics, sensorContext, moduleName);
-      } catch (RuntimeException e) {
-        LOG.warn("Unable to parse directory '{}'.", goFolder.name(), e);
-        reportParseException(e, filesToAnalyse);
-        if (GoSensor.isFailFast(sensorContext)) {
-          throw e;
-        }
+  private static ParsedFolder convertFolder(ASTConverter converter,
+    GoFolder goFolder,
+    DirectoryToParse directoryToParse,
+    DurationStatistics statistics,
+    String moduleName,
+    AtomicLong parsingNanos) {
+    long parseStart = System.nanoTime();
+    try {
+      Map<String, TreeOrError> treeOrErrorMap = statistics.time("Parse", () -> converter.parse(directoryToParse.filenameToContentMap(),
+        directoryToParse.contextFiles(), moduleName));
+      return new ParsedFolder(goFolder, new ParsedDirectory(directoryToParse.filenameToCacheEntry(), treeOrErrorMap), null);
+    } catch (RuntimeException e) {
+      return new ParsedFolder(goFolder, null, e);
+    } finally {
+      parsingNanos.addAndGet(System.nanoTime() - parseStart);
+    }
+  }
+
+  private static ParsedFolder awaitParsedFolder(Future<ParsedFolder> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the parsing of the Go folders", e);
+    } catch (ExecutionException e) {
+      // The conversion errors are returned in the parsed folder, only the errors which are not exceptions are left
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private void visitParsedFolder(ParsedFolder parsedFolder,
+    SensorContext sensorContext,
+    GoProgressReport goProgressReport,
+    List<TreeVisitor<InputFileContext>> visitors,
+    DurationStatistics statistics) {
+    var goFolder = parsedFolder.folder();
+    try {
+      if (parsedFolder.error() != null) {
+        throw parsedFolder.error();
       }
-      goProgressReport.nextFolder();
+      if (parsedFolder.parsedDirectory() != null) {
+        visitParsedDirectory(parsedFolder.parsedDirectory(), visitors, goProgressReport, statistics, sensorContext);
+      }
+    } catch (RuntimeException e) {
+      handleFolderFailure(sensorContext, goFolder, e);
+    }
+  }
+
+  /**
+   * Analyzes the directories with a pool of threads. The converter is shared, as it can parse several directories concurrently,
+   * but each thread has its own visitors and checks, which are stateful and therefore cannot be shared. The given visitors,
+   * which were used to compute the capabilities required from the converter, are used by the first thread.
+   */
+  private boolean analyseFilesInParallel(ASTConverter converter,
+    SensorContext sensorContext,
+    List<InputFileContext> inputFileContexts,
+    GoProgressReport goProgressReport,
+    List<TreeVisitor<InputFileContext>> visitors,
+    DurationStatistics statistics,
+    GoModFileDataStore goModFileDataStore,
+    int threads) {
+    if (sensorContext.canSkipUnchangedFiles()) {
+      LOG.info("The {} analyzer is running in a context where unchanged files can be skipped.", this.language);
+    }
+    var filesByDirectory = InputFileDiscovery.groupFilesByDirectory(inputFileContexts);
+    LOG.info("Analyzing the {} folders with {} threads", filesByDirectory.size(), threads);
+    goProgressReport.startConcurrent(filesByDirectory);
+    beforeAnalyzeFiles(sensorContext, filesByDirectory, goModFileDataStore);
+
+    var unusedVisitors = new AtomicReference<>(visitors);
+    var threadVisitors = ThreadLocal.withInitial(() -> {
+      var firstThreadVisitors = unusedVisitors.getAndSet(null);
+      return firstThreadVisitors != null ? firstThreadVisitors : visitors(sensorContext, statistics, goModFileDataStore);
+    });
+    var executor = newAnalysisExecutor(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>(filesByDirectory.size());
+      for (var goFolder : filesByDirectory) {
+        futures.add(executor.submit(() -> {
+          if (sensorContext.isCancelled()) {
+            return;
+          }
+          goProgressReport.startFolder(goFolder);
+          try {
+            analyseFolder(converter, sensorContext, goFolder, goProgressReport, threadVisitors.get(), statistics, goModFileDataStore);
+          } finally {
+            goProgressReport.finishFolder();
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        awaitFolderAnalysis(future);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return !sensorContext.isCancelled();
+  }
+
+  /**
+   * The union of the capabilities required by the visitors, the other parts of the trees are not computed by the Go
+   * converter.
+   */
+  static Set<ConverterCapability> requiredCapabilities(List<TreeVisitor<InputFileContext>> visitors) {
+    var capabilities = EnumSet.noneOf(ConverterCapability.class);
+    visitors.forEach(visitor -> capabilities.addAll(visitor.requiredCapabilities()));
+    LOG.debug("Capabilities required from the Go converter: {}", capabilities);
+    return capabilities;
+  }
+
+  /**
+   * The Go converter uses one goroutine per CPU for each directory, so the CPUs are shared between the directories parsed
+   * concurrently by the analysis threads.
+   */
+  static int converterParallelism(int threads, int processors) {
+    if (threads <= 1) {
+      return 0;
+    }
+    return Math.max(1, processors / threads);
+  }
+
+  private static ExecutorService newAnalysisExecutor(int threads) {
+    var threadCount = new AtomicInteger();
+    return Executors.newFixedThreadPool(threads, (Runnable run) -> {
+      var thread = new Thread(run, "Go analysis " + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  private static void awaitFolderAnalysis(Future<?> future) {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the analysis of the Go folders", e);
+    } catch (ExecutionException e) {
+      // Only reached in fail-fast mode, the other errors are already reported for each folder
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private void analyseFolder(ASTConverter converter,
+    SensorContext sensorContext,
+    GoFolder goFolder,
+    GoProgressReport goProgressReport,
+    List<TreeVisitor<InputFileContext>> visitors,
+    DurationStatistics statistics,
+    GoModFileDataStore goModFileDataStore) {
+    var moduleName = moduleName(sensorContext, goFolder, goModFileDataStore);
+    beforeAnalyzeDirectory(sensorContext, goFolder, goModFileDataStore);
+    try {
+      analyseDirectory(converter, goFolder.files(), visitors, goProgressReport, statistics, sensorContext, moduleName);
+    } catch (RuntimeException e) {
+      handleFolderFailure(sensorContext, goFolder, e);
+    }
+  }
+
+  private static String moduleName(SensorContext sensorContext, GoFolder goFolder, GoModFileDataStore goModFileDataStore) {
+    var moduleName = sensorContext.config().get(MODULE_NAME_PROPERTY).map(it -> {
+      LOG.info("Using pre-computed moduleName from property '{}': {}", MODULE_NAME_PROPERTY, it);
+      return it;
+    }).orElse(goModFileDataStore.retrieveClosestGoModFileData(goFolder.name()).moduleName());
+    LOG.debug("Parse directory '{}', number of files: {}, module name: '{}'", goFolder.name(), goFolder.files().size(), moduleName);
+    return moduleName;
+  }
+
+  private void handleFolderFailure(SensorContext sensorContext, GoFolder goFolder, RuntimeException e) {
+    LOG.warn("Unable to parse directory '{}'.", goFolder.name(), e);
+    reportParseException(e, goFolder.files());
+    if (GoSensor.isFailFast(sensorContext)) {
+      throw e;
     }
-    return true;
   }
 
   protected void beforeAnalyzeFiles(SensorContext sensorContext, List<GoFolder> inputFilesByFolder, GoModFileDataStore goModFileDataStore) {
     // the default implementation does nothing
   }
 
+  /**
+   * Called before the analysis of each directory. When "sonar.go.analysis.threads" is greater than 1, it is called concurrently
+   * from the analysis threads. When "sonar.go.analysis.pipeline" is enabled, it is called from the visiting thread, before the
+   * visit of the previous directory.
+   */
   protected void beforeAnalyzeDirectory(SensorContext sensorContext, GoFolder goFolder, GoModFileDataStore goModFileDataStore) {
     // the default implementation does nothing
   }
 
+  /**
+   * Visits each tree as soon as it is returned by the converter, so it can be released before the next file is decoded.
+   */
   // visible for tests
   void analyseDirectory(ASTConverter converter,
     List<InputFileContext> inputFileContextList,
@@ -232,8 +524,42 @@ public class GoSensor implements Sensor {
     DurationStatistics statistics,
     SensorContext sensorContext,
     String moduleName) {
+    var directoryToParse = directoryToParse(inputFileContextList, visitors, goProgressReport::setStep);
+    if (directoryToParse == null) {
+      return;
+    }
+
+    goProgressReport.setStep(GoProgressReport.Step.PARSING);
+    var visitNanos = new AtomicLong();
+    long parseStart = System.nanoTime();
+    converter.parse(directoryToParse.filenameToContentMap(), directoryToParse.contextFiles(), moduleName, (filename, treeOrError) -> {
+      long visitStart = System.nanoTime();
+      var cacheEntry = directoryToParse.filenameToCacheEntry().get(filename);
+      if (treeOrError.isError()) {
+        handleParsingError(filename, treeOrError, cacheEntry);
+        if (GoSensor.isFailFast(sensorContext)) {
+          throw new IllegalStateException("Exception when analyzing files. See logs above for details.");
+        }
+      } else {
+        goProgressReport.setStep(GoProgressReport.Step.ANALYZING);
+        visitTree(visitors, statistics, cacheEntry, treeOrError.tree());
+        goProgressReport.setStep(GoProgressReport.Step.PARSING);
+      }
+      visitNanos.addAndGet(System.nanoTime() - visitStart);
+    });
+    // The visitors are timed on their own, only the time spent in the converter is counted as parsing
+    statistics.store("Parse", System.nanoTime() - parseStart - visitNanos.get());
+  }
+
+  /**
+   * Returns the files which cannot be skipped thanks to the cache, or null when there is nothing to parse.
+   */
+  @Nullable
+  private DirectoryToParse directoryToParse(List<InputFileContext> inputFileContextList,
+    List<TreeVisitor<InputFileContext>> visitors,
+    Consumer<GoProgressReport.Step> stepListener) {
 
-    goProgressReport.setStep(GoProgressReport.Step.CACHING);
+    stepListener.accept(GoProgressReport.Step.CACHING);
     Map<String, CacheHandler.CacheEntry> filenameToCacheEntry = CacheHandler.filterOutFilesFromCache(inputFileContextList, visitors);
     goProjectSensor.increaseReadFromCacheFilesCount(inputFileContextList.size() - filenameToCacheEntry.size());
 
@@ -243,19 +569,50 @@ public class GoSensor implements Sensor {
       .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
 
     if (filenameToContentMap.isEmpty()) {
-      return;
+      return null;
     }
 
     goProjectSensor.increaseFilesProcessedCount(filenameToContentMap.size());
+    return new DirectoryToParse(filenameToCacheEntry, filenameToContentMap, contextFiles(inputFileContextList, filenameToCacheEntry));
+  }
 
-    goProgressReport.setStep(GoProgressReport.Step.PARSING);
-    Map<String, TreeOrError> treeOrErrorMap = statistics.time("Parse", () -> converter.parse(filenameToContentMap, moduleName));
+  /**
+   * The files skipped thanks to the cache are still sent to the converter to be type-checked with the files of the same package,
+   * otherwise the types they declare would be unknown in the trees of the other files. They are typically the unchanged siblings
+   * of a file whose function bodies changed, as the results of the checks are reused until a declaration of the package changes.
+   */
+  private static Map<String, String> contextFiles(List<InputFileContext> inputFileContextList, Map<String, CacheHandler.CacheEntry> filenameToCacheEntry) {
+    if (inputFileContextList.size() == filenameToCacheEntry.size()) {
+      return Map.of();
+    }
+    Map<String, String> contextFiles = new HashMap<>();
+    for (InputFileContext inputFileContext : inputFileContextList) {
+      var filename = inputFileContext.inputFile().toString();
+      if (filenameToCacheEntry.containsKey(filename)) {
+        continue;
+      }
+      try {
+        var content = inputFileContext.inputFile().contents();
+        if (!EMPTY_FILE_CONTENT_PATTERN.matcher(content).matches()) {
+          contextFiles.put(filename, content);
+        }
+      } catch (IOException e) {
+        LOG.debug("Unable to read the unchanged file {}, it is not type-checked with its package: {}", filename, e.getMessage());
+      }
+    }
+    return contextFiles;
+  }
 
+  private void visitParsedDirectory(ParsedDirectory parsedDirectory,
+    List<TreeVisitor<InputFileContext>> visitors,
+    GoProgressReport goProgressReport,
+    DurationStatistics statistics,
+    SensorContext sensorContext) {
     goProgressReport.setStep(GoProgressReport.Step.HANDLING_PARSE_ERRORS);
-    handleParsingErrors(sensorContext, treeOrErrorMap, filenameToCacheEntry);
+    handleParsingErrors(sensorContext, parsedDirectory.treeOrErrorMap(), parsedDirectory.filenameToCacheEntry());
 
     goProgressReport.setStep(GoProgressReport.Step.ANALYZING);
-    visitTrees(visitors, statistics, treeOrErrorMap, filenameToCacheEntry);
+    visitTrees(visitors, statistics, parsedDirectory.treeOrErrorMap(), parsedDirectory.filenameToCacheEntry());
   }
 
   private void handleParsingErrors(SensorContext sensorContext, Map<String, TreeOrError> treeOrErrorMap, Map<String, CacheHandler.CacheEntry> filenameToCacheResult) {
@@ -265,9 +622,7 @@ public class GoSensor implements Sensor {
       if (treeOrError.isError()) {
         isAnyError = true;
         String fileName = filenameToTree.getKey();
-        LOG.warn("Unable to parse file: {}. {}", fileName, treeOrError.error());
-        filenameToCacheResult.get(fileName).fileContext().reportAnalysisParseError(GoRulesDefinition.REPOSITORY_KEY, treeOrError.error());
-        goProjectSensor.increaseParseFailuresCount();
+        handleParsingError(fileName, treeOrError, filenameToCacheResult.get(fileName));
       }
     }
     if (isAnyError && GoSensor.isFailFast(sensorContext)) {
@@ -275,7 +630,13 @@ public class GoSensor implements Sensor {
     }
   }
 
-  private static void visitTrees(List<TreeVisitor<InputFileContext>> visitors, DurationStatistics statistics, Map<String, TreeOrError> treeOrErrorMap,
+  private void handleParsingError(String fileName, TreeOrError treeOrError, CacheHandler.CacheEntry cacheEntry) {
+    LOG.warn("Unable to parse file: {}. {}", fileName, treeOrError.error());
+    cacheEntry.fileContext().reportAnalysisParseError(GoRulesDefinition.REPOSITORY_KEY, treeOrError.error());
+    goProjectSensor.increaseParseFailuresCount();
+  }
+
+  private void visitTrees(List<TreeVisitor<InputFileContext>> visitors, DurationStatistics statistics, Map<String, TreeOrError> treeOrErrorMap,
     Map<String, CacheHandler.CacheEntry> filenameToCacheEntry) {
     for (Map.Entry<String, TreeOrError> filenameToTree : treeOrErrorMap.entrySet()) {
       var treeOrError = filenameToTree.getValue();
@@ -287,26 +648,56 @@ public class GoSensor implements Sensor {
     }
   }
 
-  private static void visitTree(List<TreeVisitor<InputFileContext>> visitors, DurationStatistics statistics, CacheHandler.CacheEntry cacheResult, Tree tree) {
+  private void visitTree(List<TreeVisitor<InputFileContext>> visitors, DurationStatistics statistics, CacheHandler.CacheEntry cacheResult, Tree tree) {
     var visitorsToSkipBasedOnCache = cacheResult.visitorsToSkip();
     var inputFileContext = cacheResult.fileContext();
 
-    for (TreeVisitor<InputFileContext> visitor : visitors) {
-      try {
-        if (!visitor.isApplicableTo(inputFileContext) || visitorsToSkipBasedOnCache.contains(visitor)) {
-          continue;
+    if (fusedVisit) {
+      var visitorsToRun = visitors.stream().filter(visitor -> !visitorsToSkipBasedOnCache.contains(visitor)).toList();
+      for (List<TreeVisitor<InputFileContext>> traversal : fusedTraversals(visitorsToRun)) {
+        new CompositeTreeVisitor<>(traversal, (visitor, e) -> reportVisitorFailure(inputFileContext, e),
+          statistics.isRecording() ? (visitor, nanos) -> statistics.store(visitorId(visitor), nanos) : null)
+          .scan(inputFileContext, tree);
+      }
+    } else {
+      for (TreeVisitor<InputFileContext> visitor : visitors) {
+        try {
+          if (!visitor.isApplicableTo(inputFileContext) || visitorsToSkipBasedOnCache.contains(visitor)) {
+            continue;
+          }
+          statistics.time(visitorId(visitor), () -> visitor.scan(inputFileContext, tree));
+        } catch (RuntimeException e) {
+          reportVisitorFailure(inputFileContext, e);
         }
-        String visitorId = visitor.getClass().getSimpleName();
-        statistics.time(visitorId, () -> visitor.scan(inputFileContext, tree));
-      } catch (RuntimeException e) {
-        inputFileContext.reportAnalysisError(e.getMessage(), null);
-        var message = "Cannot analyse '" + inputFileContext.inputFile() + "': " + e.getMessage();
-        LOG.warn(message, e);
       }
     }
     CacheHandler.writeHashToCache(inputFileContext);
   }
 
+  /**
+   * The checks use the symbols and the suppressed rules computed by the visitors before them, so these visitors have to
+   * visit the whole tree before the checks start. They share a first traversal, and the checks share a second one with
+   * the visitors after them.
+   */
+  // Visible for testing
+  static <T> List<List<T>> fusedTraversals(List<T> visitors) {
+    int firstChecksVisitor = 0;
+    while (firstChecksVisitor < visitors.size() && !(visitors.get(firstChecksVisitor) instanceof ChecksVisitor)) {
+      firstChecksVisitor++;
+    }
+    return List.of(visitors.subList(0, firstChecksVisitor), visitors.subList(firstChecksVisitor, visitors.size()));
+  }
+
+  private static String visitorId(TreeVisitor<InputFileContext> visitor) {
+    return visitor.getClass().getSimpleName();
+  }
+
+  private static void reportVisitorFailure(InputFileContext inputFileContext, RuntimeException e) {
+    inputFileContext.reportAnalysisError(e.getMessage(), null);
+    var message = "Cannot analyse '" + inputFileContext.inputFile() + "': " + e.getMessage();
+    LOG.warn(message, e);
+  }
+
   public static ParseException toParseException(String action, InputFile inputFile, Exception cause) {
     TextPointer position = cause instanceof ParseException actual ? actual.getPosition() : null;
     return new ParseException("Cannot " + action + " '" + inputFile + "': " + cause.getMessage(), position, cause, inputFile.toString());
@@ -325,12 +716,16 @@ public class GoSensor implements Sensor {
   }
 
   protected void processMetrics() {
+    durationStatistics.storeHitRate("string pool", stringPool.hits(), stringPool.lookups());
     durationStatistics.log();
     memoryMonitor.addRecord("End of the sensor");
     memoryMonitor.logMemory();
   }
 
   protected void cleanUp() {
+    // The strings of the pool are only referenced by the trees of this analysis
+    goConverter.useStringPool(StringPool.NONE);
+    stringPool = null;
     durationStatistics = null;
     memoryMonitor = null;
   }
@@ -362,7 +757,7 @@ public class GoSensor implements Sensor {
   }
 
   private static boolean isGenericDeclaration(Tree tree) {
-    return NativeKinds.isStringNativeKind(tree, str -> str.contains("GenDecl"));
+    return IS_GENERIC_DECLARATION.test(tree);
   }
 
   public static boolean isFailFast(SensorContext context) {
@@ -372,4 +767,31 @@ public class GoSensor implements Sensor {
   public static boolean debugTypeCheck(SensorContext context) {
     return context.config().getBoolean(DEBUG_TYPE_CHECK_PROPERTY_NAME).orElse(false);
   }
+
+  private static boolean isPipelineEnabled(SensorContext context) {
+    return context.config().getBoolean(ANALYSIS_PIPELINE_PROPERTY_NAME).orElse(false);
+  }
+
+  // Visible for testing
+  static int analysisThreads(SensorContext context) {
+    int threads = context.config().getInt(ANALYSIS_THREADS_PROPERTY_NAME).orElse(1);
+    if (threads < 1) {
+      LOG.warn("Invalid value for property '{}': {}, the analysis will not be parallel", ANALYSIS_THREADS_PROPERTY_NAME, threads);
+      return 1;
+    }
+    return threads;
+  }
+
+  private record DirectoryToParse(Map<String, CacheHandler.CacheEntry> filenameToCacheEntry, Map<String, String> filenameToContentMap,
+    Map<String, String> contextFiles) {
+  }
+
+  private record ParsedDirectory(Map<String, CacheHandler.CacheEntry> filenameToCacheEntry, Map<String, TreeOrError> treeOrErrorMap) {
+  }
+
+  /**
+   * Element of the parsing pipeline: either the parsed directory, null when there was nothing to parse, or the error raised while parsing it.
+   */
+  private record ParsedFolder(GoFolder folder, @Nullable ParsedDirectory parsedDirectory, @Nullable RuntimeException error) {
+  }
 }
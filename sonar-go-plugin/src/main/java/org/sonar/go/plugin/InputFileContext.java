@@ -56,6 +56,9 @@ public class InputFileContext extends TreeContext {
 
   private final boolean testFile;
 
+  @Nullable
+  private String packageHash;
+
   public InputFileContext(SensorContext sensorContext, InputFile inputFile) {
     this(sensorContext, inputFile, inputFile.type() == InputFile.Type.TEST);
   }
@@ -98,7 +101,10 @@ public class InputFileContext extends TreeContext {
     return null;
   }
 
-  public void reportIssue(RuleKey ruleKey,
+  /**
+   * @return false if the issue is filtered out by a suppression of the rule
+   */
+  public boolean reportIssue(RuleKey ruleKey,
     @Nullable org.sonar.plugins.go.api.TextRange textRange,
     String message,
     List<SecondaryLocation> secondaryLocations,
@@ -107,7 +113,7 @@ public class InputFileContext extends TreeContext {
     if (textRange != null && filteredRules.getOrDefault(ruleKey.toString(), Collections.emptySet())
       .stream().anyMatch(textRange::isInside)) {
       // Issue is filtered by one of the filter.
-      return;
+      return false;
     }
 
     NewIssue issue = sensorContext.newIssue();
@@ -135,7 +141,8 @@ public class InputFileContext extends TreeContext {
       issue.addLocation(newIssueLocation);
     });
 
-    issue.save();
+    saveInContext(issue::save);
+    return true;
   }
 
   public void reportAnalysisParseError(String repositoryKey, String errorMessage) {
@@ -157,8 +164,8 @@ public class InputFileContext extends TreeContext {
 
     parseError
       .forRule(parsingErrorRuleKey)
-      .at(parseErrorLocation)
-      .save();
+      .at(parseErrorLocation);
+    saveInContext(parseError::save);
   }
 
   private static org.sonar.plugins.go.api.TextPointer extractLocation(String errorMessage) {
@@ -194,7 +201,18 @@ public class InputFileContext extends TreeContext {
       }
     }
 
-    error.save();
+    saveInContext(error::save);
+  }
+
+  /**
+   * Runs the given action, which stores some data in the {@link SensorContext}, while holding the lock shared by all the
+   * files of the analysis. The sensor context of the scanner is not thread-safe, so every write to it has to go through
+   * this method to allow the analysis of several directories in parallel.
+   */
+  public void saveInContext(Runnable action) {
+    synchronized (sensorContext) {
+      action.run();
+    }
   }
 
   // Visible for testing
@@ -207,6 +225,20 @@ public class InputFileContext extends TreeContext {
     return Optional.empty();
   }
 
+  /**
+   * Hash of the declarations of all the files of the package of this file, set when the cache is enabled. The results of
+   * the checks can only be reused when it is unchanged, as the type information crosses the files of a package. It does
+   * not depend on the bodies of the functions, so a change in a function body does not invalidate the other files.
+   */
+  @CheckForNull
+  public String packageHash() {
+    return packageHash;
+  }
+
+  public void setPackageHash(@Nullable String packageHash) {
+    this.packageHash = packageHash;
+  }
+
   public void setFilteredRules(Map<String, Set<org.sonar.plugins.go.api.TextRange>> filteredRules) {
     this.filteredRules = filteredRules;
   }
@@ -16,7 +16,7 @@
  */
 package org.sonar.go.plugin;
 
-import java.util.HashSet;
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -26,7 +26,8 @@ import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContext;
 import org.sonar.api.measures.FileLinesContextFactory;
 import org.sonar.go.checks.complexity.CognitiveComplexity;
-import org.sonar.go.visitors.TreeVisitor;
+import org.sonar.go.plugin.caching.ResultsCache;
+import org.sonar.go.utils.LineSet;
 import org.sonar.plugins.go.api.BlockTree;
 import org.sonar.plugins.go.api.ClassDeclarationTree;
 import org.sonar.plugins.go.api.Comment;
@@ -34,13 +35,13 @@ import org.sonar.plugins.go.api.FunctionDeclarationTree;
 import org.sonar.plugins.go.api.TopLevelTree;
 import org.sonar.plugins.go.api.Tree;
 
-public class MetricVisitor extends TreeVisitor<InputFileContext> {
+public class MetricVisitor extends PullRequestAwareVisitor {
   private final FileLinesContextFactory fileLinesContextFactory;
   private final Predicate<Tree> executableLineOfCodePredicate;
 
-  private Set<Integer> linesOfCode;
-  private Set<Integer> commentLines;
-  private Set<Integer> executableLines;
+  private LineSet linesOfCode;
+  private LineSet commentLines;
+  private LineSet executableLines;
   private int numberOfFunctions;
   private int numberOfClasses;
   private int complexity;
@@ -56,9 +57,10 @@ public class MetricVisitor extends TreeVisitor<InputFileContext> {
       int firstTokenLine = declarations.isEmpty() ? tree.textRange().end().line() : declarations.get(0).textRange().start().line();
       var numberOfLinesInFile = ctx.inputFile().lines();
       tree.allComments()
-        .forEach(comment -> commentLines.addAll(findNonEmptyCommentLines(comment, firstTokenLine)));
+        .forEach(comment -> addNonEmptyCommentLines(comment, firstTokenLine, commentLines));
       addExecutableLines(declarations);
-      linesOfCode.addAll(tree.metaData().linesOfCode().stream().filter(line -> line <= numberOfLinesInFile).toList());
+      linesOfCode.addAll(tree.metaData().linesOfCode());
+      linesOfCode.removeAfter(numberOfLinesInFile);
       complexity = new CyclomaticComplexityVisitor().complexityTrees(tree).size();
       statements = new StatementsVisitor().statements(tree);
       cognitiveComplexity = new CognitiveComplexity(tree).value();
@@ -75,14 +77,12 @@ public class MetricVisitor extends TreeVisitor<InputFileContext> {
     register(BlockTree.class, (ctx, tree) -> addExecutableLines(tree.statementOrExpressions()));
   }
 
-  static Set<Integer> findNonEmptyCommentLines(Comment comment, int firstTokenLine) {
+  static void addNonEmptyCommentLines(Comment comment, int firstTokenLine, LineSet commentLines) {
     boolean isFileHeader = comment.textRange().end().line() < firstTokenLine;
 
     if (!isFileHeader && !CommentAnalysisUtils.isNosonarComment(comment)) {
-      return CommentAnalysisUtils.findNonEmptyCommentLines(comment.contentRange(), comment.contentText());
+      CommentAnalysisUtils.addNonEmptyCommentLines(comment.contentRange(), comment.contentText(), commentLines);
     }
-
-    return Set.of();
   }
 
   private void addExecutableLines(List<Tree> trees) {
@@ -93,9 +93,9 @@ public class MetricVisitor extends TreeVisitor<InputFileContext> {
 
   @Override
   protected void before(InputFileContext ctx, Tree root) {
-    linesOfCode = new HashSet<>();
-    commentLines = new HashSet<>();
-    executableLines = new HashSet<>();
+    linesOfCode = new LineSet();
+    commentLines = new LineSet();
+    executableLines = new LineSet();
     numberOfFunctions = 0;
     numberOfClasses = 0;
     complexity = 0;
@@ -104,18 +104,28 @@ public class MetricVisitor extends TreeVisitor<InputFileContext> {
 
   @Override
   protected void after(InputFileContext ctx, Tree root) {
-    saveMetric(ctx, CoreMetrics.NCLOC, linesOfCode().size());
-    saveMetric(ctx, CoreMetrics.COMMENT_LINES, commentLines().size());
-    saveMetric(ctx, CoreMetrics.FUNCTIONS, numberOfFunctions());
-    saveMetric(ctx, CoreMetrics.CLASSES, numberOfClasses());
-    saveMetric(ctx, CoreMetrics.COMPLEXITY, complexity);
-    saveMetric(ctx, CoreMetrics.STATEMENTS, statements);
-    saveMetric(ctx, CoreMetrics.COGNITIVE_COMPLEXITY, cognitiveComplexity);
-
-    FileLinesContext fileLinesContext = fileLinesContextFactory.createFor(ctx.inputFile());
-    linesOfCode().forEach(line -> fileLinesContext.setIntValue(CoreMetrics.NCLOC_DATA_KEY, line, 1));
-    executableLines().forEach(line -> fileLinesContext.setIntValue(CoreMetrics.EXECUTABLE_LINES_DATA_KEY, line, 1));
-    fileLinesContext.save();
+    var measures = new Measures(linesOfCode, commentLines.size(), numberOfFunctions(), numberOfClasses(), complexity, statements,
+      cognitiveComplexity, executableLines);
+    measures.save(ctx, fileLinesContextFactory);
+    ResultsCache.write(ctx, computeCacheKey(ctx.inputFile()), String.valueOf(ctx.inputFile().md5Hash()), measures::write);
+  }
+
+  @Override
+  public boolean reusePreviousResults(InputFileContext ctx) {
+    if (!canReusePreviousResults(ctx)) {
+      return false;
+    }
+    return ResultsCache.replay(ctx, computeCacheKey(ctx.inputFile()), String.valueOf(ctx.inputFile().md5Hash()), in -> {
+      var measures = Measures.read(in);
+      return () -> measures.save(ctx, fileLinesContextFactory);
+    });
+  }
+
+  /**
+   * Computes a unique key for a file that can be used to store its measures in a cache.
+   */
+  static String computeCacheKey(InputFile inputFile) {
+    return "slang:measures:%s".formatted(inputFile.key());
   }
 
   @Override
@@ -124,14 +134,6 @@ public class MetricVisitor extends TreeVisitor<InputFileContext> {
     return ctx.inputFile().type() == InputFile.Type.MAIN;
   }
 
-  private static void saveMetric(InputFileContext ctx, Metric<Integer> metric, Integer value) {
-    ctx.sensorContext.<Integer>newMeasure()
-      .on(ctx.inputFile())
-      .forMetric(metric)
-      .withValue(value)
-      .save();
-  }
-
   public Set<Integer> linesOfCode() {
     return linesOfCode;
   }
@@ -156,4 +158,46 @@ public class MetricVisitor extends TreeVisitor<InputFileContext> {
     return cognitiveComplexity;
   }
 
+  private record Measures(LineSet linesOfCode, int commentLines, int functions, int classes, int complexity, int statements,
+    int cognitiveComplexity, LineSet executableLines) {
+
+    void save(InputFileContext ctx, FileLinesContextFactory fileLinesContextFactory) {
+      saveMetric(ctx, CoreMetrics.NCLOC, linesOfCode.size());
+      saveMetric(ctx, CoreMetrics.COMMENT_LINES, commentLines);
+      saveMetric(ctx, CoreMetrics.FUNCTIONS, functions);
+      saveMetric(ctx, CoreMetrics.CLASSES, classes);
+      saveMetric(ctx, CoreMetrics.COMPLEXITY, complexity);
+      saveMetric(ctx, CoreMetrics.STATEMENTS, statements);
+      saveMetric(ctx, CoreMetrics.COGNITIVE_COMPLEXITY, cognitiveComplexity);
+
+      FileLinesContext fileLinesContext = fileLinesContextFactory.createFor(ctx.inputFile());
+      linesOfCode.forEachLine(line -> fileLinesContext.setIntValue(CoreMetrics.NCLOC_DATA_KEY, line, 1));
+      executableLines.forEachLine(line -> fileLinesContext.setIntValue(CoreMetrics.EXECUTABLE_LINES_DATA_KEY, line, 1));
+      ctx.saveInContext(fileLinesContext::save);
+    }
+
+    private static void saveMetric(InputFileContext ctx, Metric<Integer> metric, Integer value) {
+      ctx.saveInContext(() -> ctx.sensorContext.<Integer>newMeasure()
+        .on(ctx.inputFile())
+        .forMetric(metric)
+        .withValue(value)
+        .save());
+    }
+
+    void write(ResultsCache.RecordWriter out) throws IOException {
+      out.writeLines(linesOfCode);
+      out.writeVarInt(commentLines);
+      out.writeVarInt(functions);
+      out.writeVarInt(classes);
+      out.writeVarInt(complexity);
+      out.writeVarInt(statements);
+      out.writeVarInt(cognitiveComplexity);
+      out.writeLines(executableLines);
+    }
+
+    static Measures read(ResultsCache.RecordReader in) throws IOException {
+      return new Measures(in.readLines(), in.readVarInt(), in.readVarInt(), in.readVarInt(), in.readVarInt(), in.readVarInt(),
+        in.readVarInt(), in.readLines());
+    }
+  }
 }
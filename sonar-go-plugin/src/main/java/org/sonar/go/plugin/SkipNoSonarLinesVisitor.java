@@ -16,20 +16,20 @@
  */
 package org.sonar.go.plugin;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.issue.NoSonarFilter;
-import org.sonar.go.visitors.TreeVisitor;
+import org.sonar.go.plugin.caching.ResultsCache;
+import org.sonar.go.utils.LineSet;
 import org.sonar.plugins.go.api.Comment;
 import org.sonar.plugins.go.api.TopLevelTree;
 import org.sonar.plugins.go.api.Tree;
 
-public class SkipNoSonarLinesVisitor extends TreeVisitor<InputFileContext> {
+public class SkipNoSonarLinesVisitor extends PullRequestAwareVisitor {
 
   private final NoSonarFilter noSonarFilter;
 
-  private Set<Integer> noSonarLines;
+  private LineSet noSonarLines;
 
   public SkipNoSonarLinesVisitor(NoSonarFilter noSonarFilter) {
     this.noSonarFilter = noSonarFilter;
@@ -38,30 +38,47 @@ public class SkipNoSonarLinesVisitor extends TreeVisitor<InputFileContext> {
       List<Tree> declarations = tree.declarations();
       int firstTokenLine = declarations.isEmpty() ? tree.textRange().end().line() : declarations.get(0).textRange().start().line();
       tree.allComments()
-        .forEach(comment -> noSonarLines.addAll(findNoSonarCommentLines(comment, firstTokenLine)));
+        .forEach(comment -> addNoSonarCommentLines(comment, firstTokenLine, noSonarLines));
     });
   }
 
   @Override
   protected void before(InputFileContext ctx, Tree root) {
-    noSonarLines = new HashSet<>();
+    noSonarLines = new LineSet();
   }
 
   @Override
   protected void after(InputFileContext ctx, Tree root) {
-    noSonarFilter.noSonarInFile(ctx.inputFile(), noSonarLines);
+    ctx.saveInContext(() -> noSonarFilter.noSonarInFile(ctx.inputFile(), noSonarLines));
+    ResultsCache.write(ctx, computeCacheKey(ctx.inputFile()), String.valueOf(ctx.inputFile().md5Hash()), out -> out.writeLines(noSonarLines));
   }
 
-  private static Set<Integer> findNoSonarCommentLines(Comment comment, int firstTokenLine) {
+  @Override
+  public boolean reusePreviousResults(InputFileContext ctx) {
+    if (!canReusePreviousResults(ctx)) {
+      return false;
+    }
+    return ResultsCache.replay(ctx, computeCacheKey(ctx.inputFile()), String.valueOf(ctx.inputFile().md5Hash()), in -> {
+      var lines = in.readLines();
+      return () -> ctx.saveInContext(() -> noSonarFilter.noSonarInFile(ctx.inputFile(), lines));
+    });
+  }
+
+  /**
+   * Computes a unique key for a file that can be used to store its NOSONAR lines in a cache.
+   */
+  static String computeCacheKey(InputFile inputFile) {
+    return "slang:nosonar-lines:%s".formatted(inputFile.key());
+  }
+
+  private static void addNoSonarCommentLines(Comment comment, int firstTokenLine, LineSet noSonarLines) {
     boolean isFileHeader = comment.textRange().end().line() < firstTokenLine;
     if (isFileHeader) {
-      return Set.of();
+      return;
     }
 
     if (CommentAnalysisUtils.isNosonarComment(comment) || CommentAnalysisUtils.isNolintDirective(comment)) {
-      return CommentAnalysisUtils.findNonEmptyCommentLines(comment.contentRange(), comment.contentText());
+      CommentAnalysisUtils.addNonEmptyCommentLines(comment.contentRange(), comment.contentText(), noSonarLines);
     }
-
-    return Set.of();
   }
 }
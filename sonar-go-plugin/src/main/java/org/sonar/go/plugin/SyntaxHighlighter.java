@@ -16,9 +16,12 @@
  */
 package org.sonar.go.plugin;
 
+import java.util.ArrayList;
+import java.util.List;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
 import org.sonar.api.batch.sensor.highlighting.TypeOfText;
-import org.sonar.go.visitors.TreeVisitor;
+import org.sonar.go.plugin.caching.ResultsCache;
 import org.sonar.plugins.go.api.LiteralTree;
 import org.sonar.plugins.go.api.StringLiteralTree;
 import org.sonar.plugins.go.api.TextRange;
@@ -31,9 +34,14 @@ import static org.sonar.api.batch.sensor.highlighting.TypeOfText.CONSTANT;
 import static org.sonar.api.batch.sensor.highlighting.TypeOfText.KEYWORD;
 import static org.sonar.api.batch.sensor.highlighting.TypeOfText.STRING;
 
-public class SyntaxHighlighter extends TreeVisitor<InputFileContext> {
+public class SyntaxHighlighter extends PullRequestAwareVisitor {
+
+  private static final TypeOfText[] TYPES_OF_TEXT = TypeOfText.values();
 
   private NewHighlighting newHighlighting;
+  // Highlighted ranges of the visited file, recorded for the cache of the next analysis
+  private final List<Highlight> highlights = new ArrayList<>();
+  private boolean recordHighlights;
 
   public SyntaxHighlighter() {
     register(TopLevelTree.class, (ctx, tree) -> {
@@ -54,18 +62,66 @@ public class SyntaxHighlighter extends TreeVisitor<InputFileContext> {
   protected void before(InputFileContext ctx, Tree root) {
     newHighlighting = ctx.sensorContext.newHighlighting()
       .onFile(ctx.inputFile());
+    highlights.clear();
+    recordHighlights = ctx.sensorContext.isCacheEnabled();
   }
 
   @Override
   protected void after(InputFileContext ctx, Tree root) {
-    newHighlighting.save();
+    ctx.saveInContext(newHighlighting::save);
+    if (recordHighlights) {
+      ResultsCache.write(ctx, computeCacheKey(ctx.inputFile()), String.valueOf(ctx.inputFile().md5Hash()), out -> {
+        out.writeVarInt(highlights.size());
+        for (Highlight highlight : highlights) {
+          out.writeTextRange(highlight.range());
+          out.writeVarInt(highlight.typeOfText().ordinal());
+        }
+      });
+    }
+  }
+
+  @Override
+  public boolean reusePreviousResults(InputFileContext ctx) {
+    if (!canReusePreviousResults(ctx)) {
+      return false;
+    }
+    return ResultsCache.replay(ctx, computeCacheKey(ctx.inputFile()), String.valueOf(ctx.inputFile().md5Hash()), in -> {
+      int count = in.readVarInt();
+      List<Highlight> cachedHighlights = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        cachedHighlights.add(new Highlight(in.readTextRange(), TYPES_OF_TEXT[in.readVarInt()]));
+      }
+      return () -> {
+        var reusedHighlighting = ctx.sensorContext.newHighlighting().onFile(ctx.inputFile());
+        for (Highlight highlight : cachedHighlights) {
+          var textRange = ctx.textRange(highlight.range());
+          if (textRange != null) {
+            reusedHighlighting.highlight(textRange, highlight.typeOfText());
+          }
+        }
+        ctx.saveInContext(reusedHighlighting::save);
+      };
+    });
+  }
+
+  /**
+   * Computes a unique key for a file that can be used to store its highlighting in a cache.
+   */
+  static String computeCacheKey(InputFile inputFile) {
+    return "slang:highlighting:%s".formatted(inputFile.key());
   }
 
   private void highlight(InputFileContext ctx, TextRange range, TypeOfText typeOfText) {
     var textRange = ctx.textRange(range);
     if (textRange != null) {
       newHighlighting.highlight(textRange, typeOfText);
+      if (recordHighlights) {
+        highlights.add(new Highlight(range, typeOfText));
+      }
     }
   }
 
+  private record Highlight(TextRange range, TypeOfText typeOfText) {
+  }
+
 }
@@ -37,7 +37,12 @@ public class CacheHandler {
     // utility class
   }
 
+  /**
+   * The input file contexts are the files of a single package, as the results of the checks on a file also depend on the
+   * other files of its package.
+   */
   public static Map<String, CacheEntry> filterOutFilesFromCache(List<InputFileContext> inputFileContexts, List<TreeVisitor<InputFileContext>> visitors) {
+    assignPackageHash(inputFileContexts);
     Map<String, CacheEntry> result = new HashMap<>();
     for (InputFileContext inputFileContext : inputFileContexts) {
       if (fileCanBeSkipped(inputFileContext)) {
@@ -47,6 +52,8 @@ public class CacheHandler {
         Map<PullRequestAwareVisitor, Boolean> successfulCacheReuseByVisitor = visitors.stream()
           .filter(PullRequestAwareVisitor.class::isInstance)
           .map(PullRequestAwareVisitor.class::cast)
+          // Nothing to reuse for the visitors which do not visit the file
+          .filter(visitor -> visitor.isApplicableTo(inputFileContext))
           .collect(Collectors.toMap(visitor -> visitor, visitor -> reusePreviousResults(visitor, inputFileContext)));
 
         boolean allVisitorsSuccessful = successfulCacheReuseByVisitor.values().stream().allMatch(Boolean.TRUE::equals);
@@ -70,6 +77,14 @@ public class CacheHandler {
     return result;
   }
 
+  private static void assignPackageHash(List<InputFileContext> inputFileContexts) {
+    if (inputFileContexts.isEmpty() || !inputFileContexts.get(0).sensorContext.isCacheEnabled()) {
+      return;
+    }
+    var packageHash = HashCacheUtils.computePackageHash(inputFileContexts);
+    inputFileContexts.forEach(inputFileContext -> inputFileContext.setPackageHash(packageHash));
+  }
+
   private static boolean fileCanBeSkipped(InputFileContext inputFileContext) {
     SensorContext sensorContext = inputFileContext.sensorContext;
     if (!sensorContext.canSkipUnchangedFiles()) {
@@ -18,8 +18,12 @@ package org.sonar.go.plugin.caching;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
@@ -98,7 +102,7 @@ public class HashCacheUtils {
     String cacheKey = computeKey(inputFile);
     WriteCache nextCache = inputFileContext.sensorContext.nextCache();
     try {
-      nextCache.copyFromPrevious(cacheKey);
+      inputFileContext.saveInContext(() -> nextCache.copyFromPrevious(cacheKey));
     } catch (IllegalArgumentException ignored) {
       LOG.warn("Failed to copy hash from previous analysis for {}.", inputFile.key());
       return false;
@@ -113,7 +117,8 @@ public class HashCacheUtils {
     InputFile inputFile = inputFileContext.inputFile();
     WriteCache nextCache = inputFileContext.sensorContext.nextCache();
     try {
-      nextCache.write(computeKey(inputFileContext.inputFile()), Hex.decodeHex(inputFile.md5Hash()));
+      var hash = Hex.decodeHex(inputFile.md5Hash());
+      inputFileContext.saveInContext(() -> nextCache.write(computeKey(inputFile), hash));
     } catch (IllegalArgumentException ignored) {
       LOG.warn("Failed to write hash for {} to cache.", inputFile.key());
       return false;
@@ -124,6 +129,60 @@ public class HashCacheUtils {
     return true;
   }
 
+  /**
+   * Computes a hash of the names and declarations of the files of a package. The type information of a file only depends
+   * on the declarations of the other files, not on the bodies of their functions, so the hash is unchanged when only the
+   * bodies of the functions change.
+   */
+  static String computePackageHash(List<InputFileContext> inputFileContexts) {
+    return DigestUtils.md5Hex(inputFileContexts.stream()
+      .map(InputFileContext::inputFile)
+      .sorted(Comparator.comparing(InputFile::filename))
+      .map(inputFile -> inputFile.filename() + ":" + declarationsHash(inputFile))
+      .collect(Collectors.joining("\n")));
+  }
+
+  private static String declarationsHash(InputFile inputFile) {
+    try {
+      return DigestUtils.md5Hex(withoutFunctionBodies(inputFile.contents()));
+    } catch (IOException e) {
+      LOG.debug("Unable to read {}, its whole content is part of the hash of its package: {}", inputFile.key(), e.getMessage());
+      return inputFile.md5Hash();
+    }
+  }
+
+  /**
+   * Removes the bodies of the top-level functions of a file formatted by gofmt: a body starts after the "{" ending the
+   * signature, and ends with the next line which is not indented. The lines are kept when the file is not formatted
+   * this way, so a change of a declaration always changes the result.
+   */
+  static String withoutFunctionBodies(String content) {
+    var declarations = new StringBuilder(content.length());
+    boolean inSignature = false;
+    boolean inBody = false;
+    for (String line : content.split("\n", -1)) {
+      boolean topLevel = !line.isEmpty() && !Character.isWhitespace(line.charAt(0));
+      if (inBody) {
+        if (!topLevel) {
+          continue;
+        }
+        inBody = false;
+        if (line.startsWith("}")) {
+          continue;
+        }
+      }
+      if (topLevel && !line.startsWith(")")) {
+        inSignature = line.startsWith("func ");
+      }
+      declarations.append(line).append('\n');
+      if (inSignature && line.stripTrailing().endsWith("{")) {
+        inSignature = false;
+        inBody = true;
+      }
+    }
+    return declarations.toString();
+  }
+
   private static String computeKey(InputFile inputFile) {
     return "slang:hash:" + inputFile.key();
   }
@@ -0,0 +1,263 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.plugin.caching;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.sensor.cache.ReadCache;
+import org.sonar.go.impl.TextRangeImpl;
+import org.sonar.go.plugin.InputFileContext;
+import org.sonar.go.utils.LineSet;
+import org.sonar.plugins.go.api.TextRange;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A utility class to store the results of a visitor for a file in the cache, and to replay them in a next analysis
+ * when the file is unchanged, without parsing it.
+ * <p>
+ * Each record starts with a format version and a validity key, which describes everything the results depend on
+ * besides the content of the file (the active rules, the other files of the package, ...). The record is only replayed
+ * when its validity key is the same as the one of the current analysis. The results follow, written with variable-length
+ * integers by the visitor.
+ */
+public class ResultsCache {
+  private static final Logger LOG = LoggerFactory.getLogger(ResultsCache.class);
+  private static final int FORMAT_VERSION = 1;
+
+  private ResultsCache() {
+    /* Instances of this utility class should not be created. */
+  }
+
+  /**
+   * Writes the results of a file for the next analysis, if the cache is enabled.
+   */
+  public static void write(InputFileContext inputFileContext, String key, String validityKey, ResultsWriter resultsWriter) {
+    if (!inputFileContext.sensorContext.isCacheEnabled()) {
+      return;
+    }
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new RecordWriter(bytes)) {
+      out.writeVarInt(FORMAT_VERSION);
+      out.writeString(validityKey);
+      resultsWriter.write(out);
+    } catch (IOException e) {
+      LOG.warn("Failed to serialize the results of input file {}: {}", inputFileContext.inputFile().key(), e.getMessage());
+      return;
+    }
+    try {
+      inputFileContext.saveInContext(() -> inputFileContext.sensorContext.nextCache().write(key, bytes.toByteArray()));
+    } catch (IllegalArgumentException e) {
+      LOG.warn("Failed to write the results of input file {} to cache: {}", inputFileContext.inputFile().key(), e.getMessage());
+    }
+  }
+
+  /**
+   * Reads the results of a file from the previous analysis and replays them. The results are copied in the cache for
+   * the next analysis.
+   *
+   * @return true if the results were replayed, false if they cannot be found or if they are outdated or corrupted.
+   */
+  public static boolean replay(InputFileContext inputFileContext, String key, String validityKey, ResultsReader resultsReader) {
+    String fileKey = inputFileContext.inputFile().key();
+    ReadCache previousCache = inputFileContext.sensorContext.previousCache();
+    if (!previousCache.contains(key)) {
+      LOG.debug("No cached results with key {} for input file {}.", key, fileKey);
+      return false;
+    }
+    Runnable replay;
+    try (InputStream cached = previousCache.read(key); var in = new RecordReader(cached)) {
+      if (in.readVarInt() != FORMAT_VERSION || !validityKey.equals(in.readString())) {
+        LOG.debug("Cached results with key {} for input file {} are outdated.", key, fileKey);
+        return false;
+      }
+      replay = resultsReader.read(in);
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to load cached results with key {} for input file {}: {}", key, fileKey, e.getMessage());
+      return false;
+    }
+    try {
+      inputFileContext.saveInContext(() -> inputFileContext.sensorContext.nextCache().copyFromPrevious(key));
+    } catch (IllegalArgumentException e) {
+      LOG.warn("Failed to copy previous cached results with key {} for input file {}.", key, fileKey);
+      return false;
+    }
+    replay.run();
+    return true;
+  }
+
+  @FunctionalInterface
+  public interface ResultsWriter {
+    void write(RecordWriter out) throws IOException;
+  }
+
+  @FunctionalInterface
+  public interface ResultsReader {
+    /**
+     * Reads all the results before returning the action replaying them, so that nothing is replayed from a corrupted record.
+     */
+    Runnable read(RecordReader in) throws IOException;
+  }
+
+  public static class RecordWriter extends DataOutputStream {
+
+    RecordWriter(ByteArrayOutputStream out) {
+      super(out);
+    }
+
+    /**
+     * Writes a positive integer on 1 to 5 bytes, 7 bits at a time.
+     */
+    public void writeVarInt(int value) throws IOException {
+      int remaining = value;
+      while ((remaining & ~0x7F) != 0) {
+        write((remaining & 0x7F) | 0x80);
+        remaining >>>= 7;
+      }
+      write(remaining);
+    }
+
+    public void writeString(String value) throws IOException {
+      var bytes = value.getBytes(UTF_8);
+      writeVarInt(bytes.length);
+      write(bytes);
+    }
+
+    public void writeNullableString(@Nullable String value) throws IOException {
+      writeBoolean(value != null);
+      if (value != null) {
+        writeString(value);
+      }
+    }
+
+    /**
+     * Writes positive integers, such as line numbers, in ascending order and as differences with the previous one.
+     */
+    public void writeSortedInts(Collection<Integer> values) throws IOException {
+      writeVarInt(values.size());
+      int previous = 0;
+      for (int value : values.stream().sorted().toList()) {
+        writeVarInt(value - previous);
+        previous = value;
+      }
+    }
+
+    /**
+     * Same encoding as {@link #writeSortedInts(Collection)}, without sorting nor boxing the lines.
+     */
+    public void writeLines(LineSet lines) throws IOException {
+      writeVarInt(lines.size());
+      int previous = 0;
+      for (var iterator = lines.iterator(); iterator.hasNext();) {
+        int line = iterator.nextInt();
+        writeVarInt(line - previous);
+        previous = line;
+      }
+    }
+
+    /**
+     * Writes the end line as a difference with the start line, as most of the ranges are on a single line.
+     */
+    public void writeTextRange(TextRange textRange) throws IOException {
+      writeVarInt(textRange.start().line());
+      writeVarInt(textRange.start().lineOffset());
+      writeVarInt(textRange.end().line() - textRange.start().line());
+      writeVarInt(textRange.end().lineOffset());
+    }
+
+    public void writeNullableTextRange(@Nullable TextRange textRange) throws IOException {
+      writeBoolean(textRange != null);
+      if (textRange != null) {
+        writeTextRange(textRange);
+      }
+    }
+  }
+
+  public static class RecordReader extends DataInputStream {
+
+    RecordReader(InputStream in) {
+      super(in);
+    }
+
+    public int readVarInt() throws IOException {
+      int value = 0;
+      for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+        int b = readUnsignedByte();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IOException("Malformed variable-length integer");
+    }
+
+    public String readString() throws IOException {
+      var bytes = new byte[readVarInt()];
+      readFully(bytes);
+      return new String(bytes, UTF_8);
+    }
+
+    @CheckForNull
+    public String readNullableString() throws IOException {
+      return readBoolean() ? readString() : null;
+    }
+
+    public List<Integer> readSortedInts() throws IOException {
+      int count = readVarInt();
+      List<Integer> values = new ArrayList<>(count);
+      int value = 0;
+      for (int i = 0; i < count; i++) {
+        value += readVarInt();
+        values.add(value);
+      }
+      return values;
+    }
+
+    public LineSet readLines() throws IOException {
+      int count = readVarInt();
+      var lines = new LineSet();
+      int line = 0;
+      for (int i = 0; i < count; i++) {
+        line += readVarInt();
+        lines.add(line);
+      }
+      return lines;
+    }
+
+    public TextRange readTextRange() throws IOException {
+      int startLine = readVarInt();
+      int startLineOffset = readVarInt();
+      int endLine = startLine + readVarInt();
+      return new TextRangeImpl(startLine, startLineOffset, endLine, readVarInt());
+    }
+
+    @CheckForNull
+    public TextRange readNullableTextRange() throws IOException {
+      return readBoolean() ? readTextRange() : null;
+    }
+  }
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.BiConsumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -36,6 +37,7 @@ import org.sonar.go.impl.PlaceHolderTreeImpl;
 import org.sonar.go.impl.TextPointerImpl;
 import org.sonar.plugins.go.api.ASTConverter;
 import org.sonar.plugins.go.api.Comment;
+import org.sonar.plugins.go.api.ConverterCapability;
 import org.sonar.plugins.go.api.IdentifierTree;
 import org.sonar.plugins.go.api.TextPointer;
 import org.sonar.plugins.go.api.TextRange;
@@ -72,6 +74,8 @@ public class ASTConverterValidation implements ASTConverter {
   private ASTConverterValidation(ASTConverter wrapped, ValidationMode mode) {
     this.wrapped = wrapped;
     this.mode = mode;
+    // The validation is done on the trees read from the JSON format, which is the reference one
+    wrapped.useJsonFormat();
   }
 
   public static ASTConverter wrap(ASTConverter converter, Configuration configuration) {
@@ -90,37 +94,71 @@ public class ASTConverterValidation implements ASTConverter {
 
   @Override
   public Map<String, TreeOrError> parse(Map<String, String> filenameToContentMap, String moduleName) {
-    var filenamesToTrees = wrapped.parse(filenameToContentMap, moduleName);
+    return parse(filenameToContentMap, Map.of(), moduleName);
+  }
+
+  @Override
+  public Map<String, TreeOrError> parse(Map<String, String> filenameToContentMap, Map<String, String> contextFiles, String moduleName) {
+    var filenamesToTrees = wrapped.parse(filenameToContentMap, contextFiles, moduleName);
     var result = new HashMap<String, TreeOrError>();
     for (Map.Entry<String, TreeOrError> filenameToTree : filenamesToTrees.entrySet()) {
-      currentFile = filenameToTree.getKey();
-      var treeOrError = filenameToTree.getValue();
-      if (treeOrError.isTree()) {
-        var tree = treeOrError.tree();
-        try {
-          assertTreeIsValid(tree);
-          assertTokensMatchSourceCode(tree, filenameToContentMap.get(currentFile));
-          result.put(currentFile, treeOrError);
-        } catch (RuntimeException e) {
-          // Let's acknowledge catching exceptions here is definitely not a good design.
-          // We went from file-by-file to batch, this validation now requires to validate multiple files at once,
-          // we cannot throw an exception for a single file anymore. Changing this would require a lot of refactoring, we don't want to invest in this
-          // right now.
-          result.put(currentFile, TreeOrError.of("AST validation failed: " + e.getMessage()));
-        }
-      } else {
-        result.put(currentFile, treeOrError);
-      }
+      var filename = filenameToTree.getKey();
+      result.put(filename, validate(filename, filenameToTree.getValue(), filenameToContentMap.get(filename)));
     }
-
     return result;
   }
 
+  @Override
+  public void parse(Map<String, String> filenameToContentMap, String moduleName, BiConsumer<String, TreeOrError> consumer) {
+    parse(filenameToContentMap, Map.of(), moduleName, consumer);
+  }
+
+  @Override
+  public void parse(Map<String, String> filenameToContentMap, Map<String, String> contextFiles, String moduleName,
+    BiConsumer<String, TreeOrError> consumer) {
+    wrapped.parse(filenameToContentMap, contextFiles, moduleName,
+      (filename, treeOrError) -> consumer.accept(filename, validate(filename, treeOrError, filenameToContentMap.get(filename))));
+  }
+
+  // The validation state is shared, only the parsing can run concurrently when directories are analyzed in parallel
+  private synchronized TreeOrError validate(String filename, TreeOrError treeOrError, String content) {
+    currentFile = filename;
+    if (!treeOrError.isTree()) {
+      return treeOrError;
+    }
+    try {
+      assertTreeIsValid(treeOrError.tree());
+      assertTokensMatchSourceCode(treeOrError.tree(), content);
+      return treeOrError;
+    } catch (RuntimeException e) {
+      // Let's acknowledge catching exceptions here is definitely not a good design.
+      // We went from file-by-file to batch, this validation now requires to validate multiple files at once,
+      // we cannot throw an exception for a single file anymore. Changing this would require a lot of refactoring, we don't want to invest in this
+      // right now.
+      return TreeOrError.of("AST validation failed: " + e.getMessage());
+    }
+  }
+
   @Override
   public void debugTypeCheck() {
     // Do nothing
   }
 
+  @Override
+  public void useJsonFormat() {
+    wrapped.useJsonFormat();
+  }
+
+  @Override
+  public void setRequiredCapabilities(Set<ConverterCapability> capabilities) {
+    wrapped.setRequiredCapabilities(capabilities);
+  }
+
+  @Override
+  public void setParallelism(int parallelism) {
+    wrapped.setParallelism(parallelism);
+  }
+
   @Override
   public void terminate() {
     List<String> errors = errors();
@@ -18,11 +18,14 @@ package org.sonar.go.report;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +38,10 @@ import org.sonarsource.analyzer.commons.ProgressReport;
  * As the parsing is processed by the go executable, it is not possible to display the progress of file processing.
  * This class allows to customize the progress report message to mention folder instead of files, while also specifying the size of the folder and the current state of the process
  * (parsing, executing checks...).
+ * <p>
+ * When the folders are analyzed in parallel, {@link #startConcurrent(Collection)} has to be used instead of {@link #start(Collection)}:
+ * each analysis thread then declares the folder it is working on with {@link #startFolder(GoFolder)} and {@link #finishFolder()},
+ * and the steps set with {@link #setStep(Step)} apply to the folder of the calling thread.
  */
 public class GoProgressReport {
 
@@ -50,6 +57,10 @@ public class GoProgressReport {
   private GoFolder currentFolder;
   @Nullable
   private Step currentStep;
+  private boolean concurrent;
+  // Folders currently analyzed, by analysis thread, only used in concurrent mode
+  private final Map<Thread, FolderInProgress> foldersInProgress = new LinkedHashMap<>();
+  private long analyzedFolders;
 
   public GoProgressReport(String threadName, long period) {
     this.period = period;
@@ -62,14 +73,9 @@ public class GoProgressReport {
   }
 
   public void start(Collection<GoFolder> folders) {
-    totalFolders = folders.size();
+    logStart(folders);
     currentFolderIndex = 0;
     itFolder = folders.iterator();
-    totalFiles = folders.stream()
-      .map(f -> f.files().size())
-      .reduce(0, Integer::sum);
-
-    log("%d %s (%d %s) to be analyzed".formatted(totalFolders, pluralizeFolder(folders.size()), totalFiles, pluralizeFile(totalFiles)));
     nextFolder();
     scheduledTask = scheduler.scheduleAtFixedRate(() -> log(
       "%d / %d %s analyzed, current folder: %s (%d %s%s)"
@@ -78,6 +84,36 @@ public class GoProgressReport {
       period, period, timeUnit);
   }
 
+  public void startConcurrent(Collection<GoFolder> folders) {
+    logStart(folders);
+    synchronized (this) {
+      concurrent = true;
+      analyzedFolders = 0;
+      foldersInProgress.clear();
+    }
+    scheduledTask = scheduler.scheduleAtFixedRate(() -> log(concurrentProgressMessage()), period, period, timeUnit);
+  }
+
+  private void logStart(Collection<GoFolder> folders) {
+    totalFolders = folders.size();
+    totalFiles = folders.stream()
+      .map(f -> f.files().size())
+      .reduce(0, Integer::sum);
+    log("%d %s (%d %s) to be analyzed".formatted(totalFolders, pluralizeFolder(folders.size()), totalFiles, pluralizeFile(totalFiles)));
+  }
+
+  // Visible for testing
+  synchronized String concurrentProgressMessage() {
+    var inProgress = foldersInProgress.values().stream()
+      .map(folder -> "%s (%d %s%s)".formatted(folder.folder.name(), folder.folder.files().size(), pluralizeFile(folder.folder.files().size()), formatStep(folder.step)))
+      .collect(Collectors.joining(", "));
+    if (inProgress.isEmpty()) {
+      return "%d / %d %s analyzed".formatted(analyzedFolders, totalFolders, pluralizeFolder(analyzedFolders));
+    }
+    return "%d / %d %s analyzed, current %s: %s"
+      .formatted(analyzedFolders, totalFolders, pluralizeFolder(analyzedFolders), pluralizeFolder(foldersInProgress.size()), inProgress);
+  }
+
   private static String pluralizeFolder(long count) {
     return pluralizeWord("folder", count);
   }
@@ -141,14 +177,47 @@ public class GoProgressReport {
     }
   }
 
+  /**
+   * Declares the folder analyzed by the calling thread, in concurrent mode.
+   */
+  public synchronized void startFolder(GoFolder folder) {
+    foldersInProgress.put(Thread.currentThread(), new FolderInProgress(folder));
+  }
+
+  /**
+   * Declares that the calling thread is done with its folder, in concurrent mode.
+   */
+  public synchronized void finishFolder() {
+    if (foldersInProgress.remove(Thread.currentThread()) != null) {
+      analyzedFolders++;
+    }
+  }
+
   public synchronized void setStep(@Nullable Step step) {
-    currentStep = step;
+    if (!concurrent) {
+      currentStep = step;
+      return;
+    }
+    var folderInProgress = foldersInProgress.get(Thread.currentThread());
+    if (folderInProgress != null) {
+      folderInProgress.step = step;
+    }
   }
 
   private static void log(String message) {
     LOG.info(message);
   }
 
+  private static class FolderInProgress {
+    private final GoFolder folder;
+    @Nullable
+    private Step step;
+
+    FolderInProgress(GoFolder folder) {
+      this.folder = folder;
+    }
+  }
+
   public enum Step {
     CACHING,
     PARSING,
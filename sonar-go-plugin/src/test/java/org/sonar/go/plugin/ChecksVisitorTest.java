@@ -19,17 +19,36 @@ package org.sonar.go.plugin;
 import com.sonarsource.scanner.engine.sensor.test.fixtures.SensorContextTester;
 import com.sonarsource.scanner.engine.sensor.test.fixtures.TestInputFileBuilder;
 import java.io.File;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.go.impl.TextRangeImpl;
+import org.sonar.go.plugin.caching.DummyReadCache;
+import org.sonar.go.plugin.caching.DummyWriteCache;
+import org.sonar.plugins.go.api.ConverterCapability;
+import org.sonar.plugins.go.api.Tree;
+import org.sonar.plugins.go.api.checks.GoCheck;
+import org.sonar.plugins.go.api.checks.GoModFileData;
+import org.sonar.plugins.go.api.checks.InitContext;
+import org.sonar.plugins.go.api.checks.SecondaryLocation;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class ChecksVisitorTest {
 
@@ -68,10 +87,112 @@ class ChecksVisitorTest {
       Arguments.of(InputFile.Type.TEST, false, true));
   }
 
+  @Test
+  void shouldRequireTheCapabilitiesOfItsChecks() {
+    GoCheck syntacticCheck = new GoCheck() {
+      @Override
+      public void initialize(InitContext init) {
+        // No registration needed
+      }
+
+      @Override
+      public Set<ConverterCapability> requiredCapabilities() {
+        return ConverterCapability.none();
+      }
+    };
+    GoCheck defaultCheck = init -> {
+    };
+    GoCheck cfgCheck = new GoCheck() {
+      @Override
+      public void initialize(InitContext init) {
+        // No registration needed
+      }
+
+      @Override
+      public Set<ConverterCapability> requiredCapabilities() {
+        return Set.of(ConverterCapability.CONTROL_FLOW_GRAPH);
+      }
+    };
+    var goChecks = mock(GoChecks.class);
+    when(goChecks.all()).thenReturn(List.of(syntacticCheck, defaultCheck));
+    when(goChecks.ruleKey(any())).thenReturn(RuleKey.of("go", "S1"));
+    assertThat(new ChecksVisitor(goChecks, mock(DurationStatistics.class), mock(GoModFileDataStore.class), true).requiredCapabilities()).isEmpty();
+
+    when(goChecks.all()).thenReturn(List.of(syntacticCheck, defaultCheck, cfgCheck));
+    assertThat(new ChecksVisitor(goChecks, mock(DurationStatistics.class), mock(GoModFileDataStore.class), true).requiredCapabilities())
+      .containsExactly(ConverterCapability.CONTROL_FLOW_GRAPH);
+
+    assertThat(visitor.requiredCapabilities()).isEmpty();
+  }
+
+  @Test
+  void shouldRetrieveTheGoModFileDataOnceForAllTheChecksOfAFile() {
+    var goModFileData = mock(GoModFileData.class);
+    var goModFileDataStore = mock(GoModFileDataStore.class);
+    when(goModFileDataStore.retrieveClosestGoModFileDataOfFile(any(URI.class))).thenReturn(goModFileData);
+    List<GoModFileData> visitedGoModFileData = new ArrayList<>();
+    GoCheck check = init -> init.register(Tree.class, (ctx, tree) -> visitedGoModFileData.add(ctx.goModFileData()));
+    var goChecks = mock(GoChecks.class);
+    when(goChecks.all()).thenReturn(List.of(check, check));
+    when(goChecks.ruleKey(check)).thenReturn(RuleKey.of("go", "S1"));
+    var checksVisitor = new ChecksVisitor(goChecks, new DurationStatistics(sensorContext.config()), goModFileDataStore, true);
+    var tree = mock(Tree.class);
+
+    checksVisitor.scan(createInputFileContext("", InputFile.Type.MAIN, false), tree);
+    checksVisitor.scan(createInputFileContext("", InputFile.Type.MAIN, false), tree);
+
+    assertThat(visitedGoModFileData).containsExactly(goModFileData, goModFileData, goModFileData, goModFileData);
+    verify(goModFileDataStore, times(2)).retrieveClosestGoModFileDataOfFile(any(URI.class));
+  }
+
+  @Test
+  void shouldReplayTheIssuesOfTheChecksFromTheCache() {
+    var previousCache = new DummyReadCache();
+    var nextCache = new DummyWriteCache();
+    nextCache.bind(previousCache);
+    sensorContext.setCacheEnabled(true);
+    sensorContext.setCanSkipUnchangedFiles(true);
+    sensorContext.setPreviousCache(previousCache);
+    sensorContext.setNextCache(nextCache);
+    var secondaryLocation = new SecondaryLocation(new TextRangeImpl(1, 0, 1, 1), null);
+    GoCheck check = init -> init.register(Tree.class, (ctx, tree) -> ctx.reportIssue(tree, "issue", List.of(secondaryLocation), 2.0));
+    var goChecks = mock(GoChecks.class);
+    when(goChecks.all()).thenReturn(List.of(check));
+    when(goChecks.ruleKey(check)).thenReturn(RuleKey.of("go", "S1"));
+    var checksVisitor = new ChecksVisitor(goChecks, new DurationStatistics(sensorContext.config()), new GoModFileDataStore(), true);
+    var tree = mock(Tree.class);
+    when(tree.textRange()).thenReturn(new TextRangeImpl(1, 0, 1, 7));
+    var ctx = createInputFileContext("package", InputFile.Type.MAIN, false, InputFile.Status.SAME);
+    ctx.setPackageHash("hash");
+
+    checksVisitor.scan(ctx, tree);
+    assertThat(sensorContext.allIssues()).hasSize(1);
+    previousCache.persisted.putAll(nextCache.persisted);
+    nextCache.persisted.clear();
+
+    assertThat(checksVisitor.reusePreviousResults(ctx)).isTrue();
+    assertThat(sensorContext.allIssues()).hasSize(2);
+    var replayed = sensorContext.allIssues().stream().skip(1).findFirst().orElseThrow();
+    assertThat(replayed.ruleKey()).isEqualTo(RuleKey.of("go", "S1"));
+    assertThat(replayed.primaryLocation().message()).isEqualTo("issue");
+    assertThat(replayed.primaryLocation().textRange().end().lineOffset()).isEqualTo(7);
+    assertThat(replayed.flows()).hasSize(1);
+    assertThat(replayed.gap()).isEqualTo(2.0);
+    assertThat(nextCache.persisted).containsKey(checksVisitor.computeCacheKey(ctx.inputFile()));
+
+    ctx.setPackageHash("other hash");
+    assertThat(checksVisitor.reusePreviousResults(ctx)).isFalse();
+  }
+
   private InputFileContext createInputFileContext(String code, InputFile.Type fileType, boolean detectedAsTestFile) {
+    return createInputFileContext(code, fileType, detectedAsTestFile, InputFile.Status.ADDED);
+  }
+
+  private InputFileContext createInputFileContext(String code, InputFile.Type fileType, boolean detectedAsTestFile, InputFile.Status status) {
     InputFile inputFile = new TestInputFileBuilder("moduleKey", "myFile.go")
       .setCharset(StandardCharsets.UTF_8)
       .setType(fileType)
+      .setStatus(status)
       .initMetadata(code)
       .build();
     return new InputFileContext(sensorContext, inputFile, detectedAsTestFile);
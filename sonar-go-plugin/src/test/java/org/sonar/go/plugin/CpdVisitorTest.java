@@ -43,6 +43,8 @@ import org.sonar.api.testfixtures.log.LogTesterJUnit5;
 import org.sonar.duplications.internal.pmd.TokensLine;
 import org.sonar.go.impl.TextRangeImpl;
 import org.sonar.go.impl.TokenImpl;
+import org.sonar.go.impl.TopLevelTreeImpl;
+import org.sonar.go.impl.TreeMetaDataProvider;
 import org.sonar.go.plugin.caching.DummyReadCache;
 import org.sonar.go.plugin.caching.DummyWriteCache;
 import org.sonar.go.testing.TestGoConverterSingleFile;
@@ -122,6 +124,35 @@ class CpdVisitorTest {
     assertThat(cpdTokenLines.get(5).getEndUnit()).isEqualTo(21);
   }
 
+  @Test
+  void should_skip_the_tokens_before_the_first_cpd_token(@TempDir File tempFolder) {
+    String content = "package main; var x = 1";
+    SensorContextTester sensorContext = SensorContextTester.create(tempFolder);
+    DefaultInputFile inputFile = new TestInputFileBuilder("moduleKey", "file.go")
+      .setContents(content)
+      .build();
+    var metaDataProvider = new TreeMetaDataProvider(Collections.emptyList(), List.of(
+      new TokenImpl(new TextRangeImpl(1, 0, 1, 7), "package", Token.Type.KEYWORD),
+      new TokenImpl(new TextRangeImpl(1, 8, 1, 12), "main", Token.Type.OTHER),
+      new TokenImpl(new TextRangeImpl(1, 12, 1, 13), ";", Token.Type.OTHER),
+      new TokenImpl(new TextRangeImpl(1, 14, 1, 17), "var", Token.Type.KEYWORD),
+      new TokenImpl(new TextRangeImpl(1, 18, 1, 19), "x", Token.Type.OTHER),
+      new TokenImpl(new TextRangeImpl(1, 20, 1, 21), "=", Token.Type.OTHER),
+      new TokenImpl(new TextRangeImpl(1, 22, 1, 23), "1", Token.Type.OTHER)));
+    // An equal token, but not the instance held by the metadata
+    var firstCpdToken = new TokenImpl(new TextRangeImpl(1, 14, 1, 17), "var", Token.Type.KEYWORD);
+    Tree root = new TopLevelTreeImpl(metaDataProvider.metaData(new TextRangeImpl(1, 0, 1, 23)), Collections.emptyList(),
+      Collections.emptyList(), firstCpdToken);
+
+    new CpdVisitor().scan(new InputFileContext(sensorContext, inputFile), root);
+
+    List<TokensLine> cpdTokenLines = sensorContext.cpdTokens(inputFile.key());
+    assertThat(cpdTokenLines).hasSize(1);
+    assertThat(cpdTokenLines.get(0).getValue()).isEqualTo("varx=1");
+    assertThat(cpdTokenLines.get(0).getStartUnit()).isEqualTo(1);
+    assertThat(cpdTokenLines.get(0).getEndUnit()).isEqualTo(4);
+  }
+
   @Nested
   class BranchAnalysisContext {
     private static final List<Token> EXPECTED_TOKENS = List.of(
@@ -61,6 +61,18 @@ class DurationStatisticsTest {
     assertThat(logTester.logs(Level.INFO).get(0)).isEqualTo("Duration Statistics, B 15'000 ms, A 12 ms");
   }
 
+  @Test
+  void statistics_format_with_hit_rate() {
+    sensorContext.settings().setProperty("sonar.go.duration.statistics", "true");
+    DurationStatistics statistics = new DurationStatistics(sensorContext.config());
+    statistics.store("A", 12_000_000L);
+    statistics.storeHitRate("string pool", 750L, 1_000L);
+    statistics.storeHitRate("unused pool", 0L, 0L);
+    statistics.log();
+    assertThat(logTester.logs(Level.INFO)).hasSize(1);
+    assertThat(logTester.logs(Level.INFO).get(0)).isEqualTo("Duration Statistics, A 12 ms, string pool 75% of 1'000 lookups");
+  }
+
   private void fillStatistics(DurationStatistics statistics) {
     StringBuilder txt = new StringBuilder();
     statistics.time("A", () -> txt.append("1")).append(2);
@@ -147,4 +147,31 @@ class GoModFileDataStoreTest {
 
     assertThat(store.collectGoVersions()).containsExactly(externalVersion);
   }
+
+  @Test
+  void shouldShareTheLookupOfTheFilesOfADirectory() {
+    var dataWithKnownVersion = new GoModFileData("mymodule", GoVersion.parse("1.20"), Collections.emptyList(), "/path/go.mod");
+    GoModFileDataStore store = new GoModFileDataStore();
+    store.addGoModFile(URI.create("/path/go.mod"), dataWithKnownVersion);
+    store.complete();
+    store.setExternalGoVersion(GoVersion.parse("1.21"));
+
+    var result = store.retrieveClosestGoModFileDataOfFile(URI.create("file:/path/sub/file1.go"));
+    assertThat(result.moduleName()).isEqualTo("mymodule");
+    assertThat(store.retrieveClosestGoModFileDataOfFile(URI.create("file:/path/sub/file2.go"))).isSameAs(result);
+    assertThat(store.retrieveClosestGoModFileDataOfFile(URI.create("file:/path/other/file1.go"))).isNotSameAs(result);
+    assertThat(store.retrieveClosestGoModFileDataOfFile(URI.create("file:/file.go")).moduleName()).isEmpty();
+  }
+
+  @Test
+  void shouldForgetTheLookupsWhenTheStoreIsModified() {
+    GoModFileDataStore store = new GoModFileDataStore();
+    store.addGoModFile(URI.create("/path/go.mod"), goModeFileData1);
+    assertThat(store.retrieveClosestGoModFileDataOfFile(URI.create("file:/path/to/subfolder/file.go"))).isEqualTo(goModeFileData1);
+
+    store.addGoModFile(URI.create("/path/to/subfolder/go.mod"), goModeFileData2);
+    store.complete();
+
+    assertThat(store.retrieveClosestGoModFileDataOfFile(URI.create("file:/path/to/subfolder/file.go"))).isEqualTo(goModeFileData2);
+  }
 }
@@ -25,6 +25,7 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterEach;
@@ -45,10 +46,14 @@ import org.sonar.api.measures.FileLinesContextFactory;
 import org.sonar.api.testfixtures.log.LogTesterJUnit5;
 import org.sonar.api.utils.Version;
 import org.sonar.go.converter.GoConverter;
+import org.sonar.go.converter.GoParseCommand;
+import org.sonar.go.plugin.caching.CacheHandler;
 import org.sonar.go.plugin.caching.DummyReadCache;
 import org.sonar.go.plugin.caching.DummyWriteCache;
 import org.sonar.go.report.GoProgressReport;
 import org.sonar.go.testing.TestGoConverterSingleFile;
+import org.sonar.plugins.go.api.ASTConverter;
+import org.sonar.plugins.go.api.TopLevelTree;
 import org.sonar.plugins.go.api.Tree;
 import org.sonar.scanner.plugin.api.impl.config.MapSettings;
 import org.sonar.scanner.plugin.api.impl.internal.SonarRuntimeImpl;
@@ -151,7 +156,7 @@ class GoSensorPullRequestTest {
       sensorContext,
       "MyModuleName");
     verify(visitor).reusePreviousResults(inputFileContext);
-    verify(converter, never()).parse(anyMap(), anyString());
+    verify(converter, never()).parse(anyMap(), anyMap(), anyString(), any());
     assertThat(logTester.logs(Level.DEBUG)).contains(
       "Checking that previous results can be reused for input file moduleKey:file1.go.",
       "Skipping input file moduleKey:file1.go (status is unchanged).");
@@ -174,7 +179,7 @@ class GoSensorPullRequestTest {
       sensorContext,
       "MyModuleName");
     verify(visitor).reusePreviousResults(inputFileContext);
-    verify(converter).parse(anyMap(), anyString());
+    verify(converter).parse(anyMap(), anyMap(), anyString(), any());
     assertThat(logTester.logs(Level.DEBUG)).contains(
       "Checking that previous results can be reused for input file moduleKey:file1.go.",
       "Visitor FailingToReuseVisitor failed to reuse previous results for input file moduleKey:file1.go.",
@@ -199,7 +204,7 @@ class GoSensorPullRequestTest {
       sensorContext,
       "MyModuleName");
     verify(visitor, never()).reusePreviousResults(inputFileContext);
-    verify(converter).parse(anyMap(), anyString());
+    verify(converter).parse(anyMap(), anyMap(), anyString(), any());
     assertThat(logTester.logs(Level.DEBUG)).doesNotContain(
       "Skipping input file moduleKey:file1.go (status is unchanged).");
     verify(nextCache, never()).copyFromPrevious(hashKey);
@@ -228,7 +233,7 @@ class GoSensorPullRequestTest {
       sensorContext,
       "MyModuleName");
     verify(visitor, never()).reusePreviousResults(inputFileContext);
-    verify(converter).parse(anyMap(), anyString());
+    verify(converter).parse(anyMap(), anyMap(), anyString(), any());
     assertThat(logTester.logs(Level.DEBUG))
       .doesNotContain("Skipping input file moduleKey:file1.go (status is unchanged).")
       .contains("File moduleKey:file1.go is considered changed: file status is CHANGED.");
@@ -259,7 +264,7 @@ class GoSensorPullRequestTest {
       sensorContext,
       "MyModuleName");
     verify(visitor, never()).reusePreviousResults(inputFileContext);
-    verify(converter).parse(anyMap(), anyString());
+    verify(converter).parse(anyMap(), anyMap(), anyString(), any());
     assertThat(logTester.logs(Level.DEBUG)).doesNotContain("Skipping input file moduleKey:file1.go (status is unchanged).");
 
     verify(nextCache, never()).copyFromPrevious(hashKey);
@@ -281,7 +286,7 @@ class GoSensorPullRequestTest {
       sensorContext,
       "MyModuleName");
     verify(visitor, never()).reusePreviousResults(inputFileContext);
-    verify(converter).parse(anyMap(), anyString());
+    verify(converter).parse(anyMap(), anyMap(), anyString(), any());
     assertThat(logTester.logs(Level.DEBUG))
       .doesNotContain("Skipping input file moduleKey:file1.go (status is unchanged).")
       .contains("File moduleKey:file1.go is considered changed: hash cache is disabled.");
@@ -305,7 +310,7 @@ class GoSensorPullRequestTest {
       sensorContext,
       "MyModuleName");
     verify(visitor, never()).reusePreviousResults(inputFileContext);
-    verify(converter).parse(anyMap(), anyString());
+    verify(converter).parse(anyMap(), anyMap(), anyString(), any());
     assertThat(logTester.logs(Level.DEBUG))
       .doesNotContain("Skipping input file moduleKey:file1.go (status is unchanged).")
       .contains("File moduleKey:file1.go is considered changed: hash could not be found in the cache.");
@@ -338,7 +343,7 @@ class GoSensorPullRequestTest {
       sensorContext,
       "MyModuleName");
     verify(visitor, never()).reusePreviousResults(inputFileContext);
-    verify(converter).parse(anyMap(), anyString());
+    verify(converter).parse(anyMap(), anyMap(), anyString(), any());
     assertThat(logTester.logs(Level.DEBUG))
       .doesNotContain("Skipping input file moduleKey:file1.go (status is unchanged).")
       .contains("File moduleKey:file1.go is considered changed: failed to read hash from the cache.");
@@ -361,7 +366,7 @@ class GoSensorPullRequestTest {
       "MyModuleName");
     verify(visitor).reusePreviousResults(inputFileContext);
     verify(failing).reusePreviousResults(inputFileContext);
-    verify(converter).parse(anyMap(), anyString());
+    verify(converter).parse(anyMap(), anyMap(), anyString(), any());
     verify(visitor, never()).scan(eq(inputFileContext), any(Tree.class));
     verify(failing).scan(eq(inputFileContext), any(Tree.class));
     assertThat(logTester.logs(Level.DEBUG)).doesNotContain(
@@ -408,6 +413,86 @@ class GoSensorPullRequestTest {
     verify(spyContext).addTelemetryProperty("go.processed_files_count", expectedProcessed);
   }
 
+  @Test
+  void shouldSendTheSkippedFilesToTheConverterAsContextFiles() {
+    var changedContent = "package main\nfunc other() {}\n";
+    InputFile changedFile = createInputFile("file2.go", changedContent, baseDir, InputFile.Status.CHANGED, null);
+    sensorContext.fileSystem().add(changedFile);
+    goProgressReport.start(goFolders);
+    sensor.analyseDirectory(
+      converter,
+      List.of(inputFileContext, new InputFileContext(sensorContext, changedFile)),
+      List.of(visitor),
+      new GoProgressReport("Analysis progress", TimeUnit.SECONDS.toMillis(10)),
+      new DurationStatistics(sensorContext.config()),
+      sensorContext,
+      "MyModuleName");
+    verify(converter).parse(eq(Map.of(changedFile.toString(), changedContent)), eq(Map.of(inputFile.toString(), ORIGINAL_FILE_CONTENT)),
+      eq("MyModuleName"), any());
+  }
+
+  @Test
+  void shouldNotParseTheUnchangedFilesOfAPackageWhenOnlyAFunctionBodyChanged() {
+    var converterMock = mock(ASTConverter.class);
+    analyseWithChangedSibling("package main\nfunc other() {\n\tprintln(1)\n}\n", "package main\nfunc other() {\n\tprintln(2)\n}\n", converterMock);
+
+    assertThat(logTester.logs(Level.DEBUG)).contains("Skipping input file moduleKey:file1.go (status is unchanged).");
+    verify(converterMock).parse(eq(Map.of("file2.go", "package main\nfunc other() {\n\tprintln(2)\n}\n")), anyMap(), eq("MyModuleName"), any());
+  }
+
+  @Test
+  void shouldParseTheUnchangedFilesOfAPackageWhenADeclarationChanged() {
+    var converterMock = mock(ASTConverter.class);
+    analyseWithChangedSibling("package main\nfunc other() {\n}\n", "package main\nfunc other() int {\n\treturn 1\n}\n", converterMock);
+
+    assertThat(logTester.logs(Level.DEBUG)).contains("Visitor ChecksVisitor failed to reuse previous results for input file moduleKey:file1.go.");
+    verify(converterMock).parse(eq(Map.of("file1.go", ORIGINAL_FILE_CONTENT, "file2.go", "package main\nfunc other() int {\n\treturn 1\n}\n")),
+      eq(Map.of()), eq("MyModuleName"), any());
+  }
+
+  @Test
+  void shouldTypeCheckTheChangedFileWithItsUnchangedSiblingsAsContextFiles() throws IOException {
+    var command = mock(GoParseCommand.class);
+    var changedContent = "package main\nfunc other() {\n\tprintln(2)\n}\n";
+    analyseWithChangedSibling("package main\nfunc other() {\n\tprintln(1)\n}\n", changedContent, new GoConverter(command));
+
+    verify(command).executeGoParseCommandStreaming(eq(Map.of("file2.go", changedContent)), eq(Map.of("file1.go", ORIGINAL_FILE_CONTENT)),
+      eq("MyModuleName"), any());
+  }
+
+  /**
+   * Records the issues of "file1.go" in a previous analysis, where "file2.go" had its previous content, then analyzes both
+   * files with "file2.go" changed.
+   */
+  private void analyseWithChangedSibling(String previousContent, String changedContent, ASTConverter converterMock) {
+    var previousAnalysis = SensorContextTester.create(baseDir);
+    previousAnalysis.setCacheEnabled(true);
+    var previousAnalysisCache = new DummyWriteCache();
+    previousAnalysis.setNextCache(previousAnalysisCache);
+    var previousFile = new InputFileContext(previousAnalysis, inputFile);
+    var previousSibling = new InputFileContext(previousAnalysis, createInputFile("file2.go", previousContent, baseDir));
+    CacheHandler.filterOutFilesFromCache(List.of(previousFile, previousSibling), List.of());
+    newChecksVisitor().scan(previousFile, mock(TopLevelTree.class));
+    var previousCache = (DummyReadCache) sensorContext.previousCache();
+    previousCache.persisted.putAll(previousAnalysisCache.persisted);
+
+    var changedFile = createInputFile("file2.go", changedContent, baseDir, InputFile.Status.CHANGED, null);
+    sensorContext.fileSystem().add(changedFile);
+    goProgressReport.start(goFolders);
+    sensor.analyseDirectory(
+      converterMock,
+      List.of(inputFileContext, new InputFileContext(sensorContext, changedFile)),
+      List.of(newChecksVisitor()),
+      new GoProgressReport("Analysis progress", TimeUnit.SECONDS.toMillis(10)),
+      new DurationStatistics(sensorContext.config()),
+      sensorContext,
+      "MyModuleName");
+  }
+
+  private ChecksVisitor newChecksVisitor() {
+    return new ChecksVisitor(mock(GoChecks.class), new DurationStatistics(sensorContext.config()), mock(GoModFileDataStore.class), false);
+  }
+
   static Stream<Arguments> shouldSendReadFromCacheAndProcessedFilesCountTelemetry() {
     return Stream.of(
       Arguments.of(true, "1", "1"),
@@ -30,6 +30,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
@@ -51,6 +52,7 @@ import org.sonar.api.batch.fs.TextPointer;
 import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.batch.rule.Checks;
+import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.error.AnalysisError;
 import org.sonar.api.batch.sensor.highlighting.TypeOfText;
 import org.sonar.api.batch.sensor.issue.Issue;
@@ -66,6 +68,8 @@ import org.sonar.go.converter.GoConverter;
 import org.sonar.go.converter.GoParseCommand;
 import org.sonar.go.testing.TestInputFileCreator;
 import org.sonar.go.testing.TextRangeAssert;
+import org.sonar.go.visitors.SymbolVisitor;
+import org.sonar.go.visitors.TreeVisitor;
 import org.sonar.plugins.go.api.ParseException;
 import org.sonar.plugins.go.api.TopLevelTree;
 import org.sonar.plugins.go.api.Tree;
@@ -1313,6 +1317,216 @@ class GoSensorTest {
     assertThat(issues).isEmpty();
   }
 
+  @Test
+  void testParallelAnalysisOfSeveralDirectories() {
+    for (int i = 0; i < 6; i++) {
+      context.fileSystem().add(createInputFile("dir" + i + "/file.go", """
+        package main
+
+        func test() {
+         x := ((2 + 3))
+        }""", baseDir));
+    }
+    context.settings().setProperty("sonar.go.analysis.threads", "3");
+    context.setRuntime(SQ_LTS_RUNTIME);
+    var goProjectSensor = new GoProjectSensor();
+
+    sensorWithProjectSensor(goProjectSensor, "S1110").execute(context);
+
+    assertThat(context.allIssues()).hasSize(6);
+    assertThat(context.allIssues()).extracting(issue -> issue.primaryLocation().inputComponent().key())
+      .doesNotHaveDuplicates();
+    assertThat(logTester.logs(Level.INFO)).contains(
+      "Analyzing the 6 folders with 3 threads",
+      "6/6 folders (6 files) have been analyzed");
+    var spyContext = spy(context);
+    goProjectSensor.execute(spyContext);
+    verify(spyContext).addTelemetryProperty("go.processed_files_count", "6");
+  }
+
+  @Test
+  void testParallelAnalysisCancellation() {
+    context.fileSystem().add(createInputFile("dir1/file1.go", "package main\nfunc main() {\nprint (1 == 1);}", baseDir));
+    context.fileSystem().add(createInputFile("dir2/file2.go", "package main\nfunc main() {\nprint (1 == 1);}", baseDir));
+    context.settings().setProperty("sonar.go.analysis.threads", "2");
+    context.setCancelled(true);
+
+    sensor(checkFactory("S1764")).execute(context);
+
+    assertThat(context.allIssues()).isEmpty();
+  }
+
+  @Test
+  void testPipelinedAnalysisOfSeveralDirectories() {
+    for (int i = 0; i < 5; i++) {
+      context.fileSystem().add(createInputFile("dir" + i + "/file.go", """
+        package main
+
+        func test() {
+         x := ((2 + 3))
+        }""", baseDir));
+    }
+    context.fileSystem().add(createInputFile("dir5/file.go", "package main\nfunc main() {", baseDir));
+    context.settings().setProperty("sonar.go.analysis.pipeline", "true");
+    context.settings().setProperty("sonar.go.duration.statistics", "true");
+    context.setRuntime(SQ_LTS_RUNTIME);
+
+    sensor("S1110", "S2260").execute(context);
+
+    assertThat(context.allIssues()).extracting(issue -> issue.ruleKey().rule())
+      .containsExactlyInAnyOrder("S1110", "S1110", "S1110", "S1110", "S1110", "S2260");
+    assertThat(logTester.logs(Level.INFO))
+      .contains("6/6 folders (6 files) have been analyzed")
+      .anyMatch(log -> log.startsWith("Duration Statistics") && log.contains("Parse overlapped with visit"));
+    assertThat(logTester.logs(Level.DEBUG)).anyMatch(log -> log.startsWith("Parsing overlapped with the visit of the trees during"));
+  }
+
+  @Test
+  void shouldReportTheSameResultsWithAndWithoutFusedVisit() {
+    var code = """
+      package main
+
+      // TODO remove the duplicated condition
+      func test(a int, b int) int {
+        if a == a {
+          x := ((a + b))
+          return x
+        }
+        if b > 0 {
+          if a > 0 {
+            return 1
+          }
+        }
+        return 0
+      }""";
+
+    var fused = analysisResults(code, true);
+
+    assertThat(fused).contains("S1135:3", "S1764:5", "S1110:6", "ncloc=13", "cpdTokens=1");
+    assertThat(analysisResults(code, false)).isEqualTo(fused);
+  }
+
+  @Test
+  void shouldReportTheDurationOfEachVisitorWithFusedVisit() {
+    context.fileSystem().add(createInputFile("file1.go", "package main\nfunc main() {\nprint (1 == 1)}", baseDir));
+    context.settings().setProperty("sonar.go.duration.statistics", "true");
+    context.setRuntime(SQ_LTS_RUNTIME);
+
+    sensor("S1764").execute(context);
+
+    assertThat(logTester.logs(Level.INFO))
+      .anyMatch(log -> log.startsWith("Duration Statistics") && log.contains("SymbolVisitor") && log.contains("ChecksVisitor") && log.contains("S1764"));
+  }
+
+  @Test
+  void testFailureInCheckWithoutFusedVisit() {
+    InputFile inputFile = createInputFile("file1.go", """
+      package main
+      func f() {}""", baseDir);
+    context.fileSystem().add(inputFile);
+    context.settings().setProperty("sonar.go.analysis.fusedVisit", "false");
+    sensor(List.of(FailingCheck.class), Collections.emptyList()).execute(context);
+
+    assertThat(context.allAnalysisErrors()).extracting(AnalysisError::inputFile).containsExactly(inputFile);
+    assertThat(logTester.logs()).contains("Cannot analyse 'file1.go': BOUM");
+  }
+
+  @Test
+  void shouldVisitTheChecksAfterTheVisitorsTheyDependOn() {
+    var symbolVisitor = new SymbolVisitor<InputFileContext>();
+    var checksVisitor = new ChecksVisitor(new GoChecks(checkFactory()), new DurationStatistics(context.config()), new GoModFileDataStore(), true);
+    var cpdVisitor = new CpdVisitor();
+
+    assertThat(GoSensor.fusedTraversals(List.of(symbolVisitor, checksVisitor, cpdVisitor)))
+      .containsExactly(List.of(symbolVisitor), List.of(checksVisitor, cpdVisitor));
+    assertThat(GoSensor.fusedTraversals(List.of(symbolVisitor, cpdVisitor)))
+      .containsExactly(List.of(symbolVisitor, cpdVisitor), List.of());
+  }
+
+  private List<String> analysisResults(String code, boolean fusedVisit) {
+    var analysisContext = SensorContextTester.create(baseDir);
+    analysisContext.settings().setProperty("sonar.go.analysis.fusedVisit", fusedVisit);
+    analysisContext.setRuntime(SQ_LTS_RUNTIME);
+    var inputFile = createInputFile("file1.go", code, baseDir);
+    analysisContext.fileSystem().add(inputFile);
+
+    sensor("S1135", "S1764", "S1110", "S1066", "S3776").execute(analysisContext);
+
+    List<String> results = new ArrayList<>();
+    analysisContext.allIssues().stream()
+      .map(issue -> issue.ruleKey().rule() + ":" + issue.primaryLocation().textRange().start().line())
+      .sorted()
+      .forEach(results::add);
+    results.add("ncloc=" + analysisContext.measure(inputFile.key(), CoreMetrics.NCLOC).value());
+    results.add("cpdTokens=" + analysisContext.cpdTokens(inputFile.key()).size());
+    results.add("highlighting=" + analysisContext.highlightingTypeAt(inputFile.key(), 4, 0));
+    return results;
+  }
+
+  @Test
+  void testPipelinedAnalysisCancellation() {
+    context.fileSystem().add(createInputFile("dir1/file1.go", "package main\nfunc main() {\nprint (1 == 1);}", baseDir));
+    context.fileSystem().add(createInputFile("dir2/file2.go", "package main\nfunc main() {\nprint (1 == 1);}", baseDir));
+    context.settings().setProperty("sonar.go.analysis.pipeline", "true");
+    context.setCancelled(true);
+
+    sensor(checkFactory("S1764")).execute(context);
+
+    assertThat(context.allIssues()).isEmpty();
+  }
+
+  @Test
+  void shouldOnlyConvertTheFoldersInThePipelineThread() {
+    var goConverterMock = mock(GoConverter.class);
+    when(goConverterMock.isInitialized()).thenReturn(true);
+    Set<String> convertingThreads = ConcurrentHashMap.newKeySet();
+    when(goConverterMock.parse(any(), any(), anyString())).thenAnswer(invocation -> {
+      convertingThreads.add(Thread.currentThread().getName());
+      return Map.of();
+    });
+    Set<String> preparingThreads = ConcurrentHashMap.newKeySet();
+    var sensor = new GoSensor(checkFactory("S1764"), fileLinesContextFactory, new DefaultNoSonarFilter(), new GoLanguage(new MapSettings().asConfig()),
+      goConverterMock, new GoProjectSensor()) {
+      @Override
+      protected void beforeAnalyzeDirectory(SensorContext sensorContext, GoFolder goFolder, GoModFileDataStore goModFileDataStore) {
+        preparingThreads.add(Thread.currentThread().getName());
+      }
+    };
+    for (int i = 0; i < 3; i++) {
+      context.fileSystem().add(createInputFile("dir" + i + "/file.go", "package main\nfunc main() {}", baseDir));
+    }
+    context.settings().setProperty("sonar.go.analysis.pipeline", "true");
+
+    sensor.execute(context);
+
+    assertThat(convertingThreads).containsExactly("Go parsing pipeline");
+    assertThat(preparingThreads).containsExactly(Thread.currentThread().getName());
+  }
+
+  @Test
+  void testAnalysisThreadsProperty() {
+    assertThat(GoSensor.analysisThreads(context)).isEqualTo(1);
+    context.settings().setProperty("sonar.go.analysis.threads", "4");
+    assertThat(GoSensor.analysisThreads(context)).isEqualTo(4);
+    context.settings().setProperty("sonar.go.analysis.threads", "0");
+    assertThat(GoSensor.analysisThreads(context)).isEqualTo(1);
+    assertThat(logTester.logs(Level.WARN)).containsExactly("Invalid value for property 'sonar.go.analysis.threads': 0, the analysis will not be parallel");
+  }
+
+  @Test
+  void testConverterParallelism() {
+    assertThat(GoSensor.converterParallelism(1, 8)).isZero();
+    assertThat(GoSensor.converterParallelism(4, 8)).isEqualTo(2);
+    assertThat(GoSensor.converterParallelism(4, 6)).isEqualTo(1);
+    assertThat(GoSensor.converterParallelism(16, 8)).isEqualTo(1);
+  }
+
+  @Test
+  void testRequiredCapabilities() {
+    assertThat(GoSensor.requiredCapabilities(List.of(new TreeVisitor<>()))).isEmpty();
+    assertThat(GoSensor.requiredCapabilities(List.of(new TreeVisitor<>(), new SymbolVisitor<>()))).isEmpty();
+  }
+
   @Test
   void testSonarlintContext() {
     SensorContextTester goContext = SensorContextTester.create(baseDir);
@@ -154,6 +154,35 @@ class CacheHandlerTest {
     assertThat(result).isEmpty();
   }
 
+  @Test
+  void shouldNotReuseTheResultsOfVisitorsWhichDoNotVisitTheFile() {
+    var notApplicable = new FailingToReuseVisitor() {
+      @Override
+      public boolean isApplicableTo(InputFileContext ctx) {
+        return false;
+      }
+    };
+
+    Map<String, CacheEntry> result = CacheHandler.filterOutFilesFromCache(List.of(inputFileContext), List.of(notApplicable));
+
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  void shouldAssignTheHashOfThePackageToItsFiles() {
+    var otherFileContext = new InputFileContext(sensorContext, new TestInputFileBuilder(MODULE_KEY, "file2.go")
+      .setCharset(StandardCharsets.UTF_8)
+      .setContents("package main")
+      .build());
+
+    CacheHandler.filterOutFilesFromCache(List.of(inputFileContext, otherFileContext), List.of());
+    var packageHash = inputFileContext.packageHash();
+    assertThat(packageHash).isNotNull().isEqualTo(otherFileContext.packageHash());
+
+    CacheHandler.filterOutFilesFromCache(List.of(inputFileContext), List.of());
+    assertThat(inputFileContext.packageHash()).isNotEqualTo(packageHash);
+  }
+
   @Test
   void shouldReturnFilenameAndContent() {
     CacheEntry cacheEntry = new CacheEntry(inputFileContext, List.of());
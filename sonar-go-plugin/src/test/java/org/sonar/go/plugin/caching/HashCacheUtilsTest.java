@@ -22,6 +22,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 import org.junit.jupiter.api.BeforeEach;
@@ -246,4 +247,68 @@ class HashCacheUtilsTest {
     assertThat(logTester.logs(Level.WARN))
       .contains("Failed to convert hash from hexadecimal string to bytes for moduleKey:file1.slang.");
   }
+
+  @Test
+  void shouldRemoveTheBodiesOfTheFunctions() {
+    var content = """
+      package main
+
+      type T struct {
+      \tx int
+      }
+
+      func (t T) f(a int) int {
+      \treturn a + t.x
+      }
+
+      func g(
+      \tb string,
+      ) {
+      \tprintln(b)
+      }
+
+      func h() {}
+      """;
+
+    assertThat(HashCacheUtils.withoutFunctionBodies(content)).isEqualTo("""
+      package main
+
+      type T struct {
+      \tx int
+      }
+
+      func (t T) f(a int) int {
+
+      func g(
+      \tb string,
+      ) {
+
+      func h() {}
+
+      """);
+  }
+
+  @Test
+  void shouldKeepTheLinesOfTheFilesNotFormattedByGofmt() {
+    var content = "package main\nfunc f() {\n  return\n  }\ntype T int\n";
+
+    assertThat(HashCacheUtils.withoutFunctionBodies(content)).isEqualTo("package main\nfunc f() {\ntype T int\n\n");
+  }
+
+  @Test
+  void shouldOnlyChangeThePackageHashWhenADeclarationChanges() {
+    var original = packageHash("package main\n\nfunc f() int {\n\treturn 1\n}\n");
+
+    assertThat(packageHash("package main\n\nfunc f() int {\n\treturn 2\n}\n")).isEqualTo(original);
+    assertThat(packageHash("package main\n\nfunc f() string {\n\treturn \"1\"\n}\n")).isNotEqualTo(original);
+    assertThat(packageHash("package main\n\nfunc f() int {\n\treturn 1\n}\n\nvar x = f()\n")).isNotEqualTo(original);
+  }
+
+  private String packageHash(String otherFileContent) {
+    var otherFile = new TestInputFileBuilder(MODULE_KEY, "file2.go")
+      .setCharset(StandardCharsets.UTF_8)
+      .setContents(otherFileContent)
+      .build();
+    return HashCacheUtils.computePackageHash(List.of(inputFileContext, new InputFileContext(sensorContext, otherFile)));
+  }
 }
@@ -0,0 +1,172 @@
+/*
+ * SonarSource Go
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * You can redistribute and/or modify this program under the terms of
+ * the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.go.plugin.caching;
+
+import com.sonarsource.scanner.engine.sensor.test.fixtures.SensorContextTester;
+import com.sonarsource.scanner.engine.sensor.test.fixtures.TestInputFileBuilder;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.event.Level;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.testfixtures.log.LogTesterJUnit5;
+import org.sonar.go.impl.TextRangeImpl;
+import org.sonar.go.plugin.InputFileContext;
+import org.sonar.plugins.go.api.TextRange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultsCacheTest {
+  private static final String KEY = "slang:results:moduleKey:file1.go";
+
+  @RegisterExtension
+  public LogTesterJUnit5 logTester = new LogTesterJUnit5().setLevel(Level.DEBUG);
+
+  private SensorContextTester sensorContext;
+  private DummyReadCache previousCache;
+  private DummyWriteCache nextCache;
+  private InputFileContext inputFileContext;
+
+  @BeforeEach
+  void setup(@TempDir File tmpBaseDir) {
+    sensorContext = SensorContextTester.create(tmpBaseDir);
+    previousCache = new DummyReadCache();
+    nextCache = new DummyWriteCache();
+    nextCache.bind(previousCache);
+    sensorContext.setCacheEnabled(true);
+    sensorContext.setPreviousCache(previousCache);
+    sensorContext.setNextCache(nextCache);
+
+    InputFile inputFile = new TestInputFileBuilder("moduleKey", "file1.go")
+      .setModuleBaseDir(tmpBaseDir.toPath())
+      .setType(InputFile.Type.MAIN)
+      .setCharset(StandardCharsets.UTF_8)
+      .setContents("package main")
+      .setStatus(InputFile.Status.SAME)
+      .build();
+    inputFileContext = new InputFileContext(sensorContext, inputFile);
+  }
+
+  @Test
+  void shouldReplayTheWrittenResults() {
+    TextRange textRange = new TextRangeImpl(3, 4, 5, 6);
+    ResultsCache.write(inputFileContext, KEY, "validity", out -> {
+      out.writeString("message");
+      out.writeNullableString(null);
+      out.writeVarInt(300_000);
+      out.writeTextRange(textRange);
+      out.writeNullableTextRange(null);
+      out.writeSortedInts(Set.of(12, 3, 7));
+    });
+    previousCache.persisted.putAll(nextCache.persisted);
+    nextCache.persisted.clear();
+    List<Object> replayed = new ArrayList<>();
+
+    boolean success = ResultsCache.replay(inputFileContext, KEY, "validity", in -> {
+      var values = List.of(in.readString(), String.valueOf(in.readNullableString()), in.readVarInt(), in.readTextRange(),
+        String.valueOf(in.readNullableTextRange()), in.readSortedInts());
+      return () -> replayed.addAll(values);
+    });
+
+    assertThat(success).isTrue();
+    assertThat(replayed).containsExactly("message", "null", 300_000, textRange, "null", List.of(3, 7, 12));
+    assertThat(nextCache.persisted).containsKey(KEY);
+  }
+
+  @Test
+  void shouldWriteCompactRecords() {
+    ResultsCache.write(inputFileContext, KEY, "", out -> {
+      out.writeTextRange(new TextRangeImpl(100, 10, 100, 20));
+      out.writeSortedInts(List.of(1000, 1001, 1002));
+    });
+
+    // Version, validity key, text range and lines
+    assertThat(nextCache.persisted.get(KEY)).hasSize(1 + 1 + 4 + 5);
+  }
+
+  @Test
+  void shouldNotWriteWhenTheCacheIsDisabled() {
+    sensorContext.setCacheEnabled(false);
+
+    ResultsCache.write(inputFileContext, KEY, "validity", out -> out.writeVarInt(1));
+
+    assertThat(nextCache.persisted).isEmpty();
+  }
+
+  @Test
+  void shouldNotReplayMissingResults() {
+    assertThat(ResultsCache.replay(inputFileContext, KEY, "validity", in -> () -> {
+    })).isFalse();
+    assertThat(logTester.logs(Level.DEBUG)).contains("No cached results with key " + KEY + " for input file moduleKey:file1.go.");
+  }
+
+  @Test
+  void shouldNotReplayOutdatedResults() {
+    ResultsCache.write(inputFileContext, KEY, "old validity", out -> out.writeVarInt(1));
+    previousCache.persisted.putAll(nextCache.persisted);
+    nextCache.persisted.clear();
+    List<Integer> replayed = new ArrayList<>();
+
+    boolean success = ResultsCache.replay(inputFileContext, KEY, "new validity", in -> {
+      int value = in.readVarInt();
+      return () -> replayed.add(value);
+    });
+
+    assertThat(success).isFalse();
+    assertThat(replayed).isEmpty();
+    assertThat(nextCache.persisted).isEmpty();
+  }
+
+  @Test
+  void shouldNotReplayCorruptedResults() {
+    ResultsCache.write(inputFileContext, KEY, "validity", out -> out.writeString("truncated"));
+    var record = nextCache.persisted.get(KEY);
+    previousCache.persisted.put(KEY, Arrays.copyOf(record, record.length - 2));
+    List<String> replayed = new ArrayList<>();
+
+    boolean success = ResultsCache.replay(inputFileContext, KEY, "validity", in -> {
+      var value = in.readString();
+      return () -> replayed.add(value);
+    });
+
+    assertThat(success).isFalse();
+    assertThat(replayed).isEmpty();
+    assertThat(logTester.logs(Level.WARN)).anyMatch(log -> log.startsWith("Failed to load cached results with key " + KEY));
+  }
+
+  @Test
+  void shouldNotReplayWhenTheResultsCannotBeCopied() {
+    ResultsCache.write(inputFileContext, KEY, "validity", out -> out.writeVarInt(1));
+    previousCache.persisted.putAll(nextCache.persisted);
+    List<Integer> replayed = new ArrayList<>();
+
+    boolean success = ResultsCache.replay(inputFileContext, KEY, "validity", in -> {
+      int value = in.readVarInt();
+      return () -> replayed.add(value);
+    });
+
+    assertThat(success).isFalse();
+    assertThat(replayed).isEmpty();
+  }
+}
@@ -101,6 +101,65 @@ class GoProgressReportTest {
         "2 / 2 folders analyzed, current folder: folder2 (5 files, caching)");
   }
 
+  @Test
+  void shouldReportAllFoldersInProgressInConcurrentMode() throws InterruptedException {
+    progressReport = new GoProgressReport("test-thread", 100_000);
+    var folder1 = new GoFolder("folder1", inputFileContexts(3));
+    var folder2 = new GoFolder("folder2", inputFileContexts(1));
+    var folder3 = new GoFolder("folder3", inputFileContexts(5));
+    progressReport.startConcurrent(List.of(folder1, folder2, folder3));
+    assertThat(progressReport.concurrentProgressMessage()).isEqualTo("0 / 3 folders analyzed");
+
+    progressReport.startFolder(folder1);
+    progressReport.setStep(GoProgressReport.Step.PARSING);
+    var otherThread = new Thread(() -> {
+      progressReport.startFolder(folder2);
+      progressReport.setStep(GoProgressReport.Step.ANALYZING);
+    });
+    otherThread.start();
+    otherThread.join();
+
+    assertThat(progressReport.concurrentProgressMessage())
+      .isEqualTo("0 / 3 folders analyzed, current folders: folder1 (3 files, parsing), folder2 (1 file, analyzing)");
+
+    progressReport.finishFolder();
+    assertThat(progressReport.concurrentProgressMessage())
+      .isEqualTo("1 / 3 folder analyzed, current folder: folder2 (1 file, analyzing)");
+
+    progressReport.startFolder(folder3);
+    progressReport.finishFolder();
+    progressReport.stop();
+    assertThat(logTester.logs(Level.INFO))
+      .containsExactly(
+        "3 folders (9 files) to be analyzed",
+        "3/3 folders (9 files) have been analyzed");
+  }
+
+  @Test
+  void shouldIgnoreFinishFolderWithoutStartInConcurrentMode() {
+    progressReport = new GoProgressReport("test-thread", 100_000);
+    progressReport.startConcurrent(List.of(new GoFolder("folder1", inputFileContexts(3))));
+
+    progressReport.setStep(GoProgressReport.Step.PARSING);
+    progressReport.finishFolder();
+
+    assertThat(progressReport.concurrentProgressMessage()).isEqualTo("0 / 1 folders analyzed");
+  }
+
+  @Test
+  void shouldLogPeriodicMessagesInConcurrentMode() {
+    progressReport = new GoProgressReport("test-thread", 150);
+    var folder1 = new GoFolder("folder1", inputFileContexts(3));
+    progressReport.startConcurrent(List.of(folder1, new GoFolder("folder2", inputFileContexts(5))));
+    progressReport.startFolder(folder1);
+
+    waitNextLog();
+    assertThat(logTester.logs(Level.INFO))
+      .containsExactly(
+        "2 folders (8 files) to be analyzed",
+        "0 / 2 folders analyzed, current folder: folder1 (3 files)");
+  }
+
   @Test
   void shouldLogFinalMessagesOnStopOneFolder() {
     progressReport = new GoProgressReport("test-thread", 150);
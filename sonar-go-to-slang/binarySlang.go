@@ -0,0 +1,329 @@
+// SonarSource Go
+// Copyright (C) SonarSource Sàrl
+// mailto:info AT sonarsource DOT com
+//
+// You can redistribute and/or modify this program under the terms of
+// the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+// See the Sonar Source-Available License for more details.
+//
+// You should have received a copy of the Sonar Source-Available License
+// along with this program; if not, see https://sonarsource.com/license/ssal/
+
+package main
+
+import (
+	"bytes"
+	"encoding/binary"
+	"fmt"
+	"go/token"
+	"go/types"
+	"strings"
+)
+
+// Binary counterpart of the JSON document produced by toSlangJson, decoded on the Java side by
+// org.sonar.go.persistence.BinaryTree. It has the same structure (objects, arrays, strings, numbers...) but:
+// - every string (object keys, "@type" values, token texts...) is written once, and then referenced by its index
+// - text ranges are written as 4 varints instead of "line:column::column" strings
+// - numbers and lengths are varints
+//
+// The byte format is:
+// document := magic value
+// magic    := "SLB1"
+// value    := tag (1 byte) payload
+//   binaryTagNull, binaryTagFalse, binaryTagTrue: no payload
+//   binaryTagInt: zigzag varint
+//   binaryTagString: string reference
+//   binaryTagRange: start line, start column, end line - start line, end column (varints, columns are 0-based)
+//   binaryTagArray: count (varint), count values
+//   binaryTagObject: count (varint), count times: key (string reference), value
+// string reference := 0 (varint) length (varint) UTF-8 bytes, for a new string which gets the next index in the table
+//                   | index + 1 (varint), for a string already written
+const binaryMagic = "SLB1"
+
+const (
+	binaryTagNull byte = iota
+	binaryTagFalse
+	binaryTagTrue
+	binaryTagInt
+	binaryTagString
+	binaryTagRange
+	binaryTagArray
+	binaryTagObject
+)
+
+type binarySlangWriter struct {
+	buf     bytes.Buffer
+	strings map[string]int
+	scratch [binary.MaxVarintLen64]byte
+}
+
+func newBinarySlangWriter() *binarySlangWriter {
+	w := &binarySlangWriter{strings: make(map[string]int)}
+	w.buf.WriteString(binaryMagic)
+	return w
+}
+
+type slangFile struct {
+	tree     *Node
+	comments []*Node
+	tokens   []*Token
+	errMsg   *string
+}
+
+// toSlangBinary converts the files concurrently, and writes them in the order of their names. The document has a single
+// string table, so the files are written one after the other by the calling goroutine.
+func toSlangBinary(fileSet *token.FileSet, astFiles map[string]AstFileOrError, fileContents map[string]string, info *types.Info, moduleName string, capabilities conversionCapabilities, parallelism int) []byte {
+	usesByPos := buildUsesByPos(info)
+	fileNames := sortedFileNames(astFiles)
+	w := newBinarySlangWriter()
+	w.writeObjectHeader(len(fileNames))
+	_ = convertConcurrently(len(fileNames), parallelism, func(i int) slangFile {
+		astFile := astFiles[fileNames[i]]
+		slangTree, comments, tokens, errMsg := toSlangTree(fileSet, &astFile, fileContents[fileNames[i]], info, moduleName, capabilities, usesByPos)
+		return slangFile{slangTree, comments, tokens, errMsg}
+	}, func(i int, file slangFile) error {
+		w.writeString(fileNames[i])
+		w.writeFile(file.tree, file.comments, file.tokens, file.errMsg)
+		return nil
+	})
+	return w.buf.Bytes()
+}
+
+// toSlangBinaryPerFile is the streaming variant of toSlangBinary: each file is written in its own document, with its own
+// string table, and passed to "emit" in the order of the file names, as soon as it and the previous ones are converted.
+func toSlangBinaryPerFile(fileSet *token.FileSet, astFiles map[string]AstFileOrError, fileContents map[string]string, info *types.Info, moduleName string, capabilities conversionCapabilities, parallelism int, emit func([]byte) error) error {
+	usesByPos := buildUsesByPos(info)
+	fileNames := sortedFileNames(astFiles)
+	return convertConcurrently(len(fileNames), parallelism, func(i int) []byte {
+		astFile := astFiles[fileNames[i]]
+		slangTree, comments, tokens, errMsg := toSlangTree(fileSet, &astFile, fileContents[fileNames[i]], info, moduleName, capabilities, usesByPos)
+		w := newBinarySlangWriter()
+		w.writeObjectHeader(1)
+		w.writeString(fileNames[i])
+		w.writeFile(slangTree, comments, tokens, errMsg)
+		return w.buf.Bytes()
+	}, func(i int, document []byte) error {
+		return emit(document)
+	})
+}
+
+func (w *binarySlangWriter) writeFile(node *Node, comments []*Node, tokens []*Token, errMsg *string) {
+	w.writeObjectHeader(3)
+	w.writeString("treeMetaData")
+	w.writeObjectHeader(2)
+	w.writeString("comments")
+	w.writeArrayHeader(len(comments))
+	for _, comment := range comments {
+		w.writeComment(comment)
+	}
+	w.writeString("tokens")
+	w.writeArrayHeader(len(tokens))
+	for _, tok := range tokens {
+		w.writeToken(tok)
+	}
+	w.writeString("tree")
+	w.writeNode(node)
+	w.writeString("error")
+	if errMsg == nil {
+		w.buf.WriteByte(binaryTagNull)
+	} else {
+		w.writeStringValue(*errMsg)
+	}
+}
+
+func (w *binarySlangWriter) writeComment(comment *Node) {
+	text := comment.Token.Value
+	var contentText string
+
+	textRange := comment.TextRange
+	textContentRange := TextRange(*textRange)
+	textContentRange.StartColumn = textContentRange.StartColumn + 2
+
+	if strings.HasPrefix(text, "//") {
+		contentText = text[2:]
+	} else if strings.HasPrefix(text, "/*") {
+		contentText = text[2 : len(text)-2]
+		textContentRange.EndColumn = textContentRange.EndColumn - 2
+	} else {
+		panic("Unknown comment content: " + text)
+	}
+
+	w.writeObjectHeader(4)
+	w.writeString("text")
+	w.writeStringValue(text)
+	w.writeString("contentText")
+	w.writeStringValue(contentText)
+	w.writeString("range")
+	w.writeRange(textRange)
+	w.writeString("contentRange")
+	w.writeRange(&textContentRange)
+}
+
+func (w *binarySlangWriter) writeToken(tok *Token) {
+	if tok.TokenType != other {
+		w.writeObjectHeader(3)
+	} else {
+		w.writeObjectHeader(2)
+	}
+	w.writeString("text")
+	w.writeStringValue(tok.Value)
+	w.writeString("textRange")
+	w.writeRange(tok.TextRange)
+	if tok.TokenType != other {
+		w.writeString("type")
+		w.writeStringValue(tok.TokenType)
+	}
+}
+
+func (w *binarySlangWriter) writeNode(node *Node) {
+	if node == nil {
+		w.buf.WriteByte(binaryTagNull)
+		return
+	}
+	// Same fields, in the same order, as marshalIndentSlang
+	sortedField := sortSlangField(node.SlangField)
+	fieldCount := 1
+	if node.TextRange != nil {
+		fieldCount++
+	}
+	for _, kv := range sortedField {
+		if !(kv.Key == nativeKind && kv.Value == "") {
+			fieldCount++
+		}
+	}
+
+	w.writeObjectHeader(fieldCount)
+	w.writeString("@type")
+	w.writeStringValue(node.SlangType)
+	if node.TextRange != nil {
+		w.writeString("metaData")
+		w.writeRange(node.TextRange)
+	}
+	for _, kv := range sortedField {
+		if kv.Key == nativeKind && kv.Value == "" {
+			continue
+		}
+		w.writeString(kv.Key)
+		w.writeValue(kv.Value)
+	}
+}
+
+func (w *binarySlangWriter) writeValue(obj interface{}) {
+	switch value := obj.(type) {
+	case nil:
+		w.buf.WriteByte(binaryTagNull)
+	case *Node:
+		w.writeNode(value)
+	case []*Node:
+		w.writeArrayHeader(len(value))
+		for _, child := range value {
+			w.writeNode(child)
+		}
+	case string:
+		w.writeStringValue(value)
+	case bool:
+		if value {
+			w.buf.WriteByte(binaryTagTrue)
+		} else {
+			w.buf.WriteByte(binaryTagFalse)
+		}
+	case int:
+		w.writeInt(int64(value))
+	case int32:
+		w.writeInt(int64(value))
+	case *TextRange:
+		w.writeRange(value)
+	case *CfgToJava:
+		w.writeCfg(value)
+	default:
+		panic(fmt.Sprintf("Unsupported slang field type: %T", obj))
+	}
+}
+
+// Same structure as the JSON serialization of CfgToJava: nil slices are null, as with encoding/json
+func (w *binarySlangWriter) writeCfg(cfg *CfgToJava) {
+	if cfg == nil {
+		w.buf.WriteByte(binaryTagNull)
+		return
+	}
+	w.writeObjectHeader(1)
+	w.writeString("Blocks")
+	if cfg.Blocks == nil {
+		w.buf.WriteByte(binaryTagNull)
+		return
+	}
+	w.writeArrayHeader(len(cfg.Blocks))
+	for _, block := range cfg.Blocks {
+		w.writeObjectHeader(2)
+		w.writeString("Node")
+		w.writeInt32Array(block.Node)
+		w.writeString("Successors")
+		w.writeInt32Array(block.Successors)
+	}
+}
+
+func (w *binarySlangWriter) writeInt32Array(values []int32) {
+	if values == nil {
+		w.buf.WriteByte(binaryTagNull)
+		return
+	}
+	w.writeArrayHeader(len(values))
+	for _, value := range values {
+		w.writeInt(int64(value))
+	}
+}
+
+func (w *binarySlangWriter) writeRange(textRange *TextRange) {
+	if textRange == nil {
+		w.buf.WriteByte(binaryTagNull)
+		return
+	}
+	// Columns are 0-based on the Java side, see TextRange.MarshalJSON
+	w.buf.WriteByte(binaryTagRange)
+	w.writeUvarint(uint64(textRange.StartLine))
+	w.writeUvarint(uint64(textRange.StartColumn - 1))
+	w.writeUvarint(uint64(textRange.EndLine - textRange.StartLine))
+	w.writeUvarint(uint64(textRange.EndColumn - 1))
+}
+
+func (w *binarySlangWriter) writeInt(value int64) {
+	w.buf.WriteByte(binaryTagInt)
+	n := binary.PutVarint(w.scratch[:], value)
+	w.buf.Write(w.scratch[:n])
+}
+
+func (w *binarySlangWriter) writeStringValue(value string) {
+	w.buf.WriteByte(binaryTagString)
+	w.writeString(value)
+}
+
+// writeString writes a string reference, without tag, as used for object keys
+func (w *binarySlangWriter) writeString(value string) {
+	if index, ok := w.strings[value]; ok {
+		w.writeUvarint(uint64(index + 1))
+		return
+	}
+	w.strings[value] = len(w.strings)
+	w.writeUvarint(0)
+	w.writeUvarint(uint64(len(value)))
+	w.buf.WriteString(value)
+}
+
+func (w *binarySlangWriter) writeArrayHeader(count int) {
+	w.buf.WriteByte(binaryTagArray)
+	w.writeUvarint(uint64(count))
+}
+
+func (w *binarySlangWriter) writeObjectHeader(count int) {
+	w.buf.WriteByte(binaryTagObject)
+	w.writeUvarint(uint64(count))
+}
+
+func (w *binarySlangWriter) writeUvarint(value uint64) {
+	n := binary.PutUvarint(w.scratch[:], value)
+	w.buf.Write(w.scratch[:n])
+}
@@ -0,0 +1,191 @@
+// SonarSource Go
+// Copyright (C) SonarSource Sàrl
+// mailto:info AT sonarsource DOT com
+//
+// You can redistribute and/or modify this program under the terms of
+// the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+// See the Sonar Source-Available License for more details.
+//
+// You should have received a copy of the Sonar Source-Available License
+// along with this program; if not, see https://sonarsource.com/license/ssal/
+
+package main
+
+import (
+	"bytes"
+	"encoding/binary"
+	"encoding/json"
+	"fmt"
+	"go/token"
+	"io"
+	"os"
+	"path/filepath"
+	"strings"
+	"testing"
+
+	"github.com/stretchr/testify/assert"
+)
+
+func Test_binary_matches_json_for_all_go_files(t *testing.T) {
+	for _, file := range getAllGoFiles("resources/ast") {
+		source, err := os.ReadFile(file)
+		if err != nil {
+			panic(err)
+		}
+		filename := strings.Replace(filepath.Base(file), ".source", "", 1)
+		fileSet, astFiles := astFromString(filename, string(source))
+		info, _ := typeCheckAst(fileSet, astFiles, false, "", "ModuleNameForTest", ".", GcExporter{}, defaultParallelism())
+		fileContents := map[string]string{filename: string(source)}
+
+		var fromJson interface{}
+		assert.NoError(t, json.Unmarshal([]byte(toSlangJson(fileSet, astFiles, fileContents, info, "ModuleNameForTest", allCapabilities, "", defaultParallelism())), &fromJson))
+		fromBinary := decodeBinarySlang(t, toSlangBinary(fileSet, astFiles, fileContents, info, "ModuleNameForTest", allCapabilities, defaultParallelism()))
+
+		assert.Equal(t, fromJson, fromBinary, "Binary and JSON documents differ for file: %#v\n", file)
+	}
+}
+
+func Test_binary_per_file_documents_match_the_directory_document(t *testing.T) {
+	fileContents := map[string]string{
+		"foo.go": "package foo\nfunc foo() { bar() }\n",
+		"bar.go": "package foo\n// bar does nothing\nfunc bar() {}\n",
+	}
+	fileSet := token.NewFileSet()
+	astFiles := readAstString(fileSet, fileContents, defaultParallelism())
+	info, _ := typeCheckAst(fileSet, astFiles, false, "", "ModuleNameForTest", ".", GcExporter{}, defaultParallelism())
+
+	fromDirectory := decodeBinarySlang(t, toSlangBinary(fileSet, astFiles, fileContents, info, "ModuleNameForTest", allCapabilities, defaultParallelism())).(map[string]interface{})
+	fromFiles := map[string]interface{}{}
+	err := toSlangBinaryPerFile(fileSet, astFiles, fileContents, info, "ModuleNameForTest", allCapabilities, defaultParallelism(), func(document []byte) error {
+		decoded := decodeBinarySlang(t, document).(map[string]interface{})
+		assert.Len(t, decoded, 1)
+		for fileName, file := range decoded {
+			fromFiles[fileName] = file
+		}
+		return nil
+	})
+
+	assert.NoError(t, err)
+	assert.Equal(t, fromDirectory, fromFiles)
+}
+
+func Test_binary_per_file_documents_stop_on_error(t *testing.T) {
+	fileContents := map[string]string{"foo.go": "package foo\n", "bar.go": "package foo\n"}
+	fileSet := token.NewFileSet()
+	astFiles := readAstString(fileSet, fileContents, defaultParallelism())
+	calls := 0
+
+	err := toSlangBinaryPerFile(fileSet, astFiles, fileContents, nil, "", allCapabilities, defaultParallelism(), func(document []byte) error {
+		calls++
+		return io.ErrClosedPipe
+	})
+
+	assert.Equal(t, io.ErrClosedPipe, err)
+	assert.Equal(t, 1, calls)
+}
+
+func Test_binary_parse_error(t *testing.T) {
+	fileSet, astFiles := astFromString("invalid.go", "xpackage foo")
+	decoded := decodeBinarySlang(t, toSlangBinary(fileSet, astFiles, map[string]string{"invalid.go": "xpackage foo"}, nil, "", allCapabilities, defaultParallelism()))
+
+	fileObject := decoded.(map[string]interface{})["invalid.go"].(map[string]interface{})
+	assert.Equal(t, "invalid.go:1:1: expected 'package', found xpackage", fileObject["error"])
+	assert.Nil(t, fileObject["tree"])
+}
+
+func Test_binary_strings_are_written_once(t *testing.T) {
+	w := newBinarySlangWriter()
+	w.writeStringValue("foo")
+	w.writeStringValue("foo")
+	w.writeStringValue("bar")
+
+	expected := []byte(binaryMagic)
+	expected = append(expected, binaryTagString, 0, 3, 'f', 'o', 'o')
+	expected = append(expected, binaryTagString, 1)
+	expected = append(expected, binaryTagString, 0, 3, 'b', 'a', 'r')
+	assert.Equal(t, expected, w.buf.Bytes())
+}
+
+func Test_binary_unsupported_field_type(t *testing.T) {
+	w := newBinarySlangWriter()
+	assert.PanicsWithValue(t, "Unsupported slang field type: float64", func() {
+		w.writeValue(1.5)
+	})
+}
+
+// decodeBinarySlang converts a binary document to the same generic structure as json.Unmarshal
+func decodeBinarySlang(t *testing.T, data []byte) interface{} {
+	assert.Equal(t, binaryMagic, string(data[:len(binaryMagic)]))
+	reader := bytes.NewReader(data[len(binaryMagic):])
+	var stringTable []string
+	value := decodeBinaryValue(t, reader, &stringTable)
+	assert.Equal(t, 0, reader.Len(), "Unexpected trailing bytes")
+	return value
+}
+
+func decodeBinaryValue(t *testing.T, reader *bytes.Reader, stringTable *[]string) interface{} {
+	tag, err := reader.ReadByte()
+	assert.NoError(t, err)
+	switch tag {
+	case binaryTagNull:
+		return nil
+	case binaryTagFalse:
+		return false
+	case binaryTagTrue:
+		return true
+	case binaryTagInt:
+		value, err := binary.ReadVarint(reader)
+		assert.NoError(t, err)
+		return float64(value)
+	case binaryTagString:
+		return decodeBinaryString(t, reader, stringTable)
+	case binaryTagRange:
+		startLine := readTestUvarint(t, reader)
+		startColumn := readTestUvarint(t, reader)
+		lineDelta := readTestUvarint(t, reader)
+		endColumn := readTestUvarint(t, reader)
+		if lineDelta == 0 {
+			return fmt.Sprintf("%d:%d::%d", startLine, startColumn, endColumn)
+		}
+		return fmt.Sprintf("%d:%d:%d:%d", startLine, startColumn, startLine+lineDelta, endColumn)
+	case binaryTagArray:
+		count := readTestUvarint(t, reader)
+		array := make([]interface{}, 0, count)
+		for i := uint64(0); i < count; i++ {
+			array = append(array, decodeBinaryValue(t, reader, stringTable))
+		}
+		return array
+	case binaryTagObject:
+		count := readTestUvarint(t, reader)
+		object := make(map[string]interface{}, count)
+		for i := uint64(0); i < count; i++ {
+			key := decodeBinaryString(t, reader, stringTable)
+			object[key] = decodeBinaryValue(t, reader, stringTable)
+		}
+		return object
+	}
+	t.Fatalf("Unexpected tag: %d", tag)
+	return nil
+}
+
+func decodeBinaryString(t *testing.T, reader *bytes.Reader, stringTable *[]string) string {
+	reference := readTestUvarint(t, reader)
+	if reference > 0 {
+		return (*stringTable)[reference-1]
+	}
+	value := make([]byte, readTestUvarint(t, reader))
+	_, err := io.ReadFull(reader, value)
+	assert.NoError(t, err)
+	*stringTable = append(*stringTable, string(value))
+	return string(value)
+}
+
+func readTestUvarint(t *testing.T, reader *bytes.Reader) uint64 {
+	value, err := binary.ReadUvarint(reader)
+	assert.NoError(t, err)
+	return value
+}
@@ -48,8 +48,9 @@ func retrieveCfgObjectFromNode(node ast.Node) any {
 	return node
 }
 
+// extractCfg returns nil when the control flow graphs are not requested, see capabilities
 func (t *SlangMapper) extractCfg(body *ast.BlockStmt) *CfgToJava {
-	if body == nil {
+	if body == nil || !t.controlFlowGraph {
 		return nil
 	}
 	cfgOfFunction := cfg.New(body, func(call *ast.CallExpr) bool { return true })
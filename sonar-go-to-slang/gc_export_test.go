@@ -97,7 +97,7 @@ func exportGcData(files []string, name string, moduleName string, packagePath st
 
 	astFiles, _, _ := readAstFile(fileSet, readFilesToReader(files))
 	gc := GcExporter{}
-	info, _ := typeCheckAst(fileSet, astFiles, true, exportLocation, moduleName, ".", gc)
+	info, _ := typeCheckAst(fileSet, astFiles, true, exportLocation, moduleName, ".", gc, defaultParallelism())
 	gc.ExportGcExportData(info, exportLocation, moduleName, packagePath, false)
 }
 
@@ -113,11 +113,11 @@ func parseFileToJsonAndSave(files []string, name string, moduleName string) {
 	fileSet := token.NewFileSet()
 	astFiles, fileContents, _ := readAstFile(fileSet, readFilesToReader(files))
 
-	info, _ := typeCheckAst(fileSet, astFiles, true, "build/cross-file-tests/"+name, moduleName, ".", GcExporter{})
+	info, _ := typeCheckAst(fileSet, astFiles, true, "build/cross-file-tests/"+name, moduleName, ".", GcExporter{}, defaultParallelism())
 
 	usesByPos := buildUsesByPos(info)
 	for fileName, aFile := range astFiles {
-		slangTree, comments, tokens, errMsg := toSlangTree(fileSet, &aFile, fileContents[fileName], info, moduleName, usesByPos)
+		slangTree, comments, tokens, errMsg := toSlangTree(fileSet, &aFile, fileContents[fileName], info, moduleName, allCapabilities, usesByPos)
 		if errMsg != nil {
 			panic(errMsg)
 		}
@@ -137,13 +137,13 @@ func parseFileToJson(files []string, name string, moduleName string) map[string]
 	fileSet := token.NewFileSet()
 	astFiles, fileContents, _ := readAstFile(fileSet, readFilesToReader(files))
 
-	info, _ := typeCheckAst(fileSet, astFiles, true, "build/cross-file-tests/"+name, moduleName, ".", GcExporter{})
+	info, _ := typeCheckAst(fileSet, astFiles, true, "build/cross-file-tests/"+name, moduleName, ".", GcExporter{}, defaultParallelism())
 
 	result := map[string]string{}
 
 	usesByPos := buildUsesByPos(info)
 	for fileName, aFile := range astFiles {
-		slangTree, comments, tokens, errMsg := toSlangTree(fileSet, &aFile, fileContents[fileName], info, moduleName, usesByPos)
+		slangTree, comments, tokens, errMsg := toSlangTree(fileSet, &aFile, fileContents[fileName], info, moduleName, allCapabilities, usesByPos)
 		slangTreeWithPlaceholders := slangTreeWithIdPlaceholders(slangTree)
 		actual := toJsonSlang(slangTreeWithPlaceholders, comments, tokens, errMsg, "  ")
 		jsonFile := strings.Replace(fileName, ".source", ".json", 1)
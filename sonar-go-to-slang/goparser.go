@@ -27,6 +27,8 @@ import (
 	"go/token"
 	"go/types"
 	"io"
+	"maps"
+	"slices"
 	"strings"
 	"unicode/utf8"
 )
@@ -81,104 +83,170 @@ const processLineDirective = false
 var isSlangType = map[string]bool{
 	other: true, keywordKind: true, "STRING_LITERAL": true}
 
-func toSlangJson(fileSet *token.FileSet, astFiles map[string]AstFileOrError, fileContents map[string]string, info *types.Info, moduleName string, indent string) string {
+// conversionCapabilities are the optional parts of the conversion, the Java side only requests the ones used by the
+// active rules, see workerParamCapabilities
+type conversionCapabilities struct {
+	// controlFlowGraph adds the "cfg" of the functions and the "__cfgId" of their nodes
+	controlFlowGraph bool
+}
+
+var allCapabilities = conversionCapabilities{controlFlowGraph: true}
+
+// toSlangJson converts the files concurrently, once they are type checked, and writes them in the order of their names
+func toSlangJson(fileSet *token.FileSet, astFiles map[string]AstFileOrError, fileContents map[string]string, info *types.Info, moduleName string, capabilities conversionCapabilities, indent string, parallelism int) string {
 	// The usesByPos info is shared across every file of the package, so the position-keyed index of
 	// type-checker "uses" is built once here and reused for all files.
 	usesByPos := buildUsesByPos(info)
-	fileNameToString := make(map[string]string)
-	for fileName, astFile := range astFiles {
-		slangTree, comments, tokens, errMgs := toSlangTree(fileSet, &astFile, fileContents[fileName], info, moduleName, usesByPos)
-		jsonPart := toJsonSlang(slangTree, comments, tokens, errMgs, indent)
-		fileNameToString[fileName] = jsonPart
-	}
-	return toJson(fileNameToString)
+	fileNames := sortedFileNames(astFiles)
+	jsonParts := make([]string, len(fileNames))
+	_ = convertConcurrently(len(fileNames), parallelism, func(i int) string {
+		astFile := astFiles[fileNames[i]]
+		slangTree, comments, tokens, errMgs := toSlangTree(fileSet, &astFile, fileContents[fileNames[i]], info, moduleName, capabilities, usesByPos)
+		return toJsonSlang(slangTree, comments, tokens, errMgs, indent)
+	}, func(i int, jsonPart string) error {
+		jsonParts[i] = jsonPart
+		return nil
+	})
+	return toJson(fileNames, jsonParts)
 }
 
-func toJson(fileNameToString map[string]string) string {
+func toJson(fileNames []string, jsonParts []string) string {
 	var buf bytes.Buffer
 	buf.WriteString("{\n")
-	for fileName, jsonPart := range fileNameToString {
-		buf.WriteString(fmt.Sprintf("  \"%s\": %s,\n", fileName, jsonPart))
+	for i, fileName := range fileNames {
+		buf.WriteString(fmt.Sprintf("  \"%s\": %s,\n", fileName, jsonParts[i]))
 	}
-	if len(fileNameToString) > 0 {
+	if len(fileNames) > 0 {
 		buf.Truncate(buf.Len() - 2) // Remove the last comma
 	}
 	buf.WriteString("\n}")
 	return buf.String()
 }
 
-func toSlangTree(fileSet *token.FileSet, astFile *AstFileOrError, fileContent string, info *types.Info, moduleName string, usesByPos map[token.Pos]types.Object) (*Node, []*Node, []*Token, *string) {
+func sortedFileNames[T any](files map[string]T) []string {
+	return slices.Sorted(maps.Keys(files))
+}
+
+func toSlangTree(fileSet *token.FileSet, astFile *AstFileOrError, fileContent string, info *types.Info, moduleName string, capabilities conversionCapabilities, usesByPos map[token.Pos]types.Object) (*Node, []*Node, []*Token, *string) {
 	if astFile.err != nil {
 		errMsg := astFile.err.Error()
 		return nil, nil, nil, &errMsg
 	}
-	slangTree, comments, tokens := NewSlangMapper(fileSet, astFile.ast, fileContent, info, moduleName, usesByPos).toSlang()
+	slangTree, comments, tokens := NewSlangMapper(fileSet, astFile.ast, fileContent, info, moduleName, capabilities, usesByPos).toSlang()
 	return slangTree, comments, tokens, nil
 }
 
 func readAstFile(fileSet *token.FileSet, reader io.Reader) (map[string]AstFileOrError, map[string]string, error) {
+	astFiles, files, _, err := readAstFileWithContextFiles(fileSet, reader, defaultParallelism())
+	return astFiles, files, err
+}
+
+// readAstFileWithContextFiles also returns the names of the context files, see readBytesToFilenameContentMap
+func readAstFileWithContextFiles(fileSet *token.FileSet, reader io.Reader, parallelism int) (map[string]AstFileOrError, map[string]string, map[string]bool, error) {
 	var bytesArray []byte
 	bytesArray, err := io.ReadAll(reader)
 	if err != nil {
-		return nil, nil, err
+		return nil, nil, nil, err
 	}
-	files := readBytesToFilenameContentMap(bytesArray)
-	astFiles := readAstString(fileSet, files)
-	return astFiles, files, nil
+	files, contextFiles := readBytesToFilenameContentMap(bytesArray)
+	astFiles := readAstString(fileSet, files, parallelism)
+	return astFiles, files, contextFiles, nil
 }
 
 // The byte format of the byte array is:
-// N (4 bytes) file name length
+// N (4 bytes) file name length, or its bitwise complement (^N, a negative value) for a context file
 // <file name> (N bytes)
 // M (4 bytes) file content length
 // <file content> (M bytes)
 // next files until the end of the byte array (EOF)
-func readBytesToFilenameContentMap(bytesArray []byte) map[string]string {
+//
+// A context file is parsed and type checked with the other files, so that the types it declares are resolved in them,
+// but it is not converted to SLANG. It is used for the files of a package which do not need to be analyzed again.
+func readBytesToFilenameContentMap(bytesArray []byte) (map[string]string, map[string]bool) {
 	result := map[string]string{}
+	contextFiles := map[string]bool{}
 	begin := 0
 	for {
-		filename := readFixedSizeText(bytesArray, begin)
-		begin = begin + len(filename) + 4 // +4 for the length of the filename
+		filenameLength, isContextFile := decodeFilenameLength(readLength(bytesArray, begin))
+		filename := string(bytesArray[begin+4 : begin+4+filenameLength])
+		begin = begin + filenameLength + 4 // +4 for the length of the filename
 		fileContent := readFixedSizeText(bytesArray, begin)
 
 		result[filename] = fileContent
+		if isContextFile {
+			contextFiles[filename] = true
+		}
 		begin = begin + len(fileContent) + 4
 		if begin >= len(bytesArray) {
 			break
 		}
 	}
-	return result
+	return result, contextFiles
+}
+
+// decodeFilenameLength returns the length of a file name, and whether it is the name of a context file
+func decodeFilenameLength(length int) (int, bool) {
+	if length < 0 {
+		return ^length, true
+	}
+	return length, false
 }
 
 func readFixedSizeText(bytesArray []byte, begin int) string {
+	length := readLength(bytesArray, begin)
+	return string(bytesArray[begin+4 : begin+4+length])
+}
+
+func readLength(bytesArray []byte, begin int) int {
 	var length32 int32 = 0
 	reader := bytes.NewReader(bytesArray[begin : begin+4])
 	err := binary.Read(reader, binary.LittleEndian, &length32)
 	if err != nil {
 		panic(err)
 	}
-	length := int(length32)
-	return string(bytesArray[begin+4 : begin+4+length])
+	return int(length32)
 }
 
-func readAstString(fileSet *token.FileSet, files map[string]string) map[string]AstFileOrError {
-	astFiles := map[string]AstFileOrError{}
-	for fileName, fileContent := range files {
-		astFile, err := parser.ParseFile(fileSet, fileName, fileContent, parser.ParseComments)
-		if err != nil {
-			astFiles[fileName] = AstFileOrError{nil, err}
-			continue
-		}
-		fileSize := fileSet.File(astFile.Pos()).Size()
-		if len(fileContent) != fileSize {
-			err = errors.New(fmt.Sprintf("Unexpected file size, expect %d instead of %d for file %s",
-				len(fileContent), fileSize, fileName))
+// withoutContextFiles returns the files to convert to SLANG, once all the files are type checked
+func withoutContextFiles(astFiles map[string]AstFileOrError, contextFiles map[string]bool) map[string]AstFileOrError {
+	if len(contextFiles) == 0 {
+		return astFiles
+	}
+	result := make(map[string]AstFileOrError, len(astFiles))
+	for fileName, astFile := range astFiles {
+		if !contextFiles[fileName] {
+			result[fileName] = astFile
 		}
-		astFiles[fileName] = AstFileOrError{astFile, nil}
 	}
+	return result
+}
+
+// readAstString parses the files concurrently, the token.FileSet is safe for concurrent use
+func readAstString(fileSet *token.FileSet, files map[string]string, parallelism int) map[string]AstFileOrError {
+	fileNames := sortedFileNames(files)
+	astFiles := make(map[string]AstFileOrError, len(fileNames))
+	_ = convertConcurrently(len(fileNames), parallelism, func(i int) AstFileOrError {
+		return parseFile(fileSet, fileNames[i], files[fileNames[i]])
+	}, func(i int, astFile AstFileOrError) error {
+		astFiles[fileNames[i]] = astFile
+		return nil
+	})
 	return astFiles
 }
 
+func parseFile(fileSet *token.FileSet, fileName string, fileContent string) AstFileOrError {
+	astFile, err := parser.ParseFile(fileSet, fileName, fileContent, parser.ParseComments)
+	if err != nil {
+		return AstFileOrError{nil, err}
+	}
+	fileSize := fileSet.File(astFile.Pos()).Size()
+	if len(fileContent) != fileSize {
+		err = errors.New(fmt.Sprintf("Unexpected file size, expect %d instead of %d for file %s",
+			len(fileContent), fileSize, fileName))
+	}
+	return AstFileOrError{astFile, nil}
+}
+
 type SlangMapper struct {
 	astFile           *ast.File
 	fileContent       string
@@ -193,9 +261,10 @@ type SlangMapper struct {
 	currentCfgId      int32
 	objectToCfgIds    map[any]int32
 	moduleName        string
+	controlFlowGraph  bool
 }
 
-func NewSlangMapper(fileSet *token.FileSet, astFile *ast.File, fileContent string, info *types.Info, moduleName string, usesByPos map[token.Pos]types.Object) *SlangMapper {
+func NewSlangMapper(fileSet *token.FileSet, astFile *ast.File, fileContent string, info *types.Info, moduleName string, capabilities conversionCapabilities, usesByPos map[token.Pos]types.Object) *SlangMapper {
 	t := &SlangMapper{
 		astFile:           astFile,
 		fileContent:       fileContent,
@@ -207,6 +276,7 @@ func NewSlangMapper(fileSet *token.FileSet, astFile *ast.File, fileContent strin
 		usesByPos:         usesByPos,
 		objectToCfgIds:    make(map[any]int32),
 		moduleName:        moduleName,
+		controlFlowGraph:  capabilities.controlFlowGraph,
 	}
 	t.comments = t.mapAllComments()
 	t.commentPos = 0
@@ -451,7 +521,7 @@ func (t *SlangMapper) createNodeWithChildren(originalNode ast.Node, children []*
 		},
 		SlangField: slangField,
 	}
-	if originalNode != nil {
+	if originalNode != nil && t.controlFlowGraph {
 		index := t.addNodeInCfgIdMap(originalNode)
 		node.SlangField["__cfgId"] = index
 	}
@@ -671,7 +741,7 @@ func (t *SlangMapper) createLeafNode(originalNode ast.Node, offset, endOffset in
 		},
 		SlangField: slangField,
 	}
-	if originalNode != nil {
+	if originalNode != nil && t.controlFlowGraph {
 		index := t.addNodeInCfgIdMap(originalNode)
 		node.SlangField["__cfgId"] = index
 	}
@@ -32,22 +32,22 @@ import (
 
 func slangFromString(filename, source, moduleName string) (*Node, []*Node, []*Token, *string) {
 	fileSet, astFileOrErrors := astFromString(filename, source)
-	info, _ := typeCheckAst(fileSet, astFileOrErrors, true, "", "ModuleNameForTest", ".", GcExporter{})
+	info, _ := typeCheckAst(fileSet, astFileOrErrors, true, "", "ModuleNameForTest", ".", GcExporter{}, defaultParallelism())
 	astFileOrError := astFileOrErrors[filename]
-	return toSlangTree(fileSet, &astFileOrError, source, info, moduleName, buildUsesByPos(info))
+	return toSlangTree(fileSet, &astFileOrError, source, info, moduleName, allCapabilities, buildUsesByPos(info))
 }
 
 func astFromString(filename, source string) (fileSet *token.FileSet, astFileOrErrors map[string]AstFileOrError) {
 	fileSet = token.NewFileSet()
 	fileNameToContent := make(map[string]string)
 	fileNameToContent[filename] = source
-	astFileOrErrors = readAstString(fileSet, fileNameToContent)
+	astFileOrErrors = readAstString(fileSet, fileNameToContent, defaultParallelism())
 	return
 }
 
 func astFromStrings(fileNameToContent map[string]string) (fileSet *token.FileSet, astFileOrErrors map[string]AstFileOrError) {
 	fileSet = token.NewFileSet()
-	astFileOrErrors = readAstString(fileSet, fileNameToContent)
+	astFileOrErrors = readAstString(fileSet, fileNameToContent, defaultParallelism())
 	return
 }
 
@@ -102,6 +102,22 @@ func Test_all_go_files(t *testing.T) {
 	}
 }
 
+func Test_json_files_are_written_in_the_order_of_their_names(t *testing.T) {
+	fileContents := map[string]string{
+		"c.go": "package foo\n",
+		"a.go": "package foo\n",
+		"b.go": "xpackage foo\n",
+	}
+	fileSet, astFiles := astFromStrings(fileContents)
+
+	json := toSlangJson(fileSet, astFiles, fileContents, nil, "", allCapabilities, "", 4)
+
+	aIndex := strings.Index(json, "\"a.go\"")
+	bIndex := strings.Index(json, "\"b.go\"")
+	cIndex := strings.Index(json, "\"c.go\"")
+	assert.True(t, 0 < aIndex && aIndex < bIndex && bIndex < cIndex, json)
+}
+
 func getAllGoFiles(folder string) []string {
 	var files []string
 
@@ -30,6 +30,8 @@ type Params struct {
 	moduleName       string
 	moduleBaseDir    string
 	packagePath      string
+	worker           bool
+	parallelism      int
 }
 
 func parseArgs() Params {
@@ -45,10 +47,12 @@ func parseArgs() Params {
 	moduleName := flag.String("module_name", "", "specify module name (defined in go.mod)")
 	moduleBaseDir := flag.String("module_base_dir", ".", "relative path of the go.mod directory from the project root")
 	packagePath := flag.String("package_path", "", "specify package path (e.g. foo/bar for files located in ${projectDir}/foo/bar)")
+	worker := flag.Bool("worker", false, "keep running and serve framed parse requests from stdin until it is closed")
+	parallelism := flag.Int("parallelism", 0, "number of goroutines parsing, type checking and converting the files, one per CPU by default")
 	flag.Parse()
 
-	fmt.Fprintf(os.Stderr, "Received parameters: dumpAst=%t, debugTypeCheck=%t, dumpGcExportData=%t, gcExportDataDir=\"%s\", moduleName=\"%s\", moduleBaseDir=\"%s\", packagePath=\"%s\"\n",
-		*dumpAstFlag, *debugTypeCheckFlag, *dumpGcExportData, *gcExportDataDir, *moduleName, *moduleBaseDir, *packagePath)
+	fmt.Fprintf(os.Stderr, "Received parameters: dumpAst=%t, debugTypeCheck=%t, dumpGcExportData=%t, gcExportDataDir=\"%s\", moduleName=\"%s\", moduleBaseDir=\"%s\", packagePath=\"%s\", parallelism=%d\n",
+		*dumpAstFlag, *debugTypeCheckFlag, *dumpGcExportData, *gcExportDataDir, *moduleName, *moduleBaseDir, *packagePath, *parallelism)
 
 	return Params{
 		dumpAst:          *dumpAstFlag,
@@ -58,14 +62,22 @@ func parseArgs() Params {
 		moduleName:       *moduleName,
 		moduleBaseDir:    *moduleBaseDir,
 		packagePath:      *packagePath,
+		worker:           *worker,
+		parallelism:      parallelismOrDefault(*parallelism),
 	}
 }
 
 func main() {
 	params := parseArgs()
 
+	if params.worker {
+		fmt.Fprintln(os.Stderr, "Running in worker mode")
+		runWorker(params, os.Stdin, os.Stdout)
+		return
+	}
+
 	fileSet := token.NewFileSet()
-	astFiles, fileContents, err := readAstFile(fileSet, os.Stdin)
+	astFiles, fileContents, contextFiles, err := readAstFileWithContextFiles(fileSet, os.Stdin, params.parallelism)
 	if err != nil {
 		fmt.Fprintf(os.Stderr, "Error reading AST file: %v\n", err)
 		panic(err)
@@ -73,7 +85,7 @@ func main() {
 
 	gcExporter := GcExporter{}
 	// Ignoring errors at this point, they are reported before if needed
-	info, _ := typeCheckAst(fileSet, astFiles, params.debugTypeCheck, params.gcExportDataDir, params.moduleName, params.moduleBaseDir, gcExporter)
+	info, _ := typeCheckAst(fileSet, astFiles, params.debugTypeCheck, params.gcExportDataDir, params.moduleName, params.moduleBaseDir, gcExporter, params.parallelism)
 
 	if params.dumpGcExportData {
 		if params.gcExportDataDir == "" {
@@ -83,10 +95,11 @@ func main() {
 		return
 	}
 
+	astFiles = withoutContextFiles(astFiles, contextFiles)
 	if params.dumpAst {
 		fmt.Println(render(astFiles))
 	} else {
-		json := toSlangJson(fileSet, astFiles, fileContents, info, params.moduleName, "")
+		json := toSlangJson(fileSet, astFiles, fileContents, info, params.moduleName, allCapabilities, "", params.parallelism)
 		fmt.Println(json)
 	}
 	gcExporter.PrintExportIssues()
@@ -0,0 +1,124 @@
+// SonarSource Go
+// Copyright (C) SonarSource Sàrl
+// mailto:info AT sonarsource DOT com
+//
+// You can redistribute and/or modify this program under the terms of
+// the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+// See the Sonar Source-Available License for more details.
+//
+// You should have received a copy of the Sonar Source-Available License
+// along with this program; if not, see https://sonarsource.com/license/ssal/
+
+
+package main
+
+import (
+	"runtime"
+	"sync"
+	"sync/atomic"
+)
+
+// defaultParallelism is the number of goroutines used to parse, type check and convert the files of a request, when it
+// is not given by the Java side: one per CPU.
+func defaultParallelism() int {
+	return runtime.GOMAXPROCS(0)
+}
+
+// parallelismOrDefault returns the default parallelism for the values lower than 1
+func parallelismOrDefault(parallelism int) int {
+	if parallelism < 1 {
+		return defaultParallelism()
+	}
+	return parallelism
+}
+
+type convertedOrPanic[T any] struct {
+	value      T
+	panicValue any
+	panicked   bool
+}
+
+// convertConcurrently calls "convert" for each index from 0 to count-1 in at most "parallelism" goroutines, and passes
+// the results to "consume" in the order of the indexes, from the calling goroutine. So the output does not depend on
+// the scheduling of the goroutines. At most 2 * parallelism results are converted ahead of the consumed one, so the
+// memory is bounded when each result is released once consumed.
+//
+// A panic in "convert" is raised again in the calling goroutine. When "consume" returns an error, the next indexes are
+// not converted and the error is returned.
+func convertConcurrently[T any](count int, parallelism int, convert func(index int) T, consume func(index int, value T) error) error {
+	if parallelism > count {
+		parallelism = count
+	}
+	if parallelism <= 1 {
+		for i := 0; i < count; i++ {
+			if err := consume(i, convert(i)); err != nil {
+				return err
+			}
+		}
+		return nil
+	}
+
+	results := make([]chan convertedOrPanic[T], count)
+	for i := range results {
+		results[i] = make(chan convertedOrPanic[T], 1)
+	}
+	// A slot is taken before an index, and released once the index is consumed. Since the indexes are taken in order,
+	// the index waited by the consumer always holds a slot.
+	slots := make(chan struct{}, 2*parallelism)
+	done := make(chan struct{})
+	var nextIndex atomic.Int64
+	var group sync.WaitGroup
+	for g := 0; g < parallelism; g++ {
+		group.Add(1)
+		go func() {
+			defer group.Done()
+			for {
+				select {
+				case <-done:
+					return
+				default:
+				}
+				select {
+				case slots <- struct{}{}:
+				case <-done:
+					return
+				}
+				index := int(nextIndex.Add(1) - 1)
+				if index >= count {
+					return
+				}
+				results[index] <- convertRecoveringPanic(index, convert)
+			}
+		}()
+	}
+	defer func() {
+		close(done)
+		group.Wait()
+	}()
+
+	for i := 0; i < count; i++ {
+		result := <-results[i]
+		results[i] = nil
+		if result.panicked {
+			panic(result.panicValue)
+		}
+		if err := consume(i, result.value); err != nil {
+			return err
+		}
+		<-slots
+	}
+	return nil
+}
+
+func convertRecoveringPanic[T any](index int, convert func(index int) T) (result convertedOrPanic[T]) {
+	defer func() {
+		if r := recover(); r != nil {
+			result = convertedOrPanic[T]{panicValue: r, panicked: true}
+		}
+	}()
+	return convertedOrPanic[T]{value: convert(index)}
+}
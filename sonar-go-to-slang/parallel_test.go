@@ -0,0 +1,100 @@
+// SonarSource Go
+// Copyright (C) SonarSource Sàrl
+// mailto:info AT sonarsource DOT com
+//
+// You can redistribute and/or modify this program under the terms of
+// the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+// See the Sonar Source-Available License for more details.
+//
+// You should have received a copy of the Sonar Source-Available License
+// along with this program; if not, see https://sonarsource.com/license/ssal/
+
+
+package main
+
+import (
+	"errors"
+	"sync/atomic"
+	"testing"
+	"time"
+
+	"github.com/stretchr/testify/assert"
+)
+
+func Test_convert_concurrently_consumes_the_results_in_order(t *testing.T) {
+	for _, parallelism := range []int{1, 4, 200} {
+		var consumed []int
+		err := convertConcurrently(100, parallelism, func(i int) int {
+			// The last indexes are converted first
+			time.Sleep(time.Duration(100-i) * time.Microsecond)
+			return i * 2
+		}, func(i int, value int) error {
+			assert.Equal(t, i*2, value)
+			consumed = append(consumed, i)
+			return nil
+		})
+
+		assert.NoError(t, err)
+		assert.Len(t, consumed, 100)
+		for i, index := range consumed {
+			assert.Equal(t, i, index)
+		}
+	}
+}
+
+func Test_convert_concurrently_converts_a_bounded_number_of_results_ahead(t *testing.T) {
+	var converted atomic.Int32
+	err := convertConcurrently(100, 4, func(i int) int {
+		converted.Add(1)
+		return i
+	}, func(i int, value int) error {
+		assert.LessOrEqual(t, int(converted.Load()), i+1+2*4)
+		return nil
+	})
+
+	assert.NoError(t, err)
+	assert.Equal(t, int32(100), converted.Load())
+}
+
+func Test_convert_concurrently_stops_on_the_first_error(t *testing.T) {
+	expected := errors.New("closed")
+	var converted atomic.Int32
+	calls := 0
+	err := convertConcurrently(1000, 4, func(i int) int {
+		converted.Add(1)
+		return i
+	}, func(i int, value int) error {
+		calls++
+		return expected
+	})
+
+	assert.Equal(t, expected, err)
+	assert.Equal(t, 1, calls)
+	assert.Less(t, int(converted.Load()), 1000)
+}
+
+func Test_convert_concurrently_raises_the_panic_of_a_goroutine_in_the_caller(t *testing.T) {
+	assert.PanicsWithValue(t, "failure on 3", func() {
+		_ = convertConcurrently(10, 4, func(i int) int {
+			if i == 3 {
+				panic("failure on 3")
+			}
+			return i
+		}, func(i int, value int) error {
+			return nil
+		})
+	})
+}
+
+func Test_parallelism_or_default(t *testing.T) {
+	assert.Equal(t, 3, parallelismOrDefault(3))
+	assert.Equal(t, defaultParallelism(), parallelismOrDefault(0))
+	assert.Equal(t, defaultParallelism(), parallelismOrDefault(-1))
+	assert.Equal(t, 2, parallelismParamOrDefault(map[string]string{workerParamParallelism: "2"}, 5))
+	assert.Equal(t, 5, parallelismParamOrDefault(map[string]string{workerParamParallelism: "x"}, 5))
+	assert.Equal(t, 5, parallelismParamOrDefault(map[string]string{}, 5))
+}
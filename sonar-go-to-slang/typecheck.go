@@ -22,8 +22,10 @@ import (
 	"go/token"
 	"go/types"
 	"io/fs"
+	"maps"
 	"os"
 	"path/filepath"
+	"slices"
 	"strings"
 	"sync"
 )
@@ -50,16 +52,111 @@ type localImporter struct {
 }
 
 func (li *localImporter) Import(path string) (*types.Package, error) {
-	if pkg, ok := li.importCache[path]; ok && pkg.Complete() {
+	pkg, cached := li.importCache[path]
+	if cached && pkg.Complete() {
 		return pkg, nil
 	}
 	if exportDataFileName, ok := packageExportData[path]; ok {
 		// In embedded filesystem, the path separator is always '/', even on Windows.
-		return li.getPackageFromExportData(PackageExportDataDir+"/"+exportDataFileName, path), nil
+		exportDataFilePath := PackageExportDataDir + "/" + exportDataFileName
+		if cached {
+			// The export data of a local package already created an incomplete package for this path, it is completed
+			// in place so the local package and the importing code share the same types.
+			return li.getPackageFromExportData(exportDataFilePath, path), nil
+		}
+		pkg = embeddedPackages.get(exportDataFilePath, path, &li.gcExporter)
+		if li.importCache != nil {
+			// The export data of the local packages read afterward reuse the types of the embedded package
+			li.importCache[path] = pkg
+		}
+		return pkg, nil
 	}
 	return li.getPackageFromLocalCodeExportData(path), nil
 }
 
+// embeddedPackages holds the packages decoded from the embedded export data. It lives as long as the process, so each
+// embedded package is decoded at most once, whatever the number of type-checked packages and of worker requests.
+var embeddedPackages = newEmbeddedPackageCache()
+
+// embeddedPackageCache decodes the embedded export data on first import. The export data of a package also declares
+// the types of its dependencies it refers to, in incomplete packages. So a package is decoded together with its whole
+// dependency set in an imports map private to the decoding: the incomplete dependencies are completed in place with their
+// own export data, and all the packages are published at once when they are complete.
+//
+// The imports map of a decoding starts with the packages already published, so each import path is represented by a
+// single *types.Package. These packages are complete, the decoder only reads them. The published packages are never
+// changed afterward, they are shared by concurrent type checks which only read them. The decodings are serialized by
+// the mutex.
+type embeddedPackageCache struct {
+	mu       sync.Mutex
+	packages map[string]*types.Package
+	// decoded holds the published packages which were read from their export data. The other ones are empty packages
+	// named after their path, which would conflict with the package name declared by the export data read afterward.
+	decoded map[string]*types.Package
+	// decodings counts the packages decoded with their dependencies since the start of the process, it is asserted by the tests
+	decodings int
+}
+
+func newEmbeddedPackageCache() *embeddedPackageCache {
+	return &embeddedPackageCache{
+		packages: make(map[string]*types.Package),
+		decoded:  make(map[string]*types.Package),
+	}
+}
+
+func (c *embeddedPackageCache) get(exportDataFilePath, path string, gcExporter *GcExporter) *types.Package {
+	c.mu.Lock()
+	defer c.mu.Unlock()
+	if pkg, ok := c.packages[path]; ok {
+		return pkg
+	}
+	c.decodings++
+	imports := maps.Clone(c.decoded)
+	decodedPackages := map[string]*types.Package{path: decodeEmbeddedPackage(exportDataFilePath, path, gcExporter, imports)}
+	for {
+		dependencies := c.incompleteDependencies(imports, decodedPackages)
+		if len(dependencies) == 0 {
+			break
+		}
+		for _, dependency := range dependencies {
+			dependencyExportDataFilePath := PackageExportDataDir + "/" + packageExportData[dependency]
+			decodedPackages[dependency] = decodeEmbeddedPackage(dependencyExportDataFilePath, dependency, gcExporter, imports)
+		}
+	}
+	for decodedPath, pkg := range decodedPackages {
+		c.packages[decodedPath] = pkg
+		if imports[decodedPath] == pkg {
+			c.decoded[decodedPath] = pkg
+		}
+	}
+	return decodedPackages[path]
+}
+
+// incompleteDependencies returns the sorted paths of the incomplete packages of the imports map which have embedded export
+// data, and which were neither decoded by the current decoding nor published before.
+func (c *embeddedPackageCache) incompleteDependencies(imports, decodedPackages map[string]*types.Package) []string {
+	var dependencies []string
+	for dependency, pkg := range imports {
+		_, embedded := packageExportData[dependency]
+		_, decoded := decodedPackages[dependency]
+		_, published := c.packages[dependency]
+		if embedded && !decoded && !published && !pkg.Complete() {
+			dependencies = append(dependencies, dependency)
+		}
+	}
+	slices.Sort(dependencies)
+	return dependencies
+}
+
+func decodeEmbeddedPackage(exportDataFilePath, path string, gcExporter *GcExporter, imports map[string]*types.Package) *types.Package {
+	file, err := packages.Open(exportDataFilePath)
+	if err != nil {
+		fmt.Fprintf(os.Stderr, "Error while opening file %s: %s\n", exportDataFilePath, err)
+		return getEmptyPackage(path)
+	}
+	return gcExporter.getPackageFromFile(file, path, imports)
+}
+
 func (li *localImporter) getPackageFromLocalCodeExportData(path string) *types.Package {
 	if li.debugTypeCheck {
 		fmt.Fprintf(os.Stderr, "Search for local Gc Export Data for \"%s\" package\n", path)
@@ -232,14 +329,89 @@ func typeCheckAst(
 	moduleName string,
 	moduleBaseDir string,
 	gcExporter GcExporter,
+	parallelism int,
 ) (*types.Info, []error) {
 	astFilesPerPackage := groupFilesPerPackageName(astFiles)
+	packageNames := sortedFileNames(astFilesPerPackage)
 	errors := make([]error, 0)
 
 	// Shared across every per-package importer so gcExportDataDir is walked at most once per run.
 	crossIndex := &crossModuleIndex{dir: gcExportDataDir}
 
-	info := &types.Info{
+	info := newTypesInfo()
+	if len(packageNames) == 1 {
+		// The usual case of a directory with a single package, its types are directly recorded in the result
+		err := typeCheckPackage(fileSet, packageNames[0], astFilesPerPackage[packageNames[0]], info, debugTypeCheck, gcExportDataDir, moduleName, moduleBaseDir, gcExporter, crossIndex)
+		if err != nil {
+			errors = append(errors, err)
+		}
+		return info, errors
+	}
+
+	// The packages of a directory (e.g. "foo" and "foo_test") are checked concurrently, each one records its types in its
+	// own types.Info, which are then merged in the order of the package names.
+	type packageInfoOrError struct {
+		info *types.Info
+		err  error
+	}
+	_ = convertConcurrently(len(packageNames), parallelism, func(i int) packageInfoOrError {
+		packageInfo := newTypesInfo()
+		err := typeCheckPackage(fileSet, packageNames[i], astFilesPerPackage[packageNames[i]], packageInfo, debugTypeCheck, gcExportDataDir, moduleName, moduleBaseDir, gcExporter, crossIndex)
+		return packageInfoOrError{packageInfo, err}
+	}, func(i int, result packageInfoOrError) error {
+		mergeTypesInfo(info, result.info)
+		if result.err != nil {
+			errors = append(errors, result.err)
+		}
+		return nil
+	})
+
+	return info, errors
+}
+
+func typeCheckPackage(
+	fileSet *token.FileSet,
+	packageName string,
+	files map[string]AstFileOrError,
+	info *types.Info,
+	debugTypeCheck bool,
+	gcExportDataDir string,
+	moduleName string,
+	moduleBaseDir string,
+	gcExporter GcExporter,
+	crossIndex *crossModuleIndex,
+) error {
+	fmt.Fprintf(os.Stderr, "Processing package: \"%s\"\n", packageName)
+	conf := types.Config{
+		Importer: &localImporter{
+			gcExportDataDir: gcExportDataDir,
+			moduleName:      moduleName,
+			moduleBaseDir:   moduleBaseDir,
+			debugTypeCheck:  debugTypeCheck,
+			gcExporter:      gcExporter,
+			importCache:     make(map[string]*types.Package),
+			crossIndex:      crossIndex,
+		},
+		Error: func(err error) {
+			if debugTypeCheck {
+				fmt.Fprintf(os.Stderr, "Warning while type checking for package: \"%s\": %s\n", packageName, err)
+			}
+			// Our current logic type checks only the types that are used in the rules, and "ignores" the rest.
+			// It means that we expect many errors in the type checking process (missing types, undefined variables, etc).
+			// In theory, we would like to log only errors that are related to the types that we support, in order to spot potential issues.
+			// In practise, the message is often not enough to determine if the error is relevant or not.
+			// Therefore, we don't log any error at the moment.
+		},
+	}
+
+	// We pass the file name which correspond to the name of the package, in order to have local type/package
+	// named after this package names.
+	_, err := conf.Check(packageName, fileSet, mapToSlice(files), info)
+	return err
+}
+
+func newTypesInfo() *types.Info {
+	return &types.Info{
 		Types:        make(map[ast.Expr]types.TypeAndValue),
 		Defs:         make(map[*ast.Ident]types.Object),
 		Uses:         make(map[*ast.Ident]types.Object),
@@ -250,40 +422,19 @@ func typeCheckAst(
 		Instances:    make(map[*ast.Ident]types.Instance),
 		FileVersions: make(map[*ast.File]string),
 	}
+}
 
-	for packageName, files := range astFilesPerPackage {
-		fmt.Fprintf(os.Stderr, "Processing package: \"%s\"\n", packageName)
-		conf := types.Config{
-			Importer: &localImporter{
-				gcExportDataDir: gcExportDataDir,
-				moduleName:      moduleName,
-				moduleBaseDir:   moduleBaseDir,
-				debugTypeCheck:  debugTypeCheck,
-				gcExporter:      gcExporter,
-				importCache:     make(map[string]*types.Package),
-				crossIndex:      crossIndex,
-			},
-			Error: func(err error) {
-				if debugTypeCheck {
-					fmt.Fprintf(os.Stderr, "Warning while type checking for package: \"%s\": %s\n", packageName, err)
-				}
-				// Our current logic type checks only the types that are used in the rules, and "ignores" the rest.
-				// It means that we expect many errors in the type checking process (missing types, undefined variables, etc).
-				// In theory, we would like to log only errors that are related to the types that we support, in order to spot potential issues.
-				// In practise, the message is often not enough to determine if the error is relevant or not.
-				// Therefore, we don't log any error at the moment.
-			},
-		}
-
-		// We pass the file name which correspond to the name of the package, in order to have local type/package
-		// named after this package names.
-		_, err := conf.Check(packageName, fileSet, mapToSlice(files), info)
-		if err != nil {
-			errors = append(errors, err)
-		}
-	}
-
-	return info, errors
+// mergeTypesInfo adds the types of a package to "into", the packages have distinct files so no entry is overwritten
+func mergeTypesInfo(into *types.Info, from *types.Info) {
+	maps.Copy(into.Types, from.Types)
+	maps.Copy(into.Defs, from.Defs)
+	maps.Copy(into.Uses, from.Uses)
+	maps.Copy(into.Implicits, from.Implicits)
+	maps.Copy(into.Selections, from.Selections)
+	maps.Copy(into.Scopes, from.Scopes)
+	into.InitOrder = append(into.InitOrder, from.InitOrder...)
+	maps.Copy(into.Instances, from.Instances)
+	maps.Copy(into.FileVersions, from.FileVersions)
 }
 
 func groupFilesPerPackageName(astFiles map[string]AstFileOrError) map[string]map[string]AstFileOrError {
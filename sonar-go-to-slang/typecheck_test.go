@@ -23,6 +23,8 @@ import (
 	"log"
 	"os"
 	"path/filepath"
+	"sort"
+	"sync"
 	"testing"
 
 	"github.com/stretchr/testify/assert"
@@ -102,7 +104,7 @@ func TestTypeCheckAst(t *testing.T) {
 	}
 
 	fileSet, astFiles := astFromString("simple_file_with_packages.go", string(source))
-	info, _ := typeCheckAst(fileSet, astFiles, true, "", "", ".", GcExporter{})
+	info, _ := typeCheckAst(fileSet, astFiles, true, "", "", ".", GcExporter{}, defaultParallelism())
 
 	assert.NotNil(t, info)
 	assert.NotEmpty(t, info.Types)
@@ -121,7 +123,7 @@ func TestTestOnlyFirstErrorIsReturned(t *testing.T) {
 
 	fileSet, astFiles := astFromString("file_with_many_errors.go", string(source))
 
-	info, errors := typeCheckAst(fileSet, astFiles, false, "", "", ".", GcExporter{})
+	info, errors := typeCheckAst(fileSet, astFiles, false, "", "", ".", GcExporter{}, defaultParallelism())
 	assert.Len(t, errors, 1)
 	assert.Equal(t, "file_with_many_errors.go:4:5: declared and not used: a1", errors[0].Error())
 	assert.NotNil(t, info)
@@ -143,7 +145,7 @@ func TestShouldReturnErrorForAllFailingFilesPerPackage(t *testing.T) {
 	}
 	fileSet, astFiles := astFromStrings(filenameToContent)
 
-	info, errors := typeCheckAst(fileSet, astFiles, false, "", "", ".", GcExporter{})
+	info, errors := typeCheckAst(fileSet, astFiles, false, "", "", ".", GcExporter{}, defaultParallelism())
 	assert.ElementsMatch(t, []string{
 		"file_with_many_errors_1.go:4:5: declared and not used: a1",
 		"file_with_many_errors_2.go:4:5: declared and not used: a1",
@@ -151,6 +153,37 @@ func TestShouldReturnErrorForAllFailingFilesPerPackage(t *testing.T) {
 	assert.NotNil(t, info)
 }
 
+func TestShouldTypeCheckSeveralPackagesConcurrently(t *testing.T) {
+	filenameToContent := map[string]string{
+		"foo.go":      "package foo\nvar x int\n",
+		"bar.go":      "package foo\nvar y = x\n",
+		"foo_test.go": "package foo_test\nvar z string\n",
+	}
+	fileSet, astFiles := astFromStrings(filenameToContent)
+
+	sequentialInfo, sequentialErrors := typeCheckAst(fileSet, astFiles, false, "", "", ".", GcExporter{}, 1)
+	concurrentInfo, concurrentErrors := typeCheckAst(fileSet, astFiles, false, "", "", ".", GcExporter{}, 4)
+
+	assert.Empty(t, sequentialErrors)
+	assert.Empty(t, concurrentErrors)
+	assert.Equal(t, describeObjects(sequentialInfo.Defs), describeObjects(concurrentInfo.Defs))
+	assert.Equal(t, describeObjects(sequentialInfo.Uses), describeObjects(concurrentInfo.Uses))
+	assert.Contains(t, describeObjects(concurrentInfo.Defs), "var foo.x int")
+	assert.Contains(t, describeObjects(concurrentInfo.Defs), "var foo_test.z string")
+	assert.Contains(t, describeObjects(concurrentInfo.Uses), "var foo.x int")
+}
+
+func describeObjects(objects map[*ast.Ident]types.Object) []string {
+	var descriptions []string
+	for _, object := range objects {
+		if object != nil {
+			descriptions = append(descriptions, object.String())
+		}
+	}
+	sort.Strings(descriptions)
+	return descriptions
+}
+
 func TestShouldGroupFilesPerPackageNameTogether(t *testing.T) {
 	var file1AstOrError = AstFileOrError{ast: &ast.File{Name: &ast.Ident{Name: "package1"}}, err: nil}
 	var file2AstOrError = AstFileOrError{ast: &ast.File{Name: &ast.Ident{Name: "package2"}}, err: nil}
@@ -392,6 +425,82 @@ func TestImport_sharedCacheDeduplicatesTransitiveDeps(t *testing.T) {
 	assert.Equal(t, "net/http", roundTrippedPkg.Path())
 }
 
+func TestImport_embeddedPackageIsDecodedOncePerProcess(t *testing.T) {
+	newImporter := func() *localImporter {
+		return &localImporter{gcExporter: GcExporter{}, importCache: make(map[string]*types.Package)}
+	}
+	decodingsBefore := embeddedPackages.decodings
+
+	first, err := newImporter().Import("encoding/json")
+	assert.NoError(t, err)
+	decodingsAfterFirstImport := embeddedPackages.decodings
+	second, err := newImporter().Import("encoding/json")
+	assert.NoError(t, err)
+
+	assert.Same(t, first, second, "the importers of different packages must share the decoded embedded package")
+	assert.LessOrEqual(t, decodingsAfterFirstImport-decodingsBefore, 1)
+	assert.Equal(t, decodingsAfterFirstImport, embeddedPackages.decodings, "the second import must not decode the export data again")
+}
+
+func TestImport_embeddedPackageIsSharedByConcurrentImporters(t *testing.T) {
+	results := make([]*types.Package, 8)
+	var wg sync.WaitGroup
+	for i := range results {
+		wg.Add(1)
+		go func() {
+			defer wg.Done()
+			importer := &localImporter{gcExporter: GcExporter{}, importCache: make(map[string]*types.Package)}
+			results[i], _ = importer.Import("net/http")
+		}()
+	}
+	wg.Wait()
+
+	for _, pkg := range results {
+		assert.Same(t, results[0], pkg)
+	}
+	assert.NotNil(t, results[0].Scope().Lookup("Get"))
+}
+
+func TestImport_embeddedPackageIsPublishedWithItsCompleteDependencies(t *testing.T) {
+	cache := newEmbeddedPackageCache()
+
+	httpPkg := cache.get(PackageExportDataDir+"/"+packageExportData["net/http"], "net/http", &GcExporter{})
+
+	assert.True(t, httpPkg.Complete())
+	for _, imp := range httpPkg.Imports() {
+		if _, embedded := packageExportData[imp.Path()]; embedded {
+			assert.True(t, imp.Complete(), "the embedded dependency %s must be complete before it is published", imp.Path())
+			assert.Same(t, imp, cache.get(PackageExportDataDir+"/"+packageExportData[imp.Path()], imp.Path(), &GcExporter{}))
+		}
+	}
+	assert.Equal(t, 1, cache.decodings, "the dependencies must be decoded with the imported package")
+}
+
+// Run with "go test -race": the packages are type checked while the embedded packages they import are decoded, any
+// embedded package changed after it was handed out to a type check is reported as a data race.
+func TestShouldTypeCheckSeveralPackagesImportingEmbeddedPackagesConcurrently(t *testing.T) {
+	previousEmbeddedPackages := embeddedPackages
+	embeddedPackages = newEmbeddedPackageCache()
+	t.Cleanup(func() {
+		embeddedPackages = previousEmbeddedPackages
+	})
+	filenameToContent := map[string]string{
+		"server.go":      "package server\nimport \"net/http\"\nvar client = http.DefaultClient\n",
+		"url.go":         "package url\nimport \"net/url\"\nvar u, _ = url.Parse(\"\")\n",
+		"json.go":        "package json\nimport (\n\t\"encoding/json\"\n\t\"io\"\n)\nvar decoder = json.NewDecoder(io.MultiReader())\n",
+		"server_test.go": "package server_test\nimport (\n\t\"io\"\n\t\"net/http\"\n)\nvar body io.Reader = http.NoBody\n",
+	}
+	fileSet, astFiles := astFromStrings(filenameToContent)
+
+	info, errors := typeCheckAst(fileSet, astFiles, false, "", "", ".", GcExporter{}, 4)
+
+	assert.Empty(t, errors)
+	assert.Contains(t, describeObjects(info.Defs), "var server.client *net/http.Client")
+	assert.Contains(t, describeObjects(info.Defs), "var url.u *net/url.URL")
+	assert.Contains(t, describeObjects(info.Defs), "var json.decoder *encoding/json.Decoder")
+	assert.Contains(t, describeObjects(info.Defs), "var server_test.body io.Reader")
+}
+
 // This test simulates many packages resolving the same cross-module and unresolved-external imports
 // and asserts the tree is walked exactly once.
 func TestCrossModuleIndex_builtOncePerRun(t *testing.T) {
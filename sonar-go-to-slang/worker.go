@@ -0,0 +1,283 @@
+// SonarSource Go
+// Copyright (C) SonarSource Sàrl
+// mailto:info AT sonarsource DOT com
+//
+// You can redistribute and/or modify this program under the terms of
+// the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+// See the Sonar Source-Available License for more details.
+//
+// You should have received a copy of the Sonar Source-Available License
+// along with this program; if not, see https://sonarsource.com/license/ssal/
+
+package main
+
+import (
+	"bufio"
+	"encoding/binary"
+	"errors"
+	"fmt"
+	"go/token"
+	"io"
+	"os"
+	"strconv"
+	"strings"
+)
+
+const workerStatusOk byte = 0
+const workerStatusError byte = 1
+
+// Status of the responses carrying a single file, see workerParamStream
+const workerStatusFile byte = 2
+
+// Keys of the request parameters, sent by the Java side in the header of each request.
+const workerParamModuleName = "module_name"
+const workerParamModuleBaseDir = "module_base_dir"
+const workerParamGcExportDataDir = "gc_export_data_dir"
+const workerParamOutputFormat = "output_format"
+const workerParamStream = "stream"
+const workerParamParallelism = "parallelism"
+const workerParamCapabilities = "capabilities"
+
+// Values of the comma-separated "capabilities" parameter
+const capabilityControlFlowGraph = "control_flow_graph"
+
+// Values of the "output_format" parameter, the JSON format is kept for debugging
+const outputFormatJson = "json"
+const outputFormatBinary = "binary"
+
+type workerRequest struct {
+	params       map[string]string
+	files        map[string]string
+	contextFiles map[string]bool
+}
+
+// runWorker keeps the process alive and serves parse requests read from "in" until it is closed.
+// It avoids paying the process start-up cost for every analyzed directory.
+//
+// The byte format of a request is (little-endian):
+// P (4 bytes) number of parameters
+// P times: key length (4 bytes), key, value length (4 bytes), value
+// F (4 bytes) number of files
+// F times: file name length (4 bytes), file name, file content length (4 bytes), file content
+// The file name length of a context file is complemented, as in readBytesToFilenameContentMap: it is only type checked,
+// and it is not part of the response.
+//
+// The byte format of a response is:
+// S (1 byte) status, 0 for success and 1 for error
+// L (4 bytes) payload length
+// <payload> (L bytes) the JSON or binary document on success (see "output_format"), the error message otherwise
+//
+// When the "stream" parameter is "true", each file is written as soon as it is converted, in a response with the
+// workerStatusFile status, and the request ends with an empty workerStatusOk response, or a workerStatusError one.
+func runWorker(params Params, in io.Reader, out io.Writer) {
+	reader := bufio.NewReader(in)
+	writer := bufio.NewWriter(out)
+	for {
+		request, err := readWorkerRequest(reader)
+		if errors.Is(err, io.EOF) {
+			// The Java side closed stdin: this is the regular shutdown
+			return
+		}
+		if err != nil {
+			fmt.Fprintf(os.Stderr, "Error reading worker request: %v\n", err)
+			return
+		}
+		var emitFile func([]byte) error
+		if request.params[workerParamStream] == "true" {
+			emitFile = func(file []byte) error {
+				writeWorkerResponse(writer, workerStatusFile, file)
+				return writer.Flush()
+			}
+		}
+		payload, err := handleWorkerRequest(params, request, emitFile)
+		if err != nil {
+			writeWorkerResponse(writer, workerStatusError, []byte(err.Error()))
+		} else {
+			writeWorkerResponse(writer, workerStatusOk, payload)
+		}
+		if err = writer.Flush(); err != nil {
+			fmt.Fprintf(os.Stderr, "Error writing worker response: %v\n", err)
+			return
+		}
+	}
+}
+
+// handleWorkerRequest returns the document of all the files, or passes each file to "emitFile" when it is not nil
+func handleWorkerRequest(params Params, request *workerRequest, emitFile func([]byte) error) (payload []byte, err error) {
+	defer func() {
+		// A single faulty directory should not bring down the worker and all the next requests
+		if r := recover(); r != nil {
+			err = fmt.Errorf("panic while converting files: %v", r)
+		}
+	}()
+	moduleName := paramOrDefault(request.params, workerParamModuleName, params.moduleName)
+	moduleBaseDir := paramOrDefault(request.params, workerParamModuleBaseDir, params.moduleBaseDir)
+	gcExportDataDir := paramOrDefault(request.params, workerParamGcExportDataDir, params.gcExportDataDir)
+	outputFormat := paramOrDefault(request.params, workerParamOutputFormat, outputFormatJson)
+	parallelism := parallelismParamOrDefault(request.params, params.parallelism)
+	capabilities := capabilitiesParam(request.params)
+	if emitFile != nil && outputFormat != outputFormatBinary {
+		return nil, fmt.Errorf("streaming is not supported with the output format: %s", outputFormat)
+	}
+
+	fileSet := token.NewFileSet()
+	astFiles := readAstString(fileSet, request.files, parallelism)
+	gcExporter := GcExporter{}
+	// Ignoring errors at this point, they are reported before if needed
+	info, _ := typeCheckAst(fileSet, astFiles, params.debugTypeCheck, gcExportDataDir, moduleName, moduleBaseDir, gcExporter, parallelism)
+	astFiles = withoutContextFiles(astFiles, request.contextFiles)
+	switch {
+	case emitFile != nil:
+		err = toSlangBinaryPerFile(fileSet, astFiles, request.files, info, moduleName, capabilities, parallelism, emitFile)
+		if err != nil {
+			return nil, err
+		}
+	case outputFormat == outputFormatJson:
+		payload = []byte(toSlangJson(fileSet, astFiles, request.files, info, moduleName, capabilities, "", parallelism))
+	case outputFormat == outputFormatBinary:
+		payload = toSlangBinary(fileSet, astFiles, request.files, info, moduleName, capabilities, parallelism)
+	default:
+		return nil, fmt.Errorf("unsupported output format: %s", outputFormat)
+	}
+	gcExporter.PrintExportIssues()
+	return payload, nil
+}
+
+func paramOrDefault(params map[string]string, key string, defaultValue string) string {
+	if value, ok := params[key]; ok {
+		return value
+	}
+	return defaultValue
+}
+
+// parallelismParamOrDefault reads the "parallelism" parameter, e.g. lowered by the Java side when it already converts
+// several directories at the same time, so the CPUs are not over-subscribed
+func parallelismParamOrDefault(params map[string]string, defaultValue int) int {
+	if value, err := strconv.Atoi(params[workerParamParallelism]); err == nil && value > 0 {
+		return value
+	}
+	return parallelismOrDefault(defaultValue)
+}
+
+// capabilitiesParam reads the "capabilities" parameter, the names of the optional parts of the conversion requested by
+// the Java side. Everything is converted when it is absent.
+func capabilitiesParam(params map[string]string) conversionCapabilities {
+	value, ok := params[workerParamCapabilities]
+	if !ok {
+		return allCapabilities
+	}
+	capabilities := conversionCapabilities{}
+	for _, name := range strings.Split(value, ",") {
+		switch name {
+		case capabilityControlFlowGraph:
+			capabilities.controlFlowGraph = true
+		}
+	}
+	return capabilities
+}
+
+func readWorkerRequest(reader io.Reader) (*workerRequest, error) {
+	paramCount, err := readInt32(reader)
+	if err != nil {
+		// io.EOF is returned as is only when nothing of the request was read
+		return nil, err
+	}
+	params, err := readStringPairs(reader, paramCount)
+	if err != nil {
+		return nil, err
+	}
+	fileCount, err := readInt32(reader)
+	if err != nil {
+		return nil, unexpectedEof(err)
+	}
+	files, contextFiles, err := readFileRecords(reader, fileCount)
+	if err != nil {
+		return nil, err
+	}
+	return &workerRequest{params: params, files: files, contextFiles: contextFiles}, nil
+}
+
+func readFileRecords(reader io.Reader, count int32) (map[string]string, map[string]bool, error) {
+	files := make(map[string]string, count)
+	contextFiles := map[string]bool{}
+	for i := int32(0); i < count; i++ {
+		length, err := readInt32(reader)
+		if err != nil {
+			return nil, nil, unexpectedEof(err)
+		}
+		filenameLength, isContextFile := decodeFilenameLength(int(length))
+		filename, err := readString(reader, int32(filenameLength))
+		if err != nil {
+			return nil, nil, err
+		}
+		content, err := readSizedString(reader)
+		if err != nil {
+			return nil, nil, err
+		}
+		files[filename] = content
+		if isContextFile {
+			contextFiles[filename] = true
+		}
+	}
+	return files, contextFiles, nil
+}
+
+func readStringPairs(reader io.Reader, count int32) (map[string]string, error) {
+	result := make(map[string]string, count)
+	for i := int32(0); i < count; i++ {
+		key, err := readSizedString(reader)
+		if err != nil {
+			return nil, err
+		}
+		value, err := readSizedString(reader)
+		if err != nil {
+			return nil, err
+		}
+		result[key] = value
+	}
+	return result, nil
+}
+
+func readSizedString(reader io.Reader) (string, error) {
+	length, err := readInt32(reader)
+	if err != nil {
+		return "", unexpectedEof(err)
+	}
+	return readString(reader, length)
+}
+
+func readString(reader io.Reader, length int32) (string, error) {
+	if length < 0 {
+		return "", fmt.Errorf("invalid length: %d", length)
+	}
+	buf := make([]byte, length)
+	if _, err := io.ReadFull(reader, buf); err != nil {
+		return "", unexpectedEof(err)
+	}
+	return string(buf), nil
+}
+
+func readInt32(reader io.Reader) (int32, error) {
+	var value int32
+	err := binary.Read(reader, binary.LittleEndian, &value)
+	return value, err
+}
+
+func unexpectedEof(err error) error {
+	if errors.Is(err, io.EOF) {
+		return io.ErrUnexpectedEOF
+	}
+	return err
+}
+
+func writeWorkerResponse(writer io.Writer, status byte, payload []byte) {
+	header := make([]byte, 5)
+	header[0] = status
+	binary.LittleEndian.PutUint32(header[1:], uint32(len(payload)))
+	_, _ = writer.Write(header)
+	_, _ = writer.Write(payload)
+}
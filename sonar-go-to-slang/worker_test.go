@@ -0,0 +1,261 @@
+// SonarSource Go
+// Copyright (C) SonarSource Sàrl
+// mailto:info AT sonarsource DOT com
+//
+// You can redistribute and/or modify this program under the terms of
+// the Sonar Source-Available License Version 1, as published by SonarSource Sàrl.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+// See the Sonar Source-Available License for more details.
+//
+// You should have received a copy of the Sonar Source-Available License
+// along with this program; if not, see https://sonarsource.com/license/ssal/
+
+package main
+
+import (
+	"bytes"
+	"encoding/binary"
+	"io"
+	"testing"
+
+	"github.com/stretchr/testify/assert"
+)
+
+type workerResponse struct {
+	status  byte
+	payload string
+}
+
+func TestWorkerServesSeveralRequests(t *testing.T) {
+	var in bytes.Buffer
+	writeWorkerRequest(&in, map[string]string{workerParamModuleName: "example.com/foo"},
+		map[string]string{"foo.go": "package foo\nfunc foo() {}\n"})
+	writeWorkerRequest(&in, map[string]string{},
+		map[string]string{"bar.go": "package bar\nfunc bar() {}\n", "baz.go": "package bar\nfunc baz() {}\n"})
+	var out bytes.Buffer
+
+	runWorker(Params{moduleBaseDir: "."}, &in, &out)
+
+	responses := readWorkerResponses(t, &out)
+	assert.Len(t, responses, 2)
+	assert.Equal(t, workerStatusOk, responses[0].status)
+	assert.Contains(t, responses[0].payload, "\"foo.go\": {")
+	assert.NotContains(t, responses[0].payload, "bar.go")
+	assert.Equal(t, workerStatusOk, responses[1].status)
+	assert.Contains(t, responses[1].payload, "\"bar.go\": {")
+	assert.Contains(t, responses[1].payload, "\"baz.go\": {")
+}
+
+func TestWorkerReportsParseErrorInPayload(t *testing.T) {
+	var in bytes.Buffer
+	writeWorkerRequest(&in, map[string]string{}, map[string]string{"invalid.go": "xpackage foo"})
+	var out bytes.Buffer
+
+	runWorker(Params{moduleBaseDir: "."}, &in, &out)
+
+	responses := readWorkerResponses(t, &out)
+	assert.Len(t, responses, 1)
+	assert.Equal(t, workerStatusOk, responses[0].status)
+	assert.Contains(t, responses[0].payload, "\"error\": \"invalid.go:1:1: expected 'package', found xpackage\"")
+}
+
+func TestWorkerWritesBinaryOutputFormat(t *testing.T) {
+	var in bytes.Buffer
+	writeWorkerRequest(&in, map[string]string{workerParamOutputFormat: outputFormatBinary},
+		map[string]string{"foo.go": "package foo\nfunc foo() {}\n"})
+	var out bytes.Buffer
+
+	runWorker(Params{moduleBaseDir: "."}, &in, &out)
+
+	responses := readWorkerResponses(t, &out)
+	assert.Len(t, responses, 1)
+	assert.Equal(t, workerStatusOk, responses[0].status)
+	decoded := decodeBinarySlang(t, []byte(responses[0].payload)).(map[string]interface{})
+	assert.Contains(t, decoded, "foo.go")
+}
+
+func TestWorkerReportsUnsupportedOutputFormat(t *testing.T) {
+	var in bytes.Buffer
+	writeWorkerRequest(&in, map[string]string{workerParamOutputFormat: "xml"}, map[string]string{"foo.go": "package foo\n"})
+	var out bytes.Buffer
+
+	runWorker(Params{moduleBaseDir: "."}, &in, &out)
+
+	responses := readWorkerResponses(t, &out)
+	assert.Len(t, responses, 1)
+	assert.Equal(t, workerStatusError, responses[0].status)
+	assert.Equal(t, "unsupported output format: xml", responses[0].payload)
+}
+
+func TestWorkerStreamsOneResponsePerFile(t *testing.T) {
+	var in bytes.Buffer
+	writeWorkerRequest(&in, map[string]string{workerParamOutputFormat: outputFormatBinary, workerParamStream: "true"},
+		map[string]string{"foo.go": "package foo\nfunc foo() {}\n", "bar.go": "package foo\nfunc bar() {}\n"})
+	var out bytes.Buffer
+
+	runWorker(Params{moduleBaseDir: "."}, &in, &out)
+
+	responses := readWorkerResponses(t, &out)
+	assert.Len(t, responses, 3)
+	fileNames := map[string]bool{}
+	for _, response := range responses[:2] {
+		assert.Equal(t, workerStatusFile, response.status)
+		decoded := decodeBinarySlang(t, []byte(response.payload)).(map[string]interface{})
+		assert.Len(t, decoded, 1)
+		for fileName := range decoded {
+			fileNames[fileName] = true
+		}
+	}
+	assert.Equal(t, map[string]bool{"foo.go": true, "bar.go": true}, fileNames)
+	assert.Equal(t, workerStatusOk, responses[2].status)
+	assert.Equal(t, "", responses[2].payload)
+}
+
+func TestWorkerTypeChecksButDoesNotConvertContextFiles(t *testing.T) {
+	var in bytes.Buffer
+	writeStringPairs(&in, map[string]string{workerParamOutputFormat: outputFormatBinary})
+	writeBytes(&in, int32(2))
+	writeFileRecord(&in, "foo.go", "package foo\nvar foo = bar()\n", false)
+	writeFileRecord(&in, "bar.go", "package foo\nfunc bar() int { return 1 }\n", true)
+	var out bytes.Buffer
+
+	runWorker(Params{moduleBaseDir: "."}, &in, &out)
+
+	responses := readWorkerResponses(t, &out)
+	assert.Len(t, responses, 1)
+	assert.Equal(t, workerStatusOk, responses[0].status)
+	decoded := decodeBinarySlang(t, []byte(responses[0].payload)).(map[string]interface{})
+	assert.Len(t, decoded, 1)
+	assert.Contains(t, decoded, "foo.go")
+}
+
+func TestReadFileRecordsWithContextFiles(t *testing.T) {
+	var in bytes.Buffer
+	writeFileRecord(&in, "foo.go", "package foo", false)
+	writeFileRecord(&in, "bar.go", "package bar", true)
+
+	files, contextFiles, err := readFileRecords(&in, 2)
+
+	assert.NoError(t, err)
+	assert.Equal(t, map[string]string{"foo.go": "package foo", "bar.go": "package bar"}, files)
+	assert.Equal(t, map[string]bool{"bar.go": true}, contextFiles)
+}
+
+func TestReadBytesToFilenameContentMapWithContextFiles(t *testing.T) {
+	var in bytes.Buffer
+	writeFileRecord(&in, "foo.go", "package foo", true)
+	writeFileRecord(&in, "bar.go", "package bar", false)
+
+	files, contextFiles := readBytesToFilenameContentMap(in.Bytes())
+
+	assert.Equal(t, map[string]string{"foo.go": "package foo", "bar.go": "package bar"}, files)
+	assert.Equal(t, map[string]bool{"foo.go": true}, contextFiles)
+}
+
+func TestWorkerReportsStreamingWithJsonOutputFormat(t *testing.T) {
+	var in bytes.Buffer
+	writeWorkerRequest(&in, map[string]string{workerParamStream: "true"}, map[string]string{"foo.go": "package foo\n"})
+	var out bytes.Buffer
+
+	runWorker(Params{moduleBaseDir: "."}, &in, &out)
+
+	responses := readWorkerResponses(t, &out)
+	assert.Len(t, responses, 1)
+	assert.Equal(t, workerStatusError, responses[0].status)
+	assert.Equal(t, "streaming is not supported with the output format: json", responses[0].payload)
+}
+
+func TestWorkerStopsOnTruncatedRequest(t *testing.T) {
+	var in bytes.Buffer
+	writeWorkerRequest(&in, map[string]string{}, map[string]string{"foo.go": "package foo\n"})
+	truncated := bytes.NewBuffer(in.Bytes()[:in.Len()-3])
+	var out bytes.Buffer
+
+	captureStdOutAndStdErr()
+	runWorker(Params{moduleBaseDir: "."}, truncated, &out)
+	_, stderr := getStdOutAndStdErr()
+
+	assert.Equal(t, 0, out.Len())
+	assert.Contains(t, stderr, "Error reading worker request: unexpected EOF")
+}
+
+func TestWorkerOnlyConvertsTheRequestedCapabilities(t *testing.T) {
+	files := map[string]string{"foo.go": "package foo\nvar x int = 1\nfunc foo() { x++ }\n"}
+	var in bytes.Buffer
+	writeWorkerRequest(&in, map[string]string{}, files)
+	writeWorkerRequest(&in, map[string]string{workerParamCapabilities: ""}, files)
+	var out bytes.Buffer
+
+	runWorker(Params{moduleBaseDir: "."}, &in, &out)
+
+	responses := readWorkerResponses(t, &out)
+	assert.Len(t, responses, 2)
+	everything := responses[0].payload
+	assert.Contains(t, everything, "\"__cfgId\":")
+	assert.Contains(t, everything, "\"cfg\":{\"Blocks\":")
+	assert.Contains(t, everything, "\"type\":\"int\"")
+
+	// The packages are always type checked
+	withoutCfg := responses[1].payload
+	assert.NotContains(t, withoutCfg, "\"__cfgId\":")
+	assert.Contains(t, withoutCfg, "\"cfg\":null")
+	assert.Contains(t, withoutCfg, "\"type\":\"int\"")
+}
+
+func TestCapabilitiesParam(t *testing.T) {
+	assert.Equal(t, allCapabilities, capabilitiesParam(map[string]string{}))
+	assert.Equal(t, conversionCapabilities{}, capabilitiesParam(map[string]string{workerParamCapabilities: ""}))
+	assert.Equal(t, conversionCapabilities{controlFlowGraph: true},
+		capabilitiesParam(map[string]string{workerParamCapabilities: capabilityControlFlowGraph}))
+	assert.Equal(t, allCapabilities,
+		capabilitiesParam(map[string]string{workerParamCapabilities: "type_information,control_flow_graph,unknown"}))
+}
+
+func TestParamOrDefault(t *testing.T) {
+	params := map[string]string{workerParamModuleName: "foo"}
+	assert.Equal(t, "foo", paramOrDefault(params, workerParamModuleName, "bar"))
+	assert.Equal(t, "bar", paramOrDefault(params, workerParamModuleBaseDir, "bar"))
+}
+
+func writeWorkerRequest(buf *bytes.Buffer, params map[string]string, files map[string]string) {
+	writeStringPairs(buf, params)
+	writeStringPairs(buf, files)
+}
+
+func writeStringPairs(buf *bytes.Buffer, pairs map[string]string) {
+	writeBytes(buf, int32(len(pairs)))
+	for key, value := range pairs {
+		writeBytes(buf, int32(len(key)))
+		writeBytes(buf, []byte(key))
+		writeBytes(buf, int32(len(value)))
+		writeBytes(buf, []byte(value))
+	}
+}
+
+func writeFileRecord(buf *bytes.Buffer, fileName string, content string, isContextFile bool) {
+	nameLength := int32(len(fileName))
+	if isContextFile {
+		nameLength = ^nameLength
+	}
+	writeBytes(buf, nameLength)
+	writeBytes(buf, []byte(fileName))
+	writeBytes(buf, int32(len(content)))
+	writeBytes(buf, []byte(content))
+}
+
+func readWorkerResponses(t *testing.T, reader io.Reader) []workerResponse {
+	var responses []workerResponse
+	for {
+		header := make([]byte, 5)
+		if _, err := io.ReadFull(reader, header); err != nil {
+			return responses
+		}
+		payload := make([]byte, binary.LittleEndian.Uint32(header[1:]))
+		_, err := io.ReadFull(reader, payload)
+		assert.NoError(t, err)
+		responses = append(responses, workerResponse{status: header[0], payload: string(payload)})
+	}
+}